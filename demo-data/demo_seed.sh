@@ -19,3 +19,5 @@ mv input.sql ${DIRECTORY}
 echo "Generated ${DIRECTORY}/input.sql"
 echo "To insert the data into database, first run the service, and then from outside of container type:"
 echo "docker exec -i openlmisreferencedata_db_1 psql -Upostgres open_lmis < demo-data/input.sql"
+echo "Alternatively, POST each file to the running service at /api/imports/<table name without schema>,"
+echo "in the order given by GET /api/imports."
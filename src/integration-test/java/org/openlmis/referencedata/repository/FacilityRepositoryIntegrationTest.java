@@ -1,6 +1,8 @@
 package org.openlmis.referencedata.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -8,6 +10,7 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.util.FacilitySearchResult;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
@@ -99,6 +102,70 @@ public class FacilityRepositoryIntegrationTest extends BaseCrudRepositoryIntegra
     assertEquals(facility.getName(), foundFacilties.get(0).getName());
   }
 
+  @Test
+  public void shouldFindFacilitiesByNameOnlyWhenCodeIsNull() {
+    Facility facility = generateInstance();
+    facility.setName("Balaka District Hospital");
+    repository.save(facility);
+    Facility facility1 = generateInstance();
+    facility1.setName("Lilongwe Central Warehouse");
+    repository.save(facility1);
+
+    List<Facility> foundFacilties = repository.findFacilitiesByCodeOrName(null, "Balaka");
+
+    assertEquals(1, foundFacilties.size());
+    assertEquals(facility.getCode(), foundFacilties.get(0).getCode());
+  }
+
+  @Test
+  public void shouldSearchFacilitiesBySimilarityIgnoringTypos() {
+    Facility facility = generateInstance();
+    facility.setName("Balaka District Hospital");
+    repository.save(facility);
+    Facility facility1 = generateInstance();
+    facility1.setName("Lilongwe Central Warehouse");
+    repository.save(facility1);
+
+    List<FacilitySearchResult> results = repository.searchFacilities("balaka distrct", 10, 0);
+
+    assertEquals(1, results.size());
+    assertEquals(facility.getCode(), results.get(0).getFacility().getCode());
+    assertTrue(results.get(0).getScore() > 0);
+    assertEquals(1, results.get(0).getNameHighlights().size());
+  }
+
+  @Test
+  public void shouldRankMostSimilarFacilitiesFirst() {
+    Facility facility = generateInstance();
+    facility.setName("Balaka District Hospital Annex");
+    repository.save(facility);
+    Facility facility1 = generateInstance();
+    facility1.setName("Balaka District Hospital");
+    repository.save(facility1);
+
+    List<FacilitySearchResult> results =
+        repository.searchFacilities("Balaka District Hospital", 10, 0);
+
+    assertEquals(2, results.size());
+    assertEquals(facility1.getCode(), results.get(0).getFacility().getCode());
+    assertTrue(results.get(0).getScore() > results.get(1).getScore());
+  }
+
+  @Test
+  public void shouldLimitFacilitySearchResults() {
+    for (int i = 0; i < 5; i++) {
+      repository.save(generateInstance());
+    }
+
+    List<FacilitySearchResult> firstPage = repository.searchFacilities("Facility", 2, 0);
+    List<FacilitySearchResult> secondPage = repository.searchFacilities("Facility", 2, 2);
+
+    assertEquals(2, firstPage.size());
+    assertEquals(2, secondPage.size());
+    assertNotEquals(firstPage.get(0).getFacility().getId(),
+        secondPage.get(0).getFacility().getId());
+  }
+
   @Test
   public void shouldNotFindAnyFacilityForIncorrectCodeAndName() {
     Facility facility = generateInstance();
@@ -1,14 +1,31 @@
 package org.openlmis.referencedata.repository;
 
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Before;
+import org.junit.Test;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.RequisitionGroup;
+import org.openlmis.referencedata.domain.Right;
+import org.openlmis.referencedata.domain.RightType;
+import org.openlmis.referencedata.domain.Role;
+import org.openlmis.referencedata.domain.SupervisionRoleAssignment;
 import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserBuilder;
+import org.openlmis.referencedata.exception.RightTypeException;
+import org.openlmis.referencedata.exception.RoleException;
+import org.openlmis.referencedata.service.SupervisoryNodeHierarchyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 public class SupervisoryNodeRepositoryIntegrationTest extends
@@ -28,6 +45,24 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
   @Autowired
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Autowired
+  private RequisitionGroupRepository requisitionGroupRepository;
+
+  @Autowired
+  private RightRepository rightRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private SupervisoryNodeHierarchyService hierarchyService;
+
   private Facility facility;
 
   @Override
@@ -66,4 +101,72 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
     int instanceNumber = this.getNextInstanceNumber();
     return SupervisoryNode.newSupervisoryNode("Code #" + instanceNumber, facility);
   }
+
+  @Test
+  public void shouldFindDescendantsAndSupervisedFacilities() {
+    SupervisoryNode provinceNode = saveNode(generateInstance());
+    SupervisoryNode districtNode = generateInstance();
+    districtNode.assignParentNode(provinceNode);
+    districtNode = saveNode(districtNode);
+
+    RequisitionGroup districtGroup = new RequisitionGroup("RG1", "RGN1", districtNode);
+    districtGroup.setMemberFacilities(singletonList(facility));
+    requisitionGroupRepository.save(districtGroup);
+
+    assertEquals(singletonList(districtNode),
+        supervisoryNodeRepository.findDescendants(provinceNode.getId()));
+    assertEquals(singletonList(facility),
+        supervisoryNodeRepository.findSupervisedFacilities(provinceNode.getId()));
+  }
+
+  @Test
+  public void shouldFindFacilitiesSupervisedByUser() throws RightTypeException, RoleException {
+    SupervisoryNode provinceNode = saveNode(generateInstance());
+    SupervisoryNode districtNode = generateInstance();
+    districtNode.assignParentNode(provinceNode);
+    districtNode = saveNode(districtNode);
+
+    RequisitionGroup districtGroup = new RequisitionGroup("RG1", "RGN1", districtNode);
+    districtGroup.setMemberFacilities(singletonList(facility));
+    requisitionGroupRepository.save(districtGroup);
+
+    Right right = rightRepository.save(Right.newRight("right", RightType.SUPERVISION));
+    Role role = roleRepository.save(Role.newRole("role", right));
+    Program program = programRepository.save(new Program("program"));
+    User user = new UserBuilder("user", "Test", "User", "user@mail.com")
+        .setTimezone("UTC")
+        .setActive(true)
+        .setVerified(true)
+        .createUser();
+    user.assignRoles(new SupervisionRoleAssignment(role, program, provinceNode));
+    user = userRepository.save(user);
+
+    assertEquals(singletonList(facility),
+        supervisoryNodeRepository.findUserSupervisedFacilities(user.getId()));
+  }
+
+  @Test
+  public void shouldMoveSubtreeWhenParentChanges() {
+    SupervisoryNode provinceNode = saveNode(generateInstance());
+    SupervisoryNode otherProvinceNode = saveNode(generateInstance());
+    SupervisoryNode districtNode = generateInstance();
+    districtNode.assignParentNode(provinceNode);
+    districtNode = saveNode(districtNode);
+    SupervisoryNode subDistrictNode = generateInstance();
+    subDistrictNode.assignParentNode(districtNode);
+    subDistrictNode = saveNode(subDistrictNode);
+
+    districtNode.assignParentNode(otherProvinceNode);
+    saveNode(districtNode);
+
+    assertTrue(supervisoryNodeRepository.findDescendants(provinceNode.getId()).isEmpty());
+    assertEquals(Arrays.asList(districtNode, subDistrictNode),
+        supervisoryNodeRepository.findDescendants(otherProvinceNode.getId()));
+  }
+
+  private SupervisoryNode saveNode(SupervisoryNode supervisoryNode) {
+    SupervisoryNode savedNode = supervisoryNodeRepository.save(supervisoryNode);
+    hierarchyService.nodeSaved(savedNode);
+    return savedNode;
+  }
 }
@@ -1,5 +1,7 @@
 package org.openlmis.referencedata.repository;
 
+import static java.util.stream.Collectors.toList;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -10,6 +12,7 @@ import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.domain.UserBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -122,6 +125,47 @@ public class UserRepositoryIntegrationTest extends BaseCrudRepositoryIntegration
     }
   }
 
+  @Test
+  public void testSearchUsersByPrefixIgnoringCase() {
+    User user = users.get(0);
+    String usernamePrefix = user.getUsername().substring(0, 2).toUpperCase();
+
+    List<User> receivedUsers = repository.searchUsers(
+        usernamePrefix, "TE", null, null, null, null, true, null);
+
+    Assert.assertEquals(users.size(), receivedUsers.size());
+  }
+
+  @Test
+  public void testSearchUsersByPage() {
+    List<String> usernames = users.stream().map(User::getUsername).sorted().collect(toList());
+
+    List<User> receivedUsers = repository.searchUsers(
+        "user", null, null, null, null, null, true, new PageRequest(1, 2));
+
+    Assert.assertEquals(2, receivedUsers.size());
+    Assert.assertEquals(usernames.get(2), receivedUsers.get(0).getUsername());
+  }
+
+  @Test
+  public void testSearchUsersTreatsWildcardsLiterally() {
+    List<User> receivedUsers = repository.searchUsers(
+        "user%", null, null, null, null, null, true, null);
+
+    Assert.assertEquals(0, receivedUsers.size());
+  }
+
+  @Test
+  public void testSearchUsersMatchesExactlyByDefault() {
+    User user = users.get(0);
+    String usernamePrefix = user.getUsername().substring(0, 2);
+
+    List<User> receivedUsers = repository.searchUsers(
+        usernamePrefix, null, null, null, null, null, false, null);
+
+    Assert.assertEquals(0, receivedUsers.size());
+  }
+
   private User cloneUser(User user) {
     int instanceNumber = this.getNextInstanceNumber();
     User clonedUser = new UserBuilder(user.getUsername() + instanceNumber,
@@ -0,0 +1,59 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.referencedata.Application;
+import org.openlmis.referencedata.domain.Code;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.service.BulkImportService.ImportResult;
+import org.openlmis.referencedata.util.CsvRowReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(Application.class)
+@Transactional
+public class BulkImportServiceIntegrationTest {
+
+  @Autowired
+  private BulkImportService bulkImportService;
+
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Test
+  public void shouldOnlyUpdateColumnsGivenByRow() throws IOException {
+    Program program = new Program("P1");
+    program.setName("Program 1");
+    program.setDescription("Description");
+    program.setPeriodsSkippable(true);
+    program = programRepository.save(program);
+    entityManager.flush();
+
+    ImportResult result = bulkImportService.importRows("programs", new CsvRowReader(
+        new StringReader("id,name,description\n" + program.getId() + ",Renamed,\n")));
+    entityManager.clear();
+    Program updated = programRepository.findOne(program.getId());
+
+    assertEquals(1, result.getUpdated());
+    assertEquals("Renamed", updated.getName());
+    assertEquals("Description", updated.getDescription());
+    assertEquals(Code.code("P1"), updated.getCode());
+    assertTrue(updated.getPeriodsSkippable());
+  }
+}
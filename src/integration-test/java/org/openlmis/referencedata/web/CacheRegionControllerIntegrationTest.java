@@ -0,0 +1,95 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import com.jayway.restassured.path.json.JsonPath;
+
+import org.junit.Test;
+import org.openlmis.referencedata.service.SecondLevelCacheService;
+import org.openlmis.referencedata.service.SecondLevelCacheService.RegionStatistics;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.util.Collections;
+
+public class CacheRegionControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/cacheRegions";
+  private static final String ACCESS_TOKEN = "access_token";
+  private static final String NAME = "name";
+  private static final String REGION_NAME = "org.openlmis.referencedata.domain.Program";
+
+  @MockBean
+  private SecondLevelCacheService secondLevelCacheService;
+
+  @Test
+  public void shouldGetCacheRegions() {
+    given(secondLevelCacheService.getRegionStatistics()).willReturn(
+        Collections.singletonList(new RegionStatistics(REGION_NAME, 3, 10, 2, 2, 2)));
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals(REGION_NAME, response.getString("[0].name"));
+    assertEquals(3, response.getInt("[0].version"));
+    assertEquals(10, response.getInt("[0].hits"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldEvictCacheRegion() {
+    given(secondLevelCacheService.evictRegion(REGION_NAME)).willReturn(true);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam(NAME, REGION_NAME)
+        .when()
+        .delete(RESOURCE_URL)
+        .then()
+        .statusCode(204);
+
+    verify(secondLevelCacheService).evictRegion(REGION_NAME);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldEvictAllCacheRegions() {
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .delete(RESOURCE_URL)
+        .then()
+        .statusCode(204);
+
+    verify(secondLevelCacheService).evictAllRegions();
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotEvictNonExistingCacheRegion() {
+    given(secondLevelCacheService.evictRegion("unknown")).willReturn(false);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam(NAME, "unknown")
+        .when()
+        .delete(RESOURCE_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
@@ -0,0 +1,74 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+
+import com.jayway.restassured.path.json.JsonPath;
+
+import org.junit.Test;
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.repository.ChangeEventRepository;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+
+public class ChangeEventControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/changeEvents";
+  private static final String ACCESS_TOKEN = "access_token";
+
+  @MockBean
+  private ChangeEventRepository changeEventRepository;
+
+  @Test
+  public void shouldGetChangeEventsAfterOffset() {
+    UUID facilityId = UUID.randomUUID();
+    given(changeEventRepository.findByIdGreaterThanOrderById(eq(41L), any(Pageable.class)))
+        .willReturn(Collections.singletonList(new ChangeEvent(42L, "Facility", facilityId,
+            Operation.UPDATE, LocalDateTime.of(2016, 10, 1, 12, 0))));
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("after", 41)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals(42, response.getInt("[0].id"));
+    assertEquals(facilityId.toString(), response.getString("[0].entityId"));
+    assertEquals("UPDATE", response.getString("[0].operation"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnNoChangeEventsIfNoneWithinWaitTime() {
+    given(changeEventRepository.findByIdGreaterThanOrderById(eq(42L), any(Pageable.class)))
+        .willReturn(Collections.emptyList());
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("after", 42)
+        .queryParam("wait", 1)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals(0, response.getList("").size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
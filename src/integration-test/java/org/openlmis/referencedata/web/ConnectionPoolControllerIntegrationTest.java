@@ -0,0 +1,34 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.jayway.restassured.path.json.JsonPath;
+
+import org.junit.Test;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+public class ConnectionPoolControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/connectionPool";
+  private static final String ACCESS_TOKEN = "access_token";
+
+  @Test
+  public void shouldGetConnectionPoolStatistics() {
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals("referencedata", response.getString("poolName"));
+    assertTrue(response.getInt("totalConnections") > 0);
+    assertTrue(response.getLong("acquisition.count") > 0);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
@@ -19,8 +19,11 @@ import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.service.SupplyLineService;
+import org.openlmis.referencedata.util.FacilitySearchResult;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import com.jayway.restassured.path.json.JsonPath;
+
 import guru.nidi.ramltester.junit.RamlMatchers;
 
 import java.util.ArrayList;
@@ -37,6 +40,9 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   private static final String SUPPLYING_URL = RESOURCE_URL + "/supplying";
   private static final String FIND_FACILITIES_WITH_SIMILAR_CODE_OR_NAME =
       RESOURCE_URL + "/search";
+  private static final String FUZZY_SEARCH_URL = RESOURCE_URL + "/fuzzySearch";
+  private static final String QUERY = "query";
+  private static final String LIMIT = "limit";
 
   @MockBean
   private FacilityRepository facilityRepository;
@@ -210,6 +216,43 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     assertEquals(0, facilities.size());
   }
 
+  @Test
+  public void shouldFuzzySearchFacilities() {
+    Facility generatedFacility = generateFacility();
+    generatedFacility.setId(UUID.randomUUID());
+    String query = "facilityname";
+    given(facilityRepository.searchFacilities(query, 10, 0))
+        .willReturn(Arrays.asList(FacilitySearchResult.of(generatedFacility, 0.8f, query)));
+
+    JsonPath response = restAssured.given()
+        .queryParam(QUERY, query)
+        .queryParam(LIMIT, 10)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(FUZZY_SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals(1, response.getList("").size());
+    assertEquals(generatedFacility.getCode(), response.getString("[0].facility.code"));
+    assertEquals(1, response.getList("[0].nameHighlights").size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectFuzzySearchWithTooHighLimit() {
+    restAssured.given()
+        .queryParam(QUERY, "facility")
+        .queryParam(LIMIT, 1000)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(FUZZY_SEARCH_URL)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
 
   private SupplyLine generateSupplyLine() {
     SupplyLine supplyLine = new SupplyLine();
@@ -3,6 +3,7 @@ package org.openlmis.referencedata.web;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -17,6 +18,7 @@ import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.ProgramProduct;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
@@ -141,7 +143,8 @@ public class FacilityTypeApprovedProductControllerIntegrationTest extends BaseWe
     List<FacilityTypeApprovedProduct> storedFacilityTypeApprovedProducts = Arrays.asList(
         facilityTypeAppProd, another);
 
-    given(repository.findAll()).willReturn(storedFacilityTypeApprovedProducts);
+    given(repository.findAllBy(any(Pageable.class)))
+        .willReturn(storedFacilityTypeApprovedProducts);
 
     Object[] response = restAssured
         .given()
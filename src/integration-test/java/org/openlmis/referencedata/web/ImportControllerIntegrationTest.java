@@ -0,0 +1,94 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+
+import com.jayway.restassured.path.json.JsonPath;
+
+import org.junit.Test;
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+import org.openlmis.referencedata.exception.CsvInputNotValidException.RowError;
+import org.openlmis.referencedata.service.BulkImportService;
+import org.openlmis.referencedata.service.BulkImportService.ImportResult;
+import org.openlmis.referencedata.util.RowReader;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class ImportControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/imports/{table}";
+  private static final String ACCESS_TOKEN = "access_token";
+  private static final String PROGRAMS = "programs";
+  private static final String TEXT_CSV = "text/csv";
+
+  @MockBean
+  private BulkImportService bulkImportService;
+
+  @Test
+  public void shouldImportCsvRows() throws IOException {
+    given(bulkImportService.importRows(eq(PROGRAMS), any(RowReader.class)))
+        .willReturn(new ImportResult(PROGRAMS, 2, 1, 1));
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(TEXT_CSV)
+        .pathParam("table", PROGRAMS)
+        .body("code,name\nP1,First\nP2,Second\n")
+        .when()
+        .post(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals(2, response.getInt("rows"));
+    assertEquals(1, response.getInt("inserted"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnRowErrors() throws IOException {
+    given(bulkImportService.importRows(eq(PROGRAMS), any(RowReader.class)))
+        .willThrow(new CsvInputNotValidException("Rows of programs are not valid",
+            Collections.singletonList(new RowError(2, "code", "code is required"))));
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(TEXT_CSV)
+        .pathParam("table", PROGRAMS)
+        .body("code,name\nP1,First\n,Second\n")
+        .when()
+        .post(RESOURCE_URL)
+        .then()
+        .statusCode(400)
+        .extract().jsonPath();
+
+    assertEquals(2, response.getInt("rowErrors[0].row"));
+    assertEquals("code", response.getString("rowErrors[0].column"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotImportUnknownTable() {
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(TEXT_CSV)
+        .pathParam("table", "change_events")
+        .body("id\n1\n")
+        .when()
+        .post(RESOURCE_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
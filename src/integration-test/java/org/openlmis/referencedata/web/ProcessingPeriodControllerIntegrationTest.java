@@ -23,10 +23,12 @@ import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.service.ProcessingPeriodService;
 import org.openlmis.referencedata.validate.ProcessingPeriodValidator;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.validation.Errors;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -273,7 +275,8 @@ public class ProcessingPeriodControllerIntegrationTest extends BaseWebIntegratio
   public void shouldGetAllPeriods() {
 
     Set<ProcessingPeriod> storedPeriods = Sets.newHashSet(firstPeriod, secondPeriod);
-    given(periodRepository.findAll()).willReturn(storedPeriods);
+    given(periodRepository.findAllBy(any(Pageable.class)))
+        .willReturn(new ArrayList<>(storedPeriods));
 
     ProcessingPeriodDto[] response = restAssured.given()
           .queryParam(ACCESS_TOKEN, getToken())
@@ -1,19 +1,32 @@
 package org.openlmis.referencedata.web;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.junit.Test;
 import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.Tombstone;
 import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.util.ChangeFeed;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import com.jayway.restassured.path.json.JsonPath;
+
 import guru.nidi.ramltester.junit.RamlMatchers;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +40,9 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
   @MockBean
   private ProgramRepository programRepository;
 
+  @MockBean
+  private ChangeFeedService changeFeedService;
+
   private Program program;
   private UUID programId;
 
@@ -75,6 +91,35 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldGetProgramChangesSinceGivenTime() {
+
+    LocalDateTime changedSince = LocalDateTime.of(2016, 10, 1, 12, 0);
+    UUID deletedId = UUID.randomUUID();
+    given(changeFeedService.getChanges(Program.class, changedSince)).willReturn(
+        new ChangeFeed<>(LocalDateTime.of(2016, 10, 2, 8, 30),
+            Collections.singletonList(program), Collections.singletonList(
+                new Tombstone(deletedId, "programs", LocalDateTime.of(2016, 10, 1, 13, 0)))));
+
+    JsonPath response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("changedSince", "2016-10-01T12:00:00")
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().jsonPath();
+
+    assertEquals("2016-10-02T08:30:00", response.getString("syncTime"));
+    assertEquals(program.getCode().toString(), response.getString("upserts[0].code"));
+    assertEquals(1, response.getList("upserts").size());
+    assertEquals(deletedId.toString(), response.getString("deletions[0].id"));
+    assertEquals("2016-10-01T13:00:00", response.getString("deletions[0].deletedDate"));
+    verify(programRepository, never()).findAll();
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldPutProgram() {
 
@@ -98,6 +143,28 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotPutProgramIfVersionDoesNotMatch() {
+
+    program.setVersion(2);
+    given(programRepository.findOne(programId)).willReturn(program);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .header(HttpHeaders.IF_MATCH, "\"1\"")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", programId)
+        .body(program)
+        .when()
+        .put(ID_URL)
+        .then()
+        .statusCode(412);
+
+    verify(programRepository, never()).save(any(Program.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldGetAllPrograms() {
 
@@ -118,6 +185,36 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotGetAllProgramsIfNotModified() {
+
+    given(programRepository.findAll()).willReturn(Arrays.asList(program, new Program("P2")));
+
+    String etag = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().header(HttpHeaders.ETAG);
+
+    assertNotNull(etag);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(304)
+        .header(HttpHeaders.ETAG, etag);
+
+    verify(programRepository, times(1)).findAll();
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldGetProgram() {
 
@@ -180,4 +277,5 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     assertEquals(0, foundProgram.size());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
+
 }
@@ -3,7 +3,9 @@ package org.openlmis.referencedata.web;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityOperator;
@@ -12,7 +14,9 @@ import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.openlmis.referencedata.service.SupervisoryNodeHierarchyService;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
@@ -25,11 +29,16 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
   private static final String RESOURCE_URL = "/api/supervisoryNodes";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
+  private static final String DESCENDANTS_URL = ID_URL + "/descendants";
+  private static final String SUPERVISED_FACILITIES_URL = ID_URL + "/supervisedFacilities";
   private static final String ACCESS_TOKEN = "access_token";
 
   @MockBean
   private SupervisoryNodeRepository repository;
 
+  @MockBean
+  private SupervisoryNodeHierarchyService hierarchyService;
+
   private SupervisoryNode supervisoryNode;
   private UUID supervisoryNodeId;
 
@@ -56,6 +65,76 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
     supervisoryNodeId = UUID.randomUUID();
   }
 
+  @Before
+  public void setUp() {
+    given(hierarchyService.save(any(SupervisoryNode.class)))
+        .willAnswer(invocation -> invocation.getArguments()[0]);
+  }
+
+  @Test
+  public void shouldGetDescendantSupervisoryNodes() {
+
+    SupervisoryNode childNode = SupervisoryNode.newSupervisoryNode("SN2", new Facility("F2"));
+    given(repository.findOne(supervisoryNodeId)).willReturn(supervisoryNode);
+    given(repository.findDescendants(supervisoryNodeId)).willReturn(Arrays.asList(childNode));
+
+    SupervisoryNode[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", supervisoryNodeId)
+        .when()
+        .get(DESCENDANTS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(SupervisoryNode[].class);
+
+    assertEquals(1, response.length);
+    assertEquals(childNode, response[0]);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldGetSupervisedFacilities() {
+
+    given(repository.findOne(supervisoryNodeId)).willReturn(supervisoryNode);
+    given(repository.findSupervisedFacilities(supervisoryNodeId))
+        .willReturn(Arrays.asList(supervisoryNode.getFacility()));
+
+    Facility[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", supervisoryNodeId)
+        .when()
+        .get(SUPERVISED_FACILITIES_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Facility[].class);
+
+    assertEquals(1, response.length);
+    assertEquals(supervisoryNode.getFacility(), response[0]);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotGetDescendantsOfNonExistingSupervisoryNode() {
+
+    given(repository.findOne(supervisoryNodeId)).willReturn(null);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", supervisoryNodeId)
+        .when()
+        .get(DESCENDANTS_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldDeleteSupervisoryNode() {
 
@@ -120,7 +199,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
 
     List<SupervisoryNode> storedSupervisoryNodes = Arrays.asList(supervisoryNode,
         SupervisoryNode.newSupervisoryNode("SN2", new Facility("F2")));
-    given(repository.findAll()).willReturn(storedSupervisoryNodes);
+    given(repository.findAllBy(any(Pageable.class))).willReturn(storedSupervisoryNodes);
 
     SupervisoryNode[] response = restAssured
         .given()
@@ -9,8 +9,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
-
-import com.google.common.collect.Sets;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -48,7 +48,11 @@ import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.util.AuthUserRequest;
 import org.openlmis.referencedata.util.PasswordChangeRequest;
 import org.openlmis.referencedata.util.PasswordResetRequest;
+import org.openlmis.referencedata.util.RightCheckRequest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestTemplate;
 
@@ -57,7 +61,6 @@ import guru.nidi.ramltester.junit.RamlMatchers;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 @SuppressWarnings({"PMD.TooManyMethods","PMD.UnusedPrivateField"})
@@ -67,6 +70,7 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
   private static final String SEARCH_URL = RESOURCE_URL + "/search";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
   private static final String HAS_RIGHT_URL = ID_URL + "/hasRight";
+  private static final String HAS_RIGHTS_URL = RESOURCE_URL + "/hasRights";
   private static final String PROGRAMS_URL = ID_URL + "/programs";
   private static final String SUPERVISED_FACILITIES_URL = ID_URL + "/supervisedFacilities";
   private static final String RESET_PASSWORD_URL = RESOURCE_URL + "/passwordReset";
@@ -149,8 +153,8 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
   @Test
   public void shouldGetAllUsers() {
 
-    Set<User> storedUsers = Sets.newHashSet(user1, generateUser());
-    given(userRepository.findAll()).willReturn(storedUsers);
+    List<User> storedUsers = Arrays.asList(user1, generateUser());
+    given(userRepository.findAll(any(Sort.class))).willReturn(storedUsers);
 
     UserDto[] response = restAssured
         .given()
@@ -166,6 +170,29 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldGetPageOfUsers() {
+
+    List<User> storedUsers = Arrays.asList(user1, generateUser());
+    given(userRepository.findAll(any(Pageable.class))).willAnswer(invocation ->
+        new PageImpl<>(storedUsers, (Pageable) invocation.getArguments()[0], 5));
+
+    Integer totalElements = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("page", 0)
+        .queryParam("size", 2)
+        .queryParam("sort", "lastName,desc")
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().path("totalElements");
+
+    assertThat(totalElements, is(5));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldGetUser() {
 
@@ -260,6 +287,32 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldCheckManyRightsInOneCall() {
+
+    given(userRepository.findOne(userId)).willReturn(user1);
+    List<RightCheckRequest> rightChecks = Arrays.asList(
+        new RightCheckRequest(userId, SUPERVISION_RIGHT_NAME, PROGRAM2_CODE,
+            SUPERVISORY_NODE_CODE, null),
+        new RightCheckRequest(userId, SUPERVISION_RIGHT_NAME, PROGRAM1_CODE,
+            SUPERVISORY_NODE_CODE, null));
+
+    Boolean[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(rightChecks)
+        .when()
+        .post(HAS_RIGHTS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Boolean[].class);
+
+    assertEquals(2, response.length);
+    assertTrue(response[0]);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldGetUserPrograms() throws RightTypeException {
 
@@ -281,9 +334,11 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
   }
 
   @Test
-  public void shouldGetUserSupervisedFacilities() throws RightTypeException {
+  public void shouldGetUserSupervisedFacilities() {
 
     given(userRepository.findOne(userId)).willReturn(user1);
+    given(supervisoryNodeRepository.findUserSupervisedFacilities(userId))
+        .willReturn(supervisoryNode.getRequisitionGroup().getMemberFacilities());
 
     Facility[] response = restAssured
         .given()
@@ -303,8 +358,9 @@ public class UserControllerIntegrationTest extends BaseWebIntegrationTest {
   @Test
   public void shouldFindUsers() {
 
-    given(userService.searchUsers(user1.getUsername(), user1.getFirstName(), user1.getLastName(),
-        user1.getHomeFacility(), user1.isActive(), user1.isVerified()))
+    given(userService.searchUsers(eq(user1.getUsername()), eq(user1.getFirstName()),
+        eq(user1.getLastName()), eq(user1.getHomeFacility()), eq(user1.isActive()),
+        eq(user1.isVerified()), eq(false), any(Pageable.class)))
         .willReturn(singletonList(user1));
 
     UserDto[] response = restAssured
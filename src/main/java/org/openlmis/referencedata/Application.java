@@ -8,16 +8,19 @@ import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import org.openlmis.referencedata.domain.ProgramProductBuilder;
+import org.openlmis.referencedata.domain.SupervisoryNodeTraversal;
 import org.openlmis.referencedata.i18n.ExposedMessageSourceImpl;
 import org.openlmis.referencedata.repository.ProductCategoryRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.validate.ProcessingPeriodValidator;
 import org.openlmis.referencedata.web.ProgramProductBuilderDeserializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ImportResource;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 
@@ -26,6 +29,7 @@ import java.util.Objects;
 
 @SpringBootApplication(scanBasePackages = "org.openlmis")
 @ImportResource("applicationContext.xml")
+@EnableScheduling
 public class Application {
 
   @Autowired
@@ -65,6 +69,18 @@ public class Application {
     return messageSource;
   }
 
+  /**
+   * Creates the supervisory node traversal used by services and controllers.
+   *
+   * @param maxDepth maximum number of hierarchy levels to follow
+   * @return Created SupervisoryNodeTraversal.
+   */
+  @Bean
+  public SupervisoryNodeTraversal supervisoryNodeTraversal(
+      @Value("${supervisoryNodes.maxDepth}") int maxDepth) {
+    return new SupervisoryNodeTraversal(maxDepth);
+  }
+
   @Bean
   public ProcessingPeriodValidator beforeCreatePeriodValidator() {
     return new ProcessingPeriodValidator();
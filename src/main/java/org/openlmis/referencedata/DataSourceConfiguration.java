@@ -0,0 +1,39 @@
+package org.openlmis.referencedata;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.openlmis.referencedata.service.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceConfiguration {
+
+  /**
+   * Pooled data source connecting to spring.datasource.url. The pool is tuned by the
+   * spring.datasource.hikari properties; unless they set its size, it holds twice as many
+   * connections as there are processors, plus one, as the database does no better with more
+   * connections than it can work on at once.
+   *
+   * @param properties   data source properties
+   * @param poolMetrics  collector of connection pool metrics
+   * @return data source
+   */
+  @Bean(destroyMethod = "close")
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties properties,
+                                     ConnectionPoolMetrics poolMetrics) {
+    HikariDataSource dataSource = (HikariDataSource) properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    dataSource.setMaximumPoolSize(defaultPoolSize(Runtime.getRuntime().availableProcessors()));
+    dataSource.setMetricsTrackerFactory(poolMetrics);
+    return dataSource;
+  }
+
+  static int defaultPoolSize(int processors) {
+    return processors * 2 + 1;
+  }
+}
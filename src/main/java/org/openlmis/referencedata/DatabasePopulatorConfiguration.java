@@ -1,6 +1,5 @@
 package org.openlmis.referencedata;
 
-import org.postgresql.ds.PGPoolingDataSource;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -9,14 +8,17 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
+import javax.sql.DataSource;
+
 @Configuration
 public class DatabasePopulatorConfiguration {
 
   @Autowired
-  private PGPoolingDataSource dataSource;
+  private DataSource dataSource;
 
   /**
-   * ResourceDatabasePopulator that runs intial_data.sql on application startup.
+   * ResourceDatabasePopulator that runs intial_data.sql and search_indexes.sql on application
+   * startup.
    * @return database populator
      */
   @Bean
@@ -24,6 +26,7 @@ public class DatabasePopulatorConfiguration {
     ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
     populator.setSqlScriptEncoding("UTF-8");
     populator.addScript(new ClassPathResource("initial_data.sql"));
+    populator.addScript(new ClassPathResource("search_indexes.sql"));
     return populator;
   }
 
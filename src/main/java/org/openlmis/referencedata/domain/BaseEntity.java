@@ -1,16 +1,30 @@
 package org.openlmis.referencedata.domain;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
 import lombok.Getter;
 import lombok.Setter;
 
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
+import org.openlmis.referencedata.util.LocalDateTimePersistenceConverter;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Version;
 
 @MappedSuperclass
 public abstract class BaseEntity {
@@ -23,4 +37,53 @@ public abstract class BaseEntity {
   @Getter
   @Setter
   protected UUID id;
+
+  /**
+   * Optimistic lock version, increased by every update. It is returned to clients, who may pass it
+   * in the If-Match header of an update, but it is never read from request bodies.
+   */
+  @Version
+  @Column(nullable = false, columnDefinition = "bigint DEFAULT 0")
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Getter
+  @Setter
+  protected long version;
+
+  /**
+   * Time the entity was created. Rows inserted by SQL scripts get the time of insertion.
+   */
+  @Column(updatable = false, columnDefinition = "timestamp DEFAULT CURRENT_TIMESTAMP")
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Getter
+  @Setter
+  protected LocalDateTime createdDate;
+
+  /**
+   * Time the entity was last created or updated, used by change feeds. The database overwrites it
+   * on every write with its own clock, see search_indexes.sql.
+   */
+  @Column(columnDefinition = "timestamp DEFAULT CURRENT_TIMESTAMP")
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Getter
+  @Setter
+  protected LocalDateTime modifiedDate;
+
+  @PrePersist
+  private void setCreatedDate() {
+    this.createdDate = LocalDateTime.now();
+    this.modifiedDate = this.createdDate;
+  }
+
+  @PreUpdate
+  private void setModifiedDate() {
+    this.modifiedDate = LocalDateTime.now();
+  }
 }
@@ -0,0 +1,72 @@
+package org.openlmis.referencedata.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.Type;
+import org.openlmis.referencedata.util.LocalDateTimePersistenceConverter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Entry of the change event outbox, written in the same transaction as the change it describes.
+ * Ids are assigned in commit order, so they serve as offsets from which consumers can resume.
+ */
+@Entity
+@Table(name = "change_events", schema = "referencedata",
+    indexes = @Index(name = "change_events_type", columnList = "entitytype, id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressWarnings("PMD.UnusedPrivateField")
+public class ChangeEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Getter
+  private Long id;
+
+  @Column(nullable = false, columnDefinition = "text")
+  @Getter
+  private String entityType;
+
+  @Column(nullable = false)
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID entityId;
+
+  @Column(nullable = false, columnDefinition = "text")
+  @Enumerated(EnumType.STRING)
+  @Getter
+  private Operation operation;
+
+  @Column(nullable = false)
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  @Getter
+  private LocalDateTime occurredDate;
+
+  public enum Operation {
+    CREATE, UPDATE, DELETE
+  }
+}
@@ -30,6 +30,11 @@ public class DirectRoleAssignment extends RoleAssignment {
     return role.contains(rightQuery.getRight());
   }
 
+  @Override
+  void indexRights(PermissionIndex.Builder builder) {
+    builder.addDirectRights(role);
+  }
+
   @Override
   public void assignTo(User user) {
     super.assignTo(user);
@@ -68,6 +68,11 @@ public class FulfillmentRoleAssignment extends RoleAssignment {
     return roleMatches && warehouseMatches;
   }
 
+  @Override
+  void indexRights(PermissionIndex.Builder builder) {
+    builder.addFulfillmentRights(role, warehouse);
+  }
+
   @Override
   public void assignTo(User user) {
     super.assignTo(user);
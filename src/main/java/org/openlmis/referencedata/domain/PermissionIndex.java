@@ -0,0 +1,174 @@
+package org.openlmis.referencedata.domain;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, precompiled view of all the rights a user has through its role assignments. Rights
+ * are keyed by right name and then by the codes of the program, supervisory node and warehouse
+ * they apply to, so that a right check is a couple of hash lookups instead of a walk over every
+ * role assignment, role and right attachment.
+ */
+public final class PermissionIndex {
+
+  private final Set<String> directRights;
+
+  private final Map<String, Map<Code, Set<String>>> supervisionRights;
+
+  private final Map<String, Set<String>> fulfillmentRights;
+
+  private PermissionIndex(Builder builder) {
+    directRights = unmodifiableSet(builder.directRights);
+    supervisionRights = freezeSupervision(builder.supervisionRights);
+    fulfillmentRights = freeze(builder.fulfillmentRights);
+  }
+
+  /**
+   * Compile a permission index from the given role assignments.
+   *
+   * @param roleAssignments role assignments to compile
+   * @return new permission index
+   */
+  public static PermissionIndex of(Collection<RoleAssignment> roleAssignments) {
+    Builder builder = new Builder();
+    for (RoleAssignment roleAssignment : roleAssignments) {
+      roleAssignment.indexRights(builder);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Check if the index contains a right with the specified criteria. The criteria follow the same
+   * rules as {@link RightQuery}: if a program code is given, the warehouse code is ignored. Rights
+   * from direct role assignments match regardless of program, supervisory node and warehouse.
+   *
+   * @param rightName           name of the right to check
+   * @param programCode         code of the program to check, may be null
+   * @param supervisoryNodeCode code of the supervisory node to check, null for home facility
+   * @param warehouseCode       code of the warehouse to check, may be null
+   * @return true if the index contains the right, false otherwise
+   */
+  public boolean hasRight(String rightName, String programCode, String supervisoryNodeCode,
+                          String warehouseCode) {
+    if (directRights.contains(rightName)) {
+      return true;
+    }
+
+    if (programCode != null) {
+      Map<Code, Set<String>> programs = supervisionRights.get(rightName);
+      if (programs == null) {
+        return false;
+      }
+      Set<String> nodes = programs.get(Code.code(programCode));
+      return nodes != null && nodes.contains(supervisoryNodeCode);
+    }
+
+    if (warehouseCode != null) {
+      Set<String> warehouses = fulfillmentRights.get(rightName);
+      return warehouses != null && warehouses.contains(warehouseCode);
+    }
+
+    return false;
+  }
+
+  /**
+   * Check if the index contains a right based on specified criteria.
+   *
+   * @param rightQuery criteria to check
+   * @return true if the index contains the right, false otherwise
+   */
+  public boolean hasRight(RightQuery rightQuery) {
+    if (rightQuery.getRight() == null) {
+      return false;
+    }
+
+    String rightName = rightQuery.getRight().getName();
+    if (rightQuery.getProgram() != null) {
+      SupervisoryNode node = rightQuery.getSupervisoryNode();
+      return hasRight(rightName, rightQuery.getProgram().getCode().toString(),
+          node == null ? null : node.getCode(), null);
+    }
+    if (rightQuery.getWarehouse() != null) {
+      return hasRight(rightName, null, null, rightQuery.getWarehouse().getCode());
+    }
+    return hasRight(rightName, null, null, null);
+  }
+
+  private static Map<String, Set<String>> freeze(Map<String, Set<String>> source) {
+    if (source.isEmpty()) {
+      return emptyMap();
+    }
+    Map<String, Set<String>> frozen = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : source.entrySet()) {
+      frozen.put(entry.getKey(), unmodifiableSet(entry.getValue()));
+    }
+    return unmodifiableMap(frozen);
+  }
+
+  private static Map<String, Map<Code, Set<String>>> freezeSupervision(
+      Map<String, Map<Code, Set<String>>> source) {
+    if (source.isEmpty()) {
+      return emptyMap();
+    }
+    Map<String, Map<Code, Set<String>>> frozen = new HashMap<>();
+    for (Map.Entry<String, Map<Code, Set<String>>> entry : source.entrySet()) {
+      Map<Code, Set<String>> programs = new HashMap<>();
+      for (Map.Entry<Code, Set<String>> program : entry.getValue().entrySet()) {
+        programs.put(program.getKey(), unmodifiableSet(program.getValue()));
+      }
+      frozen.put(entry.getKey(), unmodifiableMap(programs));
+    }
+    return unmodifiableMap(frozen);
+  }
+
+  /**
+   * Collects rights from role assignments. Supervisory node codes may be null, which stands for
+   * home facility supervision.
+   */
+  public static final class Builder {
+
+    private final Set<String> directRights = new HashSet<>();
+
+    private final Map<String, Map<Code, Set<String>>> supervisionRights = new HashMap<>();
+
+    private final Map<String, Set<String>> fulfillmentRights = new HashMap<>();
+
+    Builder() {
+    }
+
+    void addDirectRights(Role role) {
+      for (Right right : role.getAllRights()) {
+        directRights.add(right.getName());
+      }
+    }
+
+    void addSupervisionRights(Role role, Program program, SupervisoryNode supervisoryNode) {
+      String nodeCode = supervisoryNode == null ? null : supervisoryNode.getCode();
+      for (Right right : role.getAllRights()) {
+        supervisionRights
+            .computeIfAbsent(right.getName(), name -> new HashMap<>())
+            .computeIfAbsent(program.getCode(), code -> new HashSet<>())
+            .add(nodeCode);
+      }
+    }
+
+    void addFulfillmentRights(Role role, Facility warehouse) {
+      for (Right right : role.getAllRights()) {
+        fulfillmentRights
+            .computeIfAbsent(right.getName(), name -> new HashSet<>())
+            .add(warehouse.getCode());
+      }
+    }
+
+    PermissionIndex build() {
+      return new PermissionIndex(this);
+    }
+  }
+}
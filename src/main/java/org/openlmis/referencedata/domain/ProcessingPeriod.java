@@ -93,6 +93,7 @@ public class ProcessingPeriod extends BaseEntity {
    */
   public void export(Exporter exporter) {
     exporter.setId(id);
+    exporter.setVersion(version);
     exporter.setName(name);
     exporter.setProcessingSchedule(processingSchedule);
     exporter.setDescription(description);
@@ -121,6 +122,8 @@ public class ProcessingPeriod extends BaseEntity {
   public interface Exporter {
     void setId(UUID id);
 
+    void setVersion(Long version);
+
     void setName(String name);
 
     void setProcessingSchedule(ProcessingSchedule schedule);
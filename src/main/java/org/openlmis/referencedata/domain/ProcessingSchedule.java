@@ -1,24 +1,13 @@
 package org.openlmis.referencedata.domain;
 
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
-
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import org.openlmis.referencedata.util.LocalDateTimePersistenceConverter;
-
-import java.time.LocalDateTime;
 import java.util.Objects;
 
 import javax.persistence.Column;
-import javax.persistence.Convert;
 import javax.persistence.Entity;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
 
@@ -37,13 +26,6 @@ public class ProcessingSchedule extends BaseEntity {
   @Setter
   private String description;
 
-  @JsonSerialize(using = LocalDateTimeSerializer.class)
-  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
-  @Convert(converter = LocalDateTimePersistenceConverter.class)
-  @Getter
-  @Setter
-  private LocalDateTime modifiedDate;
-
   @Column(nullable = false, unique = true, columnDefinition = "text")
   @Getter
   @Setter
@@ -54,12 +36,6 @@ public class ProcessingSchedule extends BaseEntity {
     this.name = name;
   }
 
-  @PrePersist
-  @PreUpdate
-  private void setModifiedDate() {
-    this.modifiedDate = LocalDateTime.now();
-  }
-
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
@@ -4,8 +4,12 @@ import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
 import lombok.Getter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.Table;
@@ -14,6 +18,8 @@ import javax.persistence.Table;
  * Informative category a Product is in when assigned to a {@link Program}.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "product_categories", schema = "referencedata")
 public class ProductCategory extends BaseEntity {
 
@@ -91,6 +91,7 @@ public class RequisitionGroupProgramSchedule extends BaseEntity {
    */
   public void export(RequisitionGroupProgramSchedule.Exporter exporter) {
     exporter.setId(id);
+    exporter.setVersion(version);
     exporter.setRequisitionGroup(requisitionGroup);
     exporter.setProcessingSchedule(processingSchedule);
     exporter.setProgram(program);
@@ -119,6 +120,8 @@ public class RequisitionGroupProgramSchedule extends BaseEntity {
 
   public interface Exporter {
     void setId(UUID id);
+
+    void setVersion(Long version);
     
     void setRequisitionGroup(RequisitionGroup requisitionGroup);
 
@@ -4,11 +4,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -21,6 +25,8 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "rights", schema = "referencedata")
 @NoArgsConstructor
 @SuppressWarnings({"PMD.UnusedPrivateField"})
@@ -43,6 +49,7 @@ public class Right extends BaseEntity {
   private String description;
 
   @OneToMany(mappedBy = "parent", fetch = FetchType.EAGER)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @Getter
   private Set<Right> attachments = new HashSet<>();
 
@@ -119,6 +126,7 @@ public class Right extends BaseEntity {
    */
   public void export(Exporter exporter) {
     exporter.setId(id);
+    exporter.setVersion(version);
     exporter.setName(name);
     exporter.setType(type);
     exporter.setDescription(description);
@@ -145,6 +153,8 @@ public class Right extends BaseEntity {
   public interface Exporter {
     void setId(UUID id);
 
+    void setVersion(Long version);
+
     void setName(String name);
 
     void setType(RightType type);
@@ -8,6 +8,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.openlmis.referencedata.exception.RightTypeException;
 import org.openlmis.referencedata.exception.RoleException;
 
@@ -17,6 +19,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -26,6 +29,8 @@ import javax.persistence.ManyToMany;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "roles", schema = "referencedata")
 @NoArgsConstructor
 @SuppressWarnings({"PMD.TooManyMethods"})
@@ -47,6 +52,7 @@ public class Role extends BaseEntity {
       schema = "referencedata",
       joinColumns = @JoinColumn(name = "roleid", nullable = false),
       inverseJoinColumns = @JoinColumn(name = "rightid", nullable = false))
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @Getter
   private Set<Right> rights;
 
@@ -143,9 +149,29 @@ public class Role extends BaseEntity {
    * @return true if the role contains the right, false otherwise
    */
   public boolean contains(Right right) {
-    Set<Right> attachments = rights.stream().flatMap(r -> r.getAttachments().stream())
-        .collect(toSet());
-    return rights.contains(right) || attachments.contains(right);
+    if (rights.contains(right)) {
+      return true;
+    }
+    for (Right roleRight : rights) {
+      if (roleRight.getAttachments().contains(right)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the rights of this role together with their attached rights. As in
+   * {@link #contains(Right)}, attachments are only followed one level down.
+   *
+   * @return rights and attached rights of this role
+   */
+  public Set<Right> getAllRights() {
+    Set<Right> allRights = new HashSet<>(rights);
+    for (Right right : rights) {
+      allRights.addAll(right.getAttachments());
+    }
+    return allRights;
   }
 
   /**
@@ -155,6 +181,7 @@ public class Role extends BaseEntity {
    */
   public void export(Exporter exporter) {
     exporter.setId(id);
+    exporter.setVersion(version);
     exporter.setName(name);
     exporter.setDescription(description);
     exporter.setRights(rights);
@@ -181,6 +208,8 @@ public class Role extends BaseEntity {
   public interface Exporter {
     void setId(UUID id);
 
+    void setVersion(Long version);
+
     void setName(String name);
 
     void setDescription(String description);
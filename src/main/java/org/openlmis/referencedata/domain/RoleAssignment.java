@@ -57,6 +57,13 @@ public abstract class RoleAssignment extends BaseEntity {
 
   public abstract boolean hasRight(RightQuery rightQuery);
 
+  /**
+   * Add the rights granted by this role assignment to a permission index being compiled.
+   *
+   * @param builder permission index builder
+   */
+  abstract void indexRights(PermissionIndex.Builder builder);
+
   public void assignTo(User user) {
     this.user = user;
   }
@@ -87,10 +87,15 @@ public class SupervisionRoleAssignment extends RoleAssignment {
     return roleMatches && programMatches && nodeMatches;
   }
 
+  @Override
+  void indexRights(PermissionIndex.Builder builder) {
+    builder.addSupervisionRights(role, program, supervisoryNode);
+  }
+
   @Override
   /**
-   * Assign this role assignment to the specified user. For supervision, will also add programs 
-   * and supervised facilities to the user.
+   * Assign this role assignment to the specified user. For supervision, will also add programs
+   * to the user.
    */
   public void assignTo(User user) {
     super.assignTo(user);
@@ -98,8 +103,6 @@ public class SupervisionRoleAssignment extends RoleAssignment {
       user.addHomeFacilityProgram(program);
     } else {
       user.addSupervisedProgram(program);
-      Set<Facility> supervisedFacilities = supervisoryNode.getAllSupervisedFacilities();
-      user.addSupervisedFacilities(supervisedFacilities);
     }
   }
 
@@ -90,24 +90,14 @@ public class SupervisoryNode extends BaseEntity {
   /**
    * Get all facilities being supervised by this supervisory node. Note, this does not get the
    * facility attached to this supervisory node. "All supervised facilities" means all facilities
-   * supervised by this node and all recursive child nodes.
+   * supervised by this node and all recursive child nodes, up to the maximum depth of the given
+   * traversal.
    *
+   * @param traversal traversal of the hierarchy, see supervisoryNodes.maxDepth
    * @return all supervised facilities
    */
-  public Set<Facility> getAllSupervisedFacilities() {
-    Set<Facility> supervisedFacilities = new HashSet<>();
-
-    if (requisitionGroup != null && requisitionGroup.getMemberFacilities() != null) {
-      supervisedFacilities.addAll(requisitionGroup.getMemberFacilities());
-    }
-
-    if (childNodes != null) {
-      for (SupervisoryNode childNode : childNodes) {
-        supervisedFacilities.addAll(childNode.getAllSupervisedFacilities());
-      }
-    }
-
-    return supervisedFacilities;
+  public Set<Facility> getAllSupervisedFacilities(SupervisoryNodeTraversal traversal) {
+    return traversal.getAllSupervisedFacilities(this);
   }
 
   /**
@@ -0,0 +1,90 @@
+package org.openlmis.referencedata.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Row of the supervisory node closure table. There is one row for every pair of a supervisory
+ * node and one of its descendants, including a row linking every node to itself at depth 0, so
+ * that a whole subtree can be read with a single indexed query instead of walking child nodes.
+ * Nodes are referenced by id only, so the table can be maintained independently of the node
+ * entities.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@Entity
+@Table(name = "supervisory_node_closures", schema = "referencedata",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"ancestorid", "descendantid"}),
+    indexes = {
+        @Index(name = "supervisory_node_closures_ancestor", columnList = "ancestorid, depth"),
+        @Index(name = "supervisory_node_closures_descendant", columnList = "descendantid")
+    })
+@NoArgsConstructor
+public class SupervisoryNodeClosure {
+
+  @Id
+  @GeneratedValue(generator = "uuid-gen")
+  @GenericGenerator(name = "uuid-gen",
+      strategy = "org.openlmis.referencedata.util.ConditionalUuidGenerator")
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID id;
+
+  @Column(nullable = false)
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID ancestorId;
+
+  @Column(nullable = false)
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID descendantId;
+
+  @Column(nullable = false)
+  @Getter
+  private int depth;
+
+  /**
+   * Create a new closure row.
+   *
+   * @param ancestorId   id of the ancestor node
+   * @param descendantId id of the descendant node
+   * @param depth        number of parent links between the two nodes
+   */
+  public SupervisoryNodeClosure(UUID ancestorId, UUID descendantId, int depth) {
+    this.ancestorId = ancestorId;
+    this.descendantId = descendantId;
+    this.depth = depth;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof SupervisoryNodeClosure)) {
+      return false;
+    }
+    SupervisoryNodeClosure that = (SupervisoryNodeClosure) obj;
+    return Objects.equals(ancestorId, that.ancestorId)
+        && Objects.equals(descendantId, that.descendantId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(ancestorId, descendantId);
+  }
+}
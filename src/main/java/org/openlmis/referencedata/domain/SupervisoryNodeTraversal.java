@@ -0,0 +1,131 @@
+package org.openlmis.referencedata.domain;
+
+import static java.util.Collections.singletonList;
+
+import org.openlmis.referencedata.exception.SupervisoryNodeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Iterative, cycle-safe traversal of the supervisory node hierarchy. Nodes are visited breadth
+ * first and at most once, and nothing deeper than the maximum depth is visited, so a malformed
+ * hierarchy can neither overflow the stack nor loop forever.
+ */
+public final class SupervisoryNodeTraversal {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SupervisoryNodeTraversal.class);
+
+  private final int maxDepth;
+
+  /**
+   * Create a new traversal.
+   *
+   * @param maxDepth maximum number of levels to follow from the starting node
+   */
+  public SupervisoryNodeTraversal(int maxDepth) {
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Maximum depth must be positive, got: " + maxDepth);
+    }
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Get the specified node and all of its descendants, level by level, closest ones first.
+   *
+   * @param root node to start from
+   * @return the root node followed by its descendants
+   */
+  public List<SupervisoryNode> getSubtree(SupervisoryNode root) {
+    List<SupervisoryNode> subtree = new ArrayList<>();
+    Set<SupervisoryNode> visited = new HashSet<>();
+    visited.add(root);
+
+    List<SupervisoryNode> level = singletonList(root);
+    for (int depth = 0; !level.isEmpty(); depth++) {
+      subtree.addAll(level);
+      List<SupervisoryNode> nextLevel = getUnvisitedChildren(level, visited);
+      if (depth == maxDepth && !nextLevel.isEmpty()) {
+        LOGGER.warn("Supervisory node {} has descendants deeper than {} levels, ignoring them",
+            root.getCode(), maxDepth);
+        break;
+      }
+      level = nextLevel;
+    }
+
+    return subtree;
+  }
+
+  /**
+   * Get all facilities supervised by the specified node and all of its descendants.
+   *
+   * @param root node to start from
+   * @return all supervised facilities
+   */
+  public Set<Facility> getAllSupervisedFacilities(SupervisoryNode root) {
+    Set<Facility> supervisedFacilities = new HashSet<>();
+    for (SupervisoryNode node : getSubtree(root)) {
+      RequisitionGroup requisitionGroup = node.getRequisitionGroup();
+      if (requisitionGroup != null && requisitionGroup.getMemberFacilities() != null) {
+        supervisedFacilities.addAll(requisitionGroup.getMemberFacilities());
+      }
+    }
+    return supervisedFacilities;
+  }
+
+  /**
+   * Check that the specified parent node can be assigned to a node: the parent must not be the
+   * node itself or one of its descendants, and must not be nested deeper than the maximum depth.
+   *
+   * @param node       node being assigned a parent
+   * @param parentNode parent node to assign, may be null
+   * @throws SupervisoryNodeException if the assignment would create a cycle or the parent node is
+   *                                  nested too deep
+   */
+  public void validateParentNode(SupervisoryNode node, SupervisoryNode parentNode)
+      throws SupervisoryNodeException {
+    Set<SupervisoryNode> visited = new HashSet<>();
+    SupervisoryNode current = parentNode;
+    for (int depth = 1; current != null; depth++) {
+      if (isSameNode(node, current)) {
+        throw new SupervisoryNodeException("Supervisory node " + node.getCode()
+            + " cannot be its own ancestor");
+      }
+      if (!visited.add(current)) {
+        throw new SupervisoryNodeException("Supervisory node " + current.getCode()
+            + " is already part of a cycle");
+      }
+      if (depth > maxDepth) {
+        throw new SupervisoryNodeException("Supervisory node " + node.getCode()
+            + " would be nested deeper than " + maxDepth + " levels");
+      }
+      current = current.getParentNode();
+    }
+  }
+
+  private List<SupervisoryNode> getUnvisitedChildren(List<SupervisoryNode> level,
+                                                     Set<SupervisoryNode> visited) {
+    List<SupervisoryNode> children = new ArrayList<>();
+    for (SupervisoryNode node : level) {
+      if (node.getChildNodes() == null) {
+        continue;
+      }
+      for (SupervisoryNode child : node.getChildNodes()) {
+        if (visited.add(child)) {
+          children.add(child);
+        }
+      }
+    }
+    return children;
+  }
+
+  private boolean isSameNode(SupervisoryNode node, SupervisoryNode other) {
+    return node.equals(other)
+        || node.getId() != null && Objects.equals(node.getId(), other.getId());
+  }
+}
@@ -0,0 +1,57 @@
+package org.openlmis.referencedata.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.Type;
+import org.openlmis.referencedata.util.LocalDateTimePersistenceConverter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Record of a deleted entity, kept so that change feeds can tell clients what to remove. Rows are
+ * written by a database trigger on every reference data table, see search_indexes.sql, so deletes
+ * made with native SQL are recorded too.
+ */
+@Entity
+@Table(name = "tombstones", schema = "referencedata", indexes = @Index(
+    name = "tombstones_tablename_deleteddate", columnList = "tableName, deletedDate"))
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressWarnings("PMD.UnusedPrivateField")
+public class Tombstone {
+
+  @Id
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID id;
+
+  @Column(nullable = false, columnDefinition = "text")
+  @JsonIgnore
+  @Getter
+  private String tableName;
+
+  @Column(nullable = false)
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  @Getter
+  private LocalDateTime deletedDate;
+}
@@ -12,7 +12,6 @@ import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
-import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import java.util.Arrays;
@@ -80,16 +79,10 @@ public class User extends BaseEntity {
   private Set<RoleAssignment> roleAssignments = new HashSet<>();
 
   @Transient
-  @Getter
-  private Set<Program> homeFacilityPrograms = new HashSet<>();
+  private Set<Program> homeFacilityPrograms;
 
   @Transient
-  @Getter
-  private Set<Program> supervisedPrograms = new HashSet<>();
-
-  @Transient
-  @Getter
-  private Set<Facility> supervisedFacilities = new HashSet<>();
+  private Set<Program> supervisedPrograms;
 
   private User(Importer importer) {
     id = importer.getId();
@@ -150,18 +143,37 @@ public class User extends BaseEntity {
     return roleAssignments.stream().anyMatch(roleAssignment -> roleAssignment.hasRight(rightQuery));
   }
 
+  /**
+   * Compile an immutable index of all the rights this user has through its role assignments. The
+   * index answers the same questions as {@link #hasRight(RightQuery)}, but without walking the
+   * role assignments on each check.
+   *
+   * @return permission index of this user
+   */
+  public PermissionIndex getPermissionIndex() {
+    return PermissionIndex.of(roleAssignments);
+  }
+
+  public Set<Program> getHomeFacilityPrograms() {
+    refreshSupervisions();
+    return homeFacilityPrograms;
+  }
+
+  public Set<Program> getSupervisedPrograms() {
+    refreshSupervisions();
+    return supervisedPrograms;
+  }
+
   public void addHomeFacilityProgram(Program program) {
+    refreshSupervisions();
     homeFacilityPrograms.add(program);
   }
 
   public void addSupervisedProgram(Program program) {
+    refreshSupervisions();
     supervisedPrograms.add(program);
   }
 
-  public void addSupervisedFacilities(Set<Facility> facilities) {
-    supervisedFacilities.addAll(facilities);
-  }
-
   /**
    * Get facilities that user has fulfillment rights for.
    * @return set of facilities
@@ -174,11 +186,17 @@ public class User extends BaseEntity {
   }
 
   /**
-   * Refresh transient supervision properties (home facility and supervised programs, supervised 
-   * facilities), after the user object is loaded from the database.
+   * Compute transient supervision properties (home facility and supervised programs) the first
+   * time they are needed, rather than for every user loaded from the database. Role assignments
+   * added later keep them up to date.
    */
-  @PostLoad
   private void refreshSupervisions() {
+    if (homeFacilityPrograms != null) {
+      return;
+    }
+
+    homeFacilityPrograms = new HashSet<>();
+    supervisedPrograms = new HashSet<>();
     for (RoleAssignment roleAssignment : roleAssignments) {
       roleAssignment.assignTo(this);
     }
@@ -191,6 +209,7 @@ public class User extends BaseEntity {
    */
   public void export(Exporter exporter) {
     exporter.setId(id);
+    exporter.setVersion(version);
     exporter.setUsername(username);
     exporter.setFirstName(firstName);
     exporter.setLastName(lastName);
@@ -223,6 +242,8 @@ public class User extends BaseEntity {
   public interface Exporter {
     void setId(UUID id);
 
+    void setVersion(Long version);
+
     void setUsername(String username);
 
     void setFirstName(String firstName);
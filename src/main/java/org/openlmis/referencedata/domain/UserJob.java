@@ -0,0 +1,182 @@
+package org.openlmis.referencedata.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.annotations.Type;
+import org.openlmis.referencedata.util.LocalDateTimePersistenceConverter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Job of the user account queue, such as creating the auth user of a saved user. Jobs are written
+ * in the same transaction as the user, and run by background workers after it commits. A worker
+ * claims a job by leasing it until a given time; if the worker dies, the lease runs out and the
+ * job is claimed again. Failed jobs are retried with exponential backoff, up to a maximum number
+ * of attempts.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@Entity
+@Table(name = "user_jobs", schema = "referencedata",
+    indexes = {
+        @Index(name = "user_jobs_due", columnList = "status, nextattemptdate"),
+        @Index(name = "user_jobs_user", columnList = "userid")
+    })
+@NoArgsConstructor
+public class UserJob extends BaseEntity {
+
+  private static final String TEXT = "text";
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  @Column(nullable = false)
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID userId;
+
+  @Column(nullable = false, columnDefinition = TEXT)
+  @Enumerated(EnumType.STRING)
+  @Getter
+  private JobType type;
+
+  @Column(nullable = false, columnDefinition = TEXT)
+  @Enumerated(EnumType.STRING)
+  @Getter
+  private Status status;
+
+  /**
+   * Whether to send the welcome email once the auth user has been created.
+   */
+  @Column(nullable = false)
+  @JsonIgnore
+  @Getter
+  private boolean sendWelcomeEmail;
+
+  @Column(nullable = false)
+  @Getter
+  private int attempts;
+
+  @Column(nullable = false)
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  @Getter
+  private LocalDateTime nextAttemptDate;
+
+  @Column(columnDefinition = TEXT)
+  @JsonIgnore
+  @Getter
+  private String lockedBy;
+
+  @Convert(converter = LocalDateTimePersistenceConverter.class)
+  @JsonIgnore
+  @Getter
+  private LocalDateTime lockedUntil;
+
+  @Column(columnDefinition = TEXT)
+  @Getter
+  private String lastError;
+
+  public enum JobType {
+    SYNC_AUTH_USER, SEND_WELCOME_EMAIL
+  }
+
+  public enum Status {
+    PENDING, RUNNING, SUCCEEDED, FAILED
+  }
+
+  /**
+   * Create a pending job, due immediately.
+   *
+   * @param userId           id of the user the job is for
+   * @param type             what the job does
+   * @param sendWelcomeEmail whether to send the welcome email after syncing the auth user
+   * @param now              current time
+   */
+  public UserJob(UUID userId, JobType type, boolean sendWelcomeEmail, LocalDateTime now) {
+    this.userId = Objects.requireNonNull(userId);
+    this.type = Objects.requireNonNull(type);
+    this.sendWelcomeEmail = sendWelcomeEmail;
+    this.status = Status.PENDING;
+    this.nextAttemptDate = now;
+  }
+
+  /**
+   * Lease the job to a worker.
+   *
+   * @param worker id of the worker
+   * @param until  time the lease runs out
+   */
+  public void claim(String worker, LocalDateTime until) {
+    status = Status.RUNNING;
+    lockedBy = worker;
+    lockedUntil = until;
+    attempts++;
+  }
+
+  /**
+   * Check whether the job is still leased to the given worker, and has not been claimed by
+   * another one after its lease ran out.
+   *
+   * @param worker id of the worker
+   * @return whether the worker holds the job
+   */
+  public boolean isClaimedBy(String worker) {
+    return status == Status.RUNNING && Objects.equals(lockedBy, worker);
+  }
+
+  /**
+   * Mark the job as done.
+   */
+  public void succeed() {
+    status = Status.SUCCEEDED;
+    lockedBy = null;
+    lockedUntil = null;
+    lastError = null;
+  }
+
+  /**
+   * Record a failed attempt. The job is retried after a backoff, doubled with each attempt, or
+   * marked as failed if it has been attempted the maximum number of times.
+   *
+   * @param error       description of the failure
+   * @param now         current time
+   * @param maxAttempts maximum number of attempts
+   * @param backoff     time to wait after the first attempt
+   * @param maxBackoff  maximum time to wait between attempts
+   */
+  public void fail(String error, LocalDateTime now, int maxAttempts, Duration backoff,
+                   Duration maxBackoff) {
+    lockedBy = null;
+    lockedUntil = null;
+    lastError = error != null && error.length() > MAX_ERROR_LENGTH
+        ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+    if (attempts >= maxAttempts) {
+      status = Status.FAILED;
+      return;
+    }
+
+    status = Status.PENDING;
+    Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+    nextAttemptDate = now.plus(delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay);
+  }
+}
@@ -13,4 +13,8 @@ public class BaseDto {
   @Getter
   @Setter
   UUID id;
+
+  @Getter
+  @Setter
+  Long version;
 }
@@ -4,11 +4,13 @@ import org.openlmis.referencedata.exception.CsvInputNotValidException;
 import org.openlmis.referencedata.exception.ExceptionDetail;
 import org.openlmis.referencedata.exception.InvalidIdException;
 import org.openlmis.referencedata.exception.RequisitionGroupProgramScheduleException;
+import org.openlmis.referencedata.exception.VersionMismatchException;
 import org.openlmis.referencedata.util.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -33,6 +35,21 @@ public class RefDataErrorHandling {
     return logAndRespond("Data integrity violation error occurred", ex);
   }
 
+  /**
+   * Handles updates of entities that have been changed since the client read them, or
+   * concurrently, and returns status 412 PRECONDITION FAILED.
+   * @param ex the exception to handle
+   * @return the error response for the user
+   */
+  @ExceptionHandler({VersionMismatchException.class,
+      ObjectOptimisticLockingFailureException.class})
+  @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+  @ResponseBody
+  public ErrorResponse handleVersionMismatch(RuntimeException ex) {
+    LOGGER.info("Entity has been modified: {}", ex.getMessage());
+    return new ErrorResponse("Entity has been modified", ex.getMessage());
+  }
+
   /**
    * Handles exceptions and returns proper response.
    *
@@ -46,7 +63,11 @@ public class RefDataErrorHandling {
   public ExceptionDetail exceptionHandler(Exception ex) {
     String title = "Resource Property Validation Failure";
     LOGGER.error(title, ex);
-    return getExceptionDetail(ex, HttpStatus.BAD_REQUEST, title);
+    ExceptionDetail detail = getExceptionDetail(ex, HttpStatus.BAD_REQUEST, title);
+    if (ex instanceof CsvInputNotValidException) {
+      detail.setRowErrors(((CsvInputNotValidException) ex).getRowErrors());
+    }
+    return detail;
   }
 
   private static ExceptionDetail getExceptionDetail(
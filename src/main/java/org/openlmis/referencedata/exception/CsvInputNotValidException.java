@@ -4,14 +4,60 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("PMD.UnusedPrivateField")
 @Data
 @EqualsAndHashCode(callSuper = true)
-@AllArgsConstructor
 public class CsvInputNotValidException extends RuntimeException {
 
   public CsvInputNotValidException(String errorMessage, Exception exception) {
     super(errorMessage + " - " + exception.getMessage());
   }
 
+  /**
+   * Creates an exception for input that is not valid as a whole.
+   *
+   * @param errorMessage description of the problem
+   */
+  public CsvInputNotValidException(String errorMessage) {
+    super(errorMessage);
+    this.errorMessage = errorMessage;
+  }
+
+  /**
+   * Creates an exception for input with invalid rows.
+   *
+   * @param errorMessage description of the problem
+   * @param rowErrors    errors of single rows
+   */
+  public CsvInputNotValidException(String errorMessage, List<RowError> rowErrors) {
+    this(errorMessage);
+    this.rowErrors = new ArrayList<>(rowErrors);
+  }
+
   private String errorMessage;
+
+  private List<RowError> rowErrors = new ArrayList<>();
+
+  /**
+   * Error of a single row of the input.
+   */
+  @Data
+  @AllArgsConstructor
+  public static class RowError {
+
+    /**
+     * Number of the row, counting from 1, not counting a header row.
+     */
+    private long row;
+
+    /**
+     * Name of the column, null if the error is not specific to a column.
+     */
+    private String column;
+
+    private String message;
+  }
 }
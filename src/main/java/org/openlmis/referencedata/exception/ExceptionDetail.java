@@ -1,8 +1,13 @@
 package org.openlmis.referencedata.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
+@SuppressWarnings("PMD.UnusedPrivateField")
 @Data
 @NoArgsConstructor
 public class ExceptionDetail {
@@ -11,4 +16,7 @@ public class ExceptionDetail {
   private String detail;
   private long timeStamp;
   private String developerMessage;
+
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  private List<CsvInputNotValidException.RowError> rowErrors;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package org.openlmis.referencedata.exception;
+
+public class SupervisoryNodeException extends Exception {
+  public SupervisoryNodeException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,10 @@
+package org.openlmis.referencedata.exception;
+
+/**
+ * Thrown when an update is conditional on an entity version that is no longer current.
+ */
+public class VersionMismatchException extends RuntimeException {
+  public VersionMismatchException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+public interface ChangeEventRepository extends Repository<ChangeEvent, Long> {
+
+  List<ChangeEvent> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+  List<ChangeEvent> findByEntityTypeAndIdGreaterThanOrderById(String entityType, Long id,
+                                                              Pageable pageable);
+
+  ChangeEvent findFirstByEntityTypeOrderByIdDesc(String entityType);
+}
@@ -2,11 +2,15 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
 import org.openlmis.referencedata.repository.custom.FacilityTypeApprovedProductRepositoryCustom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface FacilityTypeApprovedProductRepository
     extends PagingAndSortingRepository<FacilityTypeApprovedProduct, UUID>,
     FacilityTypeApprovedProductRepositoryCustom {
+
+  List<FacilityTypeApprovedProduct> findAllBy(Pageable pageable);
 }
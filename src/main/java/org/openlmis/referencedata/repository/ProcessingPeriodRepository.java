@@ -2,8 +2,10 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.repository.custom.ProcessingPeriodRepositoryCustom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface ProcessingPeriodRepository extends
@@ -11,4 +13,6 @@ public interface ProcessingPeriodRepository extends
     ProcessingPeriodRepositoryCustom {
 
   ProcessingPeriod findFirst1ByOrderByEndDateDesc();
+
+  List<ProcessingPeriod> findAllBy(Pageable pageable);
 }
@@ -2,12 +2,16 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.ProductCategory;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface ProductCategoryRepository extends
         PagingAndSortingRepository<ProductCategory, UUID> {
 
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   ProductCategory findByCode(Code code);
 }
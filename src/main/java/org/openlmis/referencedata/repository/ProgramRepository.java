@@ -3,10 +3,13 @@ package org.openlmis.referencedata.repository;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.repository.custom.ProgramRepositoryCustom;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface ProgramRepository
     extends PagingAndSortingRepository<Program, UUID>, ProgramRepositoryCustom {
   // Add custom Program related members here. See UserRepository.java for examples.
@@ -17,5 +20,6 @@ public interface ProgramRepository
   @Override
   <S extends Program> Iterable<S> save(Iterable<S> entities);
 
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   <S extends Program> S findByCode(Code code);
 }
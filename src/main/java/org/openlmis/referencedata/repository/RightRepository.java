@@ -1,11 +1,15 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.Right;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface RightRepository extends PagingAndSortingRepository<Right, UUID> {
 
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Right findFirstByName(String name);
 }
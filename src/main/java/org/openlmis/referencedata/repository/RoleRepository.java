@@ -1,11 +1,15 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.Role;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface RoleRepository extends PagingAndSortingRepository<Role, UUID> {
 
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Role findFirstByName(String name);
 }
@@ -0,0 +1,63 @@
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.SupervisoryNodeClosure;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface SupervisoryNodeClosureRepository
+    extends CrudRepository<SupervisoryNodeClosure, UUID> {
+
+  List<SupervisoryNodeClosure> findByAncestorId(UUID ancestorId);
+
+  List<SupervisoryNodeClosure> findByDescendantId(UUID descendantId);
+
+  List<SupervisoryNodeClosure> findByDescendantIdIn(Collection<UUID> descendantIds);
+
+  List<SupervisoryNodeClosure> findByAncestorIdOrDescendantId(UUID ancestorId,
+                                                              UUID descendantId);
+
+  SupervisoryNodeClosure findByAncestorIdAndDescendantId(UUID ancestorId, UUID descendantId);
+
+  String CLOSURE = "WITH RECURSIVE closure (ancestorid, descendantid, depth) AS ("
+      + " SELECT id, id, 0 FROM referencedata.supervisory_nodes"
+      + " UNION ALL SELECT c.ancestorid, n.id, c.depth + 1 FROM closure c"
+      + " JOIN referencedata.supervisory_nodes n ON n.parentid = c.descendantid"
+      + " WHERE c.depth < ?1) ";
+
+  /**
+   * Delete links that are not part of the supervisory node tree stored in the nodes' parent ids.
+   *
+   * @param maxDepth depth at which to stop following parent links
+   * @return number of deleted links
+   */
+  @Modifying
+  @Query(value = CLOSURE + "DELETE FROM referencedata.supervisory_node_closures l"
+      + " WHERE NOT EXISTS (SELECT 1 FROM closure c"
+      + " WHERE c.ancestorid = l.ancestorid AND c.descendantid = l.descendantid)",
+      nativeQuery = true)
+  int deleteLinksNotInTree(int maxDepth);
+
+  /**
+   * Insert links that are part of the supervisory node tree stored in the nodes' parent ids, but
+   * are missing. Links inserted concurrently, e.g. by another instance rebuilding on startup, are
+   * skipped.
+   *
+   * @param maxDepth depth at which to stop following parent links
+   * @return number of inserted links
+   */
+  @Modifying
+  @Query(value = "INSERT INTO referencedata.supervisory_node_closures"
+      + " (id, ancestorid, descendantid, depth) " + CLOSURE
+      + "SELECT md5(random()::text || clock_timestamp()::text)::uuid,"
+      + " c.ancestorid, c.descendantid, c.depth FROM closure c"
+      + " WHERE NOT EXISTS (SELECT 1 FROM referencedata.supervisory_node_closures l"
+      + " WHERE l.ancestorid = c.ancestorid AND l.descendantid = c.descendantid)"
+      + " ON CONFLICT (ancestorid, descendantid) DO NOTHING",
+      nativeQuery = true)
+  int insertMissingLinks(int maxDepth);
+}
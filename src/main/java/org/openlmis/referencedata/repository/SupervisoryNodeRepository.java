@@ -1,12 +1,35 @@
 package org.openlmis.referencedata.repository;
 
+import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface SupervisoryNodeRepository
     extends PagingAndSortingRepository<SupervisoryNode, UUID> {
 
   <S extends SupervisoryNode> S findByCode(String code);
+
+  @Query("SELECT n FROM SupervisoryNode n, SupervisoryNodeClosure c"
+      + " WHERE c.descendantId = n.id AND c.ancestorId = :nodeId AND c.depth > 0"
+      + " ORDER BY c.depth, n.code")
+  List<SupervisoryNode> findDescendants(@Param("nodeId") UUID nodeId);
+
+  @Query("SELECT DISTINCT f FROM SupervisoryNodeClosure c, RequisitionGroup g"
+      + " JOIN g.memberFacilities f"
+      + " WHERE g.supervisoryNode.id = c.descendantId AND c.ancestorId = :nodeId")
+  List<Facility> findSupervisedFacilities(@Param("nodeId") UUID nodeId);
+
+  @Query("SELECT DISTINCT f FROM SupervisionRoleAssignment a, SupervisoryNodeClosure c,"
+      + " RequisitionGroup g JOIN g.memberFacilities f"
+      + " WHERE a.user.id = :userId AND c.ancestorId = a.supervisoryNode.id"
+      + " AND g.supervisoryNode.id = c.descendantId")
+  List<Facility> findUserSupervisedFacilities(@Param("userId") UUID userId);
+
+  List<SupervisoryNode> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.Tombstone;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TombstoneRepository extends Repository<Tombstone, UUID> {
+
+  List<Tombstone> findByTableNameAndDeletedDateGreaterThanEqualOrderByDeletedDate(
+      String tableName, LocalDateTime deletedDate);
+}
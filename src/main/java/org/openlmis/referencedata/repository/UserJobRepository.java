@@ -0,0 +1,29 @@
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.UserJob;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserJobRepository extends CrudRepository<UserJob, UUID> {
+
+  List<UserJob> findByUserIdOrderByCreatedDate(UUID userId);
+
+  /**
+   * Lock jobs that are due, or whose worker's lease has run out, oldest first. Rows locked by
+   * another transaction are skipped, so that workers on several nodes never claim the same job.
+   * Must be called within a transaction, which holds the locks until the jobs are claimed.
+   *
+   * @param now   current time
+   * @param limit maximum number of jobs to lock
+   * @return locked jobs
+   */
+  @Query(value = "SELECT * FROM referencedata.user_jobs"
+      + " WHERE (status = 'PENDING' AND nextattemptdate <= ?1)"
+      + " OR (status = 'RUNNING' AND lockeduntil <= ?1)"
+      + " ORDER BY nextattemptdate LIMIT ?2 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<UserJob> lockDueJobs(Timestamp now, int limit);
+}
@@ -2,9 +2,11 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.repository.custom.UserRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Set;
 import java.util.UUID;
 
 public interface UserRepository extends
@@ -18,4 +20,7 @@ public interface UserRepository extends
   <S extends User> Iterable<S> save(Iterable<S> entities);
 
   User findOneByUsername(@Param("username") String username);
+
+  @Query("SELECT DISTINCT ra.user.id FROM RoleAssignment ra WHERE ra.role.id = :roleId")
+  Set<UUID> findIdsByRoleId(@Param("roleId") UUID roleId);
 }
@@ -1,9 +1,12 @@
 package org.openlmis.referencedata.repository.custom;
 
 import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.util.FacilitySearchResult;
 
 import java.util.List;
 
 public interface FacilityRepositoryCustom {
   List<Facility> findFacilitiesByCodeOrName(String code, String name);
+
+  List<FacilitySearchResult> searchFacilities(String query, int limit, int offset);
 }
@@ -2,6 +2,7 @@ package org.openlmis.referencedata.repository.custom;
 
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.User;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -10,4 +11,17 @@ public interface UserRepositoryCustom {
   List<User> searchUsers(
       String username, String firstName, String lastName,
       Facility homeFacility, Boolean active, Boolean verified);
+
+  List<User> searchUsers(
+      String username, String firstName, String lastName,
+      Facility homeFacility, Boolean active, Boolean verified, boolean prefix,
+      Pageable pageable);
+
+  /**
+   * Return one page of all users, in the order of the pageable's sort, with ties broken by id.
+   *
+   * @param pageable page of users to return
+   * @return users on that page
+   */
+  List<User> findUsers(Pageable pageable);
 }
@@ -8,11 +8,28 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.repository.custom.FacilityRepositoryCustom;
+import org.openlmis.referencedata.util.FacilitySearchResult;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
 
+  private static final String LIKE_ESCAPE = "\\";
+
+  // pg_trgm operators and functions, backed by the GIN indexes from search_indexes.sql
+  private static final String SEARCH_SQL = "SELECT CAST(f.id AS varchar) AS id,"
+      + " GREATEST(similarity(lower(f.code), :query), similarity(lower(f.name), :query)) AS score"
+      + " FROM referencedata.facilities f"
+      + " WHERE lower(f.code) % :query OR lower(f.name) % :query"
+      + " OR lower(f.code) LIKE :pattern OR lower(f.name) LIKE :pattern"
+      + " ORDER BY score DESC, f.code"
+      + " LIMIT :limit OFFSET :offset";
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -30,18 +47,68 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     CriteriaQuery<Facility> query = builder.createQuery(Facility.class);
     Root<Facility> root = query.from(Facility.class);
-    Predicate predicate = builder.conjunction();
+    List<Predicate> predicates = new ArrayList<>();
     if (code != null) {
-      Predicate codeOrNamePredicate = builder.or(
-          builder.like(
-              root.get("code"), "%" + code + "%"),
-          builder.like(
-              root.get("name"), "%" + name + "%"));
-      predicate = builder.and(
-          predicate, codeOrNamePredicate);
+      predicates.add(builder.like(root.get("code"), "%" + code + "%"));
+    }
+    if (name != null) {
+      predicates.add(builder.like(root.get("name"), "%" + name + "%"));
+    }
+    if (!predicates.isEmpty()) {
+      query.where(builder.or(predicates.toArray(new Predicate[predicates.size()])));
     }
-    query.where(predicate);
     return entityManager.createQuery(query).getResultList();
   }
 
+  /**
+   * This method retrieves a page of Facilities whose code or name is similar to the query,
+   * ordered from the most similar one. A facility matches if its code or name is
+   * trigram-similar to the query or contains it, ignoring case.
+   *
+   * @param query  Searched text.
+   * @param limit  Maximum number of Facilities to return.
+   * @param offset Number of best matching Facilities to skip.
+   * @return List of found Facilities with their similarity scores and highlighted matches.
+   */
+  public List<FacilitySearchResult> searchFacilities(String query, int limit, int offset) {
+    String lowerQuery = query.trim().toLowerCase(Locale.ENGLISH);
+    String pattern = "%" + lowerQuery
+        .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+        .replace("%", LIKE_ESCAPE + "%")
+        .replace("_", LIKE_ESCAPE + "_") + "%";
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = entityManager.createNativeQuery(SEARCH_SQL)
+        .setParameter("query", lowerQuery)
+        .setParameter("pattern", pattern)
+        .setParameter("limit", limit)
+        .setParameter("offset", offset)
+        .getResultList();
+    if (rows.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<UUID> ids = new ArrayList<>();
+    for (Object[] row : rows) {
+      ids.add(UUID.fromString((String) row[0]));
+    }
+    Map<UUID, Facility> facilities = new HashMap<>();
+    for (Facility facility : entityManager
+        .createQuery("SELECT f FROM Facility f WHERE f.id IN :ids", Facility.class)
+        .setParameter("ids", ids)
+        .getResultList()) {
+      facilities.put(facility.getId(), facility);
+    }
+
+    List<FacilitySearchResult> results = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i++) {
+      Facility facility = facilities.get(ids.get(i));
+      if (facility != null) {
+        float score = ((Number) rows.get(i)[1]).floatValue();
+        results.add(FacilitySearchResult.of(facility, score, query));
+      }
+    }
+    return results;
+  }
+
 }
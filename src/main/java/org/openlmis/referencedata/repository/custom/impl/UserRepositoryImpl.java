@@ -3,18 +3,27 @@ package org.openlmis.referencedata.repository.custom.impl;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.repository.custom.UserRepositoryCustom;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 public class UserRepositoryImpl implements UserRepositoryCustom {
 
+  private static final String LIKE_ESCAPE = "\\";
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -32,6 +41,29 @@ public class UserRepositoryImpl implements UserRepositoryCustom {
   public List<User> searchUsers(
       String username, String firstName, String lastName,
       Facility homeFacility, Boolean active, Boolean verified) {
+    return searchUsers(username, firstName, lastName, homeFacility, active, verified, false,
+        null);
+  }
+
+  /**
+   * Method returns a page of users with matched parameters, ordered by username. Username, first
+   * name and last name match exactly, or case-insensitively by prefix, which is backed by
+   * functional indexes on the lower-cased columns.
+   *
+   * @param username     username of user, or its prefix.
+   * @param firstName    firstName of user, or its prefix.
+   * @param lastName     lastName of user, or its prefix.
+   * @param homeFacility homeFacility of user.
+   * @param active       is the account activated.
+   * @param verified     is the account verified.
+   * @param prefix       whether names match by prefix rather than exactly.
+   * @param pageable     page to return, or null to return all matching users.
+   * @return List of users
+   */
+  public List<User> searchUsers(
+      String username, String firstName, String lastName,
+      Facility homeFacility, Boolean active, Boolean verified, boolean prefix,
+      Pageable pageable) {
     CriteriaBuilder builder = entityManager.getCriteriaBuilder();
     CriteriaQuery<User> query = builder.createQuery(User.class);
     Root<User> root = query.from(User.class);
@@ -39,20 +71,17 @@ public class UserRepositoryImpl implements UserRepositoryCustom {
     if (username != null) {
       predicate = builder.and(
           predicate,
-          builder.equal(
-              root.get("username"), username));
+          matches(builder, root.get("username"), username, prefix));
     }
     if (firstName != null) {
       predicate = builder.and(
           predicate,
-          builder.equal(
-              root.get("firstName"), firstName));
+          matches(builder, root.get("firstName"), firstName, prefix));
     }
     if (lastName != null) {
       predicate = builder.and(
           predicate,
-          builder.equal(
-              root.get("lastName"), lastName));
+          matches(builder, root.get("lastName"), lastName, prefix));
     }
     if (homeFacility != null) {
       predicate = builder.and(
@@ -73,6 +102,53 @@ public class UserRepositoryImpl implements UserRepositoryCustom {
               root.get("verified"), verified));
     }
     query.where(predicate);
-    return entityManager.createQuery(query).getResultList();
+    query.orderBy(builder.asc(root.get("username")));
+
+    TypedQuery<User> typedQuery = entityManager.createQuery(query);
+    if (pageable != null) {
+      typedQuery.setFirstResult(pageable.getOffset());
+      typedQuery.setMaxResults(pageable.getPageSize());
+    }
+    return typedQuery.getResultList();
+  }
+
+  private Predicate matches(CriteriaBuilder builder, Path<String> path, String value,
+                            boolean prefix) {
+    if (!prefix) {
+      return builder.equal(path, value);
+    }
+    String pattern = value.toLowerCase(Locale.ENGLISH)
+        .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+        .replace("%", LIKE_ESCAPE + "%")
+        .replace("_", LIKE_ESCAPE + "_") + "%";
+    return builder.like(builder.lower(path), pattern, LIKE_ESCAPE.charAt(0));
+  }
+
+  /**
+   * Method returns one page of all users, in the order of the pageable's sort. Users with equal
+   * sort values are ordered by id, so that consecutive pages do not overlap.
+   *
+   * @param pageable page of users to return.
+   * @return list of users on that page.
+   */
+  public List<User> findUsers(Pageable pageable) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<User> query = builder.createQuery(User.class);
+    Root<User> root = query.from(User.class);
+    List<Order> orders = new ArrayList<>();
+    if (pageable.getSort() != null) {
+      for (Sort.Order order : pageable.getSort()) {
+        orders.add(order.isAscending()
+            ? builder.asc(root.get(order.getProperty()))
+            : builder.desc(root.get(order.getProperty())));
+      }
+    }
+    orders.add(builder.asc(root.get("id")));
+    query.orderBy(orders);
+
+    return entityManager.createQuery(query)
+        .setFirstResult(pageable.getOffset())
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package org.openlmis.referencedata.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the authentications that other token services, such as the remote check_token
+ * endpoint, load for access tokens. An authentication is kept until its token expires, but no
+ * longer than the maximum time to live, so that revoked tokens are eventually rejected. The cache
+ * holds a bounded number of tokens, evicting the least recently loaded, and keys them by a hash
+ * of the token. Concurrent requests with a token that is not cached wait for a single load.
+ * Tokens that fail to load are not cached.
+ */
+public class CachingTokenServices implements ResourceServerTokenServices {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CachingTokenServices.class);
+
+  private final ResourceServerTokenServices delegate;
+  private final long maxTtlMillis;
+  private final Clock clock;
+
+  private final Map<String, Entry> cache;
+  private final Map<String, CompletableFuture<OAuth2Authentication>> loading =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates token services caching the authentications of the given ones.
+   *
+   * @param delegate   token services to load authentications from
+   * @param maxEntries maximum number of cached tokens
+   * @param maxTtl     maximum time to keep an authentication, in seconds
+   * @param clock      clock telling whether a token has expired
+   */
+  public CachingTokenServices(ResourceServerTokenServices delegate, int maxEntries, long maxTtl,
+                              Clock clock) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.maxTtlMillis = TimeUnit.SECONDS.toMillis(maxTtl);
+    this.clock = Objects.requireNonNull(clock);
+    this.cache = new LinkedHashMap<String, Entry>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public OAuth2Authentication loadAuthentication(String accessToken) {
+    String key = hash(accessToken);
+    Entry entry;
+    synchronized (cache) {
+      entry = cache.get(key);
+    }
+    if (entry != null && entry.expiresAt > clock.millis()) {
+      return copy(entry.authentication);
+    }
+
+    CompletableFuture<OAuth2Authentication> future = new CompletableFuture<>();
+    CompletableFuture<OAuth2Authentication> pending = loading.putIfAbsent(key, future);
+    if (pending != null) {
+      return copy(join(pending));
+    }
+
+    try {
+      OAuth2Authentication authentication = delegate.loadAuthentication(accessToken);
+      cache(key, authentication);
+      future.complete(authentication);
+      return copy(authentication);
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      loading.remove(key, future);
+    }
+  }
+
+  @Override
+  public OAuth2AccessToken readAccessToken(String accessToken) {
+    return delegate.readAccessToken(accessToken);
+  }
+
+  /**
+   * Removes all cached authentications.
+   */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  private void cache(String key, OAuth2Authentication authentication) {
+    long now = clock.millis();
+    long expiresAt = now + maxTtlMillis;
+    Long expiry = ExpiringAccessTokenConverter.getExpiry(authentication);
+    if (expiry != null) {
+      expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(expiry));
+    }
+    if (expiresAt > now) {
+      synchronized (cache) {
+        // re-insert, so that eviction order is the order of loading
+        cache.remove(key);
+        cache.put(key, new Entry(authentication, expiresAt));
+      }
+    }
+  }
+
+  private static OAuth2Authentication join(CompletableFuture<OAuth2Authentication> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * The authentication filter sets the details of the returned authentication, so each request
+   * gets its own copy of the cached one.
+   */
+  private static OAuth2Authentication copy(OAuth2Authentication authentication) {
+    return new OAuth2Authentication(authentication.getOAuth2Request(),
+        authentication.getUserAuthentication());
+  }
+
+  private static String hash(String accessToken) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(accessToken.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte value : digest) {
+        hex.append(String.format("%02x", value));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException ex) {
+      LOGGER.error("SHA-256 is not available", ex);
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static final class Entry {
+    private final OAuth2Authentication authentication;
+    private final long expiresAt;
+
+    Entry(OAuth2Authentication authentication, long expiresAt) {
+      this.authentication = authentication;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
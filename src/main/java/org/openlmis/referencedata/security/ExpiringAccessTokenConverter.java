@@ -0,0 +1,42 @@
+package org.openlmis.referencedata.security;
+
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Access token converter that keeps the expiry time of the token, which the default converter
+ * drops, in the request parameters of the authentication, so that the authentication can be
+ * cached until the token expires.
+ */
+public class ExpiringAccessTokenConverter extends DefaultAccessTokenConverter {
+
+  @Override
+  public OAuth2Authentication extractAuthentication(Map<String, ?> map) {
+    OAuth2Authentication authentication = super.extractAuthentication(map);
+    Object expiry = map.get(EXP);
+    if (expiry == null) {
+      return authentication;
+    }
+
+    OAuth2Request request = authentication.getOAuth2Request();
+    Map<String, String> parameters = new HashMap<>(request.getRequestParameters());
+    parameters.put(EXP, expiry.toString());
+    return new OAuth2Authentication(request.createOAuth2Request(parameters),
+        authentication.getUserAuthentication());
+  }
+
+  /**
+   * Get the expiry time of the token of an authentication created by this converter.
+   *
+   * @param authentication the authentication
+   * @return expiry time in seconds since the epoch, null if the token has none
+   */
+  public static Long getExpiry(OAuth2Authentication authentication) {
+    String expiry = authentication.getOAuth2Request().getRequestParameters().get(EXP);
+    return expiry == null ? null : Long.valueOf(expiry);
+  }
+}
@@ -0,0 +1,181 @@
+package org.openlmis.referencedata.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Public keys that access tokens are signed with, read from a file or URL. The keys may be given
+ * as a JSON Web Key Set, whose RSA keys are identified by their kid, as the response of the token
+ * key endpoint of the auth service, or as a single PEM encoded key. The keys are read again
+ * after the refresh interval, and when a token is signed with a key that is not known, so that
+ * keys can be rotated without restarting the service. They are read in the background, one read
+ * at a time, and requests are verified with the keys read before until it has finished.
+ */
+public class JwtKeySet {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JwtKeySet.class);
+
+  /**
+   * Minimum time between reads of the keys caused by tokens signed with unknown keys, so that
+   * such tokens cannot be used to flood the key source with requests.
+   */
+  private static final long MIN_RELOAD_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private static final String NO_KEY_ID = "";
+  private static final String PEM_PREFIX = "-----BEGIN";
+
+  private final String location;
+  private final KeySource source;
+  private final long refreshMillis;
+  private final Clock clock;
+  private final ObjectMapper objectMapper;
+  private final Executor executor;
+
+  private final AtomicBoolean reloading = new AtomicBoolean();
+  private volatile Map<String, SignatureVerifier> verifiers = Collections.emptyMap();
+  private volatile long loadedAt;
+
+  /**
+   * Creates a key set read from the given source.
+   *
+   * @param location     file or URL of the keys, used in log messages
+   * @param source       reader of the keys
+   * @param refresh      time after which the keys are read again, in seconds
+   * @param clock        clock telling when to read the keys again
+   * @param objectMapper mapper used to parse the keys
+   * @param executor     executor reading the keys in the background
+   */
+  public JwtKeySet(String location, KeySource source, long refresh, Clock clock,
+                   ObjectMapper objectMapper, Executor executor) {
+    this.location = Objects.requireNonNull(location);
+    this.source = Objects.requireNonNull(source);
+    this.refreshMillis = TimeUnit.SECONDS.toMillis(refresh);
+    this.clock = Objects.requireNonNull(clock);
+    this.objectMapper = Objects.requireNonNull(objectMapper);
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  /**
+   * Start reading the keys in the background, unless they are being read already.
+   */
+  public void refresh() {
+    if (!reloading.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          reload();
+        } finally {
+          reloading.set(false);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      reloading.set(false);
+      LOGGER.warn("Could not start reading token signing keys from {}", location, ex);
+    }
+  }
+
+  /**
+   * Get the verifier of signatures made with the given key. If the keys are due to be read again,
+   * or the key is not known, the keys are read in the background. A token signed with a new key
+   * is then accepted once they have been read.
+   *
+   * @param keyId id of the key, null if the token does not name its key, in which case the only
+   *              key of the set is used
+   * @return verifier, null if there is no such key
+   */
+  public SignatureVerifier getVerifier(String keyId) {
+    long now = clock.millis();
+    if (now - loadedAt >= refreshMillis) {
+      refresh();
+    }
+
+    SignatureVerifier verifier = find(keyId);
+    if (verifier == null && now - loadedAt >= MIN_RELOAD_MILLIS) {
+      refresh();
+      verifier = find(keyId);
+    }
+    return verifier;
+  }
+
+  private SignatureVerifier find(String keyId) {
+    Map<String, SignatureVerifier> current = verifiers;
+    if (keyId == null) {
+      return current.size() == 1 ? current.values().iterator().next() : null;
+    }
+    return current.get(keyId);
+  }
+
+  /**
+   * Reads the keys. If they cannot be read, the previous keys are kept.
+   */
+  private void reload() {
+    try {
+      verifiers = parse(source.read().trim());
+      LOGGER.debug("Loaded {} token signing keys from {}", verifiers.size(), location);
+    } catch (IOException | RuntimeException ex) {
+      LOGGER.error("Could not load token signing keys from {}", location, ex);
+    }
+    // failures count as loads too, so that an unavailable source is not retried on every request
+    loadedAt = clock.millis();
+  }
+
+  private Map<String, SignatureVerifier> parse(String content) throws IOException {
+    if (content.startsWith(PEM_PREFIX)) {
+      return Collections.singletonMap(NO_KEY_ID, new RsaVerifier(content));
+    }
+
+    JsonNode json = objectMapper.readTree(content);
+    if (json.has("value")) {
+      // token key endpoint of the auth service
+      return Collections.singletonMap(NO_KEY_ID, new RsaVerifier(json.get("value").asText()));
+    }
+
+    Map<String, SignatureVerifier> keys = new HashMap<>();
+    for (JsonNode key : json.path("keys")) {
+      if ("RSA".equals(key.path("kty").asText()) && !"enc".equals(key.path("use").asText())) {
+        keys.put(key.path("kid").asText(NO_KEY_ID), new RsaVerifier(
+            toInteger(key.path("n").asText()), toInteger(key.path("e").asText())));
+      }
+    }
+    return keys;
+  }
+
+  private static BigInteger toInteger(String base64Url) {
+    return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+  }
+
+  /**
+   * Reader of the keys.
+   */
+  @FunctionalInterface
+  public interface KeySource {
+
+    /**
+     * Read the keys.
+     *
+     * @return keys in one of the supported formats
+     * @throws IOException if the keys cannot be read
+     */
+    String read() throws IOException;
+  }
+}
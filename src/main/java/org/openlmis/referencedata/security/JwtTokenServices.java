@@ -0,0 +1,102 @@
+package org.openlmis.referencedata.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token services that verify signed JWT access tokens locally, with the public keys of the auth
+ * service, instead of asking the auth service about each token. The claims of the token are
+ * converted to an authentication in the same way as the response of the check_token endpoint.
+ * Revoked tokens are accepted until they expire.
+ */
+public class JwtTokenServices implements ResourceServerTokenServices {
+
+  private static final String ALGORITHM = "RS256";
+  private static final TypeReference<Map<String, Object>> MAP =
+      new TypeReference<Map<String, Object>>() {};
+
+  private final JwtKeySet keySet;
+  private final AccessTokenConverter accessTokenConverter;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+
+  /**
+   * Creates token services verifying tokens with the given keys.
+   *
+   * @param keySet               public keys of the auth service
+   * @param accessTokenConverter converter of claims to authentications
+   * @param objectMapper         mapper used to parse tokens
+   * @param clock                clock telling whether a token has expired
+   */
+  public JwtTokenServices(JwtKeySet keySet, AccessTokenConverter accessTokenConverter,
+                          ObjectMapper objectMapper, Clock clock) {
+    this.keySet = Objects.requireNonNull(keySet);
+    this.accessTokenConverter = Objects.requireNonNull(accessTokenConverter);
+    this.objectMapper = Objects.requireNonNull(objectMapper);
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  @Override
+  public OAuth2Authentication loadAuthentication(String accessToken) {
+    return accessTokenConverter.extractAuthentication(verify(accessToken));
+  }
+
+  @Override
+  public OAuth2AccessToken readAccessToken(String accessToken) {
+    return accessTokenConverter.extractAccessToken(accessToken, verify(accessToken));
+  }
+
+  private Map<String, Object> verify(String accessToken) {
+    Map<String, Object> header = parse(accessToken.substring(0, Math.max(0,
+        accessToken.indexOf('.'))));
+    if (!ALGORITHM.equals(header.get("alg"))) {
+      throw new InvalidTokenException("Token is not signed with " + ALGORITHM);
+    }
+    Object keyId = header.get("kid");
+    SignatureVerifier verifier = keySet.getVerifier(keyId == null ? null : keyId.toString());
+    if (verifier == null) {
+      throw new InvalidTokenException("Token is signed with an unknown key");
+    }
+
+    Map<String, Object> claims;
+    try {
+      Jwt jwt = JwtHelper.decodeAndVerify(accessToken, verifier);
+      claims = objectMapper.readValue(jwt.getClaims(), MAP);
+    } catch (IOException | RuntimeException ex) {
+      throw new InvalidTokenException("Token is not valid", ex);
+    }
+
+    Object expiry = claims.get(AccessTokenConverter.EXP);
+    if (!(expiry instanceof Number)
+        || TimeUnit.SECONDS.toMillis(((Number) expiry).longValue()) <= clock.millis()) {
+      throw new InvalidTokenException("Token has expired");
+    }
+    return claims;
+  }
+
+  private Map<String, Object> parse(String base64Url) {
+    try {
+      return objectMapper.readValue(
+          new String(Base64.getUrlDecoder().decode(base64Url), StandardCharsets.UTF_8), MAP);
+    } catch (IOException | RuntimeException ex) {
+      throw new InvalidTokenException("Token is not a JWT", ex);
+    }
+  }
+}
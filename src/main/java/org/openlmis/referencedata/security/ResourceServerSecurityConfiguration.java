@@ -1,10 +1,19 @@
 package org.openlmis.referencedata.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openlmis.referencedata.security.JwtKeySet.KeySource;
+import org.openlmis.referencedata.service.ExternalApiClient;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,9 +27,16 @@ import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConv
 import org.springframework.security.oauth2.provider.token.RemoteTokenServices;
 import org.springframework.security.oauth2.provider.token.UserAuthenticationConverter;
 import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -32,6 +48,12 @@ import javax.servlet.http.HttpServletResponse;
 @EnableResourceServer
 public class ResourceServerSecurityConfiguration implements ResourceServerConfigurer {
 
+  /**
+   * How access tokens are verified: remote, by the check_token endpoint of the auth service, or
+   * jwt, locally by their signature.
+   */
+  private static final String TOKEN_VERIFICATION = "auth.tokenVerification";
+
   private TokenExtractor tokenExtractor = new BearerTokenExtractor();
 
   @Value("${auth.resourceId}")
@@ -80,7 +102,7 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
    */
   @Bean
   public AccessTokenConverter accessTokenConverter() {
-    DefaultAccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
+    DefaultAccessTokenConverter accessTokenConverter = new ExpiringAccessTokenConverter();
     accessTokenConverter.setUserTokenConverter(userAuthenticationConverter());
     return accessTokenConverter;
   }
@@ -110,4 +132,73 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
     remoteTokenServices.setAccessTokenConverter(accessTokenConverter());
     return remoteTokenServices;
   }
+
+  /**
+   * Token services used to authenticate requests, which cache the results of the remote token
+   * services so that the auth service is not called on every request.
+   * @param remoteTokenServices token services calling the auth service
+   * @param maxEntries maximum number of cached tokens
+   * @param maxTtl maximum time to cache a token, in seconds
+   * @return token services
+   */
+  @Bean
+  @Primary
+  @ConditionalOnProperty(name = TOKEN_VERIFICATION, havingValue = "remote", matchIfMissing = true)
+  public CachingTokenServices cachingTokenServices(RemoteTokenServices remoteTokenServices,
+      @Value("${auth.tokenCache.maxEntries}") int maxEntries,
+      @Value("${auth.tokenCache.maxTtlSeconds}") long maxTtl) {
+    return new CachingTokenServices(remoteTokenServices, maxEntries, maxTtl,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Token services used to authenticate requests if tokens are verified locally, which check the
+   * signature of JWT access tokens with the public keys of the auth service. Keys given by an
+   * HTTP URL are fetched through the client of the other services, with its timeouts, retries and
+   * circuit breaker.
+   * @param keySetUri file or URL of the public keys, see {@link JwtKeySet}
+   * @param refresh time after which the keys are read again, in seconds
+   * @param resourceLoader loader of keys given by a file
+   * @param externalApiClient client fetching keys given by a URL
+   * @param objectMapper mapper used to parse tokens and keys
+   * @return token services
+   */
+  @Bean
+  @Primary
+  @ConditionalOnProperty(name = TOKEN_VERIFICATION, havingValue = "jwt")
+  public JwtTokenServices jwtTokenServices(@Value("${auth.jwt.keySetUri}") String keySetUri,
+      @Value("${auth.jwt.keySetRefreshSeconds}") long refresh, ResourceLoader resourceLoader,
+      ExternalApiClient externalApiClient, ObjectMapper objectMapper) {
+    KeySource source;
+    if (keySetUri.startsWith("http:") || keySetUri.startsWith("https:")) {
+      source = () -> externalApiClient.get(Api.AUTH, keySetUri, String.class);
+    } else {
+      Resource resource = resourceLoader.getResource(keySetUri);
+      source = () -> {
+        try (InputStream input = resource.getInputStream()) {
+          return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+        }
+      };
+    }
+    JwtKeySet keySet = new JwtKeySet(keySetUri, source, refresh, Clock.systemUTC(),
+        objectMapper, jwtKeyLoader());
+    keySet.refresh();
+    return new JwtTokenServices(keySet, accessTokenConverter(), objectMapper,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Thread reading the public keys of the auth service, so that request threads do not wait for
+   * them.
+   * @return executor of key reads
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  @ConditionalOnProperty(name = TOKEN_VERIFICATION, havingValue = "jwt")
+  public ExecutorService jwtKeyLoader() {
+    return Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "jwt-key-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
 }
@@ -0,0 +1,39 @@
+package org.openlmis.referencedata.security;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal of an authenticated user, holding what the access token says about the user. Reading
+ * the user itself is left to the code that needs it.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class UserSummary implements Principal, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Id of the reference data user, null if the token is not for a reference data user.
+   */
+  private final UUID id;
+
+  private final String username;
+
+  @Override
+  public String getName() {
+    return username;
+  }
+
+  @Override
+  public String toString() {
+    return username;
+  }
+}
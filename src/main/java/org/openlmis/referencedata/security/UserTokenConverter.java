@@ -1,8 +1,5 @@
 package org.openlmis.referencedata.security;
 
-import org.openlmis.referencedata.domain.User;
-import org.openlmis.referencedata.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.provider.token.DefaultUserAuthenticationConverter;
@@ -12,27 +9,23 @@ import java.util.UUID;
 
 public class UserTokenConverter extends DefaultUserAuthenticationConverter {
 
-  @Autowired
-  private UserRepository userRepository;
+  static final String REFERENCE_DATA_USER_ID = "referenceDataUserId";
 
   /**
-   * Extracts an Authentication from a map.
+   * Extracts an Authentication from a map. The principal is a {@link UserSummary} built from the
+   * token alone, so authenticating a request does not read the user from the database.
    * @param map map containing information about the user.
    * @return authentication token.
-     */
+   */
+  @Override
   public Authentication extractAuthentication(Map<String, ?> map) {
     UsernamePasswordAuthenticationToken token =
         (UsernamePasswordAuthenticationToken) super.extractAuthentication(map);
     if (token != null) {
-      User principal = new User();
-      principal.setUsername(token.getPrincipal().toString());
-      Object userId = map.get("referenceDataUserId");
-      if (userId != null) {
-        User user = userRepository.findOne(UUID.fromString((String) userId));
-        if (user != null) {
-          principal = user;
-        }
-      }
+      Object userId = map.get(REFERENCE_DATA_USER_ID);
+      UserSummary principal = new UserSummary(
+          userId == null ? null : UUID.fromString((String) userId),
+          token.getPrincipal().toString());
       return new UsernamePasswordAuthenticationToken(principal, token.getCredentials(),
           token.getAuthorities());
     }
@@ -0,0 +1,95 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.exception.ExternalApiException;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obtains access tokens of this service itself, with the client credentials grant, for calls made
+ * in the background on no user's behalf. A token is reused until shortly before it expires.
+ */
+@Service
+@NoArgsConstructor
+public class AuthService {
+
+  private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+  @Autowired
+  private ExternalApiClient externalApiClient;
+
+  @Value("${auth.server.baseUrl}")
+  private String baseUrl;
+
+  @Value("${auth.server.clientId}")
+  private String clientId;
+
+  @Value("${auth.server.clientSecret}")
+  private String clientSecret;
+
+  private Clock clock = Clock.systemUTC();
+
+  private String accessToken;
+  private long expiresAt;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public AuthService(ExternalApiClient externalApiClient, String baseUrl, String clientId,
+                     String clientSecret, Clock clock) {
+    this.externalApiClient = Objects.requireNonNull(externalApiClient);
+    this.baseUrl = baseUrl;
+    this.clientId = clientId;
+    this.clientSecret = clientSecret;
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Get an access token of this service.
+   *
+   * @return access token
+   * @throws ExternalApiException if no token could be obtained
+   */
+  public synchronized String obtainAccessToken() {
+    if (accessToken != null && clock.millis() < expiresAt) {
+      return accessToken;
+    }
+
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.AUTHORIZATION, "Basic " + credentials);
+    String url = baseUrl + "/auth/oauth/token?grant_type=client_credentials";
+
+    Map<?, ?> response;
+    try {
+      response = externalApiClient.post(Api.AUTH, url, new HttpEntity<>(headers), Map.class,
+          true);
+    } catch (RestClientException ex) {
+      throw new ExternalApiException("Could not obtain access token", ex);
+    }
+    if (response == null || !(response.get("access_token") instanceof String)) {
+      throw new ExternalApiException("Could not obtain access token", null);
+    }
+
+    Object expiresIn = response.get("expires_in");
+    long lifetimeMillis = expiresIn instanceof Number
+        ? TimeUnit.SECONDS.toMillis(((Number) expiresIn).longValue()) : 0;
+    accessToken = (String) response.get("access_token");
+    expiresAt = clock.millis() + lifetimeMillis - EXPIRY_MARGIN_MILLIS;
+    return accessToken;
+  }
+}
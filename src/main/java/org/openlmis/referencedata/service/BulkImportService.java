@@ -0,0 +1,585 @@
+package org.openlmis.referencedata.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openlmis.referencedata.domain.UserJob;
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+import org.openlmis.referencedata.exception.CsvInputNotValidException.RowError;
+import org.openlmis.referencedata.util.RowReader;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.EntityType;
+
+/**
+ * Imports reference data straight into its tables, for loads too large to go through the API one
+ * entity at a time. Rows are checked one by one as they are read, streamed into a staging table
+ * with COPY, checked as a whole for missing values, duplicates and unknown references, and then
+ * merged into the table: rows with the id of an existing row update it, others are inserted.
+ * Either all rows are imported or, if any of them is not valid, none.
+ *
+ * <p>A row updating an existing row only changes the columns it has values for, which are
+ * recorded per row in the staging table; columns it leaves out or leaves empty keep their stored
+ * values. Column defaults only apply to inserted rows.
+ *
+ * <p>Tables must be imported in the order of {@link #TABLES}, so that the rows they reference
+ * exist. As the import bypasses Hibernate, it records change events, queues the auth user sync of
+ * imported users and clears the caches of the imported table itself. Changes are counted for
+ * conditional GET by the database.
+ *
+ * <p>The merge locks the imported table before anything else, and takes the outbox lock only when
+ * writing change events right before the commit, in the same order as Hibernate sessions do.
+ */
+@Service
+@NoArgsConstructor
+@SuppressWarnings("PMD.TooManyMethods")
+public class BulkImportService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkImportService.class);
+
+  private static final String USERS = "users";
+
+  /**
+   * Tables that can be imported, in the order in which they must be imported.
+   */
+  public static final List<String> TABLES = Collections.unmodifiableList(Arrays.asList(
+      "geographic_levels", "geographic_zones", "facility_operators", "facility_types",
+      "facilities", "supervisory_nodes", "processing_schedules", "processing_periods",
+      "product_categories", "orderable_products", "programs", "program_products", "supply_lines",
+      USERS, "roles", "rights", "role_assignments", "requisition_groups",
+      "requisition_group_program_schedules"));
+
+  private static final Set<String> PERMISSION_TABLES = new HashSet<>(Arrays.asList(
+      USERS, "roles", "rights", "role_assignments", "supervisory_nodes", "requisition_groups"));
+
+  private static final String SCHEMA = "referencedata";
+  private static final String STAGING = "pg_temp.import_staging";
+  private static final String ROW = "importrow";
+  private static final String EXISTING = "importexisting";
+  private static final String PROVIDED = "importprovided";
+  private static final String ID = "id";
+  private static final String INSERT_INTO = "INSERT INTO ";
+  private static final String UPDATE = "UPDATE ";
+  private static final String FROM = " FROM ";
+  private static final String EQUALS_STAGED = " = s.";
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private static final String NEW_ID = "md5(random()::text || clock_timestamp()::text)::uuid";
+
+  private static final String SELECT_COLUMNS = "SELECT column_name, data_type,"
+      + " character_maximum_length, is_nullable, column_default FROM information_schema.columns"
+      + " WHERE table_schema = ? AND table_name = ? ORDER BY ordinal_position";
+
+  private static final String SELECT_FOREIGN_KEYS = "SELECT a.attname, rn.nspname, r.relname,"
+      + " ra.attname FROM pg_constraint c"
+      + " JOIN pg_class t ON t.oid = c.conrelid"
+      + " JOIN pg_namespace tn ON tn.oid = t.relnamespace"
+      + " JOIN pg_class r ON r.oid = c.confrelid"
+      + " JOIN pg_namespace rn ON rn.oid = r.relnamespace"
+      + " JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]"
+      + " JOIN pg_attribute ra ON ra.attrelid = c.confrelid AND ra.attnum = c.confkey[1]"
+      + " WHERE c.contype = 'f' AND array_length(c.conkey, 1) = 1"
+      + " AND tn.nspname = ? AND t.relname = ?";
+
+  private static final String SELECT_UNIQUE_KEYS = "SELECT array_to_string(ARRAY("
+      + "SELECT a.attname FROM unnest(c.conkey) k"
+      + " JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k), ',')"
+      + " FROM pg_constraint c"
+      + " JOIN pg_class t ON t.oid = c.conrelid"
+      + " JOIN pg_namespace tn ON tn.oid = t.relnamespace"
+      + " WHERE c.contype IN ('p', 'u') AND tn.nspname = ? AND t.relname = ?";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private UserPermissionService permissionService;
+
+  @Autowired
+  private SupervisoryNodeHierarchyService hierarchyService;
+
+  @Value("${bulkImport.maxErrors}")
+  private int maxErrors;
+
+  /**
+   * Import rows into the given table, within the current transaction or a new one.
+   *
+   * @param table name of the table, one of {@link #TABLES}
+   * @param rows  rows to import
+   * @return numbers of inserted and updated rows
+   * @throws IllegalArgumentException  if the table cannot be imported
+   * @throws CsvInputNotValidException if the input or any of its rows is not valid
+   * @throws IOException               if the input cannot be read
+   */
+  @Transactional
+  public ImportResult importRows(String table, RowReader rows) throws IOException {
+    if (!TABLES.contains(table)) {
+      throw new IllegalArgumentException("Table cannot be imported: " + table);
+    }
+
+    Session session = entityManager.unwrap(Session.class);
+    session.flush();
+    ImportResult result;
+    try {
+      result = session.doReturningWork(connection -> new TableImport(connection, table)
+          .run(rows));
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+
+    if (PERMISSION_TABLES.contains(table)) {
+      // recorded with the import, indexes are dropped after the commit
+      permissionService.invalidateAll();
+    }
+    if ("supervisory_nodes".equals(table)) {
+      hierarchyService.rebuild();
+    }
+    clearCachesAfterCommit(getEntityTypes(table));
+
+    LOGGER.info("Imported {} rows into {}: {} inserted, {} updated", result.getRows(), table,
+        result.getInserted(), result.getUpdated());
+    return result;
+  }
+
+  private List<Class<?>> getEntityTypes(String table) {
+    List<Class<?>> types = new ArrayList<>();
+    for (EntityType<?> entityType : entityManager.getMetamodel().getEntities()) {
+      Class<?> type = entityType.getJavaType();
+      try {
+        if (table.equals(ChangeFeedService.getTableName(type))) {
+          types.add(type);
+        }
+      } catch (IllegalArgumentException ex) {
+        LOGGER.debug("Entity type without a table: {}", type.getName(), ex);
+      }
+    }
+    return types;
+  }
+
+  private void clearCachesAfterCommit(List<Class<?>> types) {
+    Runnable clear = () -> {
+      Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+          .getCache();
+      types.forEach(cache::evictEntityRegion);
+      cache.evictCollectionRegions();
+      cache.evictDefaultQueryRegion();
+    };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      clear.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            clear.run();
+          }
+        });
+  }
+
+  private String getRecordedType(String table) {
+    for (Class<?> type : ChangeEventRecorder.RECORDED_TYPES) {
+      if (table.equals(ChangeFeedService.getTableName(type))) {
+        return type.getSimpleName();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Import of a single table over a single connection.
+   */
+  @SuppressWarnings("PMD.TooManyMethods")
+  private final class TableImport {
+
+    private final Connection connection;
+    private final String table;
+    private final String qualifiedTable;
+    private final Map<String, ImportColumn> columns = new LinkedHashMap<>();
+    private final Set<String> provided = new HashSet<>();
+    private final List<RowError> errors = new ArrayList<>();
+
+    TableImport(Connection connection, String table) {
+      this.connection = connection;
+      this.table = table;
+      this.qualifiedTable = SCHEMA + '.' + quote(table);
+    }
+
+    ImportResult run(RowReader rows) throws SQLException {
+      loadColumns();
+      createStaging();
+      long count;
+      try {
+        count = copy(rows);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      failIfErrors();
+
+      mergeExisting();
+      fillDefaults();
+      checkRequired();
+      checkUnique();
+      checkReferences();
+      failIfErrors();
+
+      execute("LOCK TABLE " + qualifiedTable + " IN SHARE ROW EXCLUSIVE MODE");
+      execute(UPDATE + STAGING + " s SET " + EXISTING + " = EXISTS (SELECT 1 FROM "
+          + qualifiedTable + " t WHERE t.id = s.id)");
+      int updated = update();
+      int inserted = execute(INSERT_INTO + qualifiedTable + " (" + join(columns.keySet(), "")
+          + ") SELECT " + join(columns.keySet(), "s.") + FROM + STAGING + " s WHERE NOT s."
+          + EXISTING);
+      if (USERS.equals(table)) {
+        queueUserJobs();
+      }
+      recordChangeEvents();
+      return new ImportResult(table, count, inserted, updated);
+    }
+
+    private void loadColumns() throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS)) {
+        statement.setString(1, SCHEMA);
+        statement.setString(2, table);
+        try (ResultSet result = statement.executeQuery()) {
+          while (result.next()) {
+            Object maxLength = result.getObject(3);
+            columns.put(result.getString(1), new ImportColumn(result.getString(1),
+                result.getString(2), maxLength == null ? null : ((Number) maxLength).intValue(),
+                "YES".equals(result.getString(4)), result.getString(5) != null));
+          }
+        }
+      }
+    }
+
+    private void createStaging() throws SQLException {
+      execute("CREATE TEMP TABLE import_staging (" + ROW + " bigint PRIMARY KEY, " + EXISTING
+          + " boolean NOT NULL DEFAULT false, " + PROVIDED + " boolean[] NOT NULL, LIKE "
+          + qualifiedTable
+          + " INCLUDING DEFAULTS) ON COMMIT DROP");
+      List<String> notNull = columns.values().stream()
+          .filter(column -> !column.isNullable())
+          .map(column -> "ALTER COLUMN " + quote(column.getName()) + " DROP NOT NULL")
+          .collect(Collectors.toList());
+      if (!notNull.isEmpty()) {
+        execute("ALTER TABLE " + STAGING + " " + String.join(", ", notNull));
+      }
+    }
+
+    private long copy(RowReader rows) throws SQLException, IOException {
+      CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+          "COPY " + STAGING + " (" + ROW + ", " + PROVIDED + ", " + join(columns.keySet(), "")
+              + ") FROM STDIN WITH (FORMAT csv)");
+      StringBuilder buffer = new StringBuilder();
+      long count = 0;
+      try {
+        Map<String, String> row = rows.read();
+        while (row != null && errors.size() < maxErrors) {
+          count++;
+          if (isValid(count, row) && errors.isEmpty()) {
+            appendRow(buffer, count, row);
+            if (buffer.length() >= COPY_BUFFER_SIZE) {
+              write(copyIn, buffer);
+            }
+          }
+          row = rows.read();
+        }
+        if (!errors.isEmpty()) {
+          copyIn.cancelCopy();
+          return count;
+        }
+        write(copyIn, buffer);
+        copyIn.endCopy();
+        return count;
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    }
+
+    private boolean isValid(long rowNumber, Map<String, String> row) {
+      boolean valid = true;
+      for (Map.Entry<String, String> value : row.entrySet()) {
+        ImportColumn column = columns.get(value.getKey());
+        if (column == null) {
+          throw new CsvInputNotValidException("Unknown column: " + value.getKey());
+        }
+        provided.add(column.getName());
+        String error = value.getValue() == null ? null : column.validate(value.getValue());
+        if (error != null) {
+          errors.add(new RowError(rowNumber, column.getName(), value.getKey() + " " + error));
+          valid = false;
+        }
+      }
+      return valid;
+    }
+
+    private void appendRow(StringBuilder buffer, long rowNumber, Map<String, String> row) {
+      buffer.append(rowNumber).append(",\"{");
+      String separator = "";
+      for (String column : columns.keySet()) {
+        buffer.append(separator).append(row.get(column) == null ? 'f' : 't');
+        separator = ",";
+      }
+      buffer.append("}\"");
+      for (String column : columns.keySet()) {
+        buffer.append(',');
+        String value = row.get(column);
+        if (value != null) {
+          buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+      }
+      buffer.append('\n');
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+      byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+      copyIn.writeToCopy(bytes, 0, bytes.length);
+      buffer.setLength(0);
+    }
+
+    /**
+     * Complete the staged rows updating existing rows with the stored values of the columns they
+     * leave out, so that they are checked as they will be stored.
+     */
+    private void mergeExisting() throws SQLException {
+      List<String> assignments = new ArrayList<>();
+      assignments.add(EXISTING + " = true");
+      for (String column : columns.keySet()) {
+        if (!ID.equals(column)) {
+          assignments.add(quote(column) + " = " + keepUnlessProvided(column));
+        }
+      }
+      execute(UPDATE + STAGING + " s SET " + String.join(", ", assignments) + FROM
+          + qualifiedTable + " t WHERE t.id = s.id");
+    }
+
+    private void fillDefaults() throws SQLException {
+      execute(UPDATE + STAGING + " SET id = " + NEW_ID + " WHERE id IS NULL");
+      for (ImportColumn column : columns.values()) {
+        if (column.isDefaulted()) {
+          execute(UPDATE + STAGING + " SET " + quote(column.getName()) + " = DEFAULT WHERE "
+              + quote(column.getName()) + " IS NULL AND NOT " + EXISTING);
+        }
+      }
+    }
+
+    /**
+     * Get the value of a column for a staged row {@code s} updating a stored row {@code t}: the
+     * staged value if the row has one, the stored value otherwise.
+     */
+    private String keepUnlessProvided(String column) {
+      int index = new ArrayList<>(columns.keySet()).indexOf(column) + 1;
+      return "CASE WHEN s." + PROVIDED + "[" + index + "] THEN s." + quote(column) + " ELSE t."
+          + quote(column) + " END";
+    }
+
+    private void checkRequired() throws SQLException {
+      for (ImportColumn column : columns.values()) {
+        if (!column.isNullable()) {
+          addErrors(column.getName(), column.getName() + " is required",
+              "SELECT " + ROW + FROM + STAGING + " WHERE " + quote(column.getName())
+                  + " IS NULL");
+        }
+      }
+    }
+
+    private void checkUnique() throws SQLException {
+      for (String key : queryStrings(SELECT_UNIQUE_KEYS)) {
+        List<String> keyColumns = Arrays.asList(key.split(","));
+        String matches = keyColumns.stream()
+            .map(column -> "o." + quote(column) + EQUALS_STAGED + quote(column))
+            .collect(Collectors.joining(" AND "));
+        String description = String.join(", ", keyColumns);
+        addErrors(null, description + " is repeated in the input",
+            "SELECT s." + ROW + FROM + STAGING + " s WHERE EXISTS (SELECT 1 FROM " + STAGING
+                + " o WHERE " + matches + " AND o." + ROW + " < s." + ROW + ")");
+        addErrors(null, description + " is used by another row",
+            "SELECT s." + ROW + FROM + STAGING + " s WHERE EXISTS (SELECT 1 FROM "
+                + qualifiedTable + " o WHERE " + matches + " AND o.id <> s.id)");
+      }
+    }
+
+    private void checkReferences() throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(SELECT_FOREIGN_KEYS)) {
+        statement.setString(1, SCHEMA);
+        statement.setString(2, table);
+        List<String[]> foreignKeys = new ArrayList<>();
+        try (ResultSet result = statement.executeQuery()) {
+          while (result.next()) {
+            foreignKeys.add(new String[]{result.getString(1), result.getString(2),
+                result.getString(3), result.getString(4)});
+          }
+        }
+
+        for (String[] foreignKey : foreignKeys) {
+          String column = quote(foreignKey[0]);
+          String referenced = quote(foreignKey[3]);
+          String query = "SELECT s." + ROW + FROM + STAGING + " s WHERE s." + column
+              + " IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + quote(foreignKey[1]) + '.'
+              + quote(foreignKey[2]) + " r WHERE r." + referenced + EQUALS_STAGED + column + ")";
+          if (table.equals(foreignKey[2])) {
+            query += " AND NOT EXISTS (SELECT 1 FROM " + STAGING + " r WHERE r." + referenced
+                + EQUALS_STAGED + column + ")";
+          }
+          addErrors(foreignKey[0], foreignKey[0] + " refers to a row of " + foreignKey[2]
+              + " that does not exist", query);
+        }
+      }
+    }
+
+    private void recordChangeEvents() throws SQLException {
+      String entityType = getRecordedType(table);
+      if (entityType == null) {
+        return;
+      }
+      execute("SELECT pg_advisory_xact_lock(" + ChangeEventRecorder.OUTBOX_LOCK + ")");
+      try (PreparedStatement statement = connection.prepareStatement(
+          INSERT_INTO + SCHEMA + ".change_events (entitytype, entityid, operation,"
+              + " occurreddate) SELECT ?, s.id, CASE WHEN s." + EXISTING
+              + " THEN 'UPDATE' ELSE 'CREATE' END, localtimestamp FROM " + STAGING
+              + " s ORDER BY s." + ROW)) {
+        statement.setString(1, entityType);
+        statement.executeUpdate();
+      }
+    }
+
+    private void queueUserJobs() throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(
+          INSERT_INTO + SCHEMA + ".user_jobs (id, userid, type, status, sendwelcomeemail,"
+              + " attempts, nextattemptdate) SELECT " + NEW_ID + ", s.id, ?, ?, NOT s."
+              + EXISTING + ", 0, ? FROM " + STAGING + " s ORDER BY s." + ROW)) {
+        statement.setString(1, UserJob.JobType.SYNC_AUTH_USER.name());
+        statement.setString(2, UserJob.Status.PENDING.name());
+        statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+        statement.executeUpdate();
+      }
+    }
+
+    private int update() throws SQLException {
+      List<String> assignments = new ArrayList<>();
+      for (String column : columns.keySet()) {
+        if (provided.contains(column) && !ID.equals(column) && !"version".equals(column)
+            && !"createddate".equals(column) && !"modifieddate".equals(column)) {
+          assignments.add(quote(column) + " = " + keepUnlessProvided(column));
+        }
+      }
+      if (columns.containsKey("version")) {
+        assignments.add("version = t.version + 1");
+      }
+      if (assignments.isEmpty()) {
+        return 0;
+      }
+      return execute(UPDATE + qualifiedTable + " t SET " + String.join(", ", assignments)
+          + FROM + STAGING + " s WHERE t.id = s.id");
+    }
+
+    private void addErrors(String column, String message, String query) throws SQLException {
+      int limit = maxErrors - errors.size();
+      if (limit <= 0) {
+        return;
+      }
+      try (Statement statement = connection.createStatement();
+           ResultSet result = statement.executeQuery(query + " ORDER BY 1 LIMIT " + limit)) {
+        while (result.next()) {
+          errors.add(new RowError(result.getLong(1), column, message));
+        }
+      }
+    }
+
+    private List<String> queryStrings(String query) throws SQLException {
+      List<String> values = new ArrayList<>();
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        statement.setString(1, SCHEMA);
+        statement.setString(2, table);
+        try (ResultSet result = statement.executeQuery()) {
+          while (result.next()) {
+            values.add(result.getString(1));
+          }
+        }
+      }
+      return values;
+    }
+
+    private void failIfErrors() {
+      if (!errors.isEmpty()) {
+        errors.sort(Comparator.comparingLong(RowError::getRow));
+        throw new CsvInputNotValidException("Rows of " + table + " are not valid", errors);
+      }
+    }
+
+    private int execute(String sql) throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(sql);
+        return statement.getUpdateCount();
+      }
+    }
+  }
+
+  private static String join(Set<String> columns, String prefix) {
+    return columns.stream()
+        .map(column -> prefix + quote(column))
+        .collect(Collectors.joining(", "));
+  }
+
+  private static String quote(String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * Result of an import.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class ImportResult {
+
+    @Getter
+    private String table;
+
+    @Getter
+    private long rows;
+
+    @Getter
+    private int inserted;
+
+    @Getter
+    private int updated;
+  }
+}
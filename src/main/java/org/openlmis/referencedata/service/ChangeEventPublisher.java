@@ -0,0 +1,176 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the change events of the outbox to long-polling and streaming clients. Clients pass
+ * the id of the last event they have seen as their offset, and get every later event, so they can
+ * resume after a disconnect or a restart without missing any. A single background task polls the
+ * outbox on behalf of all waiting clients, and only while there are any.
+ */
+@Service
+@NoArgsConstructor
+public class ChangeEventPublisher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  private ChangeEventRepository changeEventRepository;
+
+  @Value("${changeEvents.batchSize}")
+  private int batchSize;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public ChangeEventPublisher(ChangeEventRepository changeEventRepository, int batchSize) {
+    this.changeEventRepository = Objects.requireNonNull(changeEventRepository);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Get events after the given offset, at most one batch of them, ordered by id.
+   *
+   * @param after id of the last event seen, 0 for all events
+   * @return events
+   */
+  public List<ChangeEvent> getEvents(long after) {
+    return changeEventRepository.findByIdGreaterThanOrderById(after, new PageRequest(0, batchSize));
+  }
+
+  /**
+   * Get events after the given offset, waiting for new ones if there are none yet.
+   *
+   * @param after         id of the last event seen, 0 for all events
+   * @param timeoutMillis how long to wait for new events, 0 to return immediately
+   * @return events, set as soon as there are any, or empty if there are none within the timeout
+   */
+  public DeferredResult<List<ChangeEvent>> poll(long after, long timeoutMillis) {
+    List<ChangeEvent> events = getEvents(after);
+    if (!events.isEmpty() || timeoutMillis <= 0) {
+      DeferredResult<List<ChangeEvent>> result = new DeferredResult<>();
+      result.setResult(events);
+      return result;
+    }
+
+    DeferredResult<List<ChangeEvent>> result = new DeferredResult<>(timeoutMillis,
+        Collections.<ChangeEvent>emptyList());
+    Subscription subscription = new Subscription(after) {
+      @Override
+      boolean deliver(List<ChangeEvent> newEvents) {
+        result.setResult(newEvents);
+        return false;
+      }
+    };
+    subscriptions.add(subscription);
+    result.onCompletion(() -> subscriptions.remove(subscription));
+    return result;
+  }
+
+  /**
+   * Stream events after the given offset as server-sent events, each with its id as the event id,
+   * until the timeout, after which clients are expected to reconnect with the last event id.
+   *
+   * @param after         id of the last event seen, 0 for all events
+   * @param timeoutMillis how long to keep the stream open
+   * @return event stream
+   */
+  public SseEmitter stream(long after, long timeoutMillis) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    Subscription subscription = new Subscription(after) {
+      @Override
+      boolean deliver(List<ChangeEvent> newEvents) {
+        try {
+          for (ChangeEvent event : newEvents) {
+            emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name("change")
+                .data(event));
+            offset = event.getId();
+          }
+          return true;
+        } catch (IOException | IllegalStateException ex) {
+          LOGGER.debug("Change event stream closed", ex);
+          return false;
+        }
+      }
+    };
+    subscriptions.add(subscription);
+    emitter.onCompletion(() -> subscriptions.remove(subscription));
+    emitter.onTimeout(() -> subscriptions.remove(subscription));
+    return emitter;
+  }
+
+  /**
+   * Deliver new events to every waiting client. Runs periodically in the background.
+   */
+  @Scheduled(fixedDelayString = "${changeEvents.pollInterval}")
+  public void publish() {
+    while (!subscriptions.isEmpty()) {
+      long from = subscriptions.stream().mapToLong(Subscription::getOffset).min().orElse(0);
+      List<ChangeEvent> events = getEvents(from);
+      if (events.isEmpty()) {
+        return;
+      }
+
+      for (Subscription subscription : subscriptions) {
+        long offset = subscription.getOffset();
+        List<ChangeEvent> newEvents = events.stream()
+            .filter(event -> event.getId() > offset)
+            .collect(Collectors.toList());
+        if (!newEvents.isEmpty() && !subscription.deliver(newEvents)) {
+          subscriptions.remove(subscription);
+        }
+      }
+
+      if (events.size() < batchSize) {
+        return;
+      }
+    }
+  }
+
+  int getSubscriptionCount() {
+    return subscriptions.size();
+  }
+
+  private abstract static class Subscription {
+    protected volatile long offset;
+
+    Subscription(long offset) {
+      this.offset = offset;
+    }
+
+    long getOffset() {
+      return offset;
+    }
+
+    /**
+     * Deliver events newer than the offset.
+     *
+     * @return whether to keep the subscription
+     */
+    abstract boolean deliver(List<ChangeEvent> newEvents);
+  }
+}
@@ -0,0 +1,251 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.OrderableProduct;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.ProgramProduct;
+import org.openlmis.referencedata.domain.RoleAssignment;
+import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Writes a change event to the outbox for every create, update and delete of facilities, programs,
+ * products, supervisory nodes and role assignments made through Hibernate, whichever controller or
+ * service makes it. Events are collected per session and written right before the transaction
+ * commits, within it, so an event exists if and only if its change has been committed.
+ *
+ * <p>Outbox writes are serialized by a transaction-scoped advisory lock, held from the write until
+ * the commit, so events become visible in the order of their ids and consumers reading by offset
+ * never skip an event that commits late.
+ */
+@Service
+@NoArgsConstructor
+@SuppressWarnings("PMD.TooManyMethods")
+public class ChangeEventRecorder implements PostInsertEventListener, PostUpdateEventListener,
+    PostDeleteEventListener, PostCollectionRecreateEventListener,
+    PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  static final List<Class<?>> RECORDED_TYPES = Arrays.asList(Facility.class, Program.class,
+      OrderableProduct.class, ProgramProduct.class, SupervisoryNode.class, RoleAssignment.class);
+
+  static final long OUTBOX_LOCK = 0x6f7574626f78L;
+
+  private static final String INSERT = "INSERT INTO referencedata.change_events"
+      + " (entitytype, entityid, operation, occurreddate) VALUES (?, ?, ?, ?)";
+
+  private final transient Map<SessionImplementor, PendingEvents> pending =
+      new ConcurrentHashMap<>();
+
+  @Autowired
+  private transient EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public ChangeEventRecorder(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = Objects.requireNonNull(entityManagerFactory);
+  }
+
+  /**
+   * Register this recorder with Hibernate.
+   */
+  @PostConstruct
+  public void register() {
+    EventListenerRegistry registry = entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, this);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    recordEntity(event.getSession(), event.getEntity(), event.getId(), Operation.CREATE);
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    recordEntity(event.getSession(), event.getEntity(), event.getId(), Operation.UPDATE);
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    recordEntity(event.getSession(), event.getEntity(), event.getId(), Operation.DELETE);
+  }
+
+  @Override
+  public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+    recordOwner(event);
+  }
+
+  @Override
+  public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+    recordOwner(event);
+  }
+
+  @Override
+  public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+    recordOwner(event);
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    // events are written before the commit, as part of the transaction
+    return false;
+  }
+
+  /**
+   * Record an event that is not the change of an entity, such as an invalidation of user
+   * permissions, in the current transaction of the given entity manager.
+   *
+   * @param entityManager entity manager taking part in a transaction
+   * @param entityType    type of the event's subject
+   * @param entityId      id of the event's subject
+   * @param operation     what happened to it
+   */
+  public void record(EntityManager entityManager, String entityType, UUID entityId,
+                     Operation operation) {
+    add((EventSource) entityManager.unwrap(Session.class), entityType, entityId, operation);
+  }
+
+  static boolean isRecorded(Class<?> type) {
+    for (Class<?> recorded : RECORDED_TYPES) {
+      if (recorded.isAssignableFrom(type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void recordOwner(AbstractCollectionEvent event) {
+    recordEntity(event.getSession(), event.getAffectedOwnerOrNull(),
+        event.getAffectedOwnerIdOrNull(), Operation.UPDATE);
+  }
+
+  private void recordEntity(EventSource session, Object entity, Serializable id,
+                            Operation operation) {
+    if (entity != null && id instanceof UUID && isRecorded(entity.getClass())) {
+      add(session, entity.getClass().getSimpleName(), (UUID) id, operation);
+    }
+  }
+
+  private void add(EventSource session, String entityType, UUID entityId, Operation operation) {
+    PendingEvents events = pending.get(session);
+    if (events == null) {
+      events = new PendingEvents();
+      pending.put(session, events);
+      session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) events);
+      session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) events);
+    }
+    events.add(entityType, entityId, operation);
+  }
+
+  /**
+   * Events of a single session transaction, by entity id. Several changes of the same entity are
+   * merged into one event: a created entity stays created when it is updated, and any entity that
+   * is deleted ends up deleted.
+   */
+  final class PendingEvents implements BeforeTransactionCompletionProcess,
+      AfterTransactionCompletionProcess {
+
+    private final Map<UUID, String> types = new LinkedHashMap<>();
+    private final Map<UUID, Operation> operations = new LinkedHashMap<>();
+
+    void add(String entityType, UUID entityId, Operation operation) {
+      Operation previous = operations.get(entityId);
+      types.put(entityId, entityType);
+      if (previous == null || operation == Operation.DELETE) {
+        operations.put(entityId, operation);
+      }
+    }
+
+    Map<UUID, Operation> getOperations() {
+      return operations;
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+      pending.remove(session);
+      if (operations.isEmpty()) {
+        return;
+      }
+
+      Connection connection = session.getJdbcCoordinator().getLogicalConnection()
+          .getPhysicalConnection();
+      Timestamp occurred = Timestamp.valueOf(LocalDateTime.now());
+      try (Statement lock = connection.createStatement();
+           PreparedStatement insert = connection.prepareStatement(INSERT)) {
+        lock.execute("SELECT pg_advisory_xact_lock(" + OUTBOX_LOCK + ")");
+        for (Map.Entry<UUID, Operation> entry : operations.entrySet()) {
+          insert.setString(1, types.get(entry.getKey()));
+          insert.setObject(2, entry.getKey());
+          insert.setString(3, entry.getValue().name());
+          insert.setTimestamp(4, occurred);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      } catch (SQLException ex) {
+        throw new JDBCException("Unable to write change events", ex);
+      }
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success, SessionImplementor session) {
+      // the transaction may have been rolled back without completing the before phase
+      pending.remove(session);
+    }
+  }
+}
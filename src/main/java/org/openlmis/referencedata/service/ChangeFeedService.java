@@ -0,0 +1,102 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.repository.TombstoneRepository;
+import org.openlmis.referencedata.util.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Table;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+/**
+ * Builds change feeds, which let clients keep a local copy of reference data in sync by fetching
+ * only what has changed since their previous synchronization. Upserts are found by the modified
+ * date of entities, deletions by the tombstones recorded when rows are deleted.
+ *
+ * <p>Modification and deletion times are set by the database when a row is written, but rows only
+ * become visible when their transaction commits, possibly much later. The sync time handed to
+ * clients is therefore the start of the oldest transaction still writing to the database: every
+ * row committed after the feed was built carries a later time, however long its transaction ran.
+ */
+@Service
+@NoArgsConstructor
+public class ChangeFeedService {
+
+  private static final String MODIFIED_DATE = "modifiedDate";
+
+  private static final String SYNC_TIME = "SELECT least(clock_timestamp()::timestamp,"
+      + " (SELECT min(xact_start)::timestamp FROM pg_stat_activity"
+      + " WHERE datname = current_database() AND backend_xid IS NOT NULL"
+      + " AND pid <> pg_backend_pid()))";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private TombstoneRepository tombstoneRepository;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public ChangeFeedService(EntityManager entityManager, TombstoneRepository tombstoneRepository) {
+    this.entityManager = Objects.requireNonNull(entityManager);
+    this.tombstoneRepository = Objects.requireNonNull(tombstoneRepository);
+  }
+
+  /**
+   * Get entities of the given type created or modified at or after the given time, ordered by
+   * modification time, and tombstones of those deleted at or after it.
+   *
+   * @param type  entity type
+   * @param since sync time of the previous feed, or null for a full synchronization
+   * @return change feed
+   */
+  @Transactional(readOnly = true)
+  public <T extends BaseEntity> ChangeFeed<T> getChanges(Class<T> type, LocalDateTime since) {
+    // taken before querying, so anything committed while the feed is built is in the next one
+    LocalDateTime syncTime = ((Timestamp) entityManager.createNativeQuery(SYNC_TIME)
+        .getSingleResult()).toLocalDateTime();
+    LocalDateTime from = since == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : since;
+
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = builder.createQuery(type);
+    Root<T> root = query.from(type);
+    query.where(builder.greaterThanOrEqualTo(root.get(MODIFIED_DATE), from));
+    query.orderBy(builder.asc(root.get(MODIFIED_DATE)));
+    List<T> upserts = entityManager.createQuery(query).getResultList();
+
+    return new ChangeFeed<>(syncTime, upserts, tombstoneRepository
+        .findByTableNameAndDeletedDateGreaterThanEqualOrderByDeletedDate(getTableName(type), from));
+  }
+
+  /**
+   * Get the name of the table an entity type is stored in, as recorded in tombstones. Entities
+   * in single table hierarchies are stored in the table of their root entity.
+   *
+   * @param type entity type
+   * @return table name
+   * @throws IllegalArgumentException if neither the type nor any of its superclasses has a table
+   */
+  static String getTableName(Class<?> type) {
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      Table table = current.getAnnotation(Table.class);
+      if (table != null) {
+        return table.name();
+      }
+    }
+    throw new IllegalArgumentException("Entity type has no table: " + type.getSimpleName());
+  }
+}
@@ -0,0 +1,103 @@
+package org.openlmis.referencedata.service;
+
+import com.zaxxer.hikari.metrics.MetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.openlmis.referencedata.util.Histogram;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects metrics of the database connection pool: how long requests wait to get a connection,
+ * how long they hold it, and how often they give up waiting. Together with the current number of
+ * active, idle and waiting connections, these show whether the pool is saturated.
+ */
+@Service
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+  private static final long[] BOUNDS_MILLIS =
+      {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+  private final Histogram acquisition = new Histogram(BOUNDS_MILLIS);
+  private final Histogram usage = new Histogram(BOUNDS_MILLIS);
+  private final AtomicLong timeouts = new AtomicLong();
+
+  private volatile String poolName;
+  private volatile PoolStats poolStats;
+
+  @Override
+  public MetricsTracker create(String poolName, PoolStats poolStats) {
+    this.poolName = poolName;
+    this.poolStats = poolStats;
+    return new MetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisition.record(TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos));
+      }
+
+      @Override
+      public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usage.record(elapsedBorrowedMillis);
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.incrementAndGet();
+      }
+    };
+  }
+
+  /**
+   * Get the current state of the pool and the metrics collected since it has started.
+   *
+   * @return pool statistics, with connection counts of zero if the pool has not started yet
+   */
+  public Statistics getStatistics() {
+    PoolStats stats = poolStats;
+    if (stats == null) {
+      return new Statistics(poolName, 0, 0, 0, 0, timeouts.get(), acquisition.getSnapshot(),
+          usage.getSnapshot());
+    }
+    return new Statistics(poolName, stats.getTotalConnections(), stats.getActiveConnections(),
+        stats.getIdleConnections(), stats.getPendingThreads(), timeouts.get(),
+        acquisition.getSnapshot(), usage.getSnapshot());
+  }
+
+  /**
+   * Statistics of the connection pool.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class Statistics {
+
+    @Getter
+    private String poolName;
+
+    @Getter
+    private int totalConnections;
+
+    @Getter
+    private int activeConnections;
+
+    @Getter
+    private int idleConnections;
+
+    @Getter
+    private int pendingThreads;
+
+    @Getter
+    private long timeouts;
+
+    @Getter
+    private Histogram.Snapshot acquisition;
+
+    @Getter
+    private Histogram.Snapshot usage;
+  }
+}
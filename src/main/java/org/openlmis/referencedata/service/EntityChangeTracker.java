@@ -0,0 +1,237 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EmbeddableType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+
+/**
+ * Counts changes of every entity type, so that clients can tell whether data they have already
+ * read is still current without reading it again. Changes are counted by the database: a
+ * statement-level trigger on every reference data table, see search_indexes.sql, logs each write
+ * in the table_changes table, within the transaction of the write. Counts therefore become visible
+ * exactly when the changes do, whether they were made through Hibernate, native SQL or psql, and
+ * are the same on every instance sharing the database.
+ *
+ * <p>Triggers only ever insert, so that concurrent writers never wait for each other. The log is
+ * periodically folded into per-table totals in table_versions, which keeps it short without
+ * changing any count. The totals include a random epoch, set when the table is created, so that
+ * counts of a recreated database do not repeat earlier ones.
+ *
+ * <p>Change events and tombstones, which change feeds and event streams are read from, are kept
+ * for entityChanges.retentionDays and then deleted. A client whose offset or changedSince is older
+ * than that may have missed changes, and must read all data again.
+ */
+@Service
+@NoArgsConstructor
+public class EntityChangeTracker {
+
+  static final String EPOCH = "";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EntityChangeTracker.class);
+
+  private static final String COUNT_ALL = "SELECT"
+      + " (SELECT coalesce(sum(version), 0) FROM referencedata.table_versions)"
+      + " + (SELECT count(*) FROM referencedata.table_changes)";
+
+  private static final String COUNT_TABLES = "SELECT"
+      + " (SELECT coalesce(sum(version), 0) FROM referencedata.table_versions"
+      + " WHERE tablename IN (:tables))"
+      + " + (SELECT count(*) FROM referencedata.table_changes WHERE tablename IN (:tables))";
+
+  private static final String COMPACT = "WITH moved AS ("
+      + "DELETE FROM referencedata.table_changes RETURNING tablename)"
+      + " INSERT INTO referencedata.table_versions (tablename, version)"
+      + " SELECT tablename, count(*) FROM moved GROUP BY tablename"
+      + " ON CONFLICT (tablename) DO UPDATE"
+      + " SET version = table_versions.version + EXCLUDED.version";
+
+  private static final String PRUNE_CHANGE_EVENTS = "DELETE FROM referencedata.change_events"
+      + " WHERE occurreddate < localtimestamp - :days * interval '1 day'";
+
+  private static final String PRUNE_TOMBSTONES = "DELETE FROM referencedata.tombstones"
+      + " WHERE deleteddate < localtimestamp - :days * interval '1 day'";
+
+  private final Map<Class<?>, Set<String>> tables = new ConcurrentHashMap<>();
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Value("${entityChanges.retentionDays}")
+  private int retentionDays;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public EntityChangeTracker(EntityManagerFactory entityManagerFactory,
+                             NamedParameterJdbcTemplate jdbcTemplate, int retentionDays) {
+    this.entityManagerFactory = Objects.requireNonNull(entityManagerFactory);
+    this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    this.retentionDays = retentionDays;
+  }
+
+  /**
+   * Get the number of committed changes of all entity types.
+   *
+   * @return global change count
+   */
+  public long getVersion() {
+    return jdbcTemplate.queryForObject(COUNT_ALL, Collections.emptyMap(), Long.class);
+  }
+
+  /**
+   * Get the number of committed changes of the given entity types and of every entity type they
+   * reference, directly or indirectly. The number changes whenever anything that may be part of
+   * those entities, when serialized, changes.
+   *
+   * @param types entity types
+   * @return change count
+   */
+  public long getVersion(Class<?>... types) {
+    Set<String> names = new HashSet<>();
+    names.add(EPOCH);
+    for (Class<?> type : types) {
+      names.addAll(tables.computeIfAbsent(type, this::findTables));
+    }
+    return jdbcTemplate.queryForObject(COUNT_TABLES,
+        new MapSqlParameterSource("tables", names), Long.class);
+  }
+
+  /**
+   * Fold the change log into the per-table totals. Runs periodically in the background, and may
+   * run on several instances at once.
+   */
+  @Scheduled(fixedDelayString = "${entityChanges.compactInterval}")
+  public void compact() {
+    jdbcTemplate.update(COMPACT, Collections.emptyMap());
+  }
+
+  /**
+   * Delete change events and tombstones older than the retention period. Runs periodically in the
+   * background, and may run on several instances at once.
+   */
+  @Scheduled(fixedDelayString = "${entityChanges.pruneInterval}")
+  public void prune() {
+    MapSqlParameterSource parameters = new MapSqlParameterSource("days", retentionDays);
+    int events = jdbcTemplate.update(PRUNE_CHANGE_EVENTS, parameters);
+    int tombstones = jdbcTemplate.update(PRUNE_TOMBSTONES, parameters);
+    if (events > 0 || tombstones > 0) {
+      LOGGER.info("Deleted {} change events and {} tombstones older than {} days", events,
+          tombstones, retentionDays);
+    }
+  }
+
+  private Set<String> findTables(Class<?> type) {
+    SessionFactoryImplementor sessionFactory =
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    Set<String> entityNames = findDependencies(type);
+
+    Set<String> found = new HashSet<>();
+    for (String entityName : entityNames) {
+      addTables(found, sessionFactory.getEntityPersister(entityName).getPropertySpaces());
+    }
+    for (Object role : sessionFactory.getAllCollectionMetadata().keySet()) {
+      CollectionPersister persister = sessionFactory.getCollectionPersister((String) role);
+      if (entityNames.contains(persister.getOwnerEntityPersister().getEntityName())) {
+        addTables(found, persister.getCollectionSpaces());
+      }
+    }
+    return found;
+  }
+
+  private static void addTables(Set<String> found, Serializable[] spaces) {
+    for (Serializable space : spaces) {
+      // spaces are qualified with the schema
+      String name = space.toString();
+      found.add(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ENGLISH));
+    }
+  }
+
+  private Set<String> findDependencies(Class<?> type) {
+    Metamodel metamodel = entityManagerFactory.getMetamodel();
+    Set<String> found = new HashSet<>();
+    Set<Class<?>> visited = new HashSet<>();
+    Deque<Class<?>> queue = new ArrayDeque<>();
+    queue.add(type);
+
+    while (!queue.isEmpty()) {
+      Class<?> current = queue.poll();
+      if (!visited.add(current)) {
+        continue;
+      }
+
+      for (EntityType<?> entity : metamodel.getEntities()) {
+        // the entity itself, its subclasses, and its superclasses for polymorphic associations
+        if (current.isAssignableFrom(entity.getJavaType())
+            || entity.getJavaType().isAssignableFrom(current)) {
+          found.add(entity.getJavaType().getName());
+          queue.addAll(findReferencedTypes(metamodel, entity));
+        }
+      }
+      for (EmbeddableType<?> embeddable : metamodel.getEmbeddables()) {
+        if (embeddable.getJavaType() == current) {
+          queue.addAll(findReferencedTypes(metamodel, embeddable));
+        }
+      }
+    }
+    return found;
+  }
+
+  private Set<Class<?>> findReferencedTypes(Metamodel metamodel, ManagedType<?> managedType) {
+    Set<Class<?>> referenced = new HashSet<>();
+    for (Attribute<?, ?> attribute : managedType.getAttributes()) {
+      Class<?> target;
+      if (attribute instanceof PluralAttribute) {
+        target = ((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType();
+      } else {
+        target = ((SingularAttribute<?, ?>) attribute).getType().getJavaType();
+      }
+      if (attribute.isAssociation()
+          || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED
+          || isEmbeddable(metamodel, target)) {
+        referenced.add(target);
+      }
+    }
+    return referenced;
+  }
+
+  private boolean isEmbeddable(Metamodel metamodel, Class<?> type) {
+    for (EmbeddableType<?> embeddable : metamodel.getEmbeddables()) {
+      if (embeddable.getJavaType() == type) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
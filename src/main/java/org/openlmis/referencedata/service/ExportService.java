@@ -0,0 +1,216 @@
+package org.openlmis.referencedata.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.util.ErrorResponse;
+import org.openlmis.referencedata.util.ExportWriter;
+import org.openlmis.referencedata.util.ExportWriter.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Exports all entities of a type as CSV or newline-delimited JSON, and writes them as JSON arrays
+ * for streamed list responses. Entities are read a page of the fetch size at a time, each page in
+ * its own short read-only transaction, in which it is serialized into a buffer and then detached.
+ * The buffer is only written to the client after the transaction has ended, so a slow client
+ * never holds a database connection, and memory use does not depend on the number of entities.
+ * Exports are compressed with gzip if the client accepts it.
+ */
+@Service
+@NoArgsConstructor
+public class ExportService {
+
+  private static final String GZIP = "gzip";
+  private static final Sort ID_SORT = new Sort("id");
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${export.fetchSize}")
+  private int fetchSize;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public ExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper, int fetchSize) {
+    this.entityManager = Objects.requireNonNull(entityManager);
+    this.transactionManager = Objects.requireNonNull(transactionManager);
+    this.objectMapper = Objects.requireNonNull(objectMapper);
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * Create a response streaming all entities of the given type, ordered by id.
+   *
+   * @param name           name of the exported resource, used as the file name
+   * @param type           entity type
+   * @param mapper         function turning an entity into the exported row, e.g. a DTO
+   * @param rowType        type of the exported rows, whose properties are the columns of CSV
+   * @param format         name of the format, csv or ndjson
+   * @param acceptEncoding Accept-Encoding header of the request, may be null
+   * @return streamed response, or a bad request response if the format is not known
+   */
+  public <T extends BaseEntity> ResponseEntity<?> export(String name, Class<T> type,
+                                                         Function<T, ?> mapper,
+                                                         Class<?> rowType, String format,
+                                                         String acceptEncoding) {
+    return export(name, pageable -> findPage(type, pageable), mapper, rowType, format,
+        acceptEncoding);
+  }
+
+  /**
+   * Create a response streaming the entities read page by page by the given function.
+   *
+   * @param name           name of the exported resource, used as the file name
+   * @param pages          reads a page of the exported entities, in an order that does not change
+   *                       between pages
+   * @param mapper         function turning an entity into the exported row, e.g. a DTO
+   * @param rowType        type of the exported rows, whose properties are the columns of CSV
+   * @param format         name of the format, csv or ndjson
+   * @param acceptEncoding Accept-Encoding header of the request, may be null
+   * @return streamed response, or a bad request response if the format is not known
+   */
+  public <T> ResponseEntity<?> export(String name, Function<Pageable, List<T>> pages,
+                                      Function<T, ?> mapper, Class<?> rowType, String format,
+                                      String acceptEncoding) {
+    Format exportFormat;
+    try {
+      exportFormat = Format.fromName(format);
+    } catch (IllegalArgumentException ex) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid export format", format),
+          HttpStatus.BAD_REQUEST);
+    }
+    final boolean gzip = acceptEncoding != null
+        && acceptEncoding.toLowerCase(Locale.ENGLISH).contains(GZIP);
+
+    final StreamingResponseBody body = outputStream -> {
+      OutputStream output = gzip ? new GZIPOutputStream(outputStream) : outputStream;
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      ExportWriter writer = ExportWriter.create(exportFormat, buffer, objectMapper, rowType);
+      writePages(pages, buffer, output, rows -> {
+        for (T row : rows) {
+          writer.write(mapper.apply(row));
+        }
+        writer.flush();
+      });
+      if (gzip) {
+        ((GZIPOutputStream) output).finish();
+      }
+    };
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType(exportFormat.getMediaType()));
+    headers.set(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"");
+    headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+    }
+    return new ResponseEntity<>(body, headers, HttpStatus.OK);
+  }
+
+  /**
+   * Write a JSON array of the entities read page by page by the given function.
+   *
+   * @param pages  reads a page of the entities, in the order of the page's sort
+   * @param mapper function turning an entity into the written element, e.g. a DTO
+   * @param writer writer of the format of the response, e.g. JSON or Smile
+   * @param output stream to write to, which is not closed
+   * @throws IOException if the output cannot be written
+   */
+  public <T> void writeJsonArray(Function<Pageable, List<T>> pages, Function<T, ?> mapper,
+                                 ObjectWriter writer, OutputStream output)
+      throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (SequenceWriter sequence = writer
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .writeValuesAsArray(buffer)) {
+      writePages(pages, buffer, output, rows -> {
+        for (T row : rows) {
+          sequence.write(mapper.apply(row));
+        }
+        sequence.flush();
+      });
+    }
+    buffer.writeTo(output);
+  }
+
+  /**
+   * Read all pages, sorted by id unless the function sorts them otherwise, serialize each into the
+   * buffer within a read-only transaction, and copy the buffer to the output once the transaction
+   * has ended and released its connection.
+   */
+  private <T> void writePages(Function<Pageable, List<T>> pages, ByteArrayOutputStream buffer,
+                              OutputStream output, PageWriter<T> writer) throws IOException {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    int size = fetchSize;
+    for (int page = 0; size == fetchSize; page++) {
+      final Pageable pageable = new PageRequest(page, fetchSize, ID_SORT);
+      size = transaction.execute(status -> {
+        List<T> rows = pages.apply(pageable);
+        try {
+          writer.write(rows);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        entityManager.clear();
+        return rows.size();
+      });
+      buffer.writeTo(output);
+      buffer.reset();
+    }
+  }
+
+  private <T extends BaseEntity> List<T> findPage(Class<T> type, Pageable pageable) {
+    return entityManager
+        .createQuery("SELECT e FROM " + type.getName() + " e ORDER BY e.id", type)
+        .setFirstResult(pageable.getOffset())
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
+  }
+
+  /**
+   * Serializes a page of entities.
+   */
+  private interface PageWriter<T> {
+    void write(List<T> rows) throws IOException;
+  }
+}
@@ -0,0 +1,349 @@
+package org.openlmis.referencedata.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.openlmis.referencedata.util.CircuitBreaker;
+import org.openlmis.referencedata.util.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Client of the other OpenLMIS services this service calls. All calls share a pool of
+ * keep-alive connections, and each service has its own timeouts, set by the
+ * externalApi.[service].readTimeoutMillis properties, and its own circuit breaker, so that a
+ * slow or failing service does not hold request threads. Calls that are idempotent are retried
+ * with exponential backoff when they fail with an I/O error or a server error. The latency of
+ * each endpoint is recorded.
+ */
+@Service
+@NoArgsConstructor
+public class ExternalApiClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExternalApiClient.class);
+
+  private static final long[] BOUNDS_MILLIS =
+      {5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+  /**
+   * Services that are called.
+   */
+  public enum Api {
+    AUTH("auth"), NOTIFICATION("notification");
+
+    private final String name;
+
+    Api(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  @Autowired
+  private Environment environment;
+
+  @Value("${externalApi.maxConnections}")
+  private int maxConnections;
+
+  @Value("${externalApi.connectTimeoutMillis}")
+  private int connectTimeoutMillis;
+
+  @Value("${externalApi.readTimeoutMillis}")
+  private int readTimeoutMillis;
+
+  @Value("${externalApi.retries}")
+  private int retries;
+
+  @Value("${externalApi.retryBackoffMillis}")
+  private long retryBackoffMillis;
+
+  @Value("${externalApi.circuitBreaker.failureThreshold}")
+  private int failureThreshold;
+
+  @Value("${externalApi.circuitBreaker.openSeconds}")
+  private long openSeconds;
+
+  private PoolingHttpClientConnectionManager connectionManager;
+  private CloseableHttpClient httpClient;
+  private final Map<Api, Target> targets = new EnumMap<>(Api.class);
+
+  /**
+   * Constructor for unit testing, with the same template for all services and no connection
+   * pool.
+   */
+  public ExternalApiClient(RestTemplate restTemplate, int retries, long retryBackoffMillis,
+                           int failureThreshold, long openSeconds, Clock clock) {
+    Objects.requireNonNull(restTemplate);
+    this.retries = retries;
+    this.retryBackoffMillis = retryBackoffMillis;
+    for (Api api : Api.values()) {
+      targets.put(api, new Target(restTemplate,
+          new CircuitBreaker(failureThreshold, openSeconds, clock)));
+    }
+  }
+
+  /**
+   * Creates the connection pool and a template with the timeouts of each service.
+   */
+  @PostConstruct
+  public void init() {
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+    httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+
+    for (Api api : Api.values()) {
+      HttpComponentsClientHttpRequestFactory requestFactory =
+          new HttpComponentsClientHttpRequestFactory(httpClient);
+      requestFactory.setConnectTimeout(connectTimeoutMillis);
+      requestFactory.setConnectionRequestTimeout(connectTimeoutMillis);
+      requestFactory.setReadTimeout(environment.getProperty(
+          "externalApi." + api.getName() + ".readTimeoutMillis", Integer.class,
+          readTimeoutMillis));
+      targets.put(api, new Target(new RestTemplate(requestFactory),
+          new CircuitBreaker(failureThreshold, openSeconds, Clock.systemUTC())));
+    }
+  }
+
+  /**
+   * Closes the pooled connections.
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    if (httpClient != null) {
+      httpClient.close();
+    }
+  }
+
+  /**
+   * Posts a request to a service.
+   *
+   * @param api          the service
+   * @param url          URL of the endpoint
+   * @param request      request body, may be null
+   * @param responseType type of the response body
+   * @param idempotent   whether the call may be repeated if it fails
+   * @return response body
+   * @throws RestClientException if the call fails, or the circuit breaker of the service is open
+   */
+  public <T> T post(Api api, String url, Object request, Class<T> responseType,
+                    boolean idempotent) {
+    return call(api, url, idempotent,
+        restTemplate -> restTemplate.postForObject(url, request, responseType));
+  }
+
+  /**
+   * Gets a resource of a service. The call is retried if it fails.
+   *
+   * @param api          the service
+   * @param url          URL of the resource
+   * @param responseType type of the response body
+   * @return response body
+   * @throws RestClientException if the call fails, or the circuit breaker of the service is open
+   */
+  public <T> T get(Api api, String url, Class<T> responseType) {
+    return call(api, url, true, restTemplate -> restTemplate.getForObject(url, responseType));
+  }
+
+  private <T> T call(Api api, String url, boolean idempotent,
+                     Function<RestTemplate, T> request) {
+    Target target = targets.get(api);
+    Endpoint endpoint = target.getEndpoint(url);
+    int attempts = idempotent ? retries + 1 : 1;
+
+    for (int attempt = 1; ; attempt++) {
+      if (!target.circuitBreaker.allowRequest()) {
+        target.rejected.incrementAndGet();
+        throw new ResourceAccessException("Circuit breaker of " + api.getName() + " is open");
+      }
+
+      long start = System.nanoTime();
+      try {
+        T response = request.apply(target.restTemplate);
+        target.circuitBreaker.recordSuccess();
+        endpoint.record(start, false);
+        return response;
+      } catch (ResourceAccessException | HttpServerErrorException ex) {
+        target.circuitBreaker.recordFailure();
+        endpoint.record(start, true);
+        if (attempt >= attempts) {
+          throw ex;
+        }
+        LOGGER.warn("Call to {} failed, retrying: {}", api.getName(), ex.getMessage());
+        backOff(attempt, ex);
+      } catch (RestClientException ex) {
+        // the service has answered, so it is available, but rejected the request
+        target.circuitBreaker.recordSuccess();
+        endpoint.record(start, true);
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Get the state of the connection pool and of the circuit breaker and latency of the endpoints
+   * of each service.
+   *
+   * @return statistics of calls to other services
+   */
+  public Statistics getStatistics() {
+    List<ApiStatistics> apis = new ArrayList<>();
+    for (Map.Entry<Api, Target> entry : targets.entrySet()) {
+      Target target = entry.getValue();
+      List<EndpointStatistics> endpoints = new ArrayList<>();
+      for (Map.Entry<String, Endpoint> endpoint : new TreeMap<>(target.endpoints).entrySet()) {
+        endpoints.add(new EndpointStatistics(endpoint.getKey(),
+            endpoint.getValue().requests.get(), endpoint.getValue().failures.get(),
+            endpoint.getValue().latency.getSnapshot()));
+      }
+      apis.add(new ApiStatistics(entry.getKey().getName(),
+          target.circuitBreaker.getState().name(), target.rejected.get(), endpoints));
+    }
+
+    if (connectionManager == null) {
+      return new Statistics(0, 0, 0, 0, apis);
+    }
+    PoolStats pool = connectionManager.getTotalStats();
+    return new Statistics(pool.getMax(), pool.getLeased(), pool.getAvailable(),
+        pool.getPending(), apis);
+  }
+
+  private void backOff(int attempt, RestClientException failure) {
+    try {
+      Thread.sleep(retryBackoffMillis << (attempt - 1));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw failure;
+    }
+  }
+
+  private static final class Target {
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicLong rejected = new AtomicLong();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    Target(RestTemplate restTemplate, CircuitBreaker circuitBreaker) {
+      this.restTemplate = restTemplate;
+      this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Endpoints are identified by their path, without the query, which holds the access token.
+     */
+    Endpoint getEndpoint(String url) {
+      return endpoints.computeIfAbsent(URI.create(url).getPath(), path -> new Endpoint());
+    }
+  }
+
+  private static final class Endpoint {
+    private final Histogram latency = new Histogram(BOUNDS_MILLIS);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    void record(long startNanos, boolean failed) {
+      latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      requests.incrementAndGet();
+      if (failed) {
+        failures.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Statistics of calls to other services.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class Statistics {
+
+    @Getter
+    private int maxConnections;
+
+    @Getter
+    private int leasedConnections;
+
+    @Getter
+    private int availableConnections;
+
+    @Getter
+    private int pendingRequests;
+
+    @Getter
+    private List<ApiStatistics> apis;
+  }
+
+  /**
+   * Statistics of calls to one service.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class ApiStatistics {
+
+    @Getter
+    private String name;
+
+    @Getter
+    private String circuitBreaker;
+
+    @Getter
+    private long rejected;
+
+    @Getter
+    private List<EndpointStatistics> endpoints;
+  }
+
+  /**
+   * Statistics of calls to one endpoint.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class EndpointStatistics {
+
+    @Getter
+    private String path;
+
+    @Getter
+    private long requests;
+
+    @Getter
+    private long failures;
+
+    @Getter
+    private Histogram.Snapshot latency;
+  }
+}
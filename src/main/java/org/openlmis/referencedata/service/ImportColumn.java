@@ -0,0 +1,89 @@
+package org.openlmis.referencedata.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Column of a table that data is imported into, as described by the information schema. Checks
+ * imported values before they are copied into the database, so that a single bad value is
+ * reported for its row instead of failing the whole copy.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@AllArgsConstructor
+class ImportColumn {
+
+  private static final List<String> BOOLEANS =
+      Arrays.asList("true", "false", "t", "f", "yes", "no", "y", "n", "on", "off", "1", "0");
+
+  @Getter
+  private final String name;
+
+  private final String dataType;
+
+  private final Integer maxLength;
+
+  @Getter
+  private final boolean nullable;
+
+  @Getter
+  private final boolean defaulted;
+
+  /**
+   * Check whether the given value can be stored in this column.
+   *
+   * @param value imported value, not null
+   * @return description of the problem, or null if the value is valid
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  String validate(String value) {
+    try {
+      switch (dataType) {
+        case "uuid":
+          if (value.length() != 36) {
+            return "is not a UUID";
+          }
+          UUID.fromString(value);
+          return null;
+        case "boolean":
+          return BOOLEANS.contains(value.trim().toLowerCase(Locale.ENGLISH))
+              ? null : "is not a boolean";
+        case "smallint":
+          return checkRange(Long.parseLong(value.trim()), Short.MIN_VALUE, Short.MAX_VALUE);
+        case "integer":
+          return checkRange(Long.parseLong(value.trim()), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        case "bigint":
+          Long.parseLong(value.trim());
+          return null;
+        case "numeric":
+        case "real":
+        case "double precision":
+          new BigDecimal(value.trim());
+          return null;
+        case "date":
+          LocalDate.parse(value.trim());
+          return null;
+        case "timestamp without time zone":
+          LocalDateTime.parse(value.trim().replace(' ', 'T'));
+          return null;
+        default:
+          return maxLength != null && value.length() > maxLength
+              ? "is longer than " + maxLength + " characters" : null;
+      }
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      return "is not a valid " + dataType;
+    }
+  }
+
+  private static String checkRange(long value, long min, long max) {
+    return value < min || value > max ? "is out of range" : null;
+  }
+}
@@ -0,0 +1,268 @@
+package org.openlmis.referencedata.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Pushes permission invalidations to subscribed clients as server-sent events, so that they can
+ * cache right checks and supervised facilities until told otherwise, and to listeners within the
+ * service, such as the cache of permission indexes. An invalidation names the users whose
+ * permissions have changed, or applies to all users if it names none.
+ *
+ * <p>Invalidations are written to the change event outbox, as events of type
+ * {@value #ENTITY_TYPE}, in the transaction of the change, or in their own transaction if there is
+ * none. Every instance of the service polls the outbox for them, so all of them learn about every
+ * invalidation once it has committed, wherever it was made. The id of an invalidation is the id of
+ * its last event, and a client reconnecting with the id of the last invalidation it got is sent
+ * those it missed. If there are too many of them, or the id is not valid, the client is sent an
+ * invalidation of all users instead, so it never keeps stale permissions.
+ */
+@Service
+@NoArgsConstructor
+public class PermissionChangeNotifier {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PermissionChangeNotifier.class);
+
+  static final String ENTITY_TYPE = "UserPermissions";
+
+  /**
+   * Subject of the events invalidating all users.
+   */
+  static final UUID ALL_USERS = new UUID(0, 0);
+
+  private static final String EVENT_NAME = "invalidate";
+
+  private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+  private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+  private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "permission-change-notifier");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private long offset;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private ChangeEventRecorder changeEventRecorder;
+
+  @Autowired
+  private ChangeEventRepository changeEventRepository;
+
+  @Value("${permissionEvents.batchSize}")
+  private int batchSize;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public PermissionChangeNotifier(EntityManager entityManager,
+                                  ChangeEventRecorder changeEventRecorder,
+                                  ChangeEventRepository changeEventRepository, int batchSize) {
+    this.entityManager = Objects.requireNonNull(entityManager);
+    this.changeEventRecorder = Objects.requireNonNull(changeEventRecorder);
+    this.changeEventRepository = Objects.requireNonNull(changeEventRepository);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Start from the latest invalidation in the outbox, as nothing has been cached before it.
+   */
+  @PostConstruct
+  public synchronized void init() {
+    ChangeEvent latest = changeEventRepository.findFirstByEntityTypeOrderByIdDesc(ENTITY_TYPE);
+    offset = latest == null ? 0 : latest.getId();
+  }
+
+  /**
+   * Notify that the permissions of the given users have changed.
+   *
+   * @param userIds ids of the users
+   */
+  @Transactional
+  public void usersChanged(Collection<UUID> userIds) {
+    for (UUID userId : userIds) {
+      changeEventRecorder.record(entityManager, ENTITY_TYPE, userId, Operation.UPDATE);
+    }
+  }
+
+  /**
+   * Notify that the permissions of any user may have changed.
+   */
+  @Transactional
+  public void allChanged() {
+    changeEventRecorder.record(entityManager, ENTITY_TYPE, ALL_USERS, Operation.UPDATE);
+  }
+
+  /**
+   * Add a listener called with every invalidation, made by any instance, once it has committed.
+   *
+   * @param listener listener
+   */
+  public void addListener(Consumer<Invalidation> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Subscribe to invalidations.
+   *
+   * @param lastEventId   id of the last invalidation received, null for a new subscription
+   * @param timeoutMillis how long to keep the subscription open
+   * @return event stream
+   */
+  public SseEmitter subscribe(String lastEventId, long timeoutMillis) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    emitter.onCompletion(() -> emitters.remove(emitter));
+    emitter.onTimeout(() -> emitters.remove(emitter));
+
+    synchronized (this) {
+      if (lastEventId != null) {
+        for (Invalidation missed : getMissed(lastEventId)) {
+          send(emitter, missed);
+        }
+      }
+      emitters.add(emitter);
+    }
+    return emitter;
+  }
+
+  /**
+   * Pass new invalidations in the outbox on to listeners and subscribers. Runs periodically in
+   * the background.
+   */
+  @Scheduled(fixedDelayString = "${permissionEvents.pollInterval}")
+  public synchronized void poll() {
+    List<ChangeEvent> events = getEvents(offset);
+    while (!events.isEmpty()) {
+      Invalidation invalidation = toInvalidation(events);
+      offset = events.get(events.size() - 1).getId();
+      listeners.forEach(listener -> listener.accept(invalidation));
+
+      List<SseEmitter> subscribers = new ArrayList<>(emitters);
+      if (!subscribers.isEmpty()) {
+        // sent in the background, so that slow clients do not hold up the others
+        sender.execute(() -> subscribers.forEach(emitter -> send(emitter, invalidation)));
+      }
+      events = events.size() < batchSize ? Collections.emptyList() : getEvents(offset);
+    }
+  }
+
+  int getSubscriberCount() {
+    return emitters.size();
+  }
+
+  /**
+   * Stop sending invalidations.
+   */
+  @PreDestroy
+  public void shutdown() {
+    sender.shutdownNow();
+  }
+
+  synchronized List<Invalidation> getMissed(String lastEventId) {
+    long lastId;
+    try {
+      lastId = Long.parseLong(lastEventId);
+    } catch (NumberFormatException ex) {
+      lastId = -1;
+    }
+    if (lastId >= offset) {
+      return Collections.emptyList();
+    }
+
+    List<ChangeEvent> events = new ArrayList<>();
+    if (lastId >= 0) {
+      for (ChangeEvent event : getEvents(lastId)) {
+        if (event.getId() <= offset) {
+          events.add(event);
+        }
+      }
+    }
+    if (events.isEmpty() || events.size() == batchSize) {
+      return Collections.singletonList(
+          new Invalidation(String.valueOf(offset), true, new ArrayList<>()));
+    }
+    return Collections.singletonList(toInvalidation(events));
+  }
+
+  private List<ChangeEvent> getEvents(long after) {
+    return changeEventRepository.findByEntityTypeAndIdGreaterThanOrderById(ENTITY_TYPE, after,
+        new PageRequest(0, batchSize));
+  }
+
+  private Invalidation toInvalidation(List<ChangeEvent> events) {
+    Set<UUID> userIds = new LinkedHashSet<>();
+    events.forEach(event -> userIds.add(event.getEntityId()));
+    String id = String.valueOf(events.get(events.size() - 1).getId());
+    if (userIds.contains(ALL_USERS)) {
+      return new Invalidation(id, true, new ArrayList<>());
+    }
+    return new Invalidation(id, false, new ArrayList<>(userIds));
+  }
+
+  private void send(SseEmitter emitter, Invalidation invalidation) {
+    try {
+      emitter.send(SseEmitter.event()
+          .id(invalidation.getId())
+          .name(EVENT_NAME)
+          .data(invalidation));
+    } catch (IOException | IllegalStateException ex) {
+      LOGGER.debug("Permission invalidation stream closed", ex);
+      emitters.remove(emitter);
+    }
+  }
+
+  /**
+   * Invalidation of the permissions of some users, or of all users.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class Invalidation {
+
+    @Getter
+    private String id;
+
+    @Getter
+    private boolean allUsers;
+
+    @Getter
+    private List<UUID> userIds;
+  }
+}
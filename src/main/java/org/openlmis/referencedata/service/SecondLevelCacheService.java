@@ -0,0 +1,175 @@
+package org.openlmis.referencedata.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.hibernate.Cache;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.openlmis.referencedata.domain.Right;
+import org.openlmis.referencedata.domain.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Reports statistics and versions of the Hibernate second-level cache regions, and evicts them on
+ * demand, e.g. after reference data has been changed directly in the database.
+ */
+@Service
+@NoArgsConstructor
+public class SecondLevelCacheService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecondLevelCacheService.class);
+
+  private static final String ROLE_RIGHTS = Role.class.getName() + ".rights";
+  private static final String RIGHT_ATTACHMENTS = Right.class.getName() + ".attachments";
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private EntityChangeTracker entityChangeTracker;
+
+  /**
+   * Constructor for unit testing.
+   *
+   * @param entityManagerFactory entity manager factory backed by a Hibernate session factory
+   * @param entityChangeTracker  tracker of entity changes, which gives the region versions
+   */
+  public SecondLevelCacheService(EntityManagerFactory entityManagerFactory,
+                                 EntityChangeTracker entityChangeTracker) {
+    this.entityManagerFactory = Objects.requireNonNull(entityManagerFactory);
+    this.entityChangeTracker = Objects.requireNonNull(entityChangeTracker);
+  }
+
+  /**
+   * Get the statistics of every cache region, ordered by region name. Counts are collected since
+   * the application has started or the statistics have been cleared, unless Hibernate statistics
+   * have been disabled, in which case they are zero. The version of a region is the change count
+   * of its entity type, or of the owner of its collection, see
+   * {@link EntityChangeTracker#getVersion(Class[])}, and the count of all changes for the query
+   * region. Entries cached before the version last changed may be stale.
+   *
+   * @return region statistics
+   */
+  public List<RegionStatistics> getRegionStatistics() {
+    SessionFactoryImplementor sessionFactory = getSessionFactory();
+    Statistics statistics = sessionFactory.getStatistics();
+    String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+    Arrays.sort(regionNames);
+
+    List<RegionStatistics> regions = new ArrayList<>();
+    for (String regionName : regionNames) {
+      SecondLevelCacheStatistics regionStatistics =
+          statistics.getSecondLevelCacheStatistics(regionName);
+      if (regionStatistics != null) {
+        Class<?> type = getRegionType(sessionFactory, regionName);
+        long version = type == null
+            ? entityChangeTracker.getVersion() : entityChangeTracker.getVersion(type);
+        regions.add(new RegionStatistics(regionName, version, regionStatistics.getHitCount(),
+            regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+            regionStatistics.getElementCountInMemory()));
+      }
+    }
+    return regions;
+  }
+
+  /**
+   * Evict all entries of a single entity, collection or query cache region.
+   *
+   * @param regionName name of the region, i.e. the entity name or the collection role
+   * @return true if the region has been evicted, false if there is no such region
+   */
+  public boolean evictRegion(String regionName) {
+    SessionFactoryImplementor sessionFactory = getSessionFactory();
+    Cache cache = sessionFactory.getCache();
+    if (sessionFactory.getClassMetadata(regionName) != null) {
+      cache.evictEntityRegion(regionName);
+    } else if (sessionFactory.getCollectionMetadata(regionName) != null) {
+      cache.evictCollectionRegion(regionName);
+    } else if (StandardQueryCache.class.getName().equals(regionName)) {
+      cache.evictDefaultQueryRegion();
+    } else {
+      return false;
+    }
+    LOGGER.info("Evicted second-level cache region {}", regionName);
+    return true;
+  }
+
+  /**
+   * Evict the roles and rights, with their rights and attachments, that permission indexes are
+   * compiled from. The cache is local to each instance, so this must be done whenever another
+   * instance may have changed them, before indexes are compiled again.
+   */
+  public void evictPermissionRegions() {
+    Cache cache = getSessionFactory().getCache();
+    cache.evictEntityRegion(Role.class);
+    cache.evictEntityRegion(Right.class);
+    cache.evictCollectionRegion(ROLE_RIGHTS);
+    cache.evictCollectionRegion(RIGHT_ATTACHMENTS);
+  }
+
+  /**
+   * Evict all entity, collection and query cache regions.
+   */
+  public void evictAllRegions() {
+    getSessionFactory().getCache().evictAllRegions();
+    LOGGER.info("Evicted all second-level cache regions");
+  }
+
+  private SessionFactoryImplementor getSessionFactory() {
+    return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+  }
+
+  private static Class<?> getRegionType(SessionFactoryImplementor sessionFactory,
+                                        String regionName) {
+    ClassMetadata entity = sessionFactory.getClassMetadata(regionName);
+    if (entity != null) {
+      return entity.getMappedClass();
+    }
+    if (sessionFactory.getCollectionMetadata(regionName) != null) {
+      return sessionFactory.getCollectionPersister(regionName).getOwnerEntityPersister()
+          .getMappedClass();
+    }
+    return null;
+  }
+
+  /**
+   * Statistics of a single cache region.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class RegionStatistics {
+
+    @Getter
+    private String name;
+
+    @Getter
+    private long version;
+
+    @Getter
+    private long hits;
+
+    @Getter
+    private long misses;
+
+    @Getter
+    private long puts;
+
+    @Getter
+    private long size;
+  }
+}
@@ -0,0 +1,142 @@
+package org.openlmis.referencedata.service;
+
+import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.domain.SupervisoryNodeClosure;
+import org.openlmis.referencedata.repository.SupervisoryNodeClosureRepository;
+import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the supervisory node closure table in sync with the parent links of supervisory nodes.
+ * Nodes should be saved and deleted through this service, so that the node and its links change
+ * in the same transaction; otherwise it must be notified whenever a node is saved or deleted. The
+ * table is rebuilt on startup, so that nodes written directly into the database get their links.
+ */
+@Service
+public class SupervisoryNodeHierarchyService {
+
+  @Autowired
+  private SupervisoryNodeRepository supervisoryNodeRepository;
+
+  @Autowired
+  private SupervisoryNodeClosureRepository closureRepository;
+
+  @Value("${supervisoryNodes.maxDepth}")
+  private int maxDepth;
+
+  /**
+   * Save a supervisory node and update the closure table.
+   *
+   * @param supervisoryNode supervisory node to save
+   * @return saved supervisory node
+   */
+  @Transactional
+  public SupervisoryNode save(SupervisoryNode supervisoryNode) {
+    SupervisoryNode saved = supervisoryNodeRepository.save(supervisoryNode);
+    nodeSaved(saved);
+    return saved;
+  }
+
+  /**
+   * Delete a supervisory node and update the closure table.
+   *
+   * @param supervisoryNode supervisory node to delete
+   */
+  @Transactional
+  public void delete(SupervisoryNode supervisoryNode) {
+    supervisoryNodeRepository.delete(supervisoryNode);
+    nodeDeleted(supervisoryNode.getId());
+  }
+
+  /**
+   * Update the closure table after a supervisory node has been created or updated. The node's
+   * whole subtree is detached from its previous ancestors and attached below its current parent.
+   *
+   * @param supervisoryNode saved supervisory node
+   */
+  @Transactional
+  public void nodeSaved(SupervisoryNode supervisoryNode) {
+    UUID nodeId = supervisoryNode.getId();
+    addSelfLink(nodeId);
+
+    List<SupervisoryNodeClosure> subtree = closureRepository.findByAncestorId(nodeId);
+    detachSubtree(subtree);
+
+    SupervisoryNode parentNode = supervisoryNode.getParentNode();
+    if (parentNode == null) {
+      return;
+    }
+
+    addSelfLink(parentNode.getId());
+    List<SupervisoryNodeClosure> ancestors =
+        closureRepository.findByDescendantId(parentNode.getId());
+    List<SupervisoryNodeClosure> links = new ArrayList<>();
+    for (SupervisoryNodeClosure ancestor : ancestors) {
+      for (SupervisoryNodeClosure descendant : subtree) {
+        links.add(new SupervisoryNodeClosure(ancestor.getAncestorId(),
+            descendant.getDescendantId(), ancestor.getDepth() + descendant.getDepth() + 1));
+      }
+    }
+    closureRepository.save(links);
+  }
+
+  /**
+   * Update the closure table after a supervisory node has been deleted. Former descendants keep
+   * their links among themselves, but no longer belong to the deleted node's ancestors.
+   *
+   * @param supervisoryNodeId id of the deleted supervisory node
+   */
+  @Transactional
+  public void nodeDeleted(UUID supervisoryNodeId) {
+    detachSubtree(closureRepository.findByAncestorId(supervisoryNodeId));
+    closureRepository.delete(
+        closureRepository.findByAncestorIdOrDescendantId(supervisoryNodeId, supervisoryNodeId));
+  }
+
+  /**
+   * Rebuild the closure table from the parent links of all supervisory nodes, e.g. after nodes
+   * have been imported directly into the database, and on startup. Links that are still valid are
+   * kept.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    closureRepository.deleteLinksNotInTree(maxDepth);
+    closureRepository.insertMissingLinks(maxDepth);
+  }
+
+  private void addSelfLink(UUID nodeId) {
+    if (closureRepository.findByAncestorIdAndDescendantId(nodeId, nodeId) == null) {
+      closureRepository.save(new SupervisoryNodeClosure(nodeId, nodeId, 0));
+    }
+  }
+
+  private void detachSubtree(List<SupervisoryNodeClosure> subtree) {
+    Set<UUID> subtreeIds = new HashSet<>();
+    for (SupervisoryNodeClosure link : subtree) {
+      subtreeIds.add(link.getDescendantId());
+    }
+    if (subtreeIds.isEmpty()) {
+      return;
+    }
+
+    List<SupervisoryNodeClosure> outsideLinks = new ArrayList<>();
+    for (SupervisoryNodeClosure link : closureRepository.findByDescendantIdIn(subtreeIds)) {
+      if (!subtreeIds.contains(link.getAncestorId())) {
+        outsideLinks.add(link);
+      }
+    }
+    closureRepository.delete(outsideLinks);
+  }
+}
@@ -0,0 +1,185 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserJob;
+import org.openlmis.referencedata.domain.UserJob.JobType;
+import org.openlmis.referencedata.domain.UserJob.Status;
+import org.openlmis.referencedata.repository.UserJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Queue of user account jobs, kept in the database. Jobs are added in the transaction that saves
+ * the user, so they exist if and only if the user was saved, and survive restarts. Workers on any
+ * number of nodes claim due jobs without ever claiming the same one, and report the result back.
+ */
+@Service
+@NoArgsConstructor
+public class UserJobService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UserJobService.class);
+
+  private static final String LEASE_EXPIRED = "Lease ran out before the job completed";
+
+  private final String workerId = UUID.randomUUID().toString();
+
+  @Autowired
+  private UserJobRepository userJobRepository;
+
+  @Value("${userJobs.maxAttempts}")
+  private int maxAttempts;
+
+  @Value("${userJobs.retryBackoffSeconds}")
+  private long retryBackoffSeconds;
+
+  @Value("${userJobs.maxRetryBackoffSeconds}")
+  private long maxRetryBackoffSeconds;
+
+  @Value("${userJobs.leaseSeconds}")
+  private long leaseSeconds;
+
+  private Clock clock = Clock.systemDefaultZone();
+
+  /**
+   * Constructor for unit testing.
+   */
+  public UserJobService(UserJobRepository userJobRepository, int maxAttempts,
+                        long retryBackoffSeconds, long maxRetryBackoffSeconds, long leaseSeconds,
+                        Clock clock) {
+    this.userJobRepository = Objects.requireNonNull(userJobRepository);
+    this.maxAttempts = maxAttempts;
+    this.retryBackoffSeconds = retryBackoffSeconds;
+    this.maxRetryBackoffSeconds = maxRetryBackoffSeconds;
+    this.leaseSeconds = leaseSeconds;
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Queue creating or updating the auth user of a saved user, followed by sending the welcome
+   * email if the user is new. Joins the transaction saving the user.
+   *
+   * @param user    saved user
+   * @param newUser whether the user has just been created
+   * @return queued job
+   */
+  @Transactional
+  public UserJob enqueue(User user, boolean newUser) {
+    return userJobRepository.save(
+        new UserJob(user.getId(), JobType.SYNC_AUTH_USER, newUser, now()));
+  }
+
+  /**
+   * Claim due jobs, and jobs whose worker's lease has run out, for this node. A job whose lease
+   * ran out on its last attempt is marked as failed instead, so that a job that kills its worker
+   * is not retried forever.
+   *
+   * @param limit maximum number of jobs to claim
+   * @return claimed jobs
+   */
+  @Transactional
+  public List<UserJob> claim(int limit) {
+    LocalDateTime now = now();
+    List<UserJob> claimed = new ArrayList<>();
+    for (UserJob job : userJobRepository.lockDueJobs(Timestamp.valueOf(now), limit)) {
+      if (job.getStatus() == Status.RUNNING && job.getAttempts() >= maxAttempts) {
+        job.fail(LEASE_EXPIRED, now, maxAttempts, Duration.ofSeconds(retryBackoffSeconds),
+            Duration.ofSeconds(maxRetryBackoffSeconds));
+        LOGGER.warn("User job {} of user {} timed out on attempt {}, now {}", job.getType(),
+            job.getUserId(), job.getAttempts(), job.getStatus());
+      } else {
+        job.claim(workerId, now.plusSeconds(leaseSeconds));
+        claimed.add(job);
+      }
+      userJobRepository.save(job);
+    }
+    return claimed;
+  }
+
+  /**
+   * Mark a claimed job as done, and queue the welcome email once the auth user of a new user
+   * exists. Does nothing if the job has been claimed again after its lease ran out.
+   *
+   * @param job claimed job
+   */
+  @Transactional
+  public void complete(UserJob job) {
+    UserJob current = reload(job);
+    if (current == null) {
+      return;
+    }
+
+    current.succeed();
+    userJobRepository.save(current);
+    if (current.getType() == JobType.SYNC_AUTH_USER && current.isSendWelcomeEmail()) {
+      userJobRepository.save(
+          new UserJob(current.getUserId(), JobType.SEND_WELCOME_EMAIL, false, now()));
+    }
+  }
+
+  /**
+   * Record a failed attempt of a claimed job, which is retried later unless it has been attempted
+   * too many times. Does nothing if the job has been claimed again after its lease ran out.
+   *
+   * @param job   claimed job
+   * @param error cause of the failure
+   */
+  @Transactional
+  public void fail(UserJob job, Exception error) {
+    UserJob current = reload(job);
+    if (current == null) {
+      return;
+    }
+
+    current.fail(describe(error), now(), maxAttempts, Duration.ofSeconds(retryBackoffSeconds),
+        Duration.ofSeconds(maxRetryBackoffSeconds));
+    userJobRepository.save(current);
+    LOGGER.warn("User job {} of user {} failed on attempt {}, now {}", current.getType(),
+        current.getUserId(), current.getAttempts(), current.getStatus(), error);
+  }
+
+  /**
+   * Get the jobs of a user, oldest first.
+   *
+   * @param userId id of the user
+   * @return jobs of the user
+   */
+  public List<UserJob> getJobs(UUID userId) {
+    return userJobRepository.findByUserIdOrderByCreatedDate(userId);
+  }
+
+  private UserJob reload(UserJob job) {
+    UserJob current = userJobRepository.findOne(job.getId());
+    if (current == null || !current.isClaimedBy(workerId)) {
+      LOGGER.warn("User job {} has been claimed by another worker", job.getId());
+      return null;
+    }
+    return current;
+  }
+
+  private LocalDateTime now() {
+    return LocalDateTime.now(clock);
+  }
+
+  private static String describe(Exception error) {
+    StringBuilder description = new StringBuilder(256).append(error.getMessage());
+    for (Throwable cause = error.getCause(); cause != null; cause = cause.getCause()) {
+      description.append(": ").append(cause.getMessage());
+    }
+    return description.toString();
+  }
+}
@@ -0,0 +1,138 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserJob;
+import org.openlmis.referencedata.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Runs the jobs of the user account queue on a pool of background threads. Due jobs are polled
+ * periodically, and only as many are claimed as there are idle threads, so that jobs this node
+ * cannot start yet are left to other nodes.
+ */
+@Service
+@NoArgsConstructor
+public class UserJobWorker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UserJobWorker.class);
+
+  @Autowired
+  private UserJobService userJobService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Value("${userJobs.workers}")
+  private int workers;
+
+  private ExecutorService executor;
+
+  private final AtomicInteger running = new AtomicInteger();
+
+  /**
+   * Constructor for unit testing.
+   */
+  public UserJobWorker(UserJobService userJobService, UserService userService,
+                       UserRepository userRepository, ExecutorService executor, int workers) {
+    this.userJobService = Objects.requireNonNull(userJobService);
+    this.userService = Objects.requireNonNull(userService);
+    this.userRepository = Objects.requireNonNull(userRepository);
+    this.executor = Objects.requireNonNull(executor);
+    this.workers = workers;
+  }
+
+  /**
+   * Start the worker threads.
+   */
+  @PostConstruct
+  public void init() {
+    AtomicInteger count = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "user-job-worker-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Stop the worker threads. Jobs that are still running are claimed again by another worker once
+   * their lease runs out.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Claim due jobs for idle threads and start them. Runs periodically in the background.
+   */
+  @Scheduled(fixedDelayString = "${userJobs.pollInterval}")
+  public void poll() {
+    int idle = workers - running.get();
+    if (idle <= 0) {
+      return;
+    }
+
+    for (UserJob job : userJobService.claim(idle)) {
+      running.incrementAndGet();
+      executor.execute(() -> {
+        try {
+          run(job);
+        } finally {
+          running.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  private void run(UserJob job) {
+    try {
+      try {
+        execute(job);
+      } catch (RuntimeException ex) {
+        userJobService.fail(job, ex);
+        return;
+      }
+      userJobService.complete(job);
+    } catch (ConcurrencyFailureException ex) {
+      LOGGER.warn("User job {} has been claimed by another worker", job.getId(), ex);
+    }
+  }
+
+  private void execute(UserJob job) {
+    User user = userRepository.findOne(job.getUserId());
+    if (user == null) {
+      throw new IllegalStateException("User " + job.getUserId() + " does not exist");
+    }
+
+    switch (job.getType()) {
+      case SYNC_AUTH_USER:
+        userService.saveAuthUser(user);
+        break;
+      case SEND_WELCOME_EMAIL:
+        userService.sendResetPasswordEmail(user);
+        break;
+      default:
+        throw new IllegalStateException("Unknown user job type " + job.getType());
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package org.openlmis.referencedata.service;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.PermissionIndex;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Keeps a compiled {@link PermissionIndex} per user, so that right checks do not have to load the
+ * user and walk its role assignments every time. Indexes are rebuilt lazily after they have been
+ * invalidated, which must happen whenever a user's role assignments, a role's rights or a right's
+ * attachments change, or a facility or program that rights are attached to is changed. Every
+ * invalidation is passed on to the {@link PermissionChangeNotifier}, which records it with the
+ * change and passes it back to every instance of the service, and to other services caching
+ * permissions, once it has committed. Indexes are dropped right away by the instance making the
+ * change, after the commit, and also permissions.indexTtlSeconds after they were compiled, so
+ * that changes made outside the service are picked up.
+ */
+@Service
+@NoArgsConstructor
+public class UserPermissionService {
+
+  private final ConcurrentMap<UUID, CachedIndex> indexes = new ConcurrentHashMap<>();
+
+  private final AtomicLong generation = new AtomicLong();
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PermissionChangeNotifier permissionChangeNotifier;
+
+  @Autowired
+  private SecondLevelCacheService secondLevelCacheService;
+
+  @Value("${permissions.indexTtlSeconds}")
+  private long indexTtlSeconds;
+
+  private Clock clock = Clock.systemUTC();
+
+  /**
+   * Constructor for service unit testing.
+   *
+   * @param userRepository           user repository
+   * @param permissionChangeNotifier notifier of permission changes
+   * @param secondLevelCacheService  second-level cache of roles and rights
+   * @param indexTtlSeconds          how long to keep compiled indexes
+   * @param clock                    clock
+   */
+  public UserPermissionService(UserRepository userRepository,
+                               PermissionChangeNotifier permissionChangeNotifier,
+                               SecondLevelCacheService secondLevelCacheService,
+                               long indexTtlSeconds, Clock clock) {
+    this.userRepository = Objects.requireNonNull(userRepository);
+    this.permissionChangeNotifier = Objects.requireNonNull(permissionChangeNotifier);
+    this.secondLevelCacheService = Objects.requireNonNull(secondLevelCacheService);
+    this.indexTtlSeconds = indexTtlSeconds;
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Drop indexes whenever any instance of the service invalidates them. Cached roles and rights
+   * are evicted first, as the invalidation may come from a change made by another instance, and
+   * indexes compiled from them would keep it out until they expire.
+   */
+  @PostConstruct
+  public void subscribe() {
+    permissionChangeNotifier.addListener(invalidation -> {
+      secondLevelCacheService.evictPermissionRegions();
+      drop(invalidation.isAllUsers() ? null : invalidation.getUserIds());
+    });
+  }
+
+  /**
+   * Get the permission index of the specified user, compiling it if it is not cached yet.
+   *
+   * @param userId id of the user
+   * @return permission index, or null if the user does not exist
+   */
+  public PermissionIndex getPermissionIndex(UUID userId) {
+    Instant now = clock.instant();
+    CachedIndex cached = indexes.get(userId);
+    if (cached != null && now.isBefore(cached.expiresAt)) {
+      return cached.index;
+    }
+
+    final long expectedGeneration = generation.get();
+    User user = userRepository.findOne(userId);
+    if (user == null) {
+      return null;
+    }
+
+    cached = new CachedIndex(user.getPermissionIndex(), now.plusSeconds(indexTtlSeconds));
+    indexes.put(userId, cached);
+    if (generation.get() != expectedGeneration) {
+      // invalidated while compiling, do not keep an index that may be stale
+      indexes.remove(userId, cached);
+    }
+    return cached.index;
+  }
+
+  /**
+   * Drop the cached permission index of a single user, e.g. after its roles have changed.
+   *
+   * @param userId id of the user, may be null for a user that has not been saved yet
+   */
+  public void invalidate(UUID userId) {
+    if (userId != null) {
+      permissionChangeNotifier.usersChanged(Collections.singleton(userId));
+      dropAfterCommit(Collections.singleton(userId));
+    }
+  }
+
+  /**
+   * Drop the cached permission indexes of all users that have the given role, e.g. after its
+   * rights have changed.
+   *
+   * @param roleId id of the role
+   */
+  public void invalidateRole(UUID roleId) {
+    Set<UUID> userIds = userRepository.findIdsByRoleId(roleId);
+    permissionChangeNotifier.usersChanged(userIds);
+    dropAfterCommit(userIds);
+  }
+
+  /**
+   * Drop all cached permission indexes, e.g. after a right has changed, or a facility or program
+   * that rights may be attached to has been changed or deleted.
+   */
+  public void invalidateAll() {
+    permissionChangeNotifier.allChanged();
+    dropAfterCommit(null);
+  }
+
+  /**
+   * Notify that the facilities supervised by any user may have changed, e.g. after a supervisory
+   * node or a requisition group has been saved. Permission indexes do not depend on them, but the
+   * invalidation applies to all users, so they are recompiled when it reaches the instances.
+   */
+  public void invalidateSupervision() {
+    permissionChangeNotifier.allChanged();
+  }
+
+  private void dropAfterCommit(Collection<UUID> userIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      drop(userIds);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            drop(userIds);
+          }
+        });
+  }
+
+  private void drop(Collection<UUID> userIds) {
+    generation.incrementAndGet();
+    if (userIds == null) {
+      indexes.clear();
+    } else {
+      userIds.forEach(indexes::remove);
+    }
+  }
+
+  private static final class CachedIndex {
+    private final PermissionIndex index;
+    private final Instant expiresAt;
+
+    CachedIndex(PermissionIndex index, Instant expiresAt) {
+      this.index = index;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
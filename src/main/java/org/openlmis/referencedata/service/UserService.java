@@ -5,16 +5,17 @@ import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.exception.ExternalApiException;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.UserRepository;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
 import org.openlmis.referencedata.util.AuthUserRequest;
 import org.openlmis.referencedata.util.NotificationRequest;
 import org.openlmis.referencedata.util.PasswordChangeRequest;
 import org.openlmis.referencedata.util.PasswordResetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
 import java.util.List;
@@ -30,6 +31,15 @@ public class UserService {
   @Autowired
   private ExposedMessageSource messageSource;
 
+  @Autowired
+  private ExternalApiClient externalApiClient;
+
+  @Autowired
+  private AuthService authService;
+
+  @Autowired
+  private UserJobService userJobService;
+
   private String virtualHostBaseUrl;
 
   /**
@@ -42,51 +52,60 @@ public class UserService {
   }
   
   /**
-   * Method returns all users with matched parameters.
+   * Method returns a page of users with matched parameters. Username, first name and last name
+   * match exactly, or case-insensitively by prefix.
    *
-   * @param username     username of user.
-   * @param firstName    firstName of user.
-   * @param lastName     lastName of user.
+   * @param username     username of user, or its prefix.
+   * @param firstName    firstName of user, or its prefix.
+   * @param lastName     lastName of user, or its prefix.
    * @param homeFacility homeFacility of user.
    * @param active       is the account activated.
    * @param verified     is the account verified.
+   * @param prefix       whether names match by prefix rather than exactly.
+   * @param pageable     page to return, all matching users are returned if null.
    * @return List of users
    */
   public List<User> searchUsers(
       String username, String firstName, String lastName,
-      Facility homeFacility, Boolean active, Boolean verified) {
+      Facility homeFacility, Boolean active, Boolean verified, boolean prefix,
+      Pageable pageable) {
     return userRepository.searchUsers(
         username, firstName,
         lastName, homeFacility,
-        active, verified);
+        active, verified, prefix, pageable);
   }
 
   /**
-   * Creating or updating users.
+   * Creating or updating users. The auth user, and the welcome email of new users, are not sent
+   * here but queued, and sent in the background once the user has been committed.
    */
   @Transactional
-  public void save(User user, String token) {
+  public void save(User user) {
     boolean isNewUser = false;
     if (user.getId() == null) {
       isNewUser = true;
     }
     userRepository.save(user);
-    saveAuthUser(user, token);
-    if (isNewUser) {
-      sendResetPasswordEmail(user, token);
-    }
+    userJobService.enqueue(user, isNewUser);
   }
 
-  private void saveAuthUser(User user, String token) {
-    AuthUserRequest userRequest = new AuthUserRequest();
-    userRequest.setUsername(user.getUsername());
-    userRequest.setEmail(user.getEmail());
-    userRequest.setReferenceDataUserId(user.getId());
+  /**
+   * Creates or updates the auth user of a user.
+   */
+  public void saveAuthUser(User user) {
+    try {
+      AuthUserRequest userRequest = new AuthUserRequest();
+      userRequest.setUsername(user.getUsername());
+      userRequest.setEmail(user.getEmail());
+      userRequest.setReferenceDataUserId(user.getId());
 
-    String url = virtualHostBaseUrl + "/auth/api/users?access_token=" + token;
-    RestTemplate restTemplate = new RestTemplate();
+      String url = virtualHostBaseUrl + "/auth/api/users?access_token="
+          + authService.obtainAccessToken();
 
-    restTemplate.postForObject(url, userRequest, Object.class);
+      externalApiClient.post(Api.AUTH, url, userRequest, Object.class, true);
+    } catch (RestClientException ex) {
+      throw new ExternalApiException("Could not save auth user", ex);
+    }
   }
 
   /**
@@ -95,9 +114,8 @@ public class UserService {
   public void passwordReset(PasswordResetRequest passwordResetRequest, String token) {
     try {
       String url = virtualHostBaseUrl + "/auth/api/users/passwordReset?access_token=" + token;
-      RestTemplate restTemplate = new RestTemplate();
 
-      restTemplate.postForObject(url, passwordResetRequest, String.class);
+      externalApiClient.post(Api.AUTH, url, passwordResetRequest, String.class, true);
 
       verifyUser(passwordResetRequest.getUsername());
     } catch (RestClientException ex) {
@@ -112,8 +130,7 @@ public class UserService {
     try {
       String url = virtualHostBaseUrl + "/auth/api/users/changePassword?access_token=" + token;
 
-      RestTemplate restTemplate = new RestTemplate();
-      restTemplate.postForObject(url, passwordChangeRequest, String.class);
+      externalApiClient.post(Api.AUTH, url, passwordChangeRequest, String.class, false);
 
       verifyUser(passwordChangeRequest.getUsername());
     } catch (RestClientException ex) {
@@ -127,7 +144,11 @@ public class UserService {
     userRepository.save(user);
   }
 
-  private void sendResetPasswordEmail(User user, String authToken) {
+  /**
+   * Sends a new user the email asking them to set their password.
+   */
+  public void sendResetPasswordEmail(User user) {
+    String authToken = authService.obtainAccessToken();
     UUID token = createPasswordResetToken(user.getId(), authToken);
 
     //TODO: This address needs to be changed when reset password page will be done
@@ -146,9 +167,8 @@ public class UserService {
     try {
       String url = virtualHostBaseUrl + "/auth/api/users/passwordResetToken?userId=" + userId
           + "&access_token=" + token;
-      RestTemplate restTemplate = new RestTemplate();
 
-      return restTemplate.postForObject(url, null, UUID.class);
+      return externalApiClient.post(Api.AUTH, url, null, UUID.class, false);
     } catch (RestClientException ex) {
       throw new ExternalApiException("Could not create reset password token", ex);
     }
@@ -159,9 +179,8 @@ public class UserService {
       NotificationRequest request = new NotificationRequest(from, to, subject, content, null);
 
       String url = virtualHostBaseUrl + "/notification/notification?access_token=" + token;
-      RestTemplate restTemplate = new RestTemplate();
 
-      restTemplate.postForObject(url, request, Object.class);
+      externalApiClient.post(Api.NOTIFICATION, url, request, Object.class, false);
     } catch (RestClientException ex) {
       throw new ExternalApiException("Could not send reset password email", ex);
     }
@@ -0,0 +1,52 @@
+package org.openlmis.referencedata.util;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.openlmis.referencedata.domain.Tombstone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Changes of a single resource since a given time: entities created or modified since then, and
+ * ids of entities deleted since then. Clients apply both to their local copy and pass the sync time
+ * as the changedSince parameter of their next request. The sync time lies before the start of every
+ * transaction still open when the feed was built, so consecutive feeds may overlap and changes
+ * committed late are not missed; upserts are idempotent, so repeated entries are harmless.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@AllArgsConstructor
+public class ChangeFeed<T> {
+
+  @Getter
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  private LocalDateTime syncTime;
+
+  @Getter
+  private List<T> upserts;
+
+  @Getter
+  private List<Tombstone> deletions;
+
+  /**
+   * Convert the upserts of this feed, e.g. to DTOs.
+   *
+   * @param mapper conversion of a single upsert
+   * @return feed with converted upserts
+   */
+  public <R> ChangeFeed<R> map(Function<? super T, R> mapper) {
+    return new ChangeFeed<>(syncTime,
+        upserts.stream().map(mapper).collect(Collectors.toList()), deletions);
+  }
+}
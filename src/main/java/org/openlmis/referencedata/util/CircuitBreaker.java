@@ -0,0 +1,76 @@
+package org.openlmis.referencedata.util;
+
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to a service that keeps failing, so that callers fail fast instead of waiting for
+ * it. The breaker opens after a number of consecutive failures and rejects calls until the open
+ * time has passed. Then it lets a single trial call through: if it succeeds the breaker closes,
+ * if it fails the breaker opens again. Safe for concurrent use.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openMillis;
+  private final Clock clock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+
+  /**
+   * Creates a closed circuit breaker.
+   *
+   * @param failureThreshold number of consecutive failures that open the breaker
+   * @param openSeconds      time to reject calls for once the breaker is open
+   * @param clock            clock telling when the open time has passed
+   */
+  public CircuitBreaker(int failureThreshold, long openSeconds, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = TimeUnit.SECONDS.toMillis(openSeconds);
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Checks whether a call may be made. A caller that is allowed to call must record its result.
+   *
+   * @return true if the call may be made, false if it must be rejected
+   */
+  public synchronized boolean allowRequest() {
+    if (state == State.OPEN && clock.millis() - openedAt >= openMillis) {
+      state = State.HALF_OPEN;
+      return true;
+    }
+    return state == State.CLOSED;
+  }
+
+  /**
+   * Records a successful call, which closes the breaker.
+   */
+  public synchronized void recordSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  /**
+   * Records a failed call, which opens the breaker if it was a trial call or if there have been
+   * too many failures in a row.
+   */
+  public synchronized void recordFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = clock.millis();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
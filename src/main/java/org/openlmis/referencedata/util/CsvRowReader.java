@@ -0,0 +1,143 @@
+package org.openlmis.referencedata.util;
+
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads rows of CSV as defined by RFC 4180, with a header row naming the columns. Fields may be
+ * quoted, and quoted fields may contain separators, line breaks and doubled quotes. An empty
+ * unquoted field is null, an empty quoted one is an empty string.
+ */
+public class CsvRowReader implements RowReader {
+
+  private static final char SEPARATOR = ',';
+  private static final char QUOTE = '"';
+  private static final int END = -1;
+
+  private final Reader reader;
+  private List<String> header;
+  private int lookahead = -2;
+  private int row;
+
+  public CsvRowReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public Map<String, String> read() throws IOException {
+    if (header == null) {
+      header = readHeader();
+    }
+
+    List<String> fields = readRecord();
+    if (fields == null) {
+      return null;
+    }
+    row++;
+    if (fields.size() != header.size()) {
+      throw new CsvInputNotValidException("Row " + row + " has " + fields.size()
+          + " fields, expected " + header.size());
+    }
+
+    Map<String, String> values = new LinkedHashMap<>();
+    for (int i = 0; i < fields.size(); i++) {
+      values.put(header.get(i), fields.get(i));
+    }
+    return values;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private List<String> readHeader() throws IOException {
+    List<String> names = readRecord();
+    if (names == null) {
+      throw new CsvInputNotValidException("Header row is missing");
+    }
+    List<String> columns = new ArrayList<>();
+    for (String name : names) {
+      String column = name == null ? "" : name.trim().toLowerCase(Locale.ENGLISH);
+      if (column.isEmpty() || columns.contains(column)) {
+        throw new CsvInputNotValidException("Header has an empty or repeated column: " + name);
+      }
+      columns.add(column);
+    }
+    return columns;
+  }
+
+  private List<String> readRecord() throws IOException {
+    int next = peek();
+    if (next == END) {
+      return null;
+    }
+
+    List<String> fields = new ArrayList<>();
+    fields.add(readField());
+    int separator = take();
+    while (separator == SEPARATOR) {
+      fields.add(readField());
+      separator = take();
+    }
+    if (separator == '\r' && peek() == '\n') {
+      take();
+    }
+    return fields;
+  }
+
+  private String readField() throws IOException {
+    if (peek() != QUOTE) {
+      StringBuilder value = new StringBuilder();
+      while (!isFieldEnd(peek())) {
+        value.append((char) take());
+      }
+      return value.length() == 0 ? null : value.toString();
+    }
+
+    take();
+    StringBuilder value = new StringBuilder();
+    while (true) {
+      int next = take();
+      if (next == END) {
+        throw new CsvInputNotValidException("Row " + (row + 1) + " has an unterminated quote");
+      }
+      if (next == QUOTE) {
+        if (peek() != QUOTE) {
+          break;
+        }
+        take();
+      }
+      value.append((char) next);
+    }
+    if (!isFieldEnd(peek())) {
+      throw new CsvInputNotValidException("Row " + (row + 1)
+          + " has characters after a closing quote");
+    }
+    return value.toString();
+  }
+
+  private static boolean isFieldEnd(int next) {
+    return next == SEPARATOR || next == '\n' || next == '\r' || next == END;
+  }
+
+  private int peek() throws IOException {
+    if (lookahead == -2) {
+      lookahead = reader.read();
+    }
+    return lookahead;
+  }
+
+  private int take() throws IOException {
+    int next = peek();
+    lookahead = -2;
+    return next;
+  }
+}
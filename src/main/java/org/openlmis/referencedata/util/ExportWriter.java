@@ -0,0 +1,185 @@
+package org.openlmis.referencedata.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes exported rows to a stream one at a time, holding nothing but the current row in memory.
+ */
+public abstract class ExportWriter {
+
+  private static final String ID = "id";
+
+  protected final Writer writer;
+  protected final ObjectWriter jsonWriter;
+
+  protected ExportWriter(OutputStream output, ObjectMapper mapper) {
+    this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    this.jsonWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+  }
+
+  /**
+   * Creates a writer of the given format.
+   *
+   * @param format  output format
+   * @param output  stream to write to
+   * @param mapper  mapper used to serialize rows
+   * @param rowType type of the rows, whose properties are the columns of CSV
+   * @return writer
+   */
+  public static ExportWriter create(Format format, OutputStream output, ObjectMapper mapper,
+                                    Class<?> rowType) {
+    return format == Format.CSV
+        ? new CsvWriter(output, mapper, rowType)
+        : new NdjsonWriter(output, mapper);
+  }
+
+  /**
+   * Write a single row.
+   *
+   * @param row object to write, serialized as JSON would be
+   * @throws IOException if the stream cannot be written
+   */
+  public abstract void write(Object row) throws IOException;
+
+  /**
+   * Write what is buffered, without closing the stream.
+   *
+   * @throws IOException if the stream cannot be written
+   */
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  /**
+   * Export format.
+   */
+  public enum Format {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    Format(String mediaType, String extension) {
+      this.mediaType = mediaType;
+      this.extension = extension;
+    }
+
+    public String getMediaType() {
+      return mediaType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+
+    /**
+     * Get the format of the given name, in any case.
+     *
+     * @param name name of the format
+     * @return format
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static Format fromName(String name) {
+      return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+  }
+
+  /**
+   * Writes one JSON object per line.
+   */
+  private static final class NdjsonWriter extends ExportWriter {
+
+    NdjsonWriter(OutputStream output, ObjectMapper mapper) {
+      super(output, mapper);
+    }
+
+    @Override
+    public void write(Object row) throws IOException {
+      writer.write(jsonWriter.writeValueAsString(row));
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Writes CSV with a header row naming the properties serialized for the row type, so that rows
+   * leaving out null values still line up, and missing values are written as empty cells. Rows
+   * without known properties, such as maps, get the columns of the first row. Referenced objects
+   * with an id are written as their id, other nested values as JSON.
+   */
+  private static final class CsvWriter extends ExportWriter {
+
+    private final ObjectMapper mapper;
+    private final Class<?> rowType;
+    private List<String> columns;
+
+    CsvWriter(OutputStream output, ObjectMapper mapper, Class<?> rowType) {
+      super(output, mapper);
+      this.mapper = mapper;
+      this.rowType = rowType;
+    }
+
+    @Override
+    public void write(Object row) throws IOException {
+      JsonNode node = mapper.valueToTree(row);
+      if (columns == null) {
+        columns = new ArrayList<>();
+        Iterator<PropertyWriter> properties = mapper.getSerializerProviderInstance()
+            .findValueSerializer(rowType).properties();
+        while (properties.hasNext()) {
+          columns.add(properties.next().getName());
+        }
+        if (columns.isEmpty()) {
+          node.fieldNames().forEachRemaining(columns::add);
+        }
+        writeRecord(columns);
+      }
+
+      List<String> values = new ArrayList<>(columns.size());
+      for (String column : columns) {
+        values.add(toText(node.get(column)));
+      }
+      writeRecord(values);
+    }
+
+    private String toText(JsonNode value) throws IOException {
+      if (value == null || value.isNull()) {
+        return null;
+      }
+      if (value.isObject() && value.hasNonNull(ID)) {
+        return value.get(ID).asText();
+      }
+      return value.isContainerNode() ? jsonWriter.writeValueAsString(value) : value.asText();
+    }
+
+    private void writeRecord(List<String> values) throws IOException {
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        String value = values.get(i);
+        if (value != null) {
+          writer.write('"');
+          writer.write(value.replace("\"", "\"\""));
+          writer.write('"');
+        }
+      }
+      writer.write("\r\n");
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package org.openlmis.referencedata.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.openlmis.referencedata.domain.Facility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Facility found by the fuzzy facility search, together with its similarity to the search query
+ * and the parts of its code and name that contain the query terms.
+ */
+@SuppressWarnings("PMD.UnusedPrivateField")
+@AllArgsConstructor
+public class FacilitySearchResult {
+
+  @Getter
+  private Facility facility;
+
+  @Getter
+  private float score;
+
+  @Getter
+  private List<Highlight> codeHighlights;
+
+  @Getter
+  private List<Highlight> nameHighlights;
+
+  /**
+   * Create a search result, highlighting every case-insensitive occurrence of the query terms in
+   * the facility code and name.
+   *
+   * @param facility found facility
+   * @param score    similarity of the facility to the query, between 0 and 1
+   * @param query    search query, terms are separated by whitespace
+   * @return search result
+   */
+  public static FacilitySearchResult of(Facility facility, float score, String query) {
+    return new FacilitySearchResult(facility, score,
+        highlight(facility.getCode(), query), highlight(facility.getName(), query));
+  }
+
+  /**
+   * Find all case-insensitive occurrences of the query terms in a text. Overlapping and adjacent
+   * occurrences are merged.
+   *
+   * @param text  text to search in, may be null
+   * @param query search query, terms are separated by whitespace
+   * @return occurrences ordered by their position in the text
+   */
+  static List<Highlight> highlight(String text, String query) {
+    List<Highlight> matches = new ArrayList<>();
+    if (text == null || query == null) {
+      return matches;
+    }
+
+    String lowerText = text.toLowerCase(Locale.ENGLISH);
+    for (String term : query.toLowerCase(Locale.ENGLISH).trim().split("\\s+")) {
+      if (term.isEmpty()) {
+        continue;
+      }
+      int start = lowerText.indexOf(term);
+      while (start >= 0) {
+        matches.add(new Highlight(start, start + term.length()));
+        start = lowerText.indexOf(term, start + 1);
+      }
+    }
+    matches.sort(Comparator.comparingInt(Highlight::getStart));
+
+    List<Highlight> merged = new ArrayList<>();
+    for (Highlight match : matches) {
+      Highlight last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && match.getStart() <= last.getEnd()) {
+        merged.set(merged.size() - 1,
+            new Highlight(last.getStart(), Math.max(last.getEnd(), match.getEnd())));
+      } else {
+        merged.add(match);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Matched part of a text, from the start index inclusive to the end index exclusive.
+   */
+  @AllArgsConstructor
+  public static class Highlight {
+
+    @Getter
+    private int start;
+
+    @Getter
+    private int end;
+  }
+}
@@ -0,0 +1,97 @@
+package org.openlmis.referencedata.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in buckets with fixed upper bounds, in milliseconds, so that their distribution
+ * can be reported without keeping every sample. Durations above the highest bound are counted in
+ * a last bucket without a bound. Safe for concurrent use.
+ */
+public class Histogram {
+
+  private final long[] bounds;
+  private final AtomicLongArray counts;
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Creates a new histogram.
+   *
+   * @param bounds upper bounds of the buckets in milliseconds, in ascending order
+   */
+  public Histogram(long... bounds) {
+    this.bounds = bounds.clone();
+    this.counts = new AtomicLongArray(bounds.length + 1);
+  }
+
+  /**
+   * Record a single duration.
+   *
+   * @param millis duration in milliseconds
+   */
+  public void record(long millis) {
+    int bucket = 0;
+    while (bucket < bounds.length && millis > bounds[bucket]) {
+      bucket++;
+    }
+    counts.incrementAndGet(bucket);
+    sum.addAndGet(millis);
+    max.accumulateAndGet(millis, Math::max);
+  }
+
+  /**
+   * Get the counts recorded so far.
+   *
+   * @return snapshot of the counts
+   */
+  public Snapshot getSnapshot() {
+    List<Bucket> buckets = new ArrayList<>();
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      long bucketCount = counts.get(i);
+      count += bucketCount;
+      buckets.add(new Bucket(i < bounds.length ? bounds[i] : null, bucketCount));
+    }
+    return new Snapshot(count, sum.get(), max.get(), buckets);
+  }
+
+  /**
+   * Counts of a histogram at a point in time.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class Snapshot {
+
+    @Getter
+    private long count;
+
+    @Getter
+    private long totalMillis;
+
+    @Getter
+    private long maxMillis;
+
+    @Getter
+    private List<Bucket> buckets;
+  }
+
+  /**
+   * Number of durations up to a bound, and above the bound of the previous bucket.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class Bucket {
+
+    @Getter
+    private Long upToMillis;
+
+    @Getter
+    private long count;
+  }
+}
@@ -0,0 +1,90 @@
+package org.openlmis.referencedata.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads rows from a JSON array of objects, in the format of the demo data files. Keys are column
+ * names in any case. A reference to another entity may be given as an object with an id, as in
+ * {@code "typeid": {"id": "..."}}, and is read as the id of its column, whose name gets an id
+ * suffix if it does not have one.
+ */
+public class JsonRowReader implements RowReader {
+
+  private static final String ID = "id";
+
+  private final JsonParser parser;
+  private final ObjectMapper mapper;
+  private boolean started;
+  private int row;
+
+  /**
+   * Creates a new reader.
+   *
+   * @param input  JSON input
+   * @param mapper mapper used to read single rows
+   * @throws IOException if the input cannot be read
+   */
+  public JsonRowReader(InputStream input, ObjectMapper mapper) throws IOException {
+    this.mapper = mapper;
+    this.parser = new JsonFactory().createParser(input);
+  }
+
+  @Override
+  public Map<String, String> read() throws IOException {
+    if (!started) {
+      started = true;
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new CsvInputNotValidException("Input is not a JSON array");
+      }
+    }
+
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_ARRAY || token == null) {
+      return null;
+    }
+    row++;
+    if (token != JsonToken.START_OBJECT) {
+      throw new CsvInputNotValidException("Row " + row + " is not a JSON object");
+    }
+
+    return toRow(mapper.readTree(parser));
+  }
+
+  private Map<String, String> toRow(JsonNode node) {
+    Map<String, String> values = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      String column = field.getKey().toLowerCase(Locale.ENGLISH);
+      JsonNode value = field.getValue();
+      if (value.isObject() && value.has(ID)) {
+        column = column.endsWith(ID) ? column : column + ID;
+        value = value.get(ID);
+      }
+      if (value.isContainerNode()) {
+        throw new CsvInputNotValidException("Row " + row + " has a nested value in "
+            + field.getKey());
+      }
+      values.put(column, value.isNull() ? null : value.asText());
+    }
+    return values;
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
@@ -0,0 +1,29 @@
+package org.openlmis.referencedata.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Single right check of a batch. Follows the same rules as the hasRight query parameters: if a
+ * program code is given, the warehouse code is ignored.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RightCheckRequest {
+
+  private UUID userId;
+
+  private String rightName;
+
+  private String programCode;
+
+  private String supervisoryNodeCode;
+
+  private String warehouseCode;
+}
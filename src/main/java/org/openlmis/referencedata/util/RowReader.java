@@ -0,0 +1,22 @@
+package org.openlmis.referencedata.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads rows of imported data one at a time, so that inputs of any size can be processed without
+ * holding them in memory. Rows are keyed by lower case column name, and values are text as given
+ * in the input, or null if there is none.
+ */
+public interface RowReader extends Closeable {
+
+  /**
+   * Read the next row.
+   *
+   * @return row values by column name, or null if there are no more rows
+   * @throws IOException if the input cannot be read
+   * @throws org.openlmis.referencedata.exception.CsvInputNotValidException if it is malformed
+   */
+  Map<String, String> read() throws IOException;
+}
@@ -1,15 +1,51 @@
 package org.openlmis.referencedata.web;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.exception.VersionMismatchException;
+import org.openlmis.referencedata.web.JsonWriterNegotiator.NegotiatedWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
+
 @RequestMapping("/api")
 public abstract class BaseController {
 
+  /**
+   * Query parameter that turns a request for all entities of a resource into a request for its
+   * change feed, see {@link org.openlmis.referencedata.service.ChangeFeedService}.
+   */
+  protected static final String CHANGED_SINCE = "changedSince";
+
+  /**
+   * Query parameter choosing the format of an export, see
+   * {@link org.openlmis.referencedata.service.ExportService}.
+   */
+  protected static final String EXPORT_FORMAT = "format";
+
+  protected static final String DEFAULT_EXPORT_FORMAT = "ndjson";
+
+  @Autowired
+  private JsonWriterNegotiator jsonWriterNegotiator;
+
   protected Map<String, String> getErrors(Errors errors) {
     return errors
         .getFieldErrors()
@@ -17,4 +53,119 @@ public abstract class BaseController {
         .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
   }
 
+  /**
+   * Checks the If-Match header of the current request, if any, against the version of the stored
+   * entity, and carries that version over to the entity that replaces it. Optimistic locking then
+   * makes the save fail if the entity is changed concurrently. The If-Match header holds the ETag
+   * of a GET of the entity, which starts with its version, see {@link ConditionalGetInterceptor},
+   * the version alone as an entity tag, e.g. {@code "3"}, or {@code *} for any version.
+   *
+   * @param stored entity as currently stored, null if it does not exist yet
+   * @param toSave entity that is going to be saved in its place, may be the same instance
+   * @throws VersionMismatchException if the If-Match header does not match the stored version
+   */
+  protected static void checkVersion(BaseEntity stored, BaseEntity toSave) {
+    String ifMatch = getIfMatch();
+    if (ifMatch != null && !matchesVersion(ifMatch, stored)) {
+      throw new VersionMismatchException(stored == null
+          ? "Entity does not exist"
+          : "Entity version is " + stored.getVersion() + ", expected " + ifMatch);
+    }
+    if (stored != null) {
+      toSave.setVersion(stored.getVersion());
+    }
+  }
+
+  /**
+   * Looks up the stored entity with the id of the given one, if it has an id, and checks its
+   * version, see {@link #checkVersion(BaseEntity, BaseEntity)}.
+   *
+   * @param repository repository of the entity
+   * @param toSave     entity that is going to be saved
+   * @throws VersionMismatchException if the If-Match header does not match the stored version
+   */
+  protected static <T extends BaseEntity> void checkVersion(CrudRepository<T, UUID> repository,
+                                                            T toSave) {
+    checkVersion(toSave.getId() == null ? null : repository.findOne(toSave.getId()), toSave);
+  }
+
+  /**
+   * Creates a response that writes JSON as it is produced, e.g. from a database cursor, instead
+   * of serializing the whole body before writing it. Like other responses, it is written as
+   * indented JSON, Smile or CBOR if the request asks for it, see {@link JsonWriterNegotiator}.
+   * The response keeps the ETag of a conditional GET, see {@link ConditionalGet}.
+   *
+   * @param body writer of the JSON body
+   * @return streamed JSON response, or Not Acceptable if the client accepts none of the formats
+   */
+  protected ResponseEntity<?> streamJson(JsonBody body) {
+    HttpServletRequest request = null;
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes) {
+      request = ((ServletRequestAttributes) attributes).getRequest();
+    }
+    NegotiatedWriter negotiated = jsonWriterNegotiator.negotiate(request);
+    if (negotiated == null) {
+      return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(negotiated.getMediaType());
+    if (request != null) {
+      ConditionalGetInterceptor.addHeaders(request, headers);
+    }
+    StreamingResponseBody streamed = output -> body.write(negotiated.getWriter(), output);
+    return new ResponseEntity<>(streamed, headers, HttpStatus.OK);
+  }
+
+  private static String getIfMatch() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return null;
+    }
+    return ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.IF_MATCH);
+  }
+
+  private static boolean matchesVersion(String ifMatch, BaseEntity stored) {
+    if (stored == null) {
+      return false;
+    }
+    String version = String.valueOf(stored.getVersion());
+    for (String candidate : ifMatch.split(",")) {
+      String tag = candidate.trim();
+      if ("*".equals(tag)) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        tag = tag.substring(1, tag.length() - 1);
+      }
+      int separator = tag.indexOf(ConditionalGetInterceptor.VERSION_SEPARATOR);
+      if (separator >= 0) {
+        tag = tag.substring(0, separator);
+      }
+      if (version.equals(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writer of a streamed JSON body.
+   */
+  @FunctionalInterface
+  protected interface JsonBody {
+
+    /**
+     * Write the body.
+     *
+     * @param writer writer of the negotiated format
+     * @param output stream to write to
+     * @throws IOException if writing fails
+     */
+    void write(ObjectWriter writer, OutputStream output) throws IOException;
+  }
 }
@@ -0,0 +1,56 @@
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Reads and writes the same objects as the JSON converter in one of the binary formats of JSON
+ * supported by Jackson. They are smaller and faster to parse than JSON, which makes them useful
+ * for calls between services.
+ */
+public class BinaryJsonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+  public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+  public static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+  /**
+   * Creates a converter for the given media type.
+   *
+   * @param objectMapper mapper with the factory of the binary format
+   * @param mediaType    media type of the binary format
+   */
+  public BinaryJsonHttpMessageConverter(ObjectMapper objectMapper, MediaType mediaType) {
+    super(objectMapper, mediaType);
+    // binary formats have no character encoding
+    setDefaultCharset(null);
+  }
+
+  /**
+   * Creates a converter for Smile, configured like the JSON object mapper.
+   *
+   * @param builder builder of the JSON object mapper
+   * @return converter
+   */
+  public static BinaryJsonHttpMessageConverter smile(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+    builder.configure(objectMapper);
+    return new BinaryJsonHttpMessageConverter(objectMapper, SMILE);
+  }
+
+  /**
+   * Creates a converter for CBOR, configured like the JSON object mapper.
+   *
+   * @param builder builder of the JSON object mapper
+   * @return converter
+   */
+  public static BinaryJsonHttpMessageConverter cbor(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper objectMapper = new ObjectMapper(new CBORFactory());
+    builder.configure(objectMapper);
+    return new BinaryJsonHttpMessageConverter(objectMapper, CBOR);
+  }
+}
@@ -0,0 +1,48 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.service.SecondLevelCacheService;
+import org.openlmis.referencedata.util.ErrorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+public class CacheRegionController extends BaseController {
+
+  @Autowired
+  private SecondLevelCacheService secondLevelCacheService;
+
+  /**
+   * Get the version, hit, miss and put counts and the number of entries of every second-level
+   * cache region.
+   *
+   * @return region statistics
+   */
+  @RequestMapping(value = "/cacheRegions", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> getCacheRegions() {
+    return new ResponseEntity<>(secondLevelCacheService.getRegionStatistics(), HttpStatus.OK);
+  }
+
+  /**
+   * Evict a single second-level cache region, or all of them if no region name is given.
+   *
+   * @param regionName name of the region to evict, i.e. an entity name or a collection role
+   * @return ResponseEntity containing the HTTP Status
+   */
+  @RequestMapping(value = "/cacheRegions", method = RequestMethod.DELETE)
+  public ResponseEntity<?> evictCacheRegions(
+      @RequestParam(value = "name", required = false) String regionName) {
+    if (regionName == null) {
+      secondLevelCacheService.evictAllRegions();
+    } else if (!secondLevelCacheService.evictRegion(regionName)) {
+      return new ResponseEntity<>(new ErrorResponse("Cache region does not exist",
+          "name: " + regionName), HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+}
@@ -0,0 +1,68 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.service.ChangeEventPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Controller
+public class ChangeEventController extends BaseController {
+
+  private static final String EVENT_STREAM = "text/event-stream";
+
+  @Autowired
+  private ChangeEventPublisher changeEventPublisher;
+
+  @Value("${changeEvents.maxWaitSeconds}")
+  private long maxWaitSeconds;
+
+  @Value("${changeEvents.streamTimeoutSeconds}")
+  private long streamTimeoutSeconds;
+
+  /**
+   * Get change events after the given offset, waiting for new ones if there are none yet. Clients
+   * pass the id of the last event they got as the offset of their next request.
+   *
+   * @param after id of the last event seen, 0 for all events
+   * @param wait  number of seconds to wait for new events, at most changeEvents.maxWaitSeconds
+   * @return events ordered by id, empty if there were none within the wait time
+   */
+  @RequestMapping(value = "/changeEvents", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  @ResponseBody
+  public DeferredResult<List<ChangeEvent>> getChangeEvents(
+      @RequestParam(value = "after", required = false, defaultValue = "0") long after,
+      @RequestParam(value = "wait", required = false, defaultValue = "30") long wait) {
+    long waitSeconds = Math.max(0, Math.min(wait, maxWaitSeconds));
+    return changeEventPublisher.poll(after, TimeUnit.SECONDS.toMillis(waitSeconds));
+  }
+
+  /**
+   * Stream change events after the given offset as server-sent events. The stream is closed after
+   * changeEvents.streamTimeoutSeconds, and clients reconnecting with the Last-Event-ID header
+   * resume where they left off.
+   *
+   * @param after       id of the last event seen, 0 for all events
+   * @param lastEventId id of the last event seen, sent by reconnecting clients, takes precedence
+   * @return event stream
+   */
+  @RequestMapping(value = "/changeEvents", method = RequestMethod.GET, produces = EVENT_STREAM)
+  @ConditionalGet(enabled = false)
+  public SseEmitter streamChangeEvents(
+      @RequestParam(value = "after", required = false, defaultValue = "0") long after,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    return changeEventPublisher.stream(lastEventId == null ? after : lastEventId,
+        TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+  }
+}
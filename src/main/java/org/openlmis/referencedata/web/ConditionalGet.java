@@ -0,0 +1,34 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.domain.BaseEntity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes which data a GET handler of a {@link BaseController} reads, so that its ETag changes
+ * only when that data does. Handlers without this annotation get an ETag that changes whenever
+ * any entity changes.
+ *
+ * @see ConditionalGetInterceptor
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConditionalGet {
+
+  /**
+   * Entity types the response is built from. Entity types they reference are included
+   * automatically. If empty, a change of any entity type changes the ETag.
+   */
+  Class<? extends BaseEntity>[] value() default {};
+
+  /**
+   * Whether the response may be served conditionally. Must be false for responses that are not
+   * built from entities only, e.g. statistics.
+   */
+  boolean enabled() default true;
+}
@@ -0,0 +1,237 @@
+package org.openlmis.referencedata.web;
+
+import lombok.NoArgsConstructor;
+
+import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.dto.BaseDto;
+import org.openlmis.referencedata.service.EntityChangeTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves GET requests handled by {@link BaseController} subclasses conditionally. The ETag of a
+ * response is computed from the request and from the change counts of the entities it is built
+ * from, see {@link ConditionalGet}, before the handler runs. The counts are kept in the database,
+ * so every instance computes the same ETag for the same data. A request whose If-None-Match header
+ * matches it is answered with 304 Not Modified without calling the handler, so neither the
+ * database nor Jackson is touched.
+ *
+ * <p>The ETag of a single entity is prefixed with its version, e.g.
+ * {@code "3-5d41402abc4b2a76b9719d911017c592"}, so that it can be passed back in the If-Match
+ * header of an update, see {@link BaseController#checkVersion(BaseEntity, BaseEntity)}. The
+ * prefix is ignored when the ETag is compared with the If-None-Match header.
+ *
+ * <p>Successful responses get the ETag and a Cache-Control header, which is configured per
+ * resource with the {@code cacheControl.<resource>} property, e.g. {@code cacheControl.programs},
+ * falling back to {@code cacheControl.default}.
+ */
+@ControllerAdvice
+@NoArgsConstructor
+public class ConditionalGetInterceptor extends HandlerInterceptorAdapter
+    implements ResponseBodyAdvice<Object> {
+
+  static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".etag";
+  static final String CACHE_CONTROL_ATTRIBUTE =
+      ConditionalGetInterceptor.class.getName() + ".cacheControl";
+
+  /**
+   * Separates the version of an entity from the rest of its ETag.
+   */
+  static final char VERSION_SEPARATOR = '-';
+
+  private static final String ACCESS_TOKEN = "access_token";
+  private static final String API_PREFIX = "/api/";
+
+  @Autowired
+  private EntityChangeTracker entityChangeTracker;
+
+  @Autowired
+  private Environment environment;
+
+  @Value("${cacheControl.default}")
+  private String defaultCacheControl;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public ConditionalGetInterceptor(EntityChangeTracker entityChangeTracker,
+                                   Environment environment, String defaultCacheControl) {
+    this.entityChangeTracker = Objects.requireNonNull(entityChangeTracker);
+    this.environment = Objects.requireNonNull(environment);
+    this.defaultCacheControl = Objects.requireNonNull(defaultCacheControl);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) {
+    if (!HttpMethod.GET.matches(request.getMethod()) || !(handler instanceof HandlerMethod)) {
+      return true;
+    }
+    HandlerMethod handlerMethod = (HandlerMethod) handler;
+    if (!BaseController.class.isAssignableFrom(handlerMethod.getBeanType())) {
+      return true;
+    }
+    ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+    if (conditionalGet != null && !conditionalGet.enabled()) {
+      return true;
+    }
+
+    long version = conditionalGet == null || conditionalGet.value().length == 0
+        ? entityChangeTracker.getVersion()
+        : entityChangeTracker.getVersion(conditionalGet.value());
+    String etag = computeEtag(request, version);
+    String cacheControl = getCacheControl(request);
+
+    String matched = findMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+    if (matched != null) {
+      response.setHeader(HttpHeaders.ETAG, matched);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      return false;
+    }
+
+    request.setAttribute(ETAG_ATTRIBUTE, etag);
+    request.setAttribute(CACHE_CONTROL_ATTRIBUTE, cacheControl);
+    return true;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType,
+                          Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType,
+                                MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest
+        && response instanceof ServletServerHttpResponse) {
+      HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+      HttpServletResponse servletResponse =
+          ((ServletServerHttpResponse) response).getServletResponse();
+
+      // error responses must not be revalidated against the ETag of the resource
+      if (servletResponse.getStatus() == HttpStatus.OK.value()) {
+        addHeaders(servletRequest, response.getHeaders(), getVersion(body));
+      }
+    }
+    return body;
+  }
+
+  /**
+   * Adds the ETag and Cache-Control headers computed for the request, if any, to the headers of
+   * a successful response. Responses that are not written by a message converter, such as
+   * streamed responses, do not pass through this advice and must add them themselves.
+   *
+   * @param request the request
+   * @param headers headers of the response
+   */
+  static void addHeaders(HttpServletRequest request, HttpHeaders headers) {
+    addHeaders(request, headers, null);
+  }
+
+  private static void addHeaders(HttpServletRequest request, HttpHeaders headers,
+                                 Long version) {
+    String etag = (String) request.getAttribute(ETAG_ATTRIBUTE);
+    if (etag != null) {
+      headers.setETag(version == null
+          ? etag
+          : "\"" + version + VERSION_SEPARATOR + etag.substring(1));
+      headers.setCacheControl((String) request.getAttribute(CACHE_CONTROL_ATTRIBUTE));
+    }
+  }
+
+  private static Long getVersion(Object body) {
+    if (body instanceof BaseEntity) {
+      return ((BaseEntity) body).getVersion();
+    }
+    if (body instanceof BaseDto) {
+      return ((BaseDto) body).getVersion();
+    }
+    return null;
+  }
+
+  private String computeEtag(HttpServletRequest request, long version) {
+    StringBuilder key = new StringBuilder()
+        .append(version).append(':')
+        .append(request.getRequestURI()).append('?');
+
+    // parameters in a stable order, without the access token that differs between clients
+    Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+    parameters.remove(ACCESS_TOKEN);
+    for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+      for (String value : parameter.getValue()) {
+        key.append(parameter.getKey()).append('=').append(value).append('&');
+      }
+    }
+    key.append(':').append(request.getHeader(HttpHeaders.ACCEPT))
+        .append(':').append(
+            PrettyPrintingJsonHttpMessageConverter.isPrettyPrintRequested(request));
+
+    return '"' + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8))
+        + '"';
+  }
+
+  private String getCacheControl(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (!path.startsWith(API_PREFIX)) {
+      return defaultCacheControl;
+    }
+    String resource = path.substring(API_PREFIX.length());
+    int slash = resource.indexOf('/');
+    if (slash >= 0) {
+      resource = resource.substring(0, slash);
+    }
+    return environment.getProperty("cacheControl." + resource, defaultCacheControl);
+  }
+
+  /**
+   * Find the entity tag of the If-None-Match header that matches the computed ETag, ignoring the
+   * version of an entity.
+   *
+   * @return the matching entity tag, or null if there is none
+   */
+  private String findMatch(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return null;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String trimmed = candidate.trim();
+      if ("*".equals(trimmed)) {
+        return etag;
+      }
+      String tag = trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+      int separator = tag.indexOf(VERSION_SEPARATOR);
+      if (etag.equals(tag) || separator > 0 && etag.equals('"' + tag.substring(separator + 1))) {
+        return trimmed;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,28 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.service.ConnectionPoolMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+@Controller
+public class ConnectionPoolController extends BaseController {
+
+  @Autowired
+  private ConnectionPoolMetrics connectionPoolMetrics;
+
+  /**
+   * Get the number of active, idle and total database connections and of threads waiting for one,
+   * together with histograms of how long connections took to get and were held.
+   *
+   * @return connection pool statistics
+   */
+  @RequestMapping(value = "/connectionPool", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> getStatistics() {
+    return new ResponseEntity<>(connectionPoolMetrics.getStatistics(), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,28 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.service.ExternalApiClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+@Controller
+public class ExternalApiController extends BaseController {
+
+  @Autowired
+  private ExternalApiClient externalApiClient;
+
+  /**
+   * Get the state of the pool of connections to other services, and the state of the circuit
+   * breaker and the latency of each endpoint called.
+   *
+   * @return statistics of calls to other services
+   */
+  @RequestMapping(value = "/externalApis", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> getStatistics() {
+    return new ResponseEntity<>(externalApiClient.getStatistics(), HttpStatus.OK);
+  }
+}
@@ -7,22 +7,31 @@ import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
 import org.openlmis.referencedata.service.SupplyLineService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.openlmis.referencedata.util.ErrorResponse;
+import org.openlmis.referencedata.util.FacilitySearchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Controller
@@ -30,6 +39,8 @@ public class FacilityController extends BaseController {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FacilityController.class);
 
+  private static final int MAX_SEARCH_LIMIT = 100;
+
   @Autowired
   private FacilityRepository facilityRepository;
   
@@ -42,6 +53,15 @@ public class FacilityController extends BaseController {
   @Autowired
   private SupplyLineService supplyLineService;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
+  @Autowired
+  private UserPermissionService permissionService;
+
   /**
    * Allows creating new facilities.
    * If the id is specified, it will be ignored.
@@ -64,11 +84,42 @@ public class FacilityController extends BaseController {
    * @return Facilities.
    */
   @RequestMapping(value = "/facilities", method = RequestMethod.GET)
+  @ConditionalGet(Facility.class)
   public ResponseEntity<?> getAllFacilities() {
     Iterable<Facility> facilities = facilityRepository.findAll();
     return new ResponseEntity<>(facilities, HttpStatus.OK);
   }
 
+  /**
+   * Get facilities created or modified, and ids of facilities deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all facilities if empty
+   * @return change feed of facilities
+   */
+  @RequestMapping(value = "/facilities", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getFacilityChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(Facility.class, changedSince));
+  }
+
+  /**
+   * Export all facilities as CSV or newline-delimited JSON, streamed from the database.
+   *
+   * @param format         csv or ndjson
+   * @param acceptEncoding Accept-Encoding header, the export is compressed if it allows gzip
+   * @return streamed facilities
+   */
+  @RequestMapping(value = "/facilities/export", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> exportFacilities(
+      @RequestParam(value = EXPORT_FORMAT, defaultValue = DEFAULT_EXPORT_FORMAT) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    return exportService.export("facilities", Facility.class, Function.identity(),
+        Facility.class, format, acceptEncoding);
+  }
+
 
   /**
    * Allows updating facilities.
@@ -82,7 +133,9 @@ public class FacilityController extends BaseController {
                                        @PathVariable("id") UUID facilityId) {
 
     Facility facilityToUpdate = facilityRepository.findOne(facilityId);
-    if (facilityToUpdate == null) {
+    checkVersion(facilityToUpdate, facility);
+    boolean existing = facilityToUpdate != null;
+    if (!existing) {
       facilityToUpdate = facility;
       LOGGER.debug("Creating new facility");
     } else {
@@ -90,6 +143,10 @@ public class FacilityController extends BaseController {
     }
 
     facilityToUpdate = facilityRepository.save(facilityToUpdate);
+    if (existing) {
+      // rights are attached to facilities by code
+      permissionService.invalidateAll();
+    }
 
     LOGGER.debug("Saved facility with id: " + facilityToUpdate.getId());
     return new ResponseEntity<>(facilityToUpdate, HttpStatus.OK);
@@ -102,6 +159,7 @@ public class FacilityController extends BaseController {
    * @return Facility.
    */
   @RequestMapping(value = "/facilities/{id}", method = RequestMethod.GET)
+  @ConditionalGet(Facility.class)
   public ResponseEntity<?> getFacility(@PathVariable("id") UUID facilityId) {
     Facility facility = facilityRepository.findOne(facilityId);
     if (facility == null) {
@@ -124,6 +182,7 @@ public class FacilityController extends BaseController {
       return new ResponseEntity(HttpStatus.NOT_FOUND);
     } else {
       facilityRepository.delete(facility);
+      permissionService.invalidateAll();
       return new ResponseEntity<Facility>(HttpStatus.NO_CONTENT);
     }
   }
@@ -174,6 +233,7 @@ public class FacilityController extends BaseController {
    */
   @RequestMapping(value = "/facilities/search",
       method = RequestMethod.GET)
+  @ConditionalGet(Facility.class)
   public ResponseEntity<?> findFacilitiesWithSimilarCodeOrName(
       @RequestParam(value = "code", required = false) String code,
       @RequestParam(value = "name", required = false) String name) {
@@ -185,4 +245,35 @@ public class FacilityController extends BaseController {
     return new ResponseEntity<>(foundFacilities, HttpStatus.OK);
   }
 
+  /**
+   * Retrieves a page of Facilities with code or name similar to the query, the most similar ones
+   * first. Every result contains its similarity score and the parts of the facility code and name
+   * matching the query terms.
+   *
+   * @param query  Searched text.
+   * @param limit  Maximum number of Facilities to return, at most 100.
+   * @param offset Number of best matching Facilities to skip.
+   * @return List of found Facilities with their scores and highlighted matches.
+   */
+  @RequestMapping(value = "/facilities/fuzzySearch", method = RequestMethod.GET)
+  @ConditionalGet(Facility.class)
+  public ResponseEntity<?> fuzzySearchFacilities(
+      @RequestParam(value = "query") String query,
+      @RequestParam(value = "limit") int limit,
+      @RequestParam(value = "offset", defaultValue = "0") int offset) {
+    if (query.trim().isEmpty()) {
+      return new ResponseEntity<>(new ErrorResponse("Search query must not be blank",
+          "query: " + query), HttpStatus.BAD_REQUEST);
+    }
+    if (limit < 1 || limit > MAX_SEARCH_LIMIT || offset < 0) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid search page",
+          "limit must be between 1 and " + MAX_SEARCH_LIMIT + " and offset must not be negative,"
+              + " got limit: " + limit + ", offset: " + offset), HttpStatus.BAD_REQUEST);
+    }
+
+    List<FacilitySearchResult> results =
+        facilityRepository.searchFacilities(query, limit, offset);
+    return new ResponseEntity<>(results, HttpStatus.OK);
+  }
+
 }
@@ -2,9 +2,11 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.FacilityOperator;
 import org.openlmis.referencedata.repository.FacilityOperatorRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -12,7 +14,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -23,6 +27,9 @@ public class FacilityOperatorController extends BaseController {
   @Autowired
   FacilityOperatorRepository facilityOperatorRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new facilityOperators.
    *
@@ -53,6 +60,20 @@ public class FacilityOperatorController extends BaseController {
     }
   }
 
+  /**
+   * Get facility operators created or modified, and ids of facility operators deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all facility operators if empty
+   * @return change feed of facility operators
+   */
+  @RequestMapping(value = "/facilityOperators", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getFacilityOperatorChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(FacilityOperator.class, changedSince));
+  }
+
   /**
    * Allows updating facilityOperator.
    *
@@ -64,6 +85,7 @@ public class FacilityOperatorController extends BaseController {
   public ResponseEntity<?> updateFacilityOperator(@RequestBody FacilityOperator facilityOperator,
                                                   @PathVariable("id") UUID facilityOperatorId) {
     LOGGER.debug("Updating facility operator");
+    checkVersion(facilityOperatorRepository, facilityOperator);
     facilityOperatorRepository.save(facilityOperator);
     return new ResponseEntity<>(facilityOperator, HttpStatus.OK);
   }
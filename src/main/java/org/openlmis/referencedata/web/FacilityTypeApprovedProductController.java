@@ -2,21 +2,28 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Controller
 public class FacilityTypeApprovedProductController extends BaseController {
@@ -27,6 +34,12 @@ public class FacilityTypeApprovedProductController extends BaseController {
   @Autowired
   private FacilityTypeApprovedProductRepository repository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
   /**
    * Allows creating new facilityTypeApprovedProduct.
    *
@@ -44,18 +57,50 @@ public class FacilityTypeApprovedProductController extends BaseController {
   }
 
   /**
-   * Get all newFacilityTypeApprovedProducts.
+   * Get all facility type approved products, streamed from the database.
    *
-   * @return FacilityTypeApprovedProduct.
+   * @return FacilityTypeApprovedProducts.
    */
   @RequestMapping(value = "/facilityTypeApprovedProducts", method = RequestMethod.GET)
   public ResponseEntity<?> getAllFacilityTypeApprovedProducts() {
-    Iterable<FacilityTypeApprovedProduct> facilityTypeApprovedProducts = repository.findAll();
-    if (facilityTypeApprovedProducts == null) {
-      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-    } else {
-      return new ResponseEntity<>(facilityTypeApprovedProducts, HttpStatus.OK);
-    }
+    return streamJson((writer, output) -> exportService.writeJsonArray(
+        repository::findAllBy, Function.identity(), writer, output));
+  }
+
+  /**
+   * Get facility type approved products created or modified, and ids of facility type approved
+   * products deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all facility type approved products
+   *                     if empty
+   * @return change feed of facility type approved products
+   */
+  @RequestMapping(value = "/facilityTypeApprovedProducts", method = RequestMethod.GET,
+      params = CHANGED_SINCE)
+  public ResponseEntity<?> getFacilityTypeApprovedProductChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(
+        changeFeedService.getChanges(FacilityTypeApprovedProduct.class, changedSince));
+  }
+
+  /**
+   * Export all facility type approved products as CSV or newline-delimited JSON, streamed from
+   * the database.
+   *
+   * @param format         csv or ndjson
+   * @param acceptEncoding Accept-Encoding header, the export is compressed if it allows gzip
+   * @return streamed facility type approved products
+   */
+  @RequestMapping(value = "/facilityTypeApprovedProducts/export", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> exportFacilityTypeApprovedProducts(
+      @RequestParam(value = EXPORT_FORMAT, defaultValue = DEFAULT_EXPORT_FORMAT) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    return exportService.export("facilityTypeApprovedProducts",
+        repository::findAllBy, Function.identity(),
+        FacilityTypeApprovedProduct.class, format, acceptEncoding);
   }
 
   /**
@@ -95,6 +140,7 @@ public class FacilityTypeApprovedProductController extends BaseController {
         @RequestBody FacilityTypeApprovedProduct facilityTypeApprovedProduct,
         @PathVariable("id") UUID facilityTypeApprovedProductId) {
     LOGGER.debug("Updating facilityTypeApprovedProduct");
+    checkVersion(repository, facilityTypeApprovedProduct);
     repository.save(facilityTypeApprovedProduct);
     return new ResponseEntity<>(facilityTypeApprovedProduct, HttpStatus.OK);
   }
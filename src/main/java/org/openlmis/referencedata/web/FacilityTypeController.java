@@ -2,11 +2,13 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.openlmis.referencedata.util.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -14,7 +16,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -25,6 +29,9 @@ public class FacilityTypeController extends BaseController {
   @Autowired
   private FacilityTypeRepository facilityTypeRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new facilityType. If the id is specified, it will be ignored.
    *
@@ -51,6 +58,20 @@ public class FacilityTypeController extends BaseController {
     return new ResponseEntity<>(facilityTypes, HttpStatus.OK);
   }
 
+  /**
+   * Get facility types created or modified, and ids of facility types deleted, since the given
+   * time.
+   *
+   * @param changedSince sync time of the previous change feed, all facility types if empty
+   * @return change feed of facility types
+   */
+  @RequestMapping(value = "/facilityTypes", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getFacilityTypeChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(FacilityType.class, changedSince));
+  }
+
   /**
    * Allows updating facilityTypes.
    *
@@ -63,6 +84,7 @@ public class FacilityTypeController extends BaseController {
                                               @PathVariable("id") UUID facilityTypeId) {
 
     FacilityType facilityTypeToUpdate = facilityTypeRepository.findOne(facilityTypeId);
+    checkVersion(facilityTypeToUpdate, facilityType);
     try {
       if (facilityTypeToUpdate == null) {
         facilityTypeToUpdate = new FacilityType();
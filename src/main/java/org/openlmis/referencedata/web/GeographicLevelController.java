@@ -2,9 +2,11 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.repository.GeographicLevelRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -12,7 +14,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -23,6 +27,9 @@ public class GeographicLevelController extends BaseController {
   @Autowired
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new geographicLevels.
    *
@@ -53,6 +60,20 @@ public class GeographicLevelController extends BaseController {
     }
   }
 
+  /**
+   * Get geographic levels created or modified, and ids of geographic levels deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all geographic levels if empty
+   * @return change feed of geographic levels
+   */
+  @RequestMapping(value = "/geographicLevels", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getGeographicLevelChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(GeographicLevel.class, changedSince));
+  }
+
   /**
    * Allows updating geographicLevels.
    *
@@ -64,6 +85,7 @@ public class GeographicLevelController extends BaseController {
   public ResponseEntity<?> updateGeographicLevel(@RequestBody GeographicLevel geographicLevel,
                                                  @PathVariable("id") UUID geographicLevelId) {
     LOGGER.debug("Updating geographicLevel");
+    checkVersion(geographicLevelRepository, geographicLevel);
     geographicLevelRepository.save(geographicLevel);
     return new ResponseEntity<>(geographicLevel, HttpStatus.OK);
   }
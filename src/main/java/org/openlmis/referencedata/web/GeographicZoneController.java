@@ -2,9 +2,11 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -12,7 +14,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -23,6 +27,9 @@ public class GeographicZoneController extends BaseController {
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new geographicZones.
    *
@@ -53,6 +60,20 @@ public class GeographicZoneController extends BaseController {
     }
   }
 
+  /**
+   * Get geographic zones created or modified, and ids of geographic zones deleted, since the given
+   * time.
+   *
+   * @param changedSince sync time of the previous change feed, all geographic zones if empty
+   * @return change feed of geographic zones
+   */
+  @RequestMapping(value = "/geographicZones", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getGeographicZoneChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(GeographicZone.class, changedSince));
+  }
+
   /**
    * Allows updating geographicZones.
    *
@@ -64,6 +85,7 @@ public class GeographicZoneController extends BaseController {
   public ResponseEntity<?> updateGeographicZone(@RequestBody GeographicZone geographicZone,
                                                 @PathVariable("id") UUID geographicZoneId) {
     LOGGER.debug("Updating geographicZone");
+    checkVersion(geographicZoneRepository, geographicZone);
     geographicZoneRepository.save(geographicZone);
     return new ResponseEntity<GeographicZone>(geographicZone, HttpStatus.OK);
   }
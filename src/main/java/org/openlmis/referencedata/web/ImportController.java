@@ -0,0 +1,103 @@
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openlmis.referencedata.service.BulkImportService;
+import org.openlmis.referencedata.service.BulkImportService.ImportResult;
+import org.openlmis.referencedata.util.CsvRowReader;
+import org.openlmis.referencedata.util.ErrorResponse;
+import org.openlmis.referencedata.util.JsonRowReader;
+import org.openlmis.referencedata.util.RowReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Controller
+public class ImportController extends BaseController {
+
+  private static final String TEXT_CSV = "text/csv";
+
+  @Autowired
+  private BulkImportService bulkImportService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * Get the names of the tables that can be imported, in the order in which they must be imported.
+   *
+   * @return table names
+   */
+  @RequestMapping(value = "/imports", method = RequestMethod.GET)
+  public ResponseEntity<?> getImportableTables() {
+    return new ResponseEntity<>(BulkImportService.TABLES, HttpStatus.OK);
+  }
+
+  /**
+   * Import CSV rows into a table. The first row names the columns.
+   *
+   * @param table name of the table
+   * @param body  CSV input
+   * @return ResponseEntity containing the numbers of inserted and updated rows
+   */
+  @RequestMapping(value = "/imports/{table}", method = RequestMethod.POST, consumes = TEXT_CSV)
+  public ResponseEntity<?> importCsv(@PathVariable("table") String table, InputStream body)
+      throws IOException {
+    return importRows(table, body,
+        input -> new CsvRowReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Import a JSON array of rows into a table, in the format of the demo data files.
+   *
+   * @param table name of the table
+   * @param body  JSON input
+   * @return ResponseEntity containing the numbers of inserted and updated rows
+   */
+  @RequestMapping(value = "/imports/{table}", method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> importJson(@PathVariable("table") String table, InputStream body)
+      throws IOException {
+    return importRows(table, body, input -> new JsonRowReader(input, objectMapper));
+  }
+
+  private ResponseEntity<?> importRows(String table, InputStream body, ReaderFactory factory)
+      throws IOException {
+    if (!BulkImportService.TABLES.contains(table)) {
+      return new ResponseEntity<>(new ErrorResponse("Table cannot be imported", table),
+          HttpStatus.NOT_FOUND);
+    }
+    // the upload is received before the import starts its transaction, so that a slow client
+    // does not hold a database connection
+    Path upload = Files.createTempFile("import-", "-" + table);
+    try {
+      Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+      try (RowReader reader = factory.create(Files.newInputStream(upload))) {
+        ImportResult result = bulkImportService.importRows(table, reader);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+      }
+    } finally {
+      Files.deleteIfExists(upload);
+    }
+  }
+
+  /**
+   * Creates the reader of rows of an input format.
+   */
+  private interface ReaderFactory {
+    RowReader create(InputStream input) throws IOException;
+  }
+}
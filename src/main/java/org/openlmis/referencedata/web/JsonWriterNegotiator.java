@@ -0,0 +1,122 @@
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Chooses how to write a response that is streamed rather than passed to the message converters,
+ * the way the converters would: JSON, indented if the request asks for it, see
+ * {@link PrettyPrintingJsonHttpMessageConverter}, or Smile or CBOR if the Accept header prefers
+ * them, see {@link BinaryJsonHttpMessageConverter}.
+ */
+@Component
+@NoArgsConstructor
+public class JsonWriterNegotiator {
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+  private ObjectMapper smileMapper;
+
+  private ObjectMapper cborMapper;
+
+  /**
+   * Constructor for unit testing.
+   */
+  public JsonWriterNegotiator(ObjectMapper objectMapper,
+                              Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    this.objectMapper = Objects.requireNonNull(objectMapper);
+    this.objectMapperBuilder = Objects.requireNonNull(objectMapperBuilder);
+    init();
+  }
+
+  /**
+   * Create the mappers of the binary formats, configured like the JSON object mapper.
+   */
+  @PostConstruct
+  public final void init() {
+    smileMapper = BinaryJsonHttpMessageConverter.smile(objectMapperBuilder).getObjectMapper();
+    cborMapper = BinaryJsonHttpMessageConverter.cbor(objectMapperBuilder).getObjectMapper();
+  }
+
+  /**
+   * Choose the format of the response to the given request.
+   *
+   * @param request the request, may be null outside of a request
+   * @return writer of the chosen format, or null if the client accepts none of them
+   */
+  public NegotiatedWriter negotiate(HttpServletRequest request) {
+    if (request == null) {
+      return json(false);
+    }
+    List<MediaType> accepted;
+    try {
+      String accept = request.getHeader(HttpHeaders.ACCEPT);
+      accepted = accept == null ? Collections.emptyList() : MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException ex) {
+      return null;
+    }
+    if (accepted.isEmpty()) {
+      accepted = Collections.singletonList(MediaType.ALL);
+    }
+    MediaType.sortBySpecificityAndQuality(accepted);
+
+    for (MediaType mediaType : accepted) {
+      if (mediaType.getQualityValue() == 0) {
+        continue;
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return json(PrettyPrintingJsonHttpMessageConverter.isPrettyPrintRequested(request));
+      }
+      if (mediaType.isCompatibleWith(BinaryJsonHttpMessageConverter.SMILE)) {
+        return new NegotiatedWriter(BinaryJsonHttpMessageConverter.SMILE, smileMapper.writer());
+      }
+      if (mediaType.isCompatibleWith(BinaryJsonHttpMessageConverter.CBOR)) {
+        return new NegotiatedWriter(BinaryJsonHttpMessageConverter.CBOR, cborMapper.writer());
+      }
+    }
+    return null;
+  }
+
+  private NegotiatedWriter json(boolean pretty) {
+    ObjectWriter writer = pretty
+        ? objectMapper.writerWithDefaultPrettyPrinter()
+        : objectMapper.writer();
+    return new NegotiatedWriter(MediaType.APPLICATION_JSON_UTF8, writer);
+  }
+
+  /**
+   * Writer of the chosen format, with its media type.
+   */
+  @SuppressWarnings("PMD.UnusedPrivateField")
+  @AllArgsConstructor
+  public static class NegotiatedWriter {
+
+    @Getter
+    private MediaType mediaType;
+
+    @Getter
+    private ObjectWriter writer;
+  }
+}
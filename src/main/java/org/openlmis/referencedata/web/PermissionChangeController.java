@@ -0,0 +1,39 @@
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.service.PermissionChangeNotifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.TimeUnit;
+
+@Controller
+public class PermissionChangeController extends BaseController {
+
+  @Autowired
+  private PermissionChangeNotifier permissionChangeNotifier;
+
+  @Value("${permissionEvents.streamTimeoutSeconds}")
+  private long streamTimeoutSeconds;
+
+  /**
+   * Stream permission invalidations as server-sent events. The stream is closed after
+   * permissionEvents.streamTimeoutSeconds, and clients reconnecting with the Last-Event-ID header
+   * get the invalidations they missed, or an invalidation of all users if those are not kept.
+   *
+   * @param lastEventId id of the last invalidation received, sent by reconnecting clients
+   * @return event stream
+   */
+  @RequestMapping(value = "/permissionInvalidations", method = RequestMethod.GET,
+      produces = "text/event-stream")
+  @ConditionalGet(enabled = false)
+  public SseEmitter streamPermissionInvalidations(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return permissionChangeNotifier.subscribe(lastEventId,
+        TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+  }
+}
@@ -0,0 +1,57 @@
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Writes compact JSON, or indented JSON if the current request asks for it with the
+ * {@value #PRETTY_PARAMETER} query parameter or the {@value #PRETTY_HEADER} header, without a
+ * value or with the value true.
+ */
+public class PrettyPrintingJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  public static final String PRETTY_PARAMETER = "pretty";
+  public static final String PRETTY_HEADER = "X-Pretty-Print";
+
+  public PrettyPrintingJsonHttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  protected void writePrefix(JsonGenerator generator, Object object) throws IOException {
+    if (isPrettyPrintRequested()) {
+      generator.useDefaultPrettyPrinter();
+    }
+    super.writePrefix(generator, object);
+  }
+
+  /**
+   * Checks whether the request asks for indented JSON.
+   *
+   * @param request the request
+   * @return true if the pretty query parameter or header is given and not false
+   */
+  static boolean isPrettyPrintRequested(HttpServletRequest request) {
+    return isEnabled(request.getParameter(PRETTY_PARAMETER))
+        || isEnabled(request.getHeader(PRETTY_HEADER));
+  }
+
+  private static boolean isPrettyPrintRequested() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes instanceof ServletRequestAttributes
+        && isPrettyPrintRequested(((ServletRequestAttributes) attributes).getRequest());
+  }
+
+  private static boolean isEnabled(String value) {
+    return value != null && (value.isEmpty() || Boolean.parseBoolean(value));
+  }
+}
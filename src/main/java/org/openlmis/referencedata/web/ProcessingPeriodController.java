@@ -1,6 +1,5 @@
 package org.openlmis.referencedata.web;
 
-import com.google.common.collect.Sets;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
@@ -13,6 +12,8 @@ import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
 import org.openlmis.referencedata.service.ProcessingPeriodService;
 import org.openlmis.referencedata.validate.ProcessingPeriodValidator;
 import org.slf4j.Logger;
@@ -33,13 +34,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 
 @Controller
 public class ProcessingPeriodController extends BaseController {
@@ -67,6 +67,12 @@ public class ProcessingPeriodController extends BaseController {
   @Autowired
   private FacilityRepository facilityRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
   /**
    * Finds processingPeriods matching all of provided parameters.
    * @param programId program of searched ProcessingPeriods.
@@ -123,17 +129,29 @@ public class ProcessingPeriodController extends BaseController {
   }
 
   /**
-   * Get all processingPeriods.
+   * Get all processingPeriods, streamed from the database.
    *
    * @return ProcessingPeriods.
    */
   @RequestMapping(value = "/processingPeriods", method = RequestMethod.GET)
   public ResponseEntity<?> getAllProcessingPeriods() {
-    Set<ProcessingPeriod> processingPeriods = Sets.newHashSet(periodRepository.findAll());
-    Set<ProcessingPeriodDto> periodDtos = processingPeriods.stream().map(
-        period -> exportToDto(period)).collect(toSet());
+    return streamJson((writer, output) -> exportService.writeJsonArray(
+        periodRepository::findAllBy, this::exportToDto, writer, output));
+  }
 
-    return ResponseEntity.ok(periodDtos);
+  /**
+   * Get processing periods created or modified, and ids of processing periods deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all processing periods if empty
+   * @return change feed of processing periods
+   */
+  @RequestMapping(value = "/processingPeriods", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getProcessingPeriodChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(ProcessingPeriod.class, changedSince)
+        .map(this::exportToDto));
   }
 
   /**
@@ -150,6 +168,7 @@ public class ProcessingPeriodController extends BaseController {
     LOGGER.debug("Updating processingPeriod");
     ProcessingPeriod updatedProcessingPeriod = ProcessingPeriod.newPeriod(periodDto);
     updatedProcessingPeriod.setId(periodId);
+    checkVersion(periodRepository, updatedProcessingPeriod);
     periodRepository.save(updatedProcessingPeriod);
     return ResponseEntity
           .ok(exportToDto(updatedProcessingPeriod));
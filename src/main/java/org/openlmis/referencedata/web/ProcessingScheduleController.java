@@ -5,11 +5,13 @@ import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.openlmis.referencedata.service.ProcessingPeriodService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -17,8 +19,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -38,6 +42,9 @@ public class ProcessingScheduleController extends BaseController {
   @Autowired
   private ProcessingPeriodService periodService;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new processingSchedules.
    *
@@ -64,6 +71,7 @@ public class ProcessingScheduleController extends BaseController {
   public ResponseEntity<?> updateProcessingSchedule(@RequestBody ProcessingSchedule schedule,
                                                     @PathVariable("id") UUID scheduleId) {
     LOGGER.debug("Updating processingSchedule");
+    checkVersion(scheduleRepository, schedule);
     scheduleRepository.save(schedule);
     return new ResponseEntity<>(schedule, HttpStatus.OK);
   }
@@ -74,6 +82,7 @@ public class ProcessingScheduleController extends BaseController {
    * @return ProcessingSchedules.
    */
   @RequestMapping(value = "/processingSchedules", method = RequestMethod.GET)
+  @ConditionalGet(ProcessingSchedule.class)
   public ResponseEntity<?> getAllProcessingSchedules() {
     Iterable<ProcessingSchedule> schedules = scheduleRepository.findAll();
     if (schedules == null) {
@@ -83,6 +92,21 @@ public class ProcessingScheduleController extends BaseController {
     }
   }
 
+  /**
+   * Get processing schedules created or modified, and ids of processing schedules deleted, since
+   * the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all processing schedules if empty
+   * @return change feed of processing schedules
+   */
+  @RequestMapping(value = "/processingSchedules", method = RequestMethod.GET,
+      params = CHANGED_SINCE)
+  public ResponseEntity<?> getProcessingScheduleChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(ProcessingSchedule.class, changedSince));
+  }
+
   /**
    * Get chosen processingSchedule.
    *
@@ -90,6 +114,7 @@ public class ProcessingScheduleController extends BaseController {
    * @return ProcessingSchedule.
    */
   @RequestMapping(value = "/processingSchedules/{id}", method = RequestMethod.GET)
+  @ConditionalGet(ProcessingSchedule.class)
   public ResponseEntity<?> getProcessingSchedule(@PathVariable("id") UUID scheduleId) {
     ProcessingSchedule schedule = scheduleRepository.findOne(scheduleId);
     if (schedule == null) {
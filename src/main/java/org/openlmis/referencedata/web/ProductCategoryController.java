@@ -3,11 +3,13 @@ package org.openlmis.referencedata.web;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.ProductCategory;
 import org.openlmis.referencedata.repository.ProductCategoryRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.openlmis.referencedata.util.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -27,17 +30,35 @@ public class ProductCategoryController extends BaseController {
   @Autowired
   private ProductCategoryRepository productCategoryRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Get all productCategories.
    *
    * @return ProductCategories.
    */
   @RequestMapping(value = "/productCategories", method = RequestMethod.GET)
+  @ConditionalGet(ProductCategory.class)
   public ResponseEntity<?> getAllProductCategories() {
     Iterable<ProductCategory> productCategories = productCategoryRepository.findAll();
     return new ResponseEntity<>(productCategories, HttpStatus.OK);
   }
 
+  /**
+   * Get product categories created or modified, and ids of product categories deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all product categories if empty
+   * @return change feed of product categories
+   */
+  @RequestMapping(value = "/productCategories", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getProductCategoryChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(ProductCategory.class, changedSince));
+  }
+
   /**
    * Create or update a {@link ProductCategory}.
    *
@@ -48,6 +69,7 @@ public class ProductCategoryController extends BaseController {
   public ResponseEntity<?> createProductCategory(@RequestBody ProductCategory productCategory) {
     ProductCategory found = productCategoryRepository.findByCode(productCategory
         .getCode());
+    checkVersion(found, productCategory);
     if (null != found) {
       found.updateFrom(productCategory);
     } else {
@@ -80,6 +102,7 @@ public class ProductCategoryController extends BaseController {
       LOGGER.error(errorResponse.getMessage());
       return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
+    checkVersion(productCategoryToUpdate, productCategoryToUpdate);
     productCategoryToUpdate.updateFrom(productCategory);
     productCategoryRepository.save(productCategoryToUpdate);
 
@@ -94,6 +117,7 @@ public class ProductCategoryController extends BaseController {
    * @return ProductCategory.
    */
   @RequestMapping(value = "/productCategories/{id}", method = RequestMethod.GET)
+  @ConditionalGet(ProductCategory.class)
   public ResponseEntity<?> getProductCategory(@PathVariable("id") UUID productCategoryId) {
     ProductCategory productCategory = productCategoryRepository.findOne(productCategoryId);
     if (productCategory == null) {
@@ -136,6 +160,7 @@ public class ProductCategoryController extends BaseController {
    * @return ResponseEntity with list of all Product Categories matching provided parameters
    */
   @RequestMapping(value = "/productCategories/search", method = RequestMethod.GET)
+  @ConditionalGet(ProductCategory.class)
   public ResponseEntity<?> searchProductCategories(
       @RequestParam(value = "code", required = false) String codeParam) {
 
@@ -1,21 +1,30 @@
 package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.ProgramProduct;
 import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Controller
 public class ProgramController extends BaseController {
@@ -25,6 +34,15 @@ public class ProgramController extends BaseController {
   @Autowired
   private ProgramRepository programRepository;
 
+  @Autowired
+  private UserPermissionService permissionService;
+
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
   /**
    * Allows creating new programs.
    *
@@ -46,6 +64,7 @@ public class ProgramController extends BaseController {
    * @return Programs.
    */
   @RequestMapping(value = "/programs", method = RequestMethod.GET)
+  @ConditionalGet(Program.class)
   public ResponseEntity<?> getAllPrograms() {
     Iterable<Program> programs = programRepository.findAll();
     if (programs == null) {
@@ -55,6 +74,36 @@ public class ProgramController extends BaseController {
     }
   }
 
+  /**
+   * Get programs created or modified, and ids of programs deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all programs if empty
+   * @return change feed of programs
+   */
+  @RequestMapping(value = "/programs", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getProgramChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(Program.class, changedSince));
+  }
+
+  /**
+   * Export all program products as CSV or newline-delimited JSON, streamed from the database.
+   *
+   * @param format         csv or ndjson
+   * @param acceptEncoding Accept-Encoding header, the export is compressed if it allows gzip
+   * @return streamed program products
+   */
+  @RequestMapping(value = "/programProducts/export", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> exportProgramProducts(
+      @RequestParam(value = EXPORT_FORMAT, defaultValue = DEFAULT_EXPORT_FORMAT) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    return exportService.export("programProducts", ProgramProduct.class, Function.identity(),
+        ProgramProduct.class, format, acceptEncoding);
+  }
+
   /**
    * Get chosen program.
    *
@@ -62,6 +111,7 @@ public class ProgramController extends BaseController {
    * @return Program.
    */
   @RequestMapping(value = "/programs/{id}", method = RequestMethod.GET)
+  @ConditionalGet(Program.class)
   public ResponseEntity<?> getChosenProgram(@PathVariable("id") UUID programId) {
     Program program = programRepository.findOne(programId);
     if (program == null) {
@@ -84,6 +134,7 @@ public class ProgramController extends BaseController {
       return new ResponseEntity(HttpStatus.NOT_FOUND);
     } else {
       programRepository.delete(program);
+      permissionService.invalidateAll();
       return new ResponseEntity<Program>(HttpStatus.NO_CONTENT);
     }
   }
@@ -106,8 +157,11 @@ public class ProgramController extends BaseController {
       LOGGER.warn("Update failed - program with id: {} not found", programId);
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
+    checkVersion(storedProgram, program);
 
     programRepository.save(program);
+    // permission indexes are keyed by program code, which may have changed
+    permissionService.invalidateAll();
 
     return new ResponseEntity<>(program, HttpStatus.OK);
   }
@@ -120,6 +174,7 @@ public class ProgramController extends BaseController {
    * @return List of wanted Programs.
    */
   @RequestMapping(value = "/programs/search", method = RequestMethod.GET)
+  @ConditionalGet(Program.class)
   public ResponseEntity<?> findProgramsByName(@RequestParam("name") String programName) {
     List<Program> foundPrograms = programRepository.findProgramsByName(programName);
     return new ResponseEntity<>(foundPrograms, HttpStatus.OK);
@@ -2,11 +2,14 @@ package org.openlmis.referencedata.web;
 
 import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.repository.RequisitionGroupRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.openlmis.referencedata.validate.RequisitionGroupValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -15,7 +18,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -30,6 +35,12 @@ public class RequisitionGroupController extends BaseController {
   @Autowired
   private RequisitionGroupRepository requisitionGroupRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private UserPermissionService permissionService;
+
   /**
    * Allows creating new requisitionGroup. If the id is specified, it will be ignored.
    *
@@ -45,6 +56,7 @@ public class RequisitionGroupController extends BaseController {
     if (bindingResult.getErrorCount() == 0) {
       requisitionGroup.setId(null);
       requisitionGroupRepository.save(requisitionGroup);
+      permissionService.invalidateSupervision();
 
       LOGGER.debug("Created new requisitionGroup with id: " + requisitionGroup.getId());
       return new ResponseEntity<>(requisitionGroup, HttpStatus.CREATED);
@@ -64,6 +76,20 @@ public class RequisitionGroupController extends BaseController {
     return new ResponseEntity<>(requisitionGroups, HttpStatus.OK);
   }
 
+  /**
+   * Get requisition groups created or modified, and ids of requisition groups deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all requisition groups if empty
+   * @return change feed of requisition groups
+   */
+  @RequestMapping(value = "/requisitionGroups", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getRequisitionGroupChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(RequisitionGroup.class, changedSince));
+  }
+
   /**
    * Get chosen requisitionGroup.
    *
@@ -96,6 +122,7 @@ public class RequisitionGroupController extends BaseController {
     if (bindingResult.getErrorCount() == 0) {
       RequisitionGroup requisitionGroupToUpdate =
           requisitionGroupRepository.findOne(requisitionGroupId);
+      checkVersion(requisitionGroupToUpdate, requisitionGroup);
 
       if (null == requisitionGroupToUpdate) {
         LOGGER.info("Creating new requisitionGroup");
@@ -106,6 +133,7 @@ public class RequisitionGroupController extends BaseController {
 
       requisitionGroupToUpdate.updateFrom(requisitionGroup);
       requisitionGroupRepository.save(requisitionGroupToUpdate);
+      permissionService.invalidateSupervision();
 
       LOGGER.debug("Saved requisitionGroup with id: " + requisitionGroupToUpdate.getId());
       return new ResponseEntity<>(requisitionGroupToUpdate, HttpStatus.OK);
@@ -127,6 +155,7 @@ public class RequisitionGroupController extends BaseController {
       return new ResponseEntity(HttpStatus.NOT_FOUND);
     } else {
       requisitionGroupRepository.delete(requisitionGroup);
+      permissionService.invalidateSupervision();
       return new ResponseEntity<RequisitionGroup>(HttpStatus.NO_CONTENT);
     }
   }
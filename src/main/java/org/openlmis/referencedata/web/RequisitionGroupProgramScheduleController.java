@@ -9,12 +9,14 @@ import org.openlmis.referencedata.exception.RequisitionGroupProgramScheduleExcep
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.RequisitionGroupProgramScheduleRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.util.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -24,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Controller
@@ -44,6 +47,9 @@ public class RequisitionGroupProgramScheduleController extends BaseController {
   @Autowired
   private FacilityRepository facilityRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new requisitionGroupProgramSchedule.
    * If the id is specified, it will be ignored.
@@ -72,6 +78,23 @@ public class RequisitionGroupProgramScheduleController extends BaseController {
     return new ResponseEntity<>(requisitions, HttpStatus.OK);
   }
 
+  /**
+   * Get requisition group program schedules created or modified, and ids of requisition group
+   * program schedules deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all requisition group program
+   *                     schedules if empty
+   * @return change feed of requisition group program schedules
+   */
+  @RequestMapping(value = "/requisitionGroupProgramSchedules", method = RequestMethod.GET,
+      params = CHANGED_SINCE)
+  public ResponseEntity<?> getRequisitionGroupProgramScheduleChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(
+        changeFeedService.getChanges(RequisitionGroupProgramSchedule.class, changedSince));
+  }
+
   /**
    * Get chosen requisitionGroupProgramSchedule.
    *
@@ -111,6 +134,7 @@ public class RequisitionGroupProgramScheduleController extends BaseController {
           .newRequisitionGroupProgramSchedule(reqGroupProgSchedule);
 
       reqGroupProgScheduleToUpdate.setId(requisitionId);
+      checkVersion(repository, reqGroupProgScheduleToUpdate);
 
       repository.save(reqGroupProgScheduleToUpdate);
 
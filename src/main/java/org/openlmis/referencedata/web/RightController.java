@@ -5,16 +5,21 @@ import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.dto.RightDto;
 import org.openlmis.referencedata.repository.RightRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -30,8 +35,15 @@ public class RightController extends BaseController {
   @Autowired
   private RightRepository rightRepository;
 
-  public RightController(RightRepository repository) {
+  @Autowired
+  private UserPermissionService permissionService;
+
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  public RightController(RightRepository repository, UserPermissionService permissionService) {
     this.rightRepository = Objects.requireNonNull(repository);
+    this.permissionService = Objects.requireNonNull(permissionService);
   }
 
   /**
@@ -50,6 +62,20 @@ public class RightController extends BaseController {
         .ok(rightDtos);
   }
 
+  /**
+   * Get rights created or modified, and ids of rights deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all rights if empty
+   * @return change feed of rights
+   */
+  @RequestMapping(value = "/rights", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getRightChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(Right.class, changedSince)
+        .map(this::exportToDto));
+  }
+
   /**
    * Get chosen right.
    *
@@ -83,6 +109,7 @@ public class RightController extends BaseController {
     Right rightToSave = Right.newRight(rightDto);
 
     Right storedRight = rightRepository.findFirstByName(rightToSave.getName());
+    checkVersion(storedRight, rightToSave);
     if (storedRight != null) {
       LOGGER.debug("Right found in the system, assign id");
       rightToSave.setId(storedRight.getId());
@@ -91,6 +118,7 @@ public class RightController extends BaseController {
 
     LOGGER.debug("Saving right");
     rightRepository.save(rightToSave);
+    permissionService.invalidateAll();
 
 
     LOGGER.debug("Saved right with id: " + rightToSave.getId());
@@ -120,6 +148,7 @@ public class RightController extends BaseController {
 
     LOGGER.debug("Deleting right");
     rightRepository.delete(rightId);
+    permissionService.invalidateAll();
 
 
     return ResponseEntity
@@ -12,10 +12,13 @@ import org.openlmis.referencedata.exception.RoleException;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.RoleRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -23,7 +26,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -45,18 +50,27 @@ public class RoleController extends BaseController {
   @Autowired
   private ExposedMessageSource messageSource;
 
+  @Autowired
+  private UserPermissionService permissionService;
+
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Constructor for controller unit testing.
    *
-   * @param repository      role repository
-   * @param rightRepository right repository
-   * @param messageSource   message source
+   * @param repository        role repository
+   * @param rightRepository   right repository
+   * @param messageSource     message source
+   * @param permissionService user permission service
    */
   public RoleController(RoleRepository repository, RightRepository rightRepository,
-                        ExposedMessageSource messageSource) {
+                        ExposedMessageSource messageSource,
+                        UserPermissionService permissionService) {
     this.roleRepository = Objects.requireNonNull(repository);
     this.rightRepository = Objects.requireNonNull(rightRepository);
     this.messageSource = Objects.requireNonNull(messageSource);
+    this.permissionService = Objects.requireNonNull(permissionService);
   }
 
   /**
@@ -76,6 +90,20 @@ public class RoleController extends BaseController {
         .body(roleDtos);
   }
 
+  /**
+   * Get roles created or modified, and ids of roles deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all roles if empty
+   * @return change feed of roles
+   */
+  @RequestMapping(value = "/roles", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getRoleChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(Role.class, changedSince)
+        .map(this::exportToDto));
+  }
+
   /**
    * Get specified role in the system.
    *
@@ -165,8 +193,10 @@ public class RoleController extends BaseController {
       roleToSave = Role.newRole(roleDto);
 
       roleToSave.setId(roleId);
+      checkVersion(roleRepository, roleToSave);
 
       roleRepository.save(roleToSave);
+      permissionService.invalidateRole(roleId);
 
     } catch (AuthException ae) {
 
@@ -204,6 +234,7 @@ public class RoleController extends BaseController {
 
     LOGGER.debug("Deleting role");
     roleRepository.delete(roleId);
+    permissionService.invalidateAll();
 
 
     return ResponseEntity
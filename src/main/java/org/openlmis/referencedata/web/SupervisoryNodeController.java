@@ -1,10 +1,19 @@
 package org.openlmis.referencedata.web;
 
+import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.domain.SupervisoryNodeTraversal;
+import org.openlmis.referencedata.exception.SupervisoryNodeException;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
+import org.openlmis.referencedata.service.SupervisoryNodeHierarchyService;
+import org.openlmis.referencedata.service.UserPermissionService;
+import org.openlmis.referencedata.util.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -12,8 +21,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Controller
 public class SupervisoryNodeController extends BaseController {
@@ -23,6 +36,21 @@ public class SupervisoryNodeController extends BaseController {
   @Autowired
   private SupervisoryNodeRepository supervisoryNodeRepository;
 
+  @Autowired
+  private UserPermissionService permissionService;
+
+  @Autowired
+  private SupervisoryNodeHierarchyService hierarchyService;
+
+  @Autowired
+  private SupervisoryNodeTraversal traversal;
+
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
   /**
    * Allows creating new supervisoryNode. If the id is specified, it will be ignored.
    *
@@ -33,20 +61,40 @@ public class SupervisoryNodeController extends BaseController {
   public ResponseEntity<?> createSupervisoryNode(@RequestBody SupervisoryNode supervisoryNode) {
     LOGGER.debug("Creating new supervisoryNode");
     supervisoryNode.setId(null);
-    supervisoryNodeRepository.save(supervisoryNode);
-    LOGGER.debug("Created new supervisoryNode with id: " + supervisoryNode.getId());
-    return new ResponseEntity<SupervisoryNode>(supervisoryNode, HttpStatus.CREATED);
+    try {
+      validateParentNode(supervisoryNode);
+    } catch (SupervisoryNodeException ex) {
+      return invalidParentNode(ex);
+    }
+    SupervisoryNode savedNode = hierarchyService.save(supervisoryNode);
+    permissionService.invalidateSupervision();
+    LOGGER.debug("Created new supervisoryNode with id: " + savedNode.getId());
+    return new ResponseEntity<SupervisoryNode>(savedNode, HttpStatus.CREATED);
   }
 
   /**
-   * Get all supervisoryNodes.
+   * Get all supervisoryNodes, streamed from the database.
    *
    * @return SupervisoryNodes.
    */
   @RequestMapping(value = "/supervisoryNodes", method = RequestMethod.GET)
   public ResponseEntity<?> getAllSupervisoryNodes() {
-    Iterable<SupervisoryNode> supervisoryNodes = supervisoryNodeRepository.findAll();
-    return new ResponseEntity<>(supervisoryNodes, HttpStatus.OK);
+    return streamJson((writer, output) -> exportService.writeJsonArray(
+        supervisoryNodeRepository::findAllBy, Function.identity(), writer, output));
+  }
+
+  /**
+   * Get supervisory nodes created or modified, and ids of supervisory nodes deleted, since the
+   * given time.
+   *
+   * @param changedSince sync time of the previous change feed, all supervisory nodes if empty
+   * @return change feed of supervisory nodes
+   */
+  @RequestMapping(value = "/supervisoryNodes", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getSupervisoryNodeChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(SupervisoryNode.class, changedSince));
   }
 
   /**
@@ -65,6 +113,43 @@ public class SupervisoryNodeController extends BaseController {
     }
   }
 
+  /**
+   * Get all supervisoryNodes below the chosen supervisoryNode, closest ones first.
+   *
+   * @param supervisoryNodeId UUID of supervisoryNode whose descendants we want to get
+   * @return SupervisoryNodes.
+   */
+  @RequestMapping(value = "/supervisoryNodes/{id}/descendants", method = RequestMethod.GET)
+  public ResponseEntity<?> getDescendantNodes(@PathVariable("id") UUID supervisoryNodeId) {
+    SupervisoryNode supervisoryNode = supervisoryNodeRepository.findOne(supervisoryNodeId);
+    if (supervisoryNode == null) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    List<SupervisoryNode> descendants =
+        supervisoryNodeRepository.findDescendants(supervisoryNodeId);
+    return new ResponseEntity<>(descendants, HttpStatus.OK);
+  }
+
+  /**
+   * Get all facilities supervised by the chosen supervisoryNode and all of its descendants.
+   *
+   * @param supervisoryNodeId UUID of supervisoryNode whose supervised facilities we want to get
+   * @return Facilities.
+   */
+  @RequestMapping(value = "/supervisoryNodes/{id}/supervisedFacilities",
+      method = RequestMethod.GET)
+  public ResponseEntity<?> getSupervisedFacilities(@PathVariable("id") UUID supervisoryNodeId) {
+    SupervisoryNode supervisoryNode = supervisoryNodeRepository.findOne(supervisoryNodeId);
+    if (supervisoryNode == null) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    List<Facility> facilities =
+        supervisoryNodeRepository.findSupervisedFacilities(supervisoryNodeId);
+    return new ResponseEntity<>(facilities, HttpStatus.OK);
+  }
+
   /**
    * Allows updating supervisoryNode.
    *
@@ -79,13 +164,21 @@ public class SupervisoryNodeController extends BaseController {
 
     SupervisoryNode supervisoryNodeToUpdate =
         supervisoryNodeRepository.findOne(supervisoryNodeId);
+    checkVersion(supervisoryNodeToUpdate, supervisoryNode);
 
     if (supervisoryNodeToUpdate == null) {
       supervisoryNodeToUpdate = new SupervisoryNode();
     }
 
     supervisoryNodeToUpdate.updateFrom(supervisoryNode);
-    supervisoryNodeRepository.save(supervisoryNodeToUpdate);
+    try {
+      validateParentNode(supervisoryNodeToUpdate);
+    } catch (SupervisoryNodeException ex) {
+      return invalidParentNode(ex);
+    }
+    supervisoryNodeToUpdate = hierarchyService.save(supervisoryNodeToUpdate);
+    // permission indexes are keyed by supervisory node code, which may have changed
+    permissionService.invalidateAll();
 
     LOGGER.debug("Updated supervisoryNode with id: " + supervisoryNodeId);
     return new ResponseEntity<>(supervisoryNodeToUpdate, HttpStatus.OK);
@@ -103,8 +196,30 @@ public class SupervisoryNodeController extends BaseController {
     if (supervisoryNode == null) {
       return new ResponseEntity(HttpStatus.NOT_FOUND);
     } else {
-      supervisoryNodeRepository.delete(supervisoryNode);
+      hierarchyService.delete(supervisoryNode);
+      // permission indexes refer to the deleted node by its code
+      permissionService.invalidateAll();
       return new ResponseEntity<SupervisoryNode>(HttpStatus.NO_CONTENT);
     }
   }
+
+  private void validateParentNode(SupervisoryNode supervisoryNode)
+      throws SupervisoryNodeException {
+    SupervisoryNode parentNode = supervisoryNode.getParentNode();
+    if (parentNode != null && parentNode.getId() != null) {
+      // the parent in the request body is detached, check against the stored hierarchy instead
+      SupervisoryNode storedParentNode = supervisoryNodeRepository.findOne(parentNode.getId());
+      if (storedParentNode != null) {
+        parentNode = storedParentNode;
+      }
+    }
+    traversal.validateParentNode(supervisoryNode, parentNode);
+  }
+
+  private ResponseEntity<?> invalidParentNode(SupervisoryNodeException ex) {
+    ErrorResponse errorResponse =
+        new ErrorResponse("Invalid parent supervisory node", ex.getMessage());
+    LOGGER.error(errorResponse.getMessage(), ex);
+    return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+  }
 }
@@ -7,10 +7,12 @@ import org.openlmis.referencedata.dto.SupplyLineDto;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.SupplyLineRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
 import org.openlmis.referencedata.service.SupplyLineService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -41,6 +44,9 @@ public class SupplyLineController extends BaseController {
   @Autowired
   private SupervisoryNodeRepository supervisoryNodeRepository;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
   /**
    * Allows creating new supplyLines. If the id is specified, it will be ignored.
    *
@@ -67,6 +73,19 @@ public class SupplyLineController extends BaseController {
     return new ResponseEntity<>(supplyLines, HttpStatus.OK);
   }
 
+  /**
+   * Get supply lines created or modified, and ids of supply lines deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all supply lines if empty
+   * @return change feed of supply lines
+   */
+  @RequestMapping(value = "/supplyLines", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getSupplyLineChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(SupplyLine.class, changedSince));
+  }
+
   /**
    * Allows updating supplyLines.
    *
@@ -79,6 +98,7 @@ public class SupplyLineController extends BaseController {
                                             @PathVariable("id") UUID supplyLineId) {
 
     SupplyLine supplyLineToUpdate = supplyLineRepository.findOne(supplyLineId);
+    checkVersion(supplyLineToUpdate, supplyLine);
     if (supplyLineToUpdate == null) {
       supplyLineToUpdate = new SupplyLine();
       LOGGER.debug("Creating new supplyLine");
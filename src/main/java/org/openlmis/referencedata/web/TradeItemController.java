@@ -25,6 +25,7 @@ public class TradeItemController {
   public TradeItem createOrUpdate(@RequestBody TradeItem tradeItem) {
     // if it already exists, update or fail if not already a GlobalProduct
     OrderableProduct storedProduct = repository.findByProductCode(tradeItem.getProductCode());
+    BaseController.checkVersion(storedProduct, tradeItem);
     if ( null != storedProduct ) {
       tradeItem.setId(storedProduct.getId());
     }
@@ -1,14 +1,13 @@
 package org.openlmis.referencedata.web;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.DirectRoleAssignment;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FulfillmentRoleAssignment;
+import org.openlmis.referencedata.domain.PermissionIndex;
 import org.openlmis.referencedata.domain.Program;
-import org.openlmis.referencedata.domain.Right;
-import org.openlmis.referencedata.domain.RightQuery;
 import org.openlmis.referencedata.domain.Role;
 import org.openlmis.referencedata.domain.RoleAssignment;
 import org.openlmis.referencedata.domain.SupervisionRoleAssignment;
@@ -23,18 +22,28 @@ import org.openlmis.referencedata.exception.RoleAssignmentException;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.RoleRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.UserRepository;
+import org.openlmis.referencedata.service.ChangeFeedService;
+import org.openlmis.referencedata.service.ExportService;
+import org.openlmis.referencedata.service.UserJobService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.util.ErrorResponse;
+import org.openlmis.referencedata.util.ExportWriter.Format;
 import org.openlmis.referencedata.util.PasswordChangeRequest;
 import org.openlmis.referencedata.util.PasswordResetRequest;
+import org.openlmis.referencedata.util.RightCheckRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -46,18 +55,23 @@ import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 
 @NoArgsConstructor
 @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
@@ -66,6 +80,16 @@ public class UserController extends BaseController {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UserController.class);
   private static final String USER_ID = "userId";
+  private static final String USERNAME = "username";
+  private static final String NDJSON = "application/x-ndjson";
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int MAX_SEARCH_RESULTS = 200;
+  private static final int DEFAULT_SEARCH_RESULTS = 50;
+  private static final String SEARCH_EXACT = "exact";
+  private static final String SEARCH_PREFIX = "prefix";
+  private static final List<String> SORTABLE_PROPERTIES =
+      Arrays.asList(USERNAME, "firstName", "lastName", "email");
 
   @Autowired
   private UserService userService;
@@ -89,11 +113,20 @@ public class UserController extends BaseController {
   private FacilityRepository facilityRepository;
 
   @Autowired
-  private RightRepository rightRepository;
+  private UserPermissionService permissionService;
 
   @Autowired
   private Validator validator;
 
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ExportService exportService;
+
+  @Autowired
+  private UserJobService userJobService;
+
   @InitBinder
   protected void initBinder(WebDataBinder binder) {
     binder.setValidator(this.validator);
@@ -104,20 +137,22 @@ public class UserController extends BaseController {
    */
   public UserController(UserService userService,
                         UserRepository userRepository,
+                        UserPermissionService permissionService,
                         RoleRepository roleRepository,
-                        RightRepository rightRepository,
                         ProgramRepository programRepository,
                         SupervisoryNodeRepository supervisoryNodeRepository,
                         FacilityRepository facilityRepository,
-                        ExposedMessageSource messageSource) {
+                        ExposedMessageSource messageSource,
+                        ExportService exportService) {
     this.userService = userService;
     this.userRepository = userRepository;
+    this.permissionService = permissionService;
     this.roleRepository = roleRepository;
-    this.rightRepository = rightRepository;
     this.programRepository = programRepository;
     this.supervisoryNodeRepository = supervisoryNodeRepository;
     this.facilityRepository = facilityRepository;
     this.messageSource = messageSource;
+    this.exportService = exportService;
   }
 
   /**
@@ -125,11 +160,7 @@ public class UserController extends BaseController {
    */
   @RequestMapping(value = "/users", method = RequestMethod.PUT)
   public ResponseEntity<?> saveUser(@RequestBody @Valid UserDto userDto,
-                                    BindingResult bindingResult,
-                                    OAuth2Authentication auth) {
-    OAuth2AuthenticationDetails details = (OAuth2AuthenticationDetails) auth.getDetails();
-    String token = details.getTokenValue();
-
+                                    BindingResult bindingResult) {
     if (bindingResult.hasErrors()) {
       return new ResponseEntity<>(getErrors(bindingResult), HttpStatus.BAD_REQUEST);
     }
@@ -150,6 +181,7 @@ public class UserController extends BaseController {
     try {
 
       User userToSave = User.newUser(userDto);
+      checkVersion(userRepository, userToSave);
 
       Set<RoleAssignmentDto> roleAssignmentDtos = userDto.getRoleAssignments();
       if (roleAssignmentDtos != null) {
@@ -165,19 +197,12 @@ public class UserController extends BaseController {
         assignRolesToUser(roleAssignmentDtos, userToSave);
       }
 
-      userService.save(userToSave, token);
+      userService.save(userToSave);
+      permissionService.invalidate(userToSave.getId());
 
       return ResponseEntity
           .ok(exportToDto(userToSave));
 
-    } catch (ExternalApiException ex) {
-
-      ErrorResponse errorResponse =
-          new ErrorResponse("An error occurred while saving user", ex.getMessage());
-      LOGGER.error(errorResponse.getMessage(), ex);
-      return ResponseEntity
-          .status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body(errorResponse);
     } catch (AuthException ae) {
       LOGGER.error("An error occurred while creating role assignment object: "
           + ae.getMessage());
@@ -188,21 +213,102 @@ public class UserController extends BaseController {
   }
 
   /**
-   * Get all users and their roles.
+   * Get all users and their roles, ordered by the sort parameter and then by username. If page or
+   * size is specified, only that page of users is returned.
    *
-   * @return Users.
+   * @param page number of the page to get, starting from 0
+   * @param size number of users per page
+   * @param sort property to sort by, optionally followed by ",asc" or ",desc"
+   * @return Users, or a page of users.
    */
   @RequestMapping(value = "/users", method = RequestMethod.GET)
-  public ResponseEntity<?> getAllUsers() {
+  public ResponseEntity<?> getAllUsers(
+      @RequestParam(value = "page", required = false) Integer page,
+      @RequestParam(value = "size", required = false) Integer size,
+      @RequestParam(value = "sort", required = false, defaultValue = USERNAME) String sort) {
 
     LOGGER.debug("Getting all users");
-    Set<User> users = Sets.newHashSet(userRepository.findAll());
-    Set<UserDto> userDtos = users.stream().map(user -> exportToDto(user)).collect(toSet());
+    Sort userSort;
+    try {
+      userSort = parseUserSort(sort);
+    } catch (IllegalArgumentException ex) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid sort", ex.getMessage()),
+          HttpStatus.BAD_REQUEST);
+    }
+
+    if (page == null && size == null) {
+      List<User> users = Lists.newArrayList(userRepository.findAll(userSort));
+      return ResponseEntity
+          .ok(exportToDtos(users));
+    }
 
+    int pageNumber = page == null ? 0 : page;
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+    if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid page",
+          "page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE),
+          HttpStatus.BAD_REQUEST);
+    }
+
+    Page<UserDto> userDtos = userRepository
+        .findAll(new PageRequest(pageNumber, pageSize, userSort))
+        .map(this::exportToDto);
     return ResponseEntity
         .ok(userDtos);
   }
 
+  /**
+   * Get users created or modified, and ids of users deleted, since the given time.
+   *
+   * @param changedSince sync time of the previous change feed, all users if empty
+   * @return change feed of users
+   */
+  @RequestMapping(value = "/users", method = RequestMethod.GET, params = CHANGED_SINCE)
+  public ResponseEntity<?> getUserChanges(
+      @RequestParam(value = CHANGED_SINCE, required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+    return ResponseEntity.ok(changeFeedService.getChanges(User.class, changedSince)
+        .map(this::exportToDto));
+  }
+
+  /**
+   * Stream all users and their roles as newline-delimited JSON, one user per line. Users are
+   * written as they are read from the database, so the whole list is never held in memory.
+   *
+   * @param sort property to sort by, optionally followed by ",asc" or ",desc"
+   * @return streamed users
+   */
+  @RequestMapping(value = "/users", method = RequestMethod.GET, produces = NDJSON)
+  public ResponseEntity<?> streamAllUsers(
+      @RequestParam(value = "sort", required = false, defaultValue = USERNAME) String sort) {
+
+    LOGGER.debug("Streaming all users");
+    Sort userSort;
+    try {
+      userSort = parseUserSort(sort);
+    } catch (IllegalArgumentException ex) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid sort", ex.getMessage()),
+          HttpStatus.BAD_REQUEST);
+    }
+    return streamUsers(userSort, Format.NDJSON.getExtension(), null);
+  }
+
+  /**
+   * Export all users and their roles as CSV or newline-delimited JSON, streamed from the database.
+   *
+   * @param format         csv or ndjson
+   * @param acceptEncoding Accept-Encoding header, the export is compressed if it allows gzip
+   * @return streamed users and their roles
+   */
+  @RequestMapping(value = "/users/export", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> exportUsers(
+      @RequestParam(value = EXPORT_FORMAT, defaultValue = DEFAULT_EXPORT_FORMAT) String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    return streamUsers(new Sort(USERNAME), format, acceptEncoding);
+  }
+
   /**
    * Get chosen user and role.
    *
@@ -225,6 +331,25 @@ public class UserController extends BaseController {
     }
   }
 
+  /**
+   * Get the background jobs of a user, such as creating their auth user and sending them the
+   * welcome email, with their status, oldest first.
+   *
+   * @param userId UUID of the user
+   * @return jobs of the user
+   */
+  @RequestMapping(value = "/users/{userId}/jobs", method = RequestMethod.GET)
+  @ConditionalGet(enabled = false)
+  public ResponseEntity<?> getUserJobs(@PathVariable("userId") UUID userId) {
+    if (!userRepository.exists(userId)) {
+      return ResponseEntity
+          .notFound()
+          .build();
+    }
+    return ResponseEntity
+        .ok(userJobService.getJobs(userId));
+  }
+
   /**
    * Allows deleting user.
    *
@@ -240,6 +365,7 @@ public class UserController extends BaseController {
           .build();
     } else {
       userRepository.delete(userId);
+      permissionService.invalidate(userId);
       return ResponseEntity
           .noContent()
           .build();
@@ -247,14 +373,21 @@ public class UserController extends BaseController {
   }
 
   /**
-   * Returns all users with matched parameters
+   * Returns users with matched parameters, ordered by username. Username, first name and last
+   * name match exactly, or with mode=prefix case-insensitively by prefix, which makes the
+   * endpoint usable for type-ahead search. At most 200 users are returned, or a page of 50 if
+   * only the page is given.
    *
-   * @param username     username of user we want to search.
-   * @param firstName    firstName of user we want to search.
-   * @param lastName     lastName of user we want to search.
+   * @param username     username of user we want to search, or its prefix.
+   * @param firstName    firstName of user we want to search, or its prefix.
+   * @param lastName     lastName of user we want to search, or its prefix.
    * @param homeFacility homeFacility of user we want to search.
    * @param active       is the user account active.
    * @param verified     is the user account verified.
+   * @param mode         exact or prefix.
+   * @param page         number of the page to get, starting from 0.
+   * @param size         maximum number of users to return, 50 if only the page is given and 200
+   *                     if neither is.
    * @return ResponseEntity with list of all Users matching provided parameters and OK httpStatus.
    */
   @RequestMapping(value = "/users/search", method = RequestMethod.GET)
@@ -264,9 +397,29 @@ public class UserController extends BaseController {
       @RequestParam(value = "lastName", required = false) String lastName,
       @RequestParam(value = "homeFacility", required = false) Facility homeFacility,
       @RequestParam(value = "active", required = false) Boolean active,
-      @RequestParam(value = "verified", required = false) Boolean verified) {
-    List<User> result = userService.searchUsers(username, firstName,
-        lastName, homeFacility, active, verified);
+      @RequestParam(value = "verified", required = false) Boolean verified,
+      @RequestParam(value = "mode", required = false, defaultValue = SEARCH_EXACT) String mode,
+      @RequestParam(value = "page", required = false) Integer page,
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (!SEARCH_EXACT.equals(mode) && !SEARCH_PREFIX.equals(mode)) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid search mode",
+          "mode must be " + SEARCH_EXACT + " or " + SEARCH_PREFIX), HttpStatus.BAD_REQUEST);
+    }
+    int pageNumber = page == null ? 0 : page;
+    int pageSize = MAX_SEARCH_RESULTS;
+    if (size != null) {
+      pageSize = size;
+    } else if (page != null) {
+      pageSize = DEFAULT_SEARCH_RESULTS;
+    }
+    if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_SEARCH_RESULTS) {
+      return new ResponseEntity<>(new ErrorResponse("Invalid page",
+          "page must not be negative and size must be between 1 and " + MAX_SEARCH_RESULTS),
+          HttpStatus.BAD_REQUEST);
+    }
+
+    List<User> result = userService.searchUsers(username, firstName, lastName, homeFacility,
+        active, verified, SEARCH_PREFIX.equals(mode), new PageRequest(pageNumber, pageSize));
 
     return ResponseEntity
         .ok(exportToDtos(result));
@@ -292,42 +445,58 @@ public class UserController extends BaseController {
                                                @RequestParam(value = "warehouseCode",
                                                    required = false) String warehouseCode) {
 
-    User user;
-    try {
-      user = validateUser(userId);
-    } catch (AuthException err) {
+    PermissionIndex permissionIndex = permissionService.getPermissionIndex(userId);
+    if (permissionIndex == null) {
+      LOGGER.error(messageSource.getMessage("referencedata.error.id.not-found",
+          new Object[]{ userId }, Locale.ENGLISH));
       return ResponseEntity
           .notFound()
           .build();
     }
 
-    RightQuery rightQuery;
-    Right right = rightRepository.findFirstByName(rightName);
-    if (programCode != null) {
+    boolean hasRight = permissionIndex.hasRight(rightName, programCode, supervisoryNodeCode,
+        warehouseCode);
 
-      Program program = programRepository.findByCode(Code.code(programCode));
-      if (supervisoryNodeCode != null) {
-
-        SupervisoryNode supervisoryNode = supervisoryNodeRepository.findByCode(supervisoryNodeCode);
-        rightQuery = new RightQuery(right, program, supervisoryNode);
+    return ResponseEntity
+        .ok()
+        .body(hasRight);
+  }
 
-      } else {
-        rightQuery = new RightQuery(right, program);
+  /**
+   * Check many rights, possibly of different users, in a single call. Each user's permissions are
+   * loaded once for the whole batch, no matter how many checks refer to it.
+   *
+   * @param rightChecks list of right checks to evaluate
+   * @return list of results in the same order as the checks; a check against a user that does not
+   *         exist is false
+   */
+  @RequestMapping(value = "/users/hasRights", method = RequestMethod.POST)
+  public ResponseEntity<?> checkIfUsersHaveRights(
+      @RequestBody List<RightCheckRequest> rightChecks) {
+    for (RightCheckRequest check : rightChecks) {
+      if (check.getUserId() == null || check.getRightName() == null) {
+        ErrorResponse errorResponse = new ErrorResponse("Invalid right check",
+            "userId and rightName are required");
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
       }
-    } else if (warehouseCode != null) {
+    }
 
-      Facility warehouse = facilityRepository.findFirstByCode(warehouseCode);
-      rightQuery = new RightQuery(right, warehouse);
+    Map<UUID, PermissionIndex> permissionIndexes = new HashMap<>();
+    List<Boolean> results = new ArrayList<>(rightChecks.size());
+    for (RightCheckRequest check : rightChecks) {
+      UUID userId = check.getUserId();
+      if (!permissionIndexes.containsKey(userId)) {
+        permissionIndexes.put(userId, permissionService.getPermissionIndex(userId));
+      }
 
-    } else {
-      rightQuery = new RightQuery(right);
+      PermissionIndex permissionIndex = permissionIndexes.get(userId);
+      results.add(permissionIndex != null && permissionIndex.hasRight(check.getRightName(),
+          check.getProgramCode(), check.getSupervisoryNodeCode(), check.getWarehouseCode()));
     }
 
-    boolean hasRight = user.hasRight(rightQuery);
-
     return ResponseEntity
         .ok()
-        .body(hasRight);
+        .body(results);
   }
 
   /**
@@ -367,8 +536,9 @@ public class UserController extends BaseController {
   @RequestMapping(value = "/users/{userId}/supervisedFacilities", method = RequestMethod.GET)
   public ResponseEntity<?> getUserSupervisedFacilities(@PathVariable(USER_ID) UUID userId) {
     try {
-      User user = validateUser(userId);
-      Set<Facility> supervisedFacilities = user.getSupervisedFacilities();
+      validateUser(userId);
+      List<Facility> supervisedFacilities =
+          supervisoryNodeRepository.findUserSupervisedFacilities(userId);
 
       return ResponseEntity
           .ok()
@@ -506,6 +676,28 @@ public class UserController extends BaseController {
     }
   }
 
+  private static Sort parseUserSort(String sort) {
+    String[] parts = sort.split(",");
+    String property = parts[0].trim();
+    if (!SORTABLE_PROPERTIES.contains(property) || parts.length > 2) {
+      throw new IllegalArgumentException("Users can be sorted by " + SORTABLE_PROPERTIES
+          + ", optionally followed by \",asc\" or \",desc\"");
+    }
+
+    Sort.Direction direction = parts.length == 2
+        ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+    Sort userSort = new Sort(direction, property);
+    // usernames are unique, which makes the order stable across pages
+    return USERNAME.equals(property) ? userSort : userSort.and(new Sort(USERNAME));
+  }
+
+  private ResponseEntity<?> streamUsers(Sort sort, String format, String acceptEncoding) {
+    return exportService.export("users",
+        pageable -> userRepository.findUsers(new PageRequest(pageable.getPageNumber(),
+            pageable.getPageSize(), sort)), this::exportToDto, UserDto.class,
+        format, acceptEncoding);
+  }
+
   private UserDto exportToDto(User user) {
     UserDto userDto = new UserDto();
     user.export(userDto);
@@ -0,0 +1,52 @@
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfiguration extends WebMvcConfigurerAdapter {
+
+  @Autowired
+  private ConditionalGetInterceptor conditionalGetInterceptor;
+
+  @Autowired
+  private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(conditionalGetInterceptor);
+  }
+
+  /**
+   * Replaces the JSON converter of Spring Boot with one that writes compact JSON unless the
+   * request asks for indented JSON.
+   *
+   * @param objectMapper the JSON object mapper
+   * @return JSON converter
+   */
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper) {
+    return new PrettyPrintingJsonHttpMessageConverter(objectMapper);
+  }
+
+  /**
+   * Adds Smile and CBOR after the other converters, so that they are only used when a client asks
+   * for them in the Accept or Content-Type header.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(BinaryJsonHttpMessageConverter.smile(objectMapperBuilder));
+    converters.add(BinaryJsonHttpMessageConverter.cbor(objectMapperBuilder));
+  }
+}
@@ -0,0 +1,108 @@
+-- Indexes that cannot be expressed with JPA annotations, run after the schema has been created.
+-- fuzzy facility search needs pg_trgm, which only a superuser can create. Without it the script
+-- goes on, and the extension has to be created by hand before facilities can be searched.
+DO '
+BEGIN
+  CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION WHEN insufficient_privilege THEN
+  RAISE WARNING ''pg_trgm is not installed, ask a superuser to run CREATE EXTENSION pg_trgm'';
+END';
+
+-- case-insensitive prefix search on users
+CREATE INDEX IF NOT EXISTS users_username_lower_prefix
+  ON referencedata.users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_firstname_lower_prefix
+  ON referencedata.users (lower(firstName) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_lastname_lower_prefix
+  ON referencedata.users (lower(lastName) text_pattern_ops);
+
+-- fuzzy facility search
+DO '
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+    CREATE INDEX IF NOT EXISTS facilities_code_lower_trgm
+      ON referencedata.facilities USING gin (lower(code) gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS facilities_name_lower_trgm
+      ON referencedata.facilities USING gin (lower(name) gin_trgm_ops);
+  END IF;
+END';
+
+-- change feeds: index modification times, and keep a tombstone of every deleted row. Both times
+-- are taken from the database clock when the row is written, so that they are never earlier than
+-- the start of the writing transaction, which ChangeFeedService relies on. Internal tables have
+-- no feed. Function bodies are single-quoted, so that the script can still be split on semicolons.
+CREATE OR REPLACE FUNCTION referencedata.record_tombstone() RETURNS trigger AS '
+BEGIN
+  DELETE FROM referencedata.tombstones WHERE id = OLD.id;
+  INSERT INTO referencedata.tombstones (id, tablename, deleteddate)
+    VALUES (OLD.id, TG_TABLE_NAME, clock_timestamp()::timestamp);
+  RETURN OLD;
+END
+' LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION referencedata.set_modified_date() RETURNS trigger AS '
+BEGIN
+  NEW.modifieddate := clock_timestamp()::timestamp;
+  RETURN NEW;
+END
+' LANGUAGE plpgsql;
+
+DO '
+DECLARE
+  entity_table text;
+BEGIN
+  FOR entity_table IN SELECT table_name FROM information_schema.columns
+      WHERE table_schema = ''referencedata'' AND column_name = ''modifieddate''
+      AND table_name NOT IN (''change_events'', ''user_jobs'')
+  LOOP
+    EXECUTE format(''CREATE INDEX IF NOT EXISTS %I ON referencedata.%I (modifieddate)'',
+      entity_table || ''_modifieddate'', entity_table);
+    EXECUTE format(''DROP TRIGGER IF EXISTS set_modified_date ON referencedata.%I'',
+      entity_table);
+    EXECUTE format(''CREATE TRIGGER set_modified_date BEFORE INSERT OR UPDATE ON referencedata.%I ''
+      || ''FOR EACH ROW EXECUTE PROCEDURE referencedata.set_modified_date()'', entity_table);
+    EXECUTE format(''DROP TRIGGER IF EXISTS record_tombstone ON referencedata.%I'', entity_table);
+    EXECUTE format(''CREATE TRIGGER record_tombstone AFTER DELETE ON referencedata.%I ''
+      || ''FOR EACH ROW EXECUTE PROCEDURE referencedata.record_tombstone()'', entity_table);
+  END LOOP;
+END
+';
+
+-- conditional GET: every write to a reference data table is logged, within its transaction, by
+-- a statement-level trigger, and the log is periodically folded into per-table totals, see
+-- EntityChangeTracker. The empty table name holds a random epoch.
+CREATE TABLE IF NOT EXISTS referencedata.table_versions (
+  tablename text PRIMARY KEY,
+  version bigint NOT NULL
+);
+CREATE TABLE IF NOT EXISTS referencedata.table_changes (
+  tablename text NOT NULL
+);
+INSERT INTO referencedata.table_versions (tablename, version)
+  VALUES ('', (random() * 1000000000000)::bigint) ON CONFLICT (tablename) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION referencedata.record_table_change() RETURNS trigger AS '
+BEGIN
+  INSERT INTO referencedata.table_changes (tablename) VALUES (TG_TABLE_NAME);
+  RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+DO '
+DECLARE
+  entity_table text;
+BEGIN
+  FOR entity_table IN SELECT table_name FROM information_schema.tables
+      WHERE table_schema = ''referencedata'' AND table_type = ''BASE TABLE''
+      AND table_name NOT IN (''table_versions'', ''table_changes'', ''change_events'',
+        ''user_jobs'', ''tombstones'')
+  LOOP
+    EXECUTE format(''DROP TRIGGER IF EXISTS record_table_change ON referencedata.%I'',
+      entity_table);
+    EXECUTE format(''CREATE TRIGGER record_table_change ''
+      || ''AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON referencedata.%I ''
+      || ''FOR EACH STATEMENT EXECUTE PROCEDURE referencedata.record_table_change()'',
+      entity_table);
+  END LOOP;
+END
+';
@@ -0,0 +1,102 @@
+package org.openlmis.referencedata.domain;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openlmis.referencedata.exception.RightTypeException;
+import org.openlmis.referencedata.exception.RoleAssignmentException;
+import org.openlmis.referencedata.exception.RoleException;
+
+public class PermissionIndexTest {
+
+  private static final String ADMIN_RIGHT = "adminRight";
+  private static final String SUPERVISION_RIGHT = "supervisionRight";
+  private static final String FULFILLMENT_RIGHT = "fulfillmentRight";
+  private static final String PROGRAM_CODE = "P1";
+  private static final String NODE_CODE = "SN1";
+  private static final String WAREHOUSE_CODE = "W1";
+
+  private Right adminRight = Right.newRight(ADMIN_RIGHT, RightType.GENERAL_ADMIN);
+  private Right supervisionRight = Right.newRight(SUPERVISION_RIGHT, RightType.SUPERVISION);
+  private Right attachedRight = Right.newRight("attachedRight", RightType.SUPERVISION);
+  private Right fulfillmentRight = Right.newRight(FULFILLMENT_RIGHT,
+      RightType.ORDER_FULFILLMENT);
+  private Program program = new Program(PROGRAM_CODE);
+  private SupervisoryNode node = SupervisoryNode.newSupervisoryNode(NODE_CODE, new Facility("F1"));
+  private Facility warehouse = new Facility(WAREHOUSE_CODE);
+
+  private PermissionIndex index;
+
+  /**
+   * Setup constructor.
+   */
+  public PermissionIndexTest() throws RightTypeException, RoleException,
+      RoleAssignmentException {
+    supervisionRight.attach(attachedRight);
+    warehouse.setType(new FacilityType("warehouse"));
+
+    Role supervisionRole = Role.newRole("supervisionRole", supervisionRight);
+    index = PermissionIndex.of(asList(
+        new DirectRoleAssignment(Role.newRole("adminRole", adminRight)),
+        new SupervisionRoleAssignment(supervisionRole, program),
+        new SupervisionRoleAssignment(supervisionRole, program, node),
+        new FulfillmentRoleAssignment(Role.newRole("fulfillmentRole", fulfillmentRight),
+            warehouse)));
+  }
+
+  @Test
+  public void shouldHaveDirectRightRegardlessOfCriteria() {
+    assertTrue(index.hasRight(ADMIN_RIGHT, null, null, null));
+    assertTrue(index.hasRight(ADMIN_RIGHT, "P2", "SN2", null));
+    assertTrue(index.hasRight(ADMIN_RIGHT, null, null, "W2"));
+  }
+
+  @Test
+  public void shouldHaveSupervisionRightForHomeFacilityAndNode() {
+    assertTrue(index.hasRight(SUPERVISION_RIGHT, PROGRAM_CODE, null, null));
+    assertTrue(index.hasRight(SUPERVISION_RIGHT, PROGRAM_CODE, NODE_CODE, null));
+    assertFalse(index.hasRight(SUPERVISION_RIGHT, PROGRAM_CODE, "SN2", null));
+    assertFalse(index.hasRight(SUPERVISION_RIGHT, "P2", null, null));
+    assertFalse(index.hasRight(SUPERVISION_RIGHT, null, null, null));
+  }
+
+  @Test
+  public void shouldMatchProgramCodeIgnoringCase() {
+    assertTrue(index.hasRight(SUPERVISION_RIGHT, "p1", NODE_CODE, null));
+  }
+
+  @Test
+  public void shouldHaveAttachedRights() {
+    assertTrue(index.hasRight("attachedRight", PROGRAM_CODE, NODE_CODE, null));
+  }
+
+  @Test
+  public void shouldHaveFulfillmentRightOnlyAtWarehouse() {
+    assertTrue(index.hasRight(FULFILLMENT_RIGHT, null, null, WAREHOUSE_CODE));
+    assertFalse(index.hasRight(FULFILLMENT_RIGHT, null, null, "W2"));
+    assertFalse(index.hasRight(FULFILLMENT_RIGHT, PROGRAM_CODE, null, WAREHOUSE_CODE));
+  }
+
+  @Test
+  public void shouldNotHaveUnknownRight() {
+    assertFalse(index.hasRight("unknownRight", PROGRAM_CODE, NODE_CODE, WAREHOUSE_CODE));
+  }
+
+  @Test
+  public void shouldAnswerRightQueriesLikeUser() throws RightTypeException, RoleException {
+    User user = new UserBuilder("user", "Test", "User", "test@test.com").createUser();
+    user.assignRoles(new SupervisionRoleAssignment(Role.newRole("role", supervisionRight),
+        program, node));
+    PermissionIndex userIndex = user.getPermissionIndex();
+
+    RightQuery matching = new RightQuery(supervisionRight, program, node);
+    RightQuery homeFacility = new RightQuery(supervisionRight, program);
+
+    assertTrue(user.hasRight(matching));
+    assertTrue(userIndex.hasRight(matching));
+    assertFalse(user.hasRight(homeFacility));
+    assertFalse(userIndex.hasRight(homeFacility));
+  }
+}
@@ -30,6 +30,11 @@ public class RoleAssignmentTest {
     public boolean hasRight(RightQuery rightQuery) {
       return false;
     }
+
+    @Override
+    void indexRights(PermissionIndex.Builder builder) {
+      builder.addDirectRights(role);
+    }
   }
 
   @Test
@@ -29,7 +29,8 @@ public class SupervisoryNodeTest {
     supervisoryNode2.assignParentNode(supervisoryNode1);
 
     //when
-    Set<Facility> facilities = supervisoryNode1.getAllSupervisedFacilities();
+    Set<Facility> facilities = supervisoryNode1.getAllSupervisedFacilities(
+        new SupervisoryNodeTraversal(10));
 
     //then
     assertThat(facilities.size(), is(3));
@@ -0,0 +1,107 @@
+package org.openlmis.referencedata.domain;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.exception.SupervisoryNodeException;
+
+import java.util.List;
+import java.util.Set;
+
+public class SupervisoryNodeTraversalTest {
+
+  private SupervisoryNodeTraversal traversal = new SupervisoryNodeTraversal(2);
+
+  private SupervisoryNode provinceNode;
+  private SupervisoryNode districtNode;
+  private SupervisoryNode subDistrictNode;
+
+  @Before
+  public void setUp() {
+    provinceNode = SupervisoryNode.newSupervisoryNode("PN", new Facility("C1"));
+    districtNode = SupervisoryNode.newSupervisoryNode("DN", new Facility("C2"));
+    subDistrictNode = SupervisoryNode.newSupervisoryNode("SDN", new Facility("C3"));
+    districtNode.assignParentNode(provinceNode);
+    subDistrictNode.assignParentNode(districtNode);
+  }
+
+  @Test
+  public void shouldGetSubtreeClosestNodesFirst() {
+    //when
+    List<SupervisoryNode> subtree = traversal.getSubtree(provinceNode);
+
+    //then
+    assertEquals(asList(provinceNode, districtNode, subDistrictNode), subtree);
+  }
+
+  @Test
+  public void shouldNotGoDeeperThanMaxDepth() {
+    //given
+    SupervisoryNode villageNode = SupervisoryNode.newSupervisoryNode("VN", new Facility("C4"));
+    villageNode.assignParentNode(subDistrictNode);
+
+    //when
+    List<SupervisoryNode> subtree = traversal.getSubtree(provinceNode);
+
+    //then
+    assertEquals(asList(provinceNode, districtNode, subDistrictNode), subtree);
+  }
+
+  @Test
+  public void shouldVisitEachNodeOnceWhenHierarchyHasCycle() {
+    //given
+    provinceNode.assignParentNode(subDistrictNode);
+
+    //when
+    List<SupervisoryNode> subtree = traversal.getSubtree(provinceNode);
+
+    //then
+    assertThat(subtree.size(), is(3));
+  }
+
+  @Test
+  public void shouldGetSupervisedFacilitiesOfWholeSubtree() {
+    //given
+    RequisitionGroup districtGroup = new RequisitionGroup("RG1", "RGN1", districtNode);
+    districtGroup.setMemberFacilities(singletonList(new Facility("C5")));
+    districtNode.setRequisitionGroup(districtGroup);
+    RequisitionGroup subDistrictGroup = new RequisitionGroup("RG2", "RGN2", subDistrictNode);
+    subDistrictGroup.setMemberFacilities(asList(new Facility("C6"), new Facility("C7")));
+    subDistrictNode.setRequisitionGroup(subDistrictGroup);
+
+    //when
+    Set<Facility> facilities = traversal.getAllSupervisedFacilities(provinceNode);
+
+    //then
+    assertThat(facilities.size(), is(3));
+  }
+
+  @Test
+  public void shouldAcceptParentNodeOutsideOfSubtree() throws SupervisoryNodeException {
+    //given
+    SupervisoryNode otherNode = SupervisoryNode.newSupervisoryNode("ON", new Facility("C4"));
+
+    //when
+    traversal.validateParentNode(otherNode, districtNode);
+  }
+
+  @Test(expected = SupervisoryNodeException.class)
+  public void shouldRejectDescendantAsParentNode() throws SupervisoryNodeException {
+    //when
+    traversal.validateParentNode(provinceNode, subDistrictNode);
+  }
+
+  @Test(expected = SupervisoryNodeException.class)
+  public void shouldRejectParentNodeNestedDeeperThanMaxDepth() throws SupervisoryNodeException {
+    //given
+    SupervisoryNode otherNode = SupervisoryNode.newSupervisoryNode("ON", new Facility("C4"));
+
+    //when
+    traversal.validateParentNode(otherNode, subDistrictNode);
+  }
+}
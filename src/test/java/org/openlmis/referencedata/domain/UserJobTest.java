@@ -0,0 +1,86 @@
+package org.openlmis.referencedata.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openlmis.referencedata.domain.UserJob.JobType;
+import org.openlmis.referencedata.domain.UserJob.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class UserJobTest {
+
+  private static final String WORKER = "worker";
+  private static final String ERROR = "error";
+  private static final LocalDateTime NOW = LocalDateTime.of(2016, 10, 1, 12, 0);
+  private static final Duration BACKOFF = Duration.ofSeconds(30);
+  private static final Duration MAX_BACKOFF = Duration.ofSeconds(100);
+
+  private UserJob job = new UserJob(UUID.randomUUID(), JobType.SYNC_AUTH_USER, true, NOW);
+
+  @Test
+  public void shouldBePendingAndDueWhenCreated() {
+    assertEquals(Status.PENDING, job.getStatus());
+    assertEquals(NOW, job.getNextAttemptDate());
+    assertEquals(0, job.getAttempts());
+    assertTrue(job.isSendWelcomeEmail());
+  }
+
+  @Test
+  public void shouldBeLeasedToWorkerWhenClaimed() {
+    job.claim(WORKER, NOW.plusMinutes(5));
+
+    assertEquals(Status.RUNNING, job.getStatus());
+    assertEquals(1, job.getAttempts());
+    assertEquals(NOW.plusMinutes(5), job.getLockedUntil());
+    assertTrue(job.isClaimedBy(WORKER));
+    assertFalse(job.isClaimedBy("other"));
+  }
+
+  @Test
+  public void shouldBackOffExponentiallyUpToMaximum() {
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 5, BACKOFF, MAX_BACKOFF);
+    assertEquals(Status.PENDING, job.getStatus());
+    assertEquals(NOW.plusSeconds(30), job.getNextAttemptDate());
+    assertEquals(ERROR, job.getLastError());
+    assertFalse(job.isClaimedBy(WORKER));
+
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 5, BACKOFF, MAX_BACKOFF);
+    assertEquals(NOW.plusSeconds(60), job.getNextAttemptDate());
+
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 5, BACKOFF, MAX_BACKOFF);
+    assertEquals(NOW.plusSeconds(100), job.getNextAttemptDate());
+  }
+
+  @Test
+  public void shouldFailAfterMaximumAttempts() {
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 2, BACKOFF, MAX_BACKOFF);
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 2, BACKOFF, MAX_BACKOFF);
+
+    assertEquals(Status.FAILED, job.getStatus());
+    assertEquals(2, job.getAttempts());
+  }
+
+  @Test
+  public void shouldClearLeaseAndErrorWhenSucceeded() {
+    job.claim(WORKER, NOW);
+    job.fail(ERROR, NOW, 5, BACKOFF, MAX_BACKOFF);
+    job.claim(WORKER, NOW);
+
+    job.succeed();
+
+    assertEquals(Status.SUCCEEDED, job.getStatus());
+    assertNull(job.getLastError());
+    assertNull(job.getLockedBy());
+  }
+}
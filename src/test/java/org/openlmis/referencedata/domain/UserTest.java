@@ -5,8 +5,6 @@ import org.junit.Test;
 import org.openlmis.referencedata.exception.RightTypeException;
 import org.openlmis.referencedata.exception.RoleException;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.Set;
 
 import static org.hamcrest.core.Is.is;
@@ -119,35 +117,6 @@ public class UserTest {
     assertTrue(programs.contains(program2));
   }
 
-  @Test
-  public void shouldGetSupervisedFacilities() throws RightTypeException, RoleException {
-    //given
-    SupervisoryNode districtNode = SupervisoryNode.newSupervisoryNode("DN", new Facility("C1"));
-    RequisitionGroup districtGroup = new RequisitionGroup("DG", "DGN", districtNode);
-    districtGroup.setMemberFacilities(Collections.singletonList(new Facility("C2")));
-    districtNode.setRequisitionGroup(districtGroup);
-
-    SupervisoryNode provinceNode = SupervisoryNode.newSupervisoryNode("PN", new Facility("C3"));
-    RequisitionGroup provinceGroup = new RequisitionGroup("PG", "PGN", provinceNode);
-    provinceGroup.setMemberFacilities(Arrays.asList(new Facility("C4"), new Facility("C5")));
-    provinceNode.setRequisitionGroup(provinceGroup);
-
-    districtNode.assignParentNode(provinceNode);
-
-    Role role = Role.newRole(roleName, Right.newRight("right1", RightType.SUPERVISION));
-    Program program = new Program("prog1");
-
-    RoleAssignment assignment = new SupervisionRoleAssignment(role, program, provinceNode);
-
-    user.assignRoles(assignment);
-
-    //when
-    Set<Facility> facilities = user.getSupervisedFacilities();
-
-    //then
-    assertThat(facilities.size(), is(3));
-  }
-
   @Test
   public void shouldGetFulfillmentFacilities() {
     //given
@@ -0,0 +1,150 @@
+package org.openlmis.referencedata.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CachingTokenServicesTest {
+
+  private static final String TOKEN = "418c89c5-7f21-4cd1-a63a-38c47892b0fe";
+  private static final String OTHER_TOKEN = "c4f9f7ad-0c14-4a6b-a1b5-5b5bfd3c4e8c";
+  private static final long NOW = 1_500_000_000L;
+  private static final long MAX_TTL = 300;
+
+  @Mock
+  private ResourceServerTokenServices delegate;
+
+  private MutableClock clock;
+
+  private CachingTokenServices tokenServices;
+
+  /**
+   * Set up the cache at a fixed time.
+   */
+  @Before
+  public void setUp() {
+    initMocks(this);
+    clock = new MutableClock(NOW);
+    tokenServices = new CachingTokenServices(delegate, 1, MAX_TTL, clock);
+  }
+
+  @Test
+  public void shouldLoadTokenOnlyOnceUntilItExpires() {
+    when(delegate.loadAuthentication(TOKEN)).thenReturn(authentication(NOW + 60));
+
+    final OAuth2Authentication first = tokenServices.loadAuthentication(TOKEN);
+    clock.setSeconds(NOW + 59);
+    OAuth2Authentication second = tokenServices.loadAuthentication(TOKEN);
+    clock.setSeconds(NOW + 60);
+    tokenServices.loadAuthentication(TOKEN);
+
+    assertNotSame(first, second);
+    assertEquals(first.getName(), second.getName());
+    verify(delegate, times(2)).loadAuthentication(TOKEN);
+  }
+
+  @Test
+  public void shouldNotCacheLongerThanMaxTtl() {
+    when(delegate.loadAuthentication(TOKEN)).thenReturn(authentication(NOW + 3600));
+
+    tokenServices.loadAuthentication(TOKEN);
+    clock.setSeconds(NOW + MAX_TTL);
+    tokenServices.loadAuthentication(TOKEN);
+
+    verify(delegate, times(2)).loadAuthentication(TOKEN);
+  }
+
+  @Test
+  public void shouldNotCacheExpiredToken() {
+    when(delegate.loadAuthentication(TOKEN)).thenReturn(authentication(NOW - 1));
+
+    tokenServices.loadAuthentication(TOKEN);
+    tokenServices.loadAuthentication(TOKEN);
+
+    verify(delegate, times(2)).loadAuthentication(TOKEN);
+  }
+
+  @Test
+  public void shouldEvictOldestTokenWhenFull() {
+    when(delegate.loadAuthentication(TOKEN)).thenReturn(authentication(NOW + 60));
+    when(delegate.loadAuthentication(OTHER_TOKEN)).thenReturn(authentication(NOW + 60));
+
+    tokenServices.loadAuthentication(TOKEN);
+    tokenServices.loadAuthentication(OTHER_TOKEN);
+    tokenServices.loadAuthentication(TOKEN);
+
+    verify(delegate, times(2)).loadAuthentication(TOKEN);
+  }
+
+  @Test
+  public void shouldNotCacheInvalidToken() {
+    when(delegate.loadAuthentication(TOKEN)).thenThrow(new InvalidTokenException(TOKEN));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        tokenServices.loadAuthentication(TOKEN);
+      } catch (InvalidTokenException ex) {
+        assertEquals(TOKEN, ex.getMessage());
+      }
+    }
+
+    verify(delegate, times(2)).loadAuthentication(TOKEN);
+  }
+
+  @Test
+  public void shouldLoadTokenOnceForConcurrentRequests() throws Exception {
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    when(delegate.loadAuthentication(TOKEN)).thenAnswer(invocation -> {
+      loadStarted.countDown();
+      releaseLoad.await(5, TimeUnit.SECONDS);
+      return authentication(NOW + 60);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<OAuth2Authentication> first =
+          executor.submit(() -> tokenServices.loadAuthentication(TOKEN));
+      loadStarted.await(5, TimeUnit.SECONDS);
+      final Future<OAuth2Authentication> second =
+          executor.submit(() -> tokenServices.loadAuthentication(TOKEN));
+      // give the second request time to find the load in progress
+      Thread.sleep(100);
+      releaseLoad.countDown();
+
+      assertEquals("admin", first.get(5, TimeUnit.SECONDS).getName());
+      assertEquals("admin", second.get(5, TimeUnit.SECONDS).getName());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(delegate, times(1)).loadAuthentication(TOKEN);
+  }
+
+  private OAuth2Authentication authentication(long expiry) {
+    Map<String, Object> map = new HashMap<>();
+    map.put("user_name", "admin");
+    map.put("client_id", "trusted-client");
+    map.put("scope", Collections.singletonList("read"));
+    map.put("exp", expiry);
+    return new ExpiringAccessTokenConverter().extractAuthentication(map);
+  }
+}
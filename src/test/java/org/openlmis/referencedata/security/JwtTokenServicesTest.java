@@ -0,0 +1,152 @@
+package org.openlmis.referencedata.security;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class JwtTokenServicesTest {
+
+  private static final long NOW = 1_500_000_000L;
+  private static final String KEY_ID = "key-1";
+  private static final UUID USER_ID = UUID.fromString("35316636-6264-6331-2d34-3933322d3462");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private KeyPair keyPair;
+
+  private File keySetFile;
+
+  private MutableClock clock;
+
+  private JwtTokenServices tokenServices;
+
+  /**
+   * Set up token services reading a key set with one key from a file.
+   */
+  @Before
+  public void setUp() throws IOException, NoSuchAlgorithmException {
+    keyPair = generateKeyPair();
+    keySetFile = folder.newFile("jwks.json");
+    writeKeySet(Collections.singletonMap(KEY_ID, keyPair));
+
+    clock = new MutableClock(NOW);
+
+    DefaultAccessTokenConverter accessTokenConverter = new ExpiringAccessTokenConverter();
+    accessTokenConverter.setUserTokenConverter(new UserTokenConverter());
+    tokenServices = new JwtTokenServices(
+        new JwtKeySet(keySetFile.toString(), this::readKeySet, 3600, clock, objectMapper,
+            Runnable::run),
+        accessTokenConverter, objectMapper, clock);
+  }
+
+  @Test
+  public void shouldAuthenticateUserOfValidToken() throws IOException {
+    OAuth2Authentication authentication =
+        tokenServices.loadAuthentication(sign(keyPair, KEY_ID, NOW + 60));
+
+    assertEquals(new UserSummary(USER_ID, "admin"),
+        authentication.getUserAuthentication().getPrincipal());
+    assertEquals("trusted-client", authentication.getOAuth2Request().getClientId());
+    assertEquals(Long.valueOf(NOW + 60), ExpiringAccessTokenConverter.getExpiry(authentication));
+  }
+
+  @Test(expected = InvalidTokenException.class)
+  public void shouldRejectExpiredToken() throws IOException {
+    tokenServices.loadAuthentication(sign(keyPair, KEY_ID, NOW));
+  }
+
+  @Test(expected = InvalidTokenException.class)
+  public void shouldRejectTokenSignedWithOtherKey() throws Exception {
+    tokenServices.loadAuthentication(sign(generateKeyPair(), KEY_ID, NOW + 60));
+  }
+
+  @Test(expected = InvalidTokenException.class)
+  public void shouldRejectTokenThatIsNotJwt() {
+    tokenServices.loadAuthentication(UUID.randomUUID().toString());
+  }
+
+  @Test
+  public void shouldReadKeysAgainForTokenSignedWithUnknownKey() throws Exception {
+    KeyPair rotated = generateKeyPair();
+    Map<String, KeyPair> keys = new HashMap<>();
+    keys.put(KEY_ID, keyPair);
+    keys.put("key-2", rotated);
+    tokenServices.loadAuthentication(sign(keyPair, KEY_ID, NOW + 60));
+    writeKeySet(keys);
+    clock.setSeconds(NOW + 10);
+
+    OAuth2Authentication authentication =
+        tokenServices.loadAuthentication(sign(rotated, "key-2", NOW + 60));
+
+    assertEquals("admin", authentication.getName());
+  }
+
+  private String readKeySet() throws IOException {
+    return new String(Files.readAllBytes(keySetFile.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private String sign(KeyPair signingKey, String keyId, long expiry) throws IOException {
+    Map<String, Object> claims = new HashMap<>();
+    claims.put("user_name", "admin");
+    claims.put("client_id", "trusted-client");
+    claims.put("scope", Collections.singletonList("read"));
+    claims.put("authorities", Collections.singletonList("USER"));
+    claims.put(UserTokenConverter.REFERENCE_DATA_USER_ID, USER_ID.toString());
+    claims.put("exp", expiry);
+    return JwtHelper.encode(objectMapper.writeValueAsString(claims),
+        new RsaSigner((RSAPrivateKey) signingKey.getPrivate()),
+        Collections.singletonMap("kid", keyId)).getEncoded();
+  }
+
+  private void writeKeySet(Map<String, KeyPair> keyPairs) throws IOException {
+    StringBuilder keys = new StringBuilder(1024);
+    for (Map.Entry<String, KeyPair> entry : keyPairs.entrySet()) {
+      RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+      keys.append(keys.length() == 0 ? "" : ",")
+          .append("{\"kty\":\"RSA\",\"kid\":\"").append(entry.getKey())
+          .append("\",\"n\":\"").append(base64Url(key.getModulus().toByteArray()))
+          .append("\",\"e\":\"").append(base64Url(key.getPublicExponent().toByteArray()))
+          .append("\"}");
+    }
+    Files.write(keySetFile.toPath(),
+        ("{\"keys\":[" + keys + "]}").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String base64Url(byte[] bytes) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  private static KeyPair generateKeyPair() throws NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(1024);
+    return generator.generateKeyPair();
+  }
+}
@@ -0,0 +1,37 @@
+package org.openlmis.referencedata.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock whose time tests can set.
+ */
+class MutableClock extends Clock {
+
+  private long seconds;
+
+  MutableClock(long seconds) {
+    this.seconds = seconds;
+  }
+
+  void setSeconds(long seconds) {
+    this.seconds = seconds;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return this;
+  }
+
+  @Override
+  public Instant instant() {
+    return Instant.ofEpochSecond(seconds);
+  }
+}
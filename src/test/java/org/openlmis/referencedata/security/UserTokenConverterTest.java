@@ -0,0 +1,45 @@
+package org.openlmis.referencedata.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.springframework.security.core.Authentication;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class UserTokenConverterTest {
+
+  private final UserTokenConverter converter = new UserTokenConverter();
+
+  @Test
+  public void shouldCreateUserSummaryFromToken() {
+    UUID userId = UUID.randomUUID();
+    Map<String, Object> map = new HashMap<>();
+    map.put("user_name", "admin");
+    map.put(UserTokenConverter.REFERENCE_DATA_USER_ID, userId.toString());
+
+    Authentication authentication = converter.extractAuthentication(map);
+
+    assertEquals(new UserSummary(userId, "admin"), authentication.getPrincipal());
+    assertEquals("admin", authentication.getName());
+  }
+
+  @Test
+  public void shouldCreateUserSummaryWithoutIdForOtherUsers() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("user_name", "service");
+
+    UserSummary principal = (UserSummary) converter.extractAuthentication(map).getPrincipal();
+
+    assertNull(principal.getId());
+    assertEquals("service", principal.getUsername());
+  }
+
+  @Test
+  public void shouldReturnNullForClientToken() {
+    assertNull(converter.extractAuthentication(new HashMap<>()));
+  }
+}
@@ -0,0 +1,85 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openlmis.referencedata.exception.ExternalApiException;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.util.Map;
+
+public class AuthServiceTest {
+
+  private static final String TOKEN = "token";
+  private static final String TOKEN_URL =
+      "http://localhost/auth/oauth/token?grant_type=client_credentials";
+
+  private ExternalApiClient externalApiClient = mock(ExternalApiClient.class);
+  private Clock clock = mock(Clock.class);
+
+  @Test
+  public void shouldObtainTokenWithClientCredentials() {
+    AuthService authService = newAuthService(0);
+    respondWith(TOKEN, 3600);
+
+    assertEquals(TOKEN, authService.obtainAccessToken());
+
+    ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+    verify(externalApiClient).post(eq(Api.AUTH), eq(TOKEN_URL), request.capture(),
+        eq(Map.class), eq(true));
+    // base64 of "client:secret"
+    assertEquals("Basic Y2xpZW50OnNlY3JldA==",
+        request.getValue().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+  }
+
+  @Test
+  public void shouldReuseTokenUntilShortlyBeforeItExpires() {
+    AuthService authService = newAuthService(0);
+    respondWith(TOKEN, 120);
+    authService.obtainAccessToken();
+
+    when(clock.millis()).thenReturn(59999L);
+    assertEquals(TOKEN, authService.obtainAccessToken());
+    verify(externalApiClient).post(any(Api.class), anyString(), any(), eq(Map.class),
+        anyBoolean());
+
+    respondWith("newToken", 120);
+    when(clock.millis()).thenReturn(60000L);
+    assertEquals("newToken", authService.obtainAccessToken());
+    verify(externalApiClient, times(2)).post(any(Api.class), anyString(), any(), eq(Map.class),
+        anyBoolean());
+  }
+
+  @Test(expected = ExternalApiException.class)
+  public void shouldThrowExternalApiExceptionIfTokenCouldNotBeObtained() {
+    when(externalApiClient.post(any(Api.class), anyString(), any(), eq(Map.class), anyBoolean()))
+        .thenThrow(new ResourceAccessException("timeout"));
+
+    newAuthService(0).obtainAccessToken();
+  }
+
+  private AuthService newAuthService(long millis) {
+    when(clock.millis()).thenReturn(millis);
+    return new AuthService(externalApiClient, "http://localhost", "client", "secret", clock);
+  }
+
+  private void respondWith(String token, int expiresIn) {
+    when(externalApiClient.post(any(Api.class), anyString(), any(), eq(Map.class), anyBoolean()))
+        .thenReturn(ImmutableMap.of("access_token", token, "expires_in", expiresIn));
+  }
+}
@@ -0,0 +1,120 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.repository.ChangeEventRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class ChangeEventPublisherTest {
+
+  private static final int BATCH_SIZE = 10;
+  private static final long TIMEOUT = 1000;
+
+  @Mock
+  private ChangeEventRepository changeEventRepository;
+
+  private ChangeEventPublisher publisher;
+
+  private ChangeEvent first = event(1);
+  private ChangeEvent second = event(2);
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    publisher = new ChangeEventPublisher(changeEventRepository, BATCH_SIZE);
+  }
+
+  @Test
+  public void shouldReturnExistingEventsImmediately() {
+    returnEvents(0, first, second);
+
+    DeferredResult<List<ChangeEvent>> result = publisher.poll(0, TIMEOUT);
+
+    assertTrue(result.hasResult());
+    assertEquals(Arrays.asList(first, second), result.getResult());
+    assertEquals(0, publisher.getSubscriptionCount());
+  }
+
+  @Test
+  public void shouldReturnNoEventsImmediatelyIfNotWaiting() {
+    returnEvents(2);
+
+    DeferredResult<List<ChangeEvent>> result = publisher.poll(2, 0);
+
+    assertTrue(result.hasResult());
+    assertEquals(Collections.emptyList(), result.getResult());
+  }
+
+  @Test
+  public void shouldDeliverNewEventsToWaitingClient() {
+    returnEvents(1);
+    DeferredResult<List<ChangeEvent>> result = publisher.poll(1, TIMEOUT);
+    assertFalse(result.hasResult());
+    assertEquals(1, publisher.getSubscriptionCount());
+
+    returnEvents(1, second);
+    publisher.publish();
+
+    assertEquals(Collections.singletonList(second), result.getResult());
+    assertEquals(0, publisher.getSubscriptionCount());
+  }
+
+  @Test
+  public void shouldDeliverOnlyEventsAfterEachClientsOffset() {
+    returnEvents(0);
+    returnEvents(1);
+    final DeferredResult<List<ChangeEvent>> fromStart = publisher.poll(0, TIMEOUT);
+    final DeferredResult<List<ChangeEvent>> fromFirst = publisher.poll(1, TIMEOUT);
+
+    returnEvents(0, first, second);
+    publisher.publish();
+
+    assertEquals(Arrays.asList(first, second), fromStart.getResult());
+    assertEquals(Collections.singletonList(second), fromFirst.getResult());
+  }
+
+  @Test
+  public void shouldNotQueryOutboxWithoutClients() {
+    publisher.publish();
+
+    verify(changeEventRepository, never())
+        .findByIdGreaterThanOrderById(any(Long.class), any(Pageable.class));
+  }
+
+  @Test
+  public void shouldKeepStreamingClientsSubscribed() {
+    publisher.stream(0, TIMEOUT);
+
+    assertEquals(1, publisher.getSubscriptionCount());
+  }
+
+  private void returnEvents(long after, ChangeEvent... events) {
+    when(changeEventRepository.findByIdGreaterThanOrderById(eq(after), any(Pageable.class)))
+        .thenReturn(Arrays.asList(events));
+  }
+
+  private static ChangeEvent event(long id) {
+    return new ChangeEvent(id, "Program", UUID.randomUUID(), Operation.UPDATE,
+        LocalDateTime.now());
+  }
+}
@@ -0,0 +1,61 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.domain.DirectRoleAssignment;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.GlobalProduct;
+import org.openlmis.referencedata.domain.ProcessingSchedule;
+import org.openlmis.referencedata.domain.User;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+public class ChangeEventRecorderTest {
+
+  private static final String FACILITY = "Facility";
+
+  private ChangeEventRecorder.PendingEvents events;
+
+  private UUID entityId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    ChangeEventRecorder recorder = new ChangeEventRecorder(mock(EntityManagerFactory.class));
+    events = recorder.new PendingEvents();
+  }
+
+  @Test
+  public void shouldRecordOnlyTrackedTypesAndTheirSubclasses() {
+    assertTrue(ChangeEventRecorder.isRecorded(Facility.class));
+    assertTrue(ChangeEventRecorder.isRecorded(GlobalProduct.class));
+    assertTrue(ChangeEventRecorder.isRecorded(DirectRoleAssignment.class));
+    assertFalse(ChangeEventRecorder.isRecorded(ProcessingSchedule.class));
+    assertFalse(ChangeEventRecorder.isRecorded(User.class));
+  }
+
+  @Test
+  public void shouldKeepEntityCreatedWhenUpdatedInSameTransaction() {
+    events.add(FACILITY, entityId, Operation.CREATE);
+    events.add(FACILITY, entityId, Operation.UPDATE);
+
+    assertEquals(Operation.CREATE, events.getOperations().get(entityId));
+  }
+
+  @Test
+  public void shouldKeepEntityDeletedWhenDeletedInSameTransaction() {
+    events.add(FACILITY, entityId, Operation.UPDATE);
+    events.add(FACILITY, entityId, Operation.DELETE);
+    events.add(FACILITY, UUID.randomUUID(), Operation.UPDATE);
+
+    assertEquals(Operation.DELETE, events.getOperations().get(entityId));
+    assertEquals(2, events.getOperations().size());
+  }
+}
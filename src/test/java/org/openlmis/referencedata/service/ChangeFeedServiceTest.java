@@ -0,0 +1,126 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openlmis.referencedata.domain.DirectRoleAssignment;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.Tombstone;
+import org.openlmis.referencedata.repository.TombstoneRepository;
+import org.openlmis.referencedata.util.ChangeFeed;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+public class ChangeFeedServiceTest {
+
+  private static final String PROGRAMS = "programs";
+  private static final LocalDateTime SYNC_TIME = LocalDateTime.of(2016, 10, 2, 8, 30);
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private TombstoneRepository tombstoneRepository;
+
+  @Mock
+  private CriteriaBuilder criteriaBuilder;
+
+  @Mock
+  private CriteriaQuery<Program> criteriaQuery;
+
+  @Mock
+  private Root<Program> root;
+
+  @Mock
+  private Path<LocalDateTime> modifiedDate;
+
+  @Mock
+  private TypedQuery<Program> typedQuery;
+
+  @Mock
+  private Query syncTimeQuery;
+
+  private ChangeFeedService changeFeedService;
+
+  private Program program = new Program("code");
+
+  /**
+   * Set up the service and a criteria query returning a single program.
+   */
+  @Before
+  public void setUp() {
+    initMocks(this);
+    changeFeedService = new ChangeFeedService(entityManager, tombstoneRepository);
+
+    when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
+    when(criteriaBuilder.createQuery(Program.class)).thenReturn(criteriaQuery);
+    when(criteriaQuery.from(Program.class)).thenReturn(root);
+    when(root.<LocalDateTime>get("modifiedDate")).thenReturn(modifiedDate);
+    when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
+    when(typedQuery.getResultList()).thenReturn(Collections.singletonList(program));
+    when(entityManager.createNativeQuery(anyString())).thenReturn(syncTimeQuery);
+    when(syncTimeQuery.getSingleResult()).thenReturn(Timestamp.valueOf(SYNC_TIME));
+  }
+
+  @Test
+  public void shouldReturnUpsertsAndDeletionsSinceGivenTime() {
+    LocalDateTime since = LocalDateTime.of(2016, 10, 1, 12, 0);
+    Tombstone tombstone = new Tombstone(UUID.randomUUID(), PROGRAMS, since.plusHours(1));
+    when(tombstoneRepository.findByTableNameAndDeletedDateGreaterThanEqualOrderByDeletedDate(
+        PROGRAMS, since)).thenReturn(Collections.singletonList(tombstone));
+
+    ChangeFeed<Program> feed = changeFeedService.getChanges(Program.class, since);
+
+    assertEquals(Collections.singletonList(program), feed.getUpserts());
+    assertEquals(Collections.singletonList(tombstone), feed.getDeletions());
+    assertEquals(SYNC_TIME, feed.getSyncTime());
+    verify(criteriaBuilder).greaterThanOrEqualTo(modifiedDate, since);
+  }
+
+  @Test
+  public void shouldReturnAllEntitiesIfTimeIsNotGiven() {
+    changeFeedService.getChanges(Program.class, null);
+
+    verify(criteriaBuilder).greaterThanOrEqualTo(eq(modifiedDate), any(LocalDateTime.class));
+    verify(tombstoneRepository).findByTableNameAndDeletedDateGreaterThanEqualOrderByDeletedDate(
+        eq(PROGRAMS), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void shouldMapUpserts() {
+    ChangeFeed<String> feed = changeFeedService.getChanges(Program.class, null)
+        .map(found -> found.getCode().toString());
+
+    assertEquals(Collections.singletonList("code"), feed.getUpserts());
+  }
+
+  @Test
+  public void shouldFindTableOfSingleTableSubclass() {
+    assertEquals(PROGRAMS, ChangeFeedService.getTableName(Program.class));
+    assertEquals("role_assignments", ChangeFeedService.getTableName(DirectRoleAssignment.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotFindTableOfNonEntity() {
+    ChangeFeedService.getTableName(String.class);
+  }
+}
@@ -0,0 +1,57 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.metrics.MetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import org.junit.Test;
+import org.openlmis.referencedata.service.ConnectionPoolMetrics.Statistics;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPoolMetricsTest {
+
+  private ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+
+  @Test
+  public void shouldRecordAcquisitionUsageAndTimeouts() {
+    MetricsTracker tracker = metrics.create("pool", mock(PoolStats.class));
+
+    tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(3));
+    tracker.recordConnectionUsageMillis(40);
+    tracker.recordConnectionUsageMillis(60);
+    tracker.recordConnectionTimeout();
+
+    Statistics statistics = metrics.getStatistics();
+    assertEquals("pool", statistics.getPoolName());
+    assertEquals(1, statistics.getAcquisition().getCount());
+    assertEquals(3, statistics.getAcquisition().getMaxMillis());
+    assertEquals(2, statistics.getUsage().getCount());
+    assertEquals(100, statistics.getUsage().getTotalMillis());
+    assertEquals(1, statistics.getTimeouts());
+  }
+
+  @Test
+  public void shouldReportConnectionCountsOfPool() {
+    PoolStats poolStats = mock(PoolStats.class);
+    when(poolStats.getTotalConnections()).thenReturn(10);
+    when(poolStats.getActiveConnections()).thenReturn(7);
+    when(poolStats.getIdleConnections()).thenReturn(3);
+    when(poolStats.getPendingThreads()).thenReturn(2);
+    metrics.create("pool", poolStats);
+
+    Statistics statistics = metrics.getStatistics();
+    assertEquals(10, statistics.getTotalConnections());
+    assertEquals(7, statistics.getActiveConnections());
+    assertEquals(3, statistics.getIdleConnections());
+    assertEquals(2, statistics.getPendingThreads());
+  }
+
+  @Test
+  public void shouldReportNoConnectionsBeforePoolHasStarted() {
+    assertEquals(0, metrics.getStatistics().getTotalConnections());
+  }
+}
@@ -0,0 +1,132 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metadata.CollectionMetadata;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Program;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EntityChangeTrackerTest {
+
+  private static final String ROLE = Program.class.getName() + ".codes";
+  private static final int RETENTION_DAYS = 90;
+
+  @Mock
+  private EntityManagerFactory entityManagerFactory;
+
+  @Mock
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Mock
+  private SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  private Metamodel metamodel;
+
+  @Mock
+  private EntityType<Program> programType;
+
+  @Mock
+  private EntityPersister programPersister;
+
+  @Mock
+  private CollectionPersister collectionPersister;
+
+  private EntityChangeTracker tracker;
+
+  /**
+   * Set up a metamodel with a single entity that owns a collection table.
+   */
+  @Before
+  public void setUp() {
+    tracker = new EntityChangeTracker(entityManagerFactory, jdbcTemplate, RETENTION_DAYS);
+
+    when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+    when(entityManagerFactory.getMetamodel()).thenReturn(metamodel);
+    when(metamodel.getEntities()).thenReturn(Collections.singleton(programType));
+    when(programType.getJavaType()).thenReturn(Program.class);
+    when(programType.getAttributes()).thenReturn(Collections.emptySet());
+
+    when(sessionFactory.getEntityPersister(Program.class.getName())).thenReturn(programPersister);
+    when(programPersister.getEntityName()).thenReturn(Program.class.getName());
+    when(programPersister.getPropertySpaces()).thenReturn(new String[]{"referencedata.programs"});
+    when(sessionFactory.getAllCollectionMetadata())
+        .thenReturn(ImmutableMap.of(ROLE, mock(CollectionMetadata.class)));
+    when(sessionFactory.getCollectionPersister(ROLE)).thenReturn(collectionPersister);
+    when(collectionPersister.getOwnerEntityPersister()).thenReturn(programPersister);
+    when(collectionPersister.getCollectionSpaces())
+        .thenReturn(new String[]{"referencedata.program_codes"});
+  }
+
+  @Test
+  public void shouldCountChangesOfAllTables() {
+    when(jdbcTemplate.queryForObject(anyString(), anyMapOf(String.class, Object.class),
+        eq(Long.class))).thenReturn(42L);
+
+    assertEquals(42, tracker.getVersion());
+  }
+
+  @Test
+  public void shouldCountChangesOfTablesOfEntityAndItsCollectionsAndEpoch() {
+    when(jdbcTemplate.queryForObject(anyString(), any(MapSqlParameterSource.class),
+        eq(Long.class))).thenReturn(7L);
+
+    assertEquals(7, tracker.getVersion(Program.class));
+
+    ArgumentCaptor<MapSqlParameterSource> parameters =
+        ArgumentCaptor.forClass(MapSqlParameterSource.class);
+    verify(jdbcTemplate).queryForObject(contains("IN (:tables)"), parameters.capture(),
+        eq(Long.class));
+    assertEquals(Sets.newHashSet(EntityChangeTracker.EPOCH, "programs", "program_codes"),
+        parameters.getValue().getValue("tables"));
+  }
+
+  @Test
+  public void shouldFoldChangeLogIntoTotals() {
+    tracker.compact();
+
+    verify(jdbcTemplate).update(contains("DELETE FROM referencedata.table_changes"),
+        anyMapOf(String.class, Object.class));
+  }
+
+  @Test
+  public void shouldDeleteChangeEventsAndTombstonesOlderThanRetention() {
+    tracker.prune();
+
+    ArgumentCaptor<MapSqlParameterSource> parameters =
+        ArgumentCaptor.forClass(MapSqlParameterSource.class);
+    verify(jdbcTemplate).update(contains("DELETE FROM referencedata.change_events"),
+        parameters.capture());
+    verify(jdbcTemplate).update(contains("DELETE FROM referencedata.tombstones"),
+        parameters.capture());
+    assertEquals(RETENTION_DAYS, parameters.getValue().getValue("days"));
+  }
+}
@@ -0,0 +1,132 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openlmis.referencedata.domain.Program;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+public class ExportServiceTest {
+
+  private static final int FETCH_SIZE = 2;
+  private static final String PROGRAMS = "programs";
+  private static final List<List<Program>> PAGES = Arrays.asList(
+      Arrays.asList(new Program("P1"), new Program("P2")),
+      Collections.singletonList(new Program("P3")));
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private TypedQuery<Program> typedQuery;
+
+  private ExportService exportService;
+
+  /**
+   * Set up the service and a query returning three programs in two pages.
+   */
+  @Before
+  public void setUp() {
+    initMocks(this);
+    exportService = new ExportService(entityManager, transactionManager, new ObjectMapper(),
+        FETCH_SIZE);
+    when(entityManager.createQuery(anyString(), eq(Program.class))).thenReturn(typedQuery);
+    when(typedQuery.setFirstResult(anyInt())).thenReturn(typedQuery);
+    when(typedQuery.setMaxResults(anyInt())).thenReturn(typedQuery);
+    when(typedQuery.getResultList()).thenReturn(PAGES.get(0), PAGES.get(1));
+  }
+
+  @Test
+  public void shouldStreamRowsAndDetachThemEveryPage() throws IOException {
+    ResponseEntity<?> response = exportService.export(PROGRAMS, Program.class,
+        ExportServiceTest::toRow, Map.class, "ndjson", null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+    assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(output);
+    assertEquals("{\"code\":\"P1\"}\n{\"code\":\"P2\"}\n{\"code\":\"P3\"}\n",
+        new String(output.toByteArray(), StandardCharsets.UTF_8));
+    verify(typedQuery).setFirstResult(0);
+    verify(typedQuery).setFirstResult(FETCH_SIZE);
+    verify(typedQuery, times(2)).setMaxResults(FETCH_SIZE);
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  public void shouldCompressIfClientAcceptsGzip() throws IOException {
+    ResponseEntity<?> response = exportService.export(PROGRAMS, Program.class,
+        ExportServiceTest::toRow, Map.class, "csv", "deflate, gzip");
+
+    assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("attachment; filename=\"programs.csv\"",
+        response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(output);
+    GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()));
+    ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+    byte[] buffer = new byte[256];
+    for (int read = input.read(buffer); read > 0; read = input.read(buffer)) {
+      uncompressed.write(buffer, 0, read);
+    }
+    assertEquals("\"code\"\r\n\"P1\"\r\n\"P2\"\r\n\"P3\"\r\n",
+        new String(uncompressed.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldWriteJsonArrayOfPagedRows() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    exportService.writeJsonArray(pageable -> PAGES.get(pageable.getPageNumber()),
+        ExportServiceTest::toRow, new ObjectMapper().writer(), output);
+
+    assertEquals("[{\"code\":\"P1\"},{\"code\":\"P2\"},{\"code\":\"P3\"}]",
+        new String(output.toByteArray(), StandardCharsets.UTF_8));
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  public void shouldRejectUnknownFormat() {
+    ResponseEntity<?> response = exportService.export(PROGRAMS, Program.class,
+        program -> program, Program.class, "xml", null);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
+  private static Map<String, String> toRow(Program program) {
+    return Collections.singletonMap("code", program.getCode().toString());
+  }
+}
@@ -0,0 +1,146 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
+import org.openlmis.referencedata.service.ExternalApiClient.ApiStatistics;
+import org.openlmis.referencedata.service.ExternalApiClient.EndpointStatistics;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+
+public class ExternalApiClientTest {
+
+  private static final String TIMEOUT = "timeout";
+  private static final String URL = "http://localhost/auth/api/users?access_token=token";
+
+  private RestTemplate restTemplate = mock(RestTemplate.class);
+
+  private ExternalApiClient client =
+      new ExternalApiClient(restTemplate, 2, 0, 5, 30, Clock.systemUTC());
+
+  @Test
+  public void shouldRetryIdempotentCalls() {
+    Object response = new Object();
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenThrow(new ResourceAccessException(TIMEOUT))
+        .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))
+        .thenReturn(response);
+
+    assertSame(response, client.post(Api.AUTH, URL, null, Object.class, true));
+    verify(restTemplate, times(3)).postForObject(URL, null, Object.class);
+  }
+
+  @Test
+  public void shouldRetryGets() {
+    Object response = new Object();
+    when(restTemplate.getForObject(anyString(), eq(Object.class)))
+        .thenThrow(new ResourceAccessException(TIMEOUT))
+        .thenReturn(response);
+
+    assertSame(response, client.get(Api.AUTH, URL, Object.class));
+    verify(restTemplate, times(2)).getForObject(URL, Object.class);
+  }
+
+  @Test
+  public void shouldGiveUpAfterRetries() {
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenThrow(new ResourceAccessException(TIMEOUT));
+
+    try {
+      client.post(Api.AUTH, URL, null, Object.class, true);
+      fail();
+    } catch (ResourceAccessException ex) {
+      verify(restTemplate, times(3)).postForObject(URL, null, Object.class);
+    }
+  }
+
+  @Test
+  public void shouldNotRetryNonIdempotentCalls() {
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenThrow(new ResourceAccessException(TIMEOUT));
+
+    try {
+      client.post(Api.NOTIFICATION, URL, null, Object.class, false);
+      fail();
+    } catch (ResourceAccessException ex) {
+      verify(restTemplate).postForObject(URL, null, Object.class);
+    }
+  }
+
+  @Test
+  public void shouldNotRetryClientErrors() {
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+    try {
+      client.post(Api.AUTH, URL, null, Object.class, true);
+      fail();
+    } catch (HttpClientErrorException ex) {
+      verify(restTemplate).postForObject(URL, null, Object.class);
+    }
+  }
+
+  @Test
+  public void shouldRejectCallsWhenCircuitBreakerIsOpen() {
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenThrow(new ResourceAccessException(TIMEOUT));
+
+    for (int i = 0; i < 5; i++) {
+      try {
+        client.post(Api.AUTH, URL, null, Object.class, false);
+        fail();
+      } catch (ResourceAccessException ex) {
+        assertEquals(TIMEOUT, ex.getMessage());
+      }
+    }
+
+    try {
+      client.post(Api.AUTH, URL, null, Object.class, false);
+      fail();
+    } catch (ResourceAccessException ex) {
+      assertEquals("Circuit breaker of auth is open", ex.getMessage());
+    }
+    verify(restTemplate, times(5)).postForObject(URL, null, Object.class);
+  }
+
+  @Test
+  public void shouldRecordLatencyOfEndpointsWithoutQuery() {
+    when(restTemplate.postForObject(anyString(), any(), eq(Object.class)))
+        .thenReturn(new Object())
+        .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+    client.post(Api.AUTH, URL, null, Object.class, true);
+    try {
+      client.post(Api.AUTH, URL.replace("token", "other"), null, Object.class, true);
+      fail();
+    } catch (HttpClientErrorException ex) {
+      assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    ApiStatistics auth = client.getStatistics().getApis().get(0);
+    assertEquals("auth", auth.getName());
+    assertEquals("CLOSED", auth.getCircuitBreaker());
+    assertEquals(1, auth.getEndpoints().size());
+
+    EndpointStatistics endpoint = auth.getEndpoints().get(0);
+    assertEquals("/auth/api/users", endpoint.getPath());
+    assertEquals(2, endpoint.getRequests());
+    assertEquals(1, endpoint.getFailures());
+    assertEquals(2, endpoint.getLatency().getCount());
+  }
+}
@@ -0,0 +1,37 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class ImportColumnTest {
+
+  @Test
+  public void shouldAcceptValidValues() {
+    assertNull(column("uuid", null).validate("00000000-0000-0000-0000-000000000001"));
+    assertNull(column("boolean", null).validate("TRUE"));
+    assertNull(column("integer", null).validate("42"));
+    assertNull(column("numeric", null).validate("4.2"));
+    assertNull(column("date", null).validate("2016-10-01"));
+    assertNull(column("timestamp without time zone", null).validate("2016-10-01 12:00:00"));
+    assertNull(column("character varying", 5).validate("abcde"));
+    assertNull(column("text", null).validate("anything"));
+  }
+
+  @Test
+  public void shouldRejectInvalidValues() {
+    assertEquals("is not a valid uuid",
+        column("uuid", null).validate("not-a-uuid-but-36-characters-long-xx"));
+    assertEquals("is not a boolean", column("boolean", null).validate("maybe"));
+    assertEquals("is out of range", column("smallint", null).validate("40000"));
+    assertEquals("is not a valid integer", column("integer", null).validate("4.2"));
+    assertEquals("is not a valid date", column("date", null).validate("01/10/2016"));
+    assertEquals("is longer than 5 characters",
+        column("character varying", 5).validate("abcdef"));
+  }
+
+  private static ImportColumn column(String dataType, Integer maxLength) {
+    return new ImportColumn("column", dataType, maxLength, true, false);
+  }
+}
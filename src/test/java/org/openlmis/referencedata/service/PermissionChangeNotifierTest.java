@@ -0,0 +1,160 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openlmis.referencedata.domain.ChangeEvent;
+import org.openlmis.referencedata.domain.ChangeEvent.Operation;
+import org.openlmis.referencedata.repository.ChangeEventRepository;
+import org.openlmis.referencedata.service.PermissionChangeNotifier.Invalidation;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+
+@SuppressWarnings("PMD.TooManyMethods")
+public class PermissionChangeNotifierTest {
+
+  private static final int BATCH_SIZE = 2;
+  private static final long TIMEOUT = 1000;
+  private static final String TYPE = PermissionChangeNotifier.ENTITY_TYPE;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private ChangeEventRecorder changeEventRecorder;
+
+  @Mock
+  private ChangeEventRepository changeEventRepository;
+
+  private PermissionChangeNotifier notifier;
+
+  private UUID userId = UUID.randomUUID();
+
+  private List<Invalidation> received = new ArrayList<>();
+
+  /**
+   * Set up a notifier that has seen the invalidation with id 1.
+   */
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(changeEventRepository.findByEntityTypeAndIdGreaterThanOrderById(eq(TYPE), anyLong(),
+        any(Pageable.class))).thenReturn(Collections.emptyList());
+    when(changeEventRepository.findFirstByEntityTypeOrderByIdDesc(TYPE))
+        .thenReturn(event(1, userId));
+    notifier = new PermissionChangeNotifier(entityManager, changeEventRecorder,
+        changeEventRepository, BATCH_SIZE);
+    notifier.init();
+    notifier.addListener(received::add);
+  }
+
+  @After
+  public void tearDown() {
+    notifier.shutdown();
+  }
+
+  @Test
+  public void shouldRecordInvalidatedUsersInOutbox() {
+    notifier.usersChanged(Collections.singleton(userId));
+
+    verify(changeEventRecorder).record(entityManager, TYPE, userId, Operation.UPDATE);
+  }
+
+  @Test
+  public void shouldRecordInvalidationOfAllUsersInOutbox() {
+    notifier.allChanged();
+
+    verify(changeEventRecorder).record(entityManager, TYPE, PermissionChangeNotifier.ALL_USERS,
+        Operation.UPDATE);
+  }
+
+  @Test
+  public void shouldPassNewInvalidationsToListeners() {
+    returnEvents(1, event(2, userId), event(3, userId));
+    returnEvents(3, event(4, PermissionChangeNotifier.ALL_USERS));
+
+    notifier.poll();
+
+    assertEquals(2, received.size());
+    assertEquals("3", received.get(0).getId());
+    assertFalse(received.get(0).isAllUsers());
+    assertEquals(Collections.singletonList(userId), received.get(0).getUserIds());
+    assertEquals("4", received.get(1).getId());
+    assertTrue(received.get(1).isAllUsers());
+  }
+
+  @Test
+  public void shouldReplayMissedInvalidations() {
+    returnEvents(1, event(2, userId));
+    notifier.poll();
+    returnEvents(0, event(1, userId), event(2, userId));
+
+    List<Invalidation> missed = notifier.getMissed("1");
+
+    assertEquals(1, missed.size());
+    assertEquals("2", missed.get(0).getId());
+    assertEquals(Collections.singletonList(userId), missed.get(0).getUserIds());
+  }
+
+  @Test
+  public void shouldReplayNothingIfUpToDate() {
+    assertTrue(notifier.getMissed("1").isEmpty());
+  }
+
+  @Test
+  public void shouldInvalidateAllUsersIfTooManyInvalidationsWereMissed() {
+    returnEvents(1, event(2, userId), event(3, userId));
+    returnEvents(3, event(4, userId));
+    notifier.poll();
+    returnEvents(0, event(1, userId), event(2, userId));
+
+    List<Invalidation> missed = notifier.getMissed("0");
+
+    assertEquals(1, missed.size());
+    assertTrue(missed.get(0).isAllUsers());
+    assertEquals("4", missed.get(0).getId());
+  }
+
+  @Test
+  public void shouldInvalidateAllUsersIfLastEventIdIsNotValid() {
+    List<Invalidation> missed = notifier.getMissed("other:1");
+
+    assertEquals(1, missed.size());
+    assertTrue(missed.get(0).isAllUsers());
+  }
+
+  @Test
+  public void shouldKeepSubscriberUntilCompleted() {
+    notifier.subscribe(null, TIMEOUT);
+
+    assertEquals(1, notifier.getSubscriberCount());
+  }
+
+  private void returnEvents(long after, ChangeEvent... events) {
+    when(changeEventRepository.findByEntityTypeAndIdGreaterThanOrderById(eq(TYPE), eq(after),
+        any(Pageable.class))).thenReturn(Arrays.asList(events));
+  }
+
+  private ChangeEvent event(long id, UUID subject) {
+    return new ChangeEvent(id, TYPE, subject, Operation.UPDATE, LocalDateTime.now());
+  }
+}
@@ -0,0 +1,146 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.Cache;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.metadata.CollectionMetadata;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Right;
+import org.openlmis.referencedata.domain.Role;
+import org.openlmis.referencedata.service.SecondLevelCacheService.RegionStatistics;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SecondLevelCacheServiceTest {
+
+  private static final String ENTITY_REGION = "org.openlmis.referencedata.domain.Role";
+  private static final String COLLECTION_REGION = ENTITY_REGION + ".rights";
+
+  @Mock
+  private EntityManagerFactory entityManagerFactory;
+
+  @Mock
+  private SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  private EntityChangeTracker entityChangeTracker;
+
+  @Mock
+  private Cache cache;
+
+  private SecondLevelCacheService service;
+
+  @Before
+  public void setUp() {
+    when(entityManagerFactory.unwrap(SessionFactoryImplementor.class))
+        .thenReturn(sessionFactory);
+    when(sessionFactory.getCache()).thenReturn(cache);
+    service = new SecondLevelCacheService(entityManagerFactory, entityChangeTracker);
+  }
+
+  @Test
+  public void shouldReportRegionStatisticsOrderedByName() {
+    //given
+    Statistics statistics = mock(Statistics.class);
+    SecondLevelCacheStatistics regionStatistics = mock(SecondLevelCacheStatistics.class);
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+    when(statistics.getSecondLevelCacheRegionNames())
+        .thenReturn(new String[] {COLLECTION_REGION, ENTITY_REGION});
+    when(statistics.getSecondLevelCacheStatistics(ENTITY_REGION)).thenReturn(regionStatistics);
+    when(statistics.getSecondLevelCacheStatistics(COLLECTION_REGION))
+        .thenReturn(regionStatistics);
+    when(regionStatistics.getHitCount()).thenReturn(5L);
+    when(regionStatistics.getMissCount()).thenReturn(1L);
+    ClassMetadata roleMetadata = mock(ClassMetadata.class);
+    when(roleMetadata.getMappedClass()).thenReturn(Role.class);
+    when(sessionFactory.getClassMetadata(ENTITY_REGION)).thenReturn(roleMetadata);
+    when(entityChangeTracker.getVersion(Role.class)).thenReturn(7L);
+
+    //when
+    List<RegionStatistics> regions = service.getRegionStatistics();
+
+    //then
+    assertEquals(2, regions.size());
+    assertEquals(ENTITY_REGION, regions.get(0).getName());
+    assertEquals(COLLECTION_REGION, regions.get(1).getName());
+    assertEquals(7L, regions.get(0).getVersion());
+    assertEquals(5L, regions.get(0).getHits());
+    assertEquals(1L, regions.get(0).getMisses());
+  }
+
+  @Test
+  public void shouldVersionQueryRegionByAllChanges() {
+    //given
+    Statistics statistics = mock(Statistics.class);
+    String queryRegion = StandardQueryCache.class.getName();
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+    when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[] {queryRegion});
+    when(statistics.getSecondLevelCacheStatistics(queryRegion))
+        .thenReturn(mock(SecondLevelCacheStatistics.class));
+    when(entityChangeTracker.getVersion()).thenReturn(42L);
+
+    //when
+    List<RegionStatistics> regions = service.getRegionStatistics();
+
+    //then
+    assertEquals(1, regions.size());
+    assertEquals(42L, regions.get(0).getVersion());
+  }
+
+  @Test
+  public void shouldEvictEntityRegion() {
+    when(sessionFactory.getClassMetadata(ENTITY_REGION)).thenReturn(mock(ClassMetadata.class));
+
+    assertTrue(service.evictRegion(ENTITY_REGION));
+    verify(cache).evictEntityRegion(ENTITY_REGION);
+  }
+
+  @Test
+  public void shouldEvictCollectionRegion() {
+    when(sessionFactory.getCollectionMetadata(COLLECTION_REGION))
+        .thenReturn(mock(CollectionMetadata.class));
+
+    assertTrue(service.evictRegion(COLLECTION_REGION));
+    verify(cache).evictCollectionRegion(COLLECTION_REGION);
+  }
+
+  @Test
+  public void shouldEvictDefaultQueryRegion() {
+    assertTrue(service.evictRegion(StandardQueryCache.class.getName()));
+    verify(cache).evictDefaultQueryRegion();
+  }
+
+  @Test
+  public void shouldEvictRolesAndRightsForPermissions() {
+    service.evictPermissionRegions();
+
+    verify(cache).evictEntityRegion(Role.class);
+    verify(cache).evictEntityRegion(Right.class);
+    verify(cache).evictCollectionRegion(COLLECTION_REGION);
+    verify(cache).evictCollectionRegion(Right.class.getName() + ".attachments");
+  }
+
+  @Test
+  public void shouldNotEvictUnknownRegion() {
+    assertFalse(service.evictRegion("unknown"));
+    verify(cache, never()).evictAllRegions();
+  }
+}
@@ -0,0 +1,156 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserJob;
+import org.openlmis.referencedata.domain.UserJob.JobType;
+import org.openlmis.referencedata.domain.UserJob.Status;
+import org.openlmis.referencedata.repository.UserJobRepository;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class UserJobServiceTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2016-10-01T12:00:00Z"), ZoneOffset.UTC);
+  private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+  private UserJobRepository userJobRepository = mock(UserJobRepository.class);
+
+  private UserJobService userJobService =
+      new UserJobService(userJobRepository, 3, 30, 3600, 300, CLOCK);
+
+  private UUID userId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    when(userJobRepository.save(any(UserJob.class))).thenAnswer(
+        invocation -> invocation.getArguments()[0]);
+  }
+
+  @Test
+  public void shouldQueueAuthUserSync() {
+    User user = mock(User.class);
+    when(user.getId()).thenReturn(userId);
+
+    UserJob job = userJobService.enqueue(user, true);
+
+    assertEquals(userId, job.getUserId());
+    assertEquals(JobType.SYNC_AUTH_USER, job.getType());
+    assertEquals(Status.PENDING, job.getStatus());
+    assertEquals(NOW, job.getNextAttemptDate());
+    assertTrue(job.isSendWelcomeEmail());
+  }
+
+  @Test
+  public void shouldClaimDueJobsWithLease() {
+    UserJob job = newJob(JobType.SYNC_AUTH_USER, false);
+    when(userJobRepository.lockDueJobs(Timestamp.valueOf(NOW), 2))
+        .thenReturn(Collections.singletonList(job));
+
+    List<UserJob> claimed = userJobService.claim(2);
+
+    assertEquals(1, claimed.size());
+    assertEquals(Status.RUNNING, job.getStatus());
+    assertEquals(NOW.plusSeconds(300), job.getLockedUntil());
+    verify(userJobRepository).save(job);
+  }
+
+  @Test
+  public void shouldFailJobWhoseLeaseRanOutOnLastAttempt() {
+    UserJob job = newJob(JobType.SYNC_AUTH_USER, false);
+    for (int attempt = 0; attempt < 3; attempt++) {
+      job.claim("other", NOW.minusSeconds(1));
+    }
+    when(userJobRepository.lockDueJobs(Timestamp.valueOf(NOW), 1))
+        .thenReturn(Collections.singletonList(job));
+
+    List<UserJob> claimed = userJobService.claim(1);
+
+    assertTrue(claimed.isEmpty());
+    assertEquals(Status.FAILED, job.getStatus());
+    verify(userJobRepository).save(job);
+  }
+
+  @Test
+  public void shouldQueueWelcomeEmailWhenAuthUserOfNewUserIsSynced() {
+    UserJob job = claim(newJob(JobType.SYNC_AUTH_USER, true));
+
+    userJobService.complete(job);
+
+    assertEquals(Status.SUCCEEDED, job.getStatus());
+    ArgumentCaptor<UserJob> saved = ArgumentCaptor.forClass(UserJob.class);
+    verify(userJobRepository, times(3)).save(saved.capture());
+    UserJob welcomeEmail = saved.getValue();
+    assertEquals(JobType.SEND_WELCOME_EMAIL, welcomeEmail.getType());
+    assertEquals(userId, welcomeEmail.getUserId());
+    assertEquals(Status.PENDING, welcomeEmail.getStatus());
+  }
+
+  @Test
+  public void shouldNotQueueWelcomeEmailWhenAuthUserOfExistingUserIsSynced() {
+    UserJob job = claim(newJob(JobType.SYNC_AUTH_USER, false));
+
+    userJobService.complete(job);
+
+    assertEquals(Status.SUCCEEDED, job.getStatus());
+    verify(userJobRepository, times(2)).save(any(UserJob.class));
+  }
+
+  @Test
+  public void shouldScheduleRetryWhenJobFails() {
+    UserJob job = claim(newJob(JobType.SEND_WELCOME_EMAIL, false));
+
+    userJobService.fail(job, new IllegalStateException("Could not send",
+        new ResourceAccessException("timeout")));
+
+    assertEquals(Status.PENDING, job.getStatus());
+    assertEquals(NOW.plusSeconds(30), job.getNextAttemptDate());
+    assertEquals("Could not send: timeout", job.getLastError());
+  }
+
+  @Test
+  public void shouldIgnoreResultOfJobClaimedByAnotherWorker() {
+    UserJob job = newJob(JobType.SYNC_AUTH_USER, true);
+    job.claim("other", NOW.plusSeconds(300));
+    when(userJobRepository.findOne(job.getId())).thenReturn(job);
+
+    userJobService.complete(job);
+
+    assertEquals(Status.RUNNING, job.getStatus());
+    verify(userJobRepository, never()).save(any(UserJob.class));
+  }
+
+  private UserJob newJob(JobType type, boolean sendWelcomeEmail) {
+    UserJob job = new UserJob(userId, type, sendWelcomeEmail, NOW);
+    job.setId(UUID.randomUUID());
+    return job;
+  }
+
+  private UserJob claim(UserJob job) {
+    when(userJobRepository.lockDueJobs(Timestamp.valueOf(NOW), 1))
+        .thenReturn(Collections.singletonList(job));
+    when(userJobRepository.findOne(job.getId())).thenReturn(job);
+    userJobService.claim(1);
+    return job;
+  }
+}
@@ -0,0 +1,106 @@
+package org.openlmis.referencedata.service;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserJob;
+import org.openlmis.referencedata.domain.UserJob.JobType;
+import org.openlmis.referencedata.exception.ExternalApiException;
+import org.openlmis.referencedata.repository.UserRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+
+public class UserJobWorkerTest {
+
+  private UserJobService userJobService = mock(UserJobService.class);
+  private UserService userService = mock(UserService.class);
+  private UserRepository userRepository = mock(UserRepository.class);
+
+  private UserJobWorker worker = new UserJobWorker(userJobService, userService, userRepository,
+      MoreExecutors.newDirectExecutorService(), 2);
+
+  private UUID userId = UUID.randomUUID();
+  private User user = mock(User.class);
+
+  @Before
+  public void setUp() {
+    when(userRepository.findOne(userId)).thenReturn(user);
+  }
+
+  @Test
+  public void shouldSyncAuthUser() {
+    final UserJob job = queue(JobType.SYNC_AUTH_USER);
+
+    worker.poll();
+
+    verify(userJobService).claim(2);
+    verify(userService).saveAuthUser(user);
+    verify(userJobService).complete(job);
+  }
+
+  @Test
+  public void shouldSendWelcomeEmail() {
+    UserJob job = queue(JobType.SEND_WELCOME_EMAIL);
+
+    worker.poll();
+
+    verify(userService).sendResetPasswordEmail(user);
+    verify(userJobService).complete(job);
+  }
+
+  @Test
+  public void shouldRecordFailure() {
+    final UserJob job = queue(JobType.SYNC_AUTH_USER);
+    ExternalApiException failure = new ExternalApiException("Could not save auth user", null);
+    doThrow(failure).when(userService).saveAuthUser(user);
+
+    worker.poll();
+
+    verify(userJobService).fail(job, failure);
+    verify(userJobService, never()).complete(any(UserJob.class));
+  }
+
+  @Test
+  public void shouldRecordFailureIfUserDoesNotExist() {
+    final UserJob job = queue(JobType.SYNC_AUTH_USER);
+    when(userRepository.findOne(userId)).thenReturn(null);
+
+    worker.poll();
+
+    verify(userJobService).fail(any(UserJob.class), any(IllegalStateException.class));
+    verify(userJobService, never()).complete(job);
+  }
+
+  @Test
+  public void shouldKeepRunningIfJobWasClaimedByAnotherWorker() {
+    final UserJob job = queue(JobType.SYNC_AUTH_USER);
+    doThrow(new ObjectOptimisticLockingFailureException(UserJob.class, job.getId()))
+        .when(userJobService).complete(job);
+
+    worker.poll();
+    worker.poll();
+
+    verify(userService, times(2)).saveAuthUser(user);
+  }
+
+  private UserJob queue(JobType type) {
+    UserJob job = new UserJob(userId, type, false, LocalDateTime.now());
+    job.setId(UUID.randomUUID());
+    when(userJobService.claim(anyInt())).thenReturn(Collections.singletonList(job));
+    return job;
+  }
+}
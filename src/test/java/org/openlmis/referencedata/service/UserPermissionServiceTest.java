@@ -0,0 +1,169 @@
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.DirectRoleAssignment;
+import org.openlmis.referencedata.domain.PermissionIndex;
+import org.openlmis.referencedata.domain.Right;
+import org.openlmis.referencedata.domain.RightType;
+import org.openlmis.referencedata.domain.Role;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.UserBuilder;
+import org.openlmis.referencedata.exception.RightTypeException;
+import org.openlmis.referencedata.exception.RoleException;
+import org.openlmis.referencedata.repository.UserRepository;
+import org.openlmis.referencedata.service.PermissionChangeNotifier.Invalidation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserPermissionServiceTest {
+
+  private static final String RIGHT_NAME = "adminRight";
+  private static final long TTL_SECONDS = 60;
+  private static final Instant NOW = Instant.parse("2016-10-01T12:00:00Z");
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private PermissionChangeNotifier permissionChangeNotifier;
+
+  @Mock
+  private SecondLevelCacheService secondLevelCacheService;
+
+  @Mock
+  private Clock clock;
+
+  @Captor
+  private ArgumentCaptor<Consumer<Invalidation>> listener;
+
+  private UserPermissionService permissionService;
+
+  private UUID userId = UUID.randomUUID();
+
+  private User user;
+
+  @Before
+  public void setUp() throws RightTypeException, RoleException {
+    user = new UserBuilder("user", "Test", "User", "test@test.com").createUser();
+    user.assignRoles(new DirectRoleAssignment(Role.newRole("role",
+        Right.newRight(RIGHT_NAME, RightType.GENERAL_ADMIN))));
+    when(userRepository.findOne(userId)).thenReturn(user);
+    when(clock.instant()).thenReturn(NOW);
+    permissionService = new UserPermissionService(userRepository, permissionChangeNotifier,
+        secondLevelCacheService, TTL_SECONDS, clock);
+  }
+
+  @Test
+  public void shouldCompilePermissionIndexOnlyOnce() {
+    PermissionIndex first = permissionService.getPermissionIndex(userId);
+    PermissionIndex second = permissionService.getPermissionIndex(userId);
+
+    assertSame(first, second);
+    assertTrue(first.hasRight(RIGHT_NAME, null, null, null));
+    verify(userRepository, times(1)).findOne(userId);
+  }
+
+  @Test
+  public void shouldRecompilePermissionIndexAfterItExpires() {
+    permissionService.getPermissionIndex(userId);
+    when(clock.instant()).thenReturn(NOW.plusSeconds(TTL_SECONDS - 1));
+    permissionService.getPermissionIndex(userId);
+    when(clock.instant()).thenReturn(NOW.plusSeconds(TTL_SECONDS));
+    permissionService.getPermissionIndex(userId);
+
+    verify(userRepository, times(2)).findOne(userId);
+  }
+
+  @Test
+  public void shouldReturnNullForNonExistingUser() {
+    UUID otherId = UUID.randomUUID();
+
+    assertNull(permissionService.getPermissionIndex(otherId));
+  }
+
+  @Test
+  public void shouldRecompilePermissionIndexAfterUserIsInvalidated() {
+    permissionService.getPermissionIndex(userId);
+    user.getRoleAssignments().clear();
+
+    permissionService.invalidate(userId);
+    PermissionIndex index = permissionService.getPermissionIndex(userId);
+
+    assertFalse(index.hasRight(RIGHT_NAME, null, null, null));
+    verify(userRepository, times(2)).findOne(userId);
+  }
+
+  @Test
+  public void shouldRecompileAllPermissionIndexesAfterInvalidateAll() {
+    permissionService.getPermissionIndex(userId);
+
+    permissionService.invalidateAll();
+    permissionService.getPermissionIndex(userId);
+
+    verify(userRepository, times(2)).findOne(userId);
+  }
+
+  @Test
+  public void shouldNotifyAboutInvalidatedUser() {
+    permissionService.invalidate(userId);
+
+    verify(permissionChangeNotifier).usersChanged(Collections.singleton(userId));
+  }
+
+  @Test
+  public void shouldInvalidateOnlyUsersWithGivenRole() {
+    UUID roleId = UUID.randomUUID();
+    UUID otherId = UUID.randomUUID();
+    when(userRepository.findOne(otherId)).thenReturn(user);
+    when(userRepository.findIdsByRoleId(roleId)).thenReturn(Collections.singleton(userId));
+    permissionService.getPermissionIndex(userId);
+    permissionService.getPermissionIndex(otherId);
+
+    permissionService.invalidateRole(roleId);
+    permissionService.getPermissionIndex(userId);
+    permissionService.getPermissionIndex(otherId);
+
+    verify(userRepository, times(2)).findOne(userId);
+    verify(userRepository, times(1)).findOne(otherId);
+    verify(permissionChangeNotifier).usersChanged(Collections.singleton(userId));
+  }
+
+  @Test
+  public void shouldDropIndexesInvalidatedByAnyInstance() {
+    permissionService.subscribe();
+    verify(permissionChangeNotifier).addListener(listener.capture());
+    permissionService.getPermissionIndex(userId);
+
+    listener.getValue().accept(new Invalidation("1", false, Collections.singletonList(userId)));
+    permissionService.getPermissionIndex(userId);
+
+    verify(userRepository, times(2)).findOne(userId);
+    verify(secondLevelCacheService).evictPermissionRegions();
+  }
+
+  @Test
+  public void shouldNotifyAboutAllUsersAfterInvalidateAll() {
+    permissionService.invalidateAll();
+
+    verify(permissionChangeNotifier).allChanged();
+  }
+}
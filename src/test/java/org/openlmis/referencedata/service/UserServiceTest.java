@@ -4,37 +4,35 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.refEq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.powermock.api.mockito.PowerMockito.mock;
-import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.BlockJUnit4ClassRunner;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.domain.UserBuilder;
+import org.openlmis.referencedata.exception.ExternalApiException;
 import org.openlmis.referencedata.repository.UserRepository;
+import org.openlmis.referencedata.service.ExternalApiClient.Api;
 import org.openlmis.referencedata.util.AuthUserRequest;
 import org.openlmis.referencedata.util.NotificationRequest;
 import org.openlmis.referencedata.util.PasswordChangeRequest;
 import org.openlmis.referencedata.util.PasswordResetRequest;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
-import org.powermock.core.classloader.annotations.PrepareForTest;
-import org.powermock.modules.junit4.PowerMockRunner;
-import org.powermock.modules.junit4.PowerMockRunnerDelegate;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.ResourceAccessException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -43,9 +41,7 @@ import java.util.UUID;
 
 
 @SuppressWarnings("PMD.TooManyMethods")
-@RunWith(PowerMockRunner.class)
-@PowerMockRunnerDelegate(BlockJUnit4ClassRunner.class)
-@PrepareForTest({UserService.class})
+@RunWith(MockitoJUnitRunner.class)
 public class UserServiceTest {
 
   private static final String AUTH_TOKEN = "authToken";
@@ -56,6 +52,15 @@ public class UserServiceTest {
   @Mock
   private ExposedMessageSource messageSource;
 
+  @Mock
+  private ExternalApiClient externalApiClient;
+
+  @Mock
+  private AuthService authService;
+
+  @Mock
+  private UserJobService userJobService;
+
   @InjectMocks
   private UserService userService;
 
@@ -75,29 +80,50 @@ public class UserServiceTest {
             user.getLastName(),
             user.getHomeFacility(),
             user.isActive(),
-            user.isVerified()))
+            user.isVerified(),
+            false,
+            null))
         .thenReturn(Arrays.asList(user));
 
     List<User> receivedUsers = userService.searchUsers(user.getUsername(), user.getFirstName(),
-        user.getLastName(), user.getHomeFacility(), user.isActive(), user.isVerified());
+        user.getLastName(), user.getHomeFacility(), user.isActive(), user.isVerified(), false,
+        null);
 
     assertEquals(1, receivedUsers.size());
     assertEquals(user, receivedUsers.get(0));
   }
 
   @Test
-  public void shouldSaveRequisitionAndAuthUsers() throws Exception {
-    when(userRepository.save(user)).thenReturn(user);
+  public void shouldSaveUserAndQueueAuthUserAndWelcomeEmailWhenNewUserIsCreated() {
+    user.setId(null);
 
-    RestTemplate restTemplate = mock(RestTemplate.class);
-    whenNew(RestTemplate.class).withNoArguments().thenReturn(restTemplate);
+    userService.save(user);
+
+    verify(userRepository).save(user);
+    verify(userJobService).enqueue(user, true);
+    verify(externalApiClient, never()).post(any(Api.class), anyString(), any(), any(),
+        anyBoolean());
+  }
 
-    userService.save(user, AUTH_TOKEN);
+  @Test
+  public void shouldSaveUserAndQueueOnlyAuthUserWhenUserIsUpdated() {
+    userService.save(user);
 
     verify(userRepository).save(user);
+    verify(userJobService).enqueue(user, false);
+    verify(externalApiClient, never()).post(any(Api.class), anyString(), any(), any(),
+        anyBoolean());
+  }
+
+  @Test
+  public void shouldSaveAuthUserWithServiceToken() {
+    when(authService.obtainAccessToken()).thenReturn(AUTH_TOKEN);
+
+    userService.saveAuthUser(user);
 
     ArgumentCaptor<AuthUserRequest> authUserCaptor = ArgumentCaptor.forClass(AuthUserRequest.class);
-    verify(restTemplate).postForObject(contains(AUTH_TOKEN), authUserCaptor.capture(), any());
+    verify(externalApiClient).post(eq(Api.AUTH), contains(AUTH_TOKEN), authUserCaptor.capture(),
+        any(), eq(true));
 
     assertEquals(1, authUserCaptor.getAllValues().size());
     AuthUserRequest authUser = authUserCaptor.getValue();
@@ -109,20 +135,26 @@ public class UserServiceTest {
     assertEquals("USER", authUser.getRole());
   }
 
+  @Test(expected = ExternalApiException.class)
+  public void shouldThrowExternalApiExceptionIfAuthUserCouldNotBeSaved() {
+    when(authService.obtainAccessToken()).thenReturn(AUTH_TOKEN);
+    when(externalApiClient.post(eq(Api.AUTH), anyString(), any(), any(), anyBoolean()))
+        .thenThrow(new ResourceAccessException("timeout"));
+
+    userService.saveAuthUser(user);
+  }
+
   @Test
-  public void shouldSendResetPasswordEmailWhenNewUserIsCreated() throws Exception {
-    user.setId(null);
+  public void shouldSendResetPasswordEmailWithServiceToken() {
     UUID resetPasswordTokenId = UUID.randomUUID();
     String mailSubject = "subject";
     String mailBody = "body";
 
-    when(userRepository.save(user)).thenReturn(user);
-
-    RestTemplate restTemplate = mock(RestTemplate.class);
-    whenNew(RestTemplate.class).withNoArguments().thenReturn(restTemplate);
+    when(authService.obtainAccessToken()).thenReturn(AUTH_TOKEN);
 
-    when(restTemplate.postForObject(contains("passwordResetToken?userId=" + user.getId()),
-        any(), eq(UUID.class))).thenReturn(resetPasswordTokenId);
+    when(externalApiClient.post(eq(Api.AUTH),
+        contains("passwordResetToken?userId=" + user.getId()), any(), eq(UUID.class),
+        eq(false))).thenReturn(resetPasswordTokenId);
 
     when(messageSource.getMessage(contains(mailSubject), any(Object[].class),
         any(Locale.class))).thenReturn(mailSubject);
@@ -130,38 +162,14 @@ public class UserServiceTest {
     when(messageSource.getMessage(contains(mailBody), any(Object[].class),
         any(Locale.class))).thenReturn(mailBody);
 
-    userService.save(user, AUTH_TOKEN);
-
-    verify(userRepository).save(user);
-
-    verify(restTemplate).postForObject(anyString(), isA(AuthUserRequest.class), eq(Object.class));
+    userService.sendResetPasswordEmail(user);
 
     NotificationRequest request = new NotificationRequest("notification", user.getEmail(),
         mailSubject, mailBody, null);
 
-    verify(restTemplate).postForObject(contains("notification?access_token=" + AUTH_TOKEN),
-        refEq(request), eq(Object.class));
-  }
-
-  @Test
-  public void shouldNotSendResetPasswordEmailWhenUserIsUpdated() throws Exception {
-    when(userRepository.save(user)).thenReturn(user);
-
-    RestTemplate restTemplate = mock(RestTemplate.class);
-    whenNew(RestTemplate.class).withNoArguments().thenReturn(restTemplate);
-
-    userService.save(user, AUTH_TOKEN);
-
-    verify(userRepository).save(user);
-
-    verify(restTemplate).postForObject(contains(AUTH_TOKEN),
-        isA(AuthUserRequest.class), eq(Object.class));
-
-    verify(restTemplate, never()).postForObject(contains("passwordResetToken"),
-        any(), eq(UUID.class));
-
-    verify(restTemplate, never()).postForObject(contains("notification"),
-        any(), eq(Object.class));
+    verify(externalApiClient).post(eq(Api.NOTIFICATION),
+        contains("notification?access_token=" + AUTH_TOKEN), refEq(request), eq(Object.class),
+        eq(false));
   }
 
   @Test
@@ -170,9 +178,6 @@ public class UserServiceTest {
 
     when(userRepository.findOneByUsername(passwordResetRequest.getUsername())).thenReturn(user);
 
-    RestTemplate restTemplate = mock(RestTemplate.class);
-    whenNew(RestTemplate.class).withNoArguments().thenReturn(restTemplate);
-
     assertFalse(user.isVerified());
 
     userService.passwordReset(passwordResetRequest, AUTH_TOKEN);
@@ -181,8 +186,9 @@ public class UserServiceTest {
 
     assertTrue(user.isVerified());
 
-    verify(restTemplate).postForObject(contains("passwordReset?access_token=" + AUTH_TOKEN),
-        refEq(passwordResetRequest), eq(String.class));
+    verify(externalApiClient).post(eq(Api.AUTH),
+        contains("passwordReset?access_token=" + AUTH_TOKEN), refEq(passwordResetRequest),
+        eq(String.class), eq(true));
   }
 
   @Test
@@ -192,9 +198,6 @@ public class UserServiceTest {
 
     when(userRepository.findOneByUsername(passwordResetRequest.getUsername())).thenReturn(user);
 
-    RestTemplate restTemplate = mock(RestTemplate.class);
-    whenNew(RestTemplate.class).withNoArguments().thenReturn(restTemplate);
-
     assertFalse(user.isVerified());
 
     userService.changePassword(passwordResetRequest, AUTH_TOKEN);
@@ -203,8 +206,9 @@ public class UserServiceTest {
 
     assertTrue(user.isVerified());
 
-    verify(restTemplate).postForObject(contains("changePassword?access_token=" + AUTH_TOKEN),
-        refEq(passwordResetRequest), eq(String.class));
+    verify(externalApiClient).post(eq(Api.AUTH),
+        contains("changePassword?access_token=" + AUTH_TOKEN), refEq(passwordResetRequest),
+        eq(String.class), eq(false));
   }
 
   private User generateUser() {
@@ -0,0 +1,74 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.util.CircuitBreaker.State;
+
+import java.time.Clock;
+
+public class CircuitBreakerTest {
+
+  private Clock clock = mock(Clock.class);
+  private CircuitBreaker circuitBreaker;
+
+  @Before
+  public void setUp() {
+    when(clock.millis()).thenReturn(0L);
+    circuitBreaker = new CircuitBreaker(3, 10, clock);
+  }
+
+  @Test
+  public void shouldOpenAfterConsecutiveFailures() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordSuccess();
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    assertTrue(circuitBreaker.allowRequest());
+
+    circuitBreaker.recordFailure();
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.allowRequest());
+  }
+
+  @Test
+  public void shouldLetOneTrialThroughAfterOpenTime() {
+    open();
+    when(clock.millis()).thenReturn(10000L);
+
+    assertTrue(circuitBreaker.allowRequest());
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.allowRequest());
+
+    circuitBreaker.recordSuccess();
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertTrue(circuitBreaker.allowRequest());
+  }
+
+  @Test
+  public void shouldOpenAgainIfTrialFails() {
+    open();
+    when(clock.millis()).thenReturn(10000L);
+    assertTrue(circuitBreaker.allowRequest());
+
+    circuitBreaker.recordFailure();
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    when(clock.millis()).thenReturn(19999L);
+    assertFalse(circuitBreaker.allowRequest());
+  }
+
+  private void open() {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.recordFailure();
+    }
+  }
+}
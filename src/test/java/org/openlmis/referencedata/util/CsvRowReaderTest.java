@@ -0,0 +1,70 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+public class CsvRowReaderTest {
+
+  @Test
+  public void shouldReadRowsByLowerCaseColumnName() throws IOException {
+    CsvRowReader reader = new CsvRowReader(new StringReader("Code,Name\r\nP1,First\r\nP2,Second"));
+
+    Map<String, String> first = reader.read();
+    Map<String, String> second = reader.read();
+
+    assertEquals("P1", first.get("code"));
+    assertEquals("First", first.get("name"));
+    assertEquals("P2", second.get("code"));
+    assertNull(reader.read());
+  }
+
+  @Test
+  public void shouldReadQuotedFields() throws IOException {
+    CsvRowReader reader = new CsvRowReader(
+        new StringReader("code,name\n\"P,1\",\"Line\nbreak and \"\"quote\"\"\"\n"));
+
+    Map<String, String> row = reader.read();
+
+    assertEquals("P,1", row.get("code"));
+    assertEquals("Line\nbreak and \"quote\"", row.get("name"));
+    assertNull(reader.read());
+  }
+
+  @Test
+  public void shouldReadEmptyUnquotedFieldAsNull() throws IOException {
+    CsvRowReader reader = new CsvRowReader(new StringReader("code,name,description\nP1,,\"\"\n"));
+
+    Map<String, String> row = reader.read();
+
+    assertNull(row.get("name"));
+    assertEquals("", row.get("description"));
+  }
+
+  @Test(expected = CsvInputNotValidException.class)
+  public void shouldRejectRowWithWrongNumberOfFields() throws IOException {
+    CsvRowReader reader = new CsvRowReader(new StringReader("code,name\nP1\n"));
+
+    reader.read();
+  }
+
+  @Test(expected = CsvInputNotValidException.class)
+  public void shouldRejectUnterminatedQuote() throws IOException {
+    CsvRowReader reader = new CsvRowReader(new StringReader("code\n\"P1\n"));
+
+    reader.read();
+  }
+
+  @Test(expected = CsvInputNotValidException.class)
+  public void shouldRejectRepeatedColumn() throws IOException {
+    CsvRowReader reader = new CsvRowReader(new StringReader("code,CODE\nP1,P2\n"));
+
+    reader.read();
+  }
+}
@@ -0,0 +1,122 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.junit.Test;
+import org.openlmis.referencedata.util.ExportWriter.Format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExportWriterTest {
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .enable(SerializationFeature.INDENT_OUTPUT);
+
+  @Test
+  public void shouldWriteOneJsonObjectPerLine() throws IOException {
+    String output = export(Format.NDJSON, row("P1", "Program 1"), row("P2", null));
+
+    assertEquals("{\"code\":\"P1\",\"name\":\"Program 1\"}\n{\"code\":\"P2\",\"name\":null}\n",
+        output);
+  }
+
+  @Test
+  public void shouldWriteCsvWithHeaderFromFirstRow() throws IOException {
+    String output = export(Format.CSV, row("P1", "Say \"hi\", then go"), row("P2", null));
+
+    assertEquals("\"code\",\"name\"\r\n"
+        + "\"P1\",\"Say \"\"hi\"\", then go\"\r\n"
+        + "\"P2\",\r\n", output);
+  }
+
+  @Test
+  public void shouldWriteCsvWithHeaderFromRowTypeIfFirstRowLeavesOutNullValues()
+      throws IOException {
+    String output = export(Format.CSV, Row.class, new Row("P1", null, null),
+        new Row("P2", "Program 2", "p2@example.org"));
+
+    assertEquals("\"code\",\"name\",\"email\"\r\n"
+        + "\"P1\",,\r\n"
+        + "\"P2\",\"Program 2\",\"p2@example.org\"\r\n", output);
+  }
+
+  @Test
+  public void shouldWriteReferencesAsIdsAndOtherNestedValuesAsJson() throws IOException {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("program", Collections.singletonMap("id", "abc"));
+    row.put("tags", Arrays.asList("a", "b"));
+
+    String output = export(Format.CSV, row);
+
+    assertEquals("\"program\",\"tags\"\r\n\"abc\",\"[\"\"a\"\",\"\"b\"\"]\"\r\n", output);
+  }
+
+  @Test
+  public void shouldFindFormatInAnyCase() {
+    assertEquals(Format.CSV, Format.fromName("Csv"));
+    assertEquals(Format.NDJSON, Format.fromName("ndjson"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownFormat() {
+    Format.fromName("xml");
+  }
+
+  private String export(Format format, Object... rows) throws IOException {
+    return export(format, Map.class, rows);
+  }
+
+  private String export(Format format, Class<?> rowType, Object... rows) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExportWriter writer = ExportWriter.create(format, output, mapper, rowType);
+    for (Object row : rows) {
+      writer.write(row);
+    }
+    writer.flush();
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonPropertyOrder({"code", "name", "email"})
+  private static class Row {
+    private final String code;
+    private final String name;
+    private final String email;
+
+    Row(String code, String name, String email) {
+      this.code = code;
+      this.name = name;
+      this.email = email;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+  }
+
+  private Map<String, Object> row(String code, String name) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("code", code);
+    row.put("name", name);
+    return row;
+  }
+}
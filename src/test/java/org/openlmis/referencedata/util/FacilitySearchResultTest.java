@@ -0,0 +1,67 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.util.FacilitySearchResult.Highlight;
+
+import java.util.List;
+
+public class FacilitySearchResultTest {
+
+  private static final String NAME = "Balaka District Hospital";
+
+  @Test
+  public void shouldHighlightTermsIgnoringCase() {
+    List<Highlight> highlights = FacilitySearchResult.highlight(NAME, "balaka HOSP");
+
+    assertEquals(2, highlights.size());
+    assertHighlight(0, 6, highlights.get(0));
+    assertHighlight(16, 20, highlights.get(1));
+  }
+
+  @Test
+  public void shouldHighlightEveryOccurrence() {
+    List<Highlight> highlights = FacilitySearchResult.highlight(NAME, "a");
+
+    assertEquals(4, highlights.size());
+    assertHighlight(1, 2, highlights.get(0));
+    assertHighlight(22, 23, highlights.get(3));
+  }
+
+  @Test
+  public void shouldMergeOverlappingHighlights() {
+    List<Highlight> highlights = FacilitySearchResult.highlight(NAME, "bala laka");
+
+    assertEquals(1, highlights.size());
+    assertHighlight(0, 6, highlights.get(0));
+  }
+
+  @Test
+  public void shouldNotHighlightMissingText() {
+    assertTrue(FacilitySearchResult.highlight(null, "balaka").isEmpty());
+    assertTrue(FacilitySearchResult.highlight(NAME, "  ").isEmpty());
+    assertTrue(FacilitySearchResult.highlight(NAME, "Lilongwe").isEmpty());
+  }
+
+  @Test
+  public void shouldHighlightCodeAndName() {
+    Facility facility = new Facility("BL001");
+    facility.setName(NAME);
+
+    FacilitySearchResult result = FacilitySearchResult.of(facility, 0.5f, "bl00");
+
+    assertEquals(facility, result.getFacility());
+    assertEquals(0.5f, result.getScore(), 0);
+    assertEquals(1, result.getCodeHighlights().size());
+    assertHighlight(0, 4, result.getCodeHighlights().get(0));
+    assertTrue(result.getNameHighlights().isEmpty());
+  }
+
+  private void assertHighlight(int start, int end, Highlight highlight) {
+    assertEquals(start, highlight.getStart());
+    assertEquals(end, highlight.getEnd());
+  }
+}
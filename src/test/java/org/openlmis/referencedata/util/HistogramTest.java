@@ -0,0 +1,39 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void shouldCountDurationsInBucketsUpToTheirBound() {
+    Histogram histogram = new Histogram(1, 10);
+
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(10);
+    histogram.record(25);
+
+    Histogram.Snapshot snapshot = histogram.getSnapshot();
+    assertEquals(5, snapshot.getCount());
+    assertEquals(38, snapshot.getTotalMillis());
+    assertEquals(25, snapshot.getMaxMillis());
+    assertEquals(3, snapshot.getBuckets().size());
+    assertEquals(Long.valueOf(1), snapshot.getBuckets().get(0).getUpToMillis());
+    assertEquals(2, snapshot.getBuckets().get(0).getCount());
+    assertEquals(2, snapshot.getBuckets().get(1).getCount());
+    assertNull(snapshot.getBuckets().get(2).getUpToMillis());
+    assertEquals(1, snapshot.getBuckets().get(2).getCount());
+  }
+
+  @Test
+  public void shouldReturnEmptySnapshotIfNothingIsRecorded() {
+    Histogram.Snapshot snapshot = new Histogram(1).getSnapshot();
+
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getMaxMillis());
+  }
+}
@@ -0,0 +1,52 @@
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+import org.openlmis.referencedata.exception.CsvInputNotValidException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class JsonRowReaderTest {
+
+  private static final String TYPE_ID = "00000000-0000-0000-0000-000000000001";
+
+  @Test
+  public void shouldReadRowsInDemoDataFormat() throws IOException {
+    JsonRowReader reader = reader("[{\"code\": \"FAC001\", \"active\": true, \"goLiveDate\": null,"
+        + " \"typeid\": {\"id\": \"" + TYPE_ID + "\"}, \"operatedBy\": {\"id\": \"" + TYPE_ID
+        + "\"}}, {\"code\": \"FAC002\"}]");
+
+    final Map<String, String> first = reader.read();
+    final Map<String, String> second = reader.read();
+
+    assertEquals("FAC001", first.get("code"));
+    assertEquals("true", first.get("active"));
+    assertNull(first.get("golivedate"));
+    assertEquals(TYPE_ID, first.get("typeid"));
+    assertEquals(TYPE_ID, first.get("operatedbyid"));
+    assertEquals("FAC002", second.get("code"));
+    assertNull(reader.read());
+  }
+
+  @Test(expected = CsvInputNotValidException.class)
+  public void shouldRejectInputThatIsNotAnArray() throws IOException {
+    reader("{\"code\": \"FAC001\"}").read();
+  }
+
+  @Test(expected = CsvInputNotValidException.class)
+  public void shouldRejectNestedValueWithoutId() throws IOException {
+    reader("[{\"type\": {\"code\": \"health_center\"}}]").read();
+  }
+
+  private JsonRowReader reader(String json) throws IOException {
+    return new JsonRowReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+        new ObjectMapper());
+  }
+}
@@ -0,0 +1,93 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.exception.VersionMismatchException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class BaseControllerTest {
+
+  private MockHttpServletRequest request;
+  private Program stored;
+  private Program toSave;
+
+  /**
+   * Bind a request to the current thread and create a stored and an updated program.
+   */
+  @Before
+  public void setUp() {
+    request = new MockHttpServletRequest("PUT", "/api/programs/id");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    stored = new Program("code");
+    stored.setVersion(3);
+    toSave = new Program("code");
+  }
+
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void shouldCarryStoredVersionOverIfNoVersionIsRequired() {
+    BaseController.checkVersion(stored, toSave);
+
+    assertEquals(3, toSave.getVersion());
+  }
+
+  @Test
+  public void shouldAcceptMatchingVersion() {
+    request.addHeader(HttpHeaders.IF_MATCH, "\"2\", \"3\"");
+
+    BaseController.checkVersion(stored, toSave);
+
+    assertEquals(3, toSave.getVersion());
+  }
+
+  @Test
+  public void shouldAcceptEtagOfRetrievedEntity() {
+    request.addHeader(HttpHeaders.IF_MATCH, "\"3-5d41402abc4b2a76b9719d911017c592\"");
+
+    BaseController.checkVersion(stored, toSave);
+
+    assertEquals(3, toSave.getVersion());
+  }
+
+  @Test
+  public void shouldAcceptAnyVersionOfExistingEntity() {
+    request.addHeader(HttpHeaders.IF_MATCH, "*");
+
+    BaseController.checkVersion(stored, toSave);
+
+    assertEquals(3, toSave.getVersion());
+  }
+
+  @Test(expected = VersionMismatchException.class)
+  public void shouldRejectOutdatedVersion() {
+    request.addHeader(HttpHeaders.IF_MATCH, "\"2\"");
+
+    BaseController.checkVersion(stored, toSave);
+  }
+
+  @Test(expected = VersionMismatchException.class)
+  public void shouldRejectRequiredVersionOfMissingEntity() {
+    request.addHeader(HttpHeaders.IF_MATCH, "*");
+
+    BaseController.checkVersion((Program) null, toSave);
+  }
+
+  @Test
+  public void shouldCreateMissingEntityIfNoVersionIsRequired() {
+    BaseController.checkVersion((Program) null, toSave);
+
+    assertEquals(0, toSave.getVersion());
+  }
+}
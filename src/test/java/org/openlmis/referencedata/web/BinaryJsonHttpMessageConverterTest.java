@@ -0,0 +1,53 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+public class BinaryJsonHttpMessageConverterTest {
+
+  private final Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+
+  @Test
+  public void shouldReadWhatItWritesInSmile() throws IOException {
+    assertRoundTrip(BinaryJsonHttpMessageConverter.smile(builder),
+        BinaryJsonHttpMessageConverter.SMILE);
+  }
+
+  @Test
+  public void shouldReadWhatItWritesInCbor() throws IOException {
+    assertRoundTrip(BinaryJsonHttpMessageConverter.cbor(builder),
+        BinaryJsonHttpMessageConverter.CBOR);
+  }
+
+  @Test
+  public void shouldOnlySupportItsOwnMediaType() {
+    BinaryJsonHttpMessageConverter converter = BinaryJsonHttpMessageConverter.smile(builder);
+
+    assertTrue(converter.canWrite(Map.class, BinaryJsonHttpMessageConverter.SMILE));
+    assertFalse(converter.canWrite(Map.class, MediaType.APPLICATION_JSON));
+    assertFalse(converter.canWrite(Map.class, BinaryJsonHttpMessageConverter.CBOR));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assertRoundTrip(BinaryJsonHttpMessageConverter converter, MediaType mediaType)
+      throws IOException {
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(Collections.singletonMap("code", "P1"), mediaType, output);
+
+    assertEquals(mediaType, output.getHeaders().getContentType());
+    Map<String, Object> read = (Map<String, Object>) converter.read(Map.class,
+        new MockHttpInputMessage(output.getBodyAsBytes()));
+    assertEquals("P1", read.get("code"));
+  }
+}
@@ -0,0 +1,178 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.service.EntityChangeTracker;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.UUID;
+
+public class ConditionalGetInterceptorTest {
+
+  private static final String DEFAULT_CACHE_CONTROL = "private, no-cache";
+  private static final String PROGRAMS_CACHE_CONTROL = "private, max-age=60";
+  private static final String PROGRAMS_URL = "/api/programs";
+  private static final String PROGRAM_URL = PROGRAMS_URL + "/" + UUID.randomUUID();
+  private static final String GET = "GET";
+
+  @Mock
+  private EntityChangeTracker entityChangeTracker;
+
+  private ConditionalGetInterceptor interceptor;
+
+  private HandlerMethod getAllPrograms;
+
+  /**
+   * Set up the interceptor and a handler method.
+   */
+  @Before
+  public void setUp() throws NoSuchMethodException {
+    initMocks(this);
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("cacheControl.programs", PROGRAMS_CACHE_CONTROL);
+    interceptor = new ConditionalGetInterceptor(entityChangeTracker, environment,
+        DEFAULT_CACHE_CONTROL);
+    getAllPrograms = new HandlerMethod(new ProgramController(),
+        ProgramController.class.getMethod("getAllPrograms"));
+
+    when(entityChangeTracker.getVersion(Program.class)).thenReturn(5L);
+  }
+
+  @Test
+  public void shouldProceedAndRememberEtagIfRequestIsNotConditional() {
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertTrue(interceptor.preHandle(request, response, getAllPrograms));
+    assertNotNull(request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+    assertEquals(PROGRAMS_CACHE_CONTROL,
+        request.getAttribute(ConditionalGetInterceptor.CACHE_CONTROL_ATTRIBUTE));
+  }
+
+  @Test
+  public void shouldReturnNotModifiedIfEtagMatches() {
+    String etag = getEtag(PROGRAMS_URL);
+
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertFalse(interceptor.preHandle(request, response, getAllPrograms));
+    assertEquals(304, response.getStatus());
+    assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    assertEquals(PROGRAMS_CACHE_CONTROL, response.getHeader(HttpHeaders.CACHE_CONTROL));
+  }
+
+  @Test
+  public void shouldPrefixEtagOfEntityWithItsVersion() {
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, PROGRAM_URL);
+    interceptor.preHandle(request, new MockHttpServletResponse(), getAllPrograms);
+    String etag = (String) request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+    Program program = new Program("P1");
+    program.setVersion(3);
+    ServletServerHttpResponse response =
+        new ServletServerHttpResponse(new MockHttpServletResponse());
+
+    interceptor.beforeBodyWrite(program, null, null, null,
+        new ServletServerHttpRequest(request), response);
+
+    assertEquals("\"3-" + etag.substring(1), response.getHeaders().getETag());
+  }
+
+  @Test
+  public void shouldReturnNotModifiedIfEtagOfEntityMatches() {
+    String etag = "\"3-" + getEtag(PROGRAM_URL).substring(1);
+
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, PROGRAM_URL);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertFalse(interceptor.preHandle(request, response, getAllPrograms));
+    assertEquals(304, response.getStatus());
+    assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  public void shouldProceedIfEntitiesChanged() {
+    String etag = getEtag(PROGRAMS_URL);
+    when(entityChangeTracker.getVersion(Program.class)).thenReturn(6L);
+
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+    assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), getAllPrograms));
+    assertNotEquals(etag, request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+  }
+
+  @Test
+  public void shouldIgnoreAccessTokenButNotOtherParameters() {
+    MockHttpServletRequest first = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    first.addParameter("access_token", UUID.randomUUID().toString());
+    first.addParameter("name", "a");
+    MockHttpServletRequest second = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    second.addParameter("access_token", UUID.randomUUID().toString());
+    second.addParameter("name", "a");
+    MockHttpServletRequest third = new MockHttpServletRequest(GET, PROGRAMS_URL);
+    third.addParameter("name", "b");
+
+    interceptor.preHandle(first, new MockHttpServletResponse(), getAllPrograms);
+    interceptor.preHandle(second, new MockHttpServletResponse(), getAllPrograms);
+    interceptor.preHandle(third, new MockHttpServletResponse(), getAllPrograms);
+
+    assertEquals(first.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE),
+        second.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+    assertNotEquals(first.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE),
+        third.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+  }
+
+  @Test
+  public void shouldUseGlobalVersionAndDefaultCacheControlForUnannotatedHandlers()
+      throws NoSuchMethodException {
+    HandlerMethod handler = new HandlerMethod(new FacilityController(),
+        FacilityController.class.getMethod("getSupplyingDepots", UUID.class, UUID.class));
+    when(entityChangeTracker.getVersion()).thenReturn(7L);
+    MockHttpServletRequest request = new MockHttpServletRequest(GET,
+        "/api/facilities/supplying");
+
+    assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler));
+    assertNotNull(request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+    assertEquals(DEFAULT_CACHE_CONTROL,
+        request.getAttribute(ConditionalGetInterceptor.CACHE_CONTROL_ATTRIBUTE));
+  }
+
+  @Test
+  public void shouldSkipDisabledHandlersAndOtherMethods() throws NoSuchMethodException {
+    HandlerMethod statistics = new HandlerMethod(new CacheRegionController(),
+        CacheRegionController.class.getMethod("getCacheRegions"));
+    MockHttpServletRequest get = new MockHttpServletRequest(GET, "/api/cacheRegions");
+    MockHttpServletRequest post = new MockHttpServletRequest("POST", PROGRAMS_URL);
+
+    assertTrue(interceptor.preHandle(get, new MockHttpServletResponse(), statistics));
+    assertTrue(interceptor.preHandle(post, new MockHttpServletResponse(), getAllPrograms));
+    assertNull(get.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+    assertNull(post.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE));
+  }
+
+  private String getEtag(String url) {
+    MockHttpServletRequest request = new MockHttpServletRequest(GET, url);
+    interceptor.preHandle(request, new MockHttpServletResponse(), getAllPrograms);
+    return (String) request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+  }
+}
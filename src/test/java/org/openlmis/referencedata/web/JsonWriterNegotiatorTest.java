@@ -0,0 +1,63 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import org.junit.Test;
+import org.openlmis.referencedata.web.JsonWriterNegotiator.NegotiatedWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class JsonWriterNegotiatorTest {
+
+  private static final Object VALUE = Collections.singletonMap("code", "P1");
+
+  private final JsonWriterNegotiator negotiator =
+      new JsonWriterNegotiator(new ObjectMapper(), new Jackson2ObjectMapperBuilder());
+
+  @Test
+  public void shouldWriteCompactJsonByDefault() throws IOException {
+    NegotiatedWriter negotiated = negotiator.negotiate(new MockHttpServletRequest());
+
+    assertEquals(MediaType.APPLICATION_JSON_UTF8, negotiated.getMediaType());
+    assertEquals("{\"code\":\"P1\"}", negotiated.getWriter().writeValueAsString(VALUE));
+  }
+
+  @Test
+  public void shouldIndentJsonIfRequested() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addParameter(PrettyPrintingJsonHttpMessageConverter.PRETTY_PARAMETER, "");
+
+    NegotiatedWriter negotiated = negotiator.negotiate(request);
+
+    assertEquals("{\n  \"code\" : \"P1\"\n}", negotiated.getWriter().writeValueAsString(VALUE));
+  }
+
+  @Test
+  public void shouldWriteBinaryFormatPreferredByClient() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor");
+
+    NegotiatedWriter negotiated = negotiator.negotiate(request);
+
+    assertEquals(BinaryJsonHttpMessageConverter.CBOR, negotiated.getMediaType());
+    assertEquals(VALUE, new ObjectMapper(new CBORFactory())
+        .readValue(negotiated.getWriter().writeValueAsBytes(VALUE), Object.class));
+  }
+
+  @Test
+  public void shouldRejectRequestNotAcceptingAnyFormat() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(HttpHeaders.ACCEPT, "text/csv");
+
+    assertNull(negotiator.negotiate(request));
+  }
+}
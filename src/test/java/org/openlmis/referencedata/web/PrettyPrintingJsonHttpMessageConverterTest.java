@@ -0,0 +1,72 @@
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class PrettyPrintingJsonHttpMessageConverterTest {
+
+  private final PrettyPrintingJsonHttpMessageConverter converter =
+      new PrettyPrintingJsonHttpMessageConverter(new ObjectMapper());
+
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void shouldWriteCompactJsonByDefault() throws IOException {
+    setRequest(new MockHttpServletRequest());
+
+    assertEquals("{\"code\":\"P1\"}", write());
+  }
+
+  @Test
+  public void shouldIndentJsonIfRequested() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addParameter(PrettyPrintingJsonHttpMessageConverter.PRETTY_PARAMETER, "");
+    setRequest(request);
+
+    assertEquals("{\n  \"code\" : \"P1\"\n}", write());
+  }
+
+  @Test
+  public void shouldWriteCompactJsonOutsideOfRequest() throws IOException {
+    assertEquals("{\"code\":\"P1\"}", write());
+  }
+
+  @Test
+  public void shouldRecognizeParameterAndHeader() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    assertFalse(PrettyPrintingJsonHttpMessageConverter.isPrettyPrintRequested(request));
+
+    request.addParameter(PrettyPrintingJsonHttpMessageConverter.PRETTY_PARAMETER, "false");
+    assertFalse(PrettyPrintingJsonHttpMessageConverter.isPrettyPrintRequested(request));
+
+    request.addHeader(PrettyPrintingJsonHttpMessageConverter.PRETTY_HEADER, "true");
+    assertTrue(PrettyPrintingJsonHttpMessageConverter.isPrettyPrintRequested(request));
+  }
+
+  private void setRequest(MockHttpServletRequest request) {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  private String write() throws IOException {
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(Collections.singletonMap("code", "P1"), MediaType.APPLICATION_JSON, output);
+    return output.getBodyAsString();
+  }
+}
@@ -16,6 +16,7 @@ import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.domain.RightType;
 import org.openlmis.referencedata.dto.RightDto;
 import org.openlmis.referencedata.repository.RightRepository;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -27,6 +28,9 @@ public class RightControllerTest {
   @Mock
   private RightRepository repository;
 
+  @Mock
+  private UserPermissionService permissionService;
+
   private RightController controller;
 
   private String right1Name;
@@ -40,7 +44,7 @@ public class RightControllerTest {
    */
   public RightControllerTest() {
     initMocks(this);
-    controller = new RightController(repository);
+    controller = new RightController(repository, permissionService);
 
     right1Name = "right1";
     right1 = Right.newRight(right1Name, RightType.GENERAL_ADMIN);
@@ -121,6 +125,7 @@ public class RightControllerTest {
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     verify(repository).save(updatedRight1);
+    verify(permissionService).invalidateAll();
   }
 
   @Test
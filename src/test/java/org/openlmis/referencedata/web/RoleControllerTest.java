@@ -22,6 +22,7 @@ import org.openlmis.referencedata.exception.RoleException;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.RoleRepository;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -40,6 +41,9 @@ public class RoleControllerTest {
   @Mock
   private ExposedMessageSource messageSource;
 
+  @Mock
+  private UserPermissionService permissionService;
+
   private RoleController controller;
 
   private String right1Name;
@@ -59,7 +63,8 @@ public class RoleControllerTest {
    */
   public RoleControllerTest() throws RightTypeException, RoleException {
     initMocks(this);
-    controller = new RoleController(repository, rightRepository, messageSource);
+    controller = new RoleController(repository, rightRepository, messageSource,
+        permissionService);
 
     right1Name = "right1";
     right1 = Right.newRight(right1Name, RightType.GENERAL_ADMIN);
@@ -171,6 +176,7 @@ public class RoleControllerTest {
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     verify(repository).save(updatedRole1);
+    verify(permissionService).invalidateRole(roleId);
   }
 
   @Test
@@ -258,6 +264,7 @@ public class RoleControllerTest {
     //then
     assertThat(httpStatus, is(HttpStatus.NO_CONTENT));
     verify(repository).delete(roleId);
+    verify(permissionService).invalidateAll();
   }
 
   @Test
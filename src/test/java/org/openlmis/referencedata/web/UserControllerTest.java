@@ -1,5 +1,6 @@
 package org.openlmis.referencedata.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -9,7 +10,6 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.FulfillmentRoleAssignment;
 import org.openlmis.referencedata.domain.Program;
-import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.domain.RightType;
 import org.openlmis.referencedata.domain.Role;
@@ -25,21 +25,36 @@ import org.openlmis.referencedata.exception.RoleException;
 import org.openlmis.referencedata.i18n.ExposedMessageSource;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.RoleRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.UserRepository;
+import org.openlmis.referencedata.service.ExportService;
+import org.openlmis.referencedata.service.PermissionChangeNotifier;
+import org.openlmis.referencedata.service.SecondLevelCacheService;
+import org.openlmis.referencedata.service.UserPermissionService;
 import org.openlmis.referencedata.service.UserService;
+import org.openlmis.referencedata.util.RightCheckRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.provider.OAuth2Authentication;
-import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.EntityManager;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -47,6 +62,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -54,7 +70,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 @SuppressWarnings({"PMD.TooManyMethods"})
 public class UserControllerTest {
 
-  private static final String ACCESS_TOKEN = "49c1e712-da50-4428-ae39-2d0409bd8059";
+  private static final String USERNAME = "username";
   
   @Mock
   private UserService service;
@@ -77,9 +93,6 @@ public class UserControllerTest {
   @Mock
   private ExposedMessageSource messageSource;
 
-  @Mock
-  private RightRepository rightRepository;
-
   private UserController controller;
 
   private String homeFacilityCode;
@@ -90,7 +103,7 @@ public class UserControllerTest {
   private String user2UserName;
   private User user2;
   private UserDto user2Dto;
-  private Set<User> users;
+  private List<User> users;
   private UUID userId;
   private UUID roleId;
   private Role adminRole1;
@@ -112,8 +125,13 @@ public class UserControllerTest {
    */
   public UserControllerTest() throws RightTypeException, RoleException {
     initMocks(this);
-    controller = new UserController(service, repository, roleRepository, rightRepository,
-        programRepository, supervisoryNodeRepository, facilityRepository, messageSource);
+    controller = new UserController(service, repository, new UserPermissionService(repository,
+        mock(PermissionChangeNotifier.class), mock(SecondLevelCacheService.class), 60,
+        Clock.systemUTC()),
+        roleRepository, programRepository, supervisoryNodeRepository, facilityRepository,
+        messageSource,
+        new ExportService(mock(EntityManager.class), mock(PlatformTransactionManager.class),
+            new ObjectMapper(), 100));
 
     homeFacilityCode = "homeFacilityCode";
     homeFacility = new Facility("C1");
@@ -125,7 +143,7 @@ public class UserControllerTest {
     user2 = new UserBuilder(user2UserName, "User", "2", "user2@openlmis.org")
         .setHomeFacility(homeFacility)
         .createUser();
-    users = Sets.newHashSet(user1, user2);
+    users = Arrays.asList(user1, user2);
 
     user1Dto = new UserDto();
     user1.export(user1Dto);
@@ -166,19 +184,86 @@ public class UserControllerTest {
   @Test
   public void shouldGetAllUsers() {
     //given
-    Set<UserDto> expectedUserDtos = Sets.newHashSet(user1Dto, user2Dto);
-    when(repository.findAll()).thenReturn(users);
+    List<UserDto> expectedUserDtos = Arrays.asList(user1Dto, user2Dto);
+    when(repository.findAll(new Sort(USERNAME))).thenReturn(users);
 
     //when
-    ResponseEntity responseEntity = controller.getAllUsers();
+    ResponseEntity responseEntity = controller.getAllUsers(null, null, USERNAME);
     HttpStatus httpStatus = responseEntity.getStatusCode();
-    Set<UserDto> userDtos = (Set<UserDto>) responseEntity.getBody();
+    List<UserDto> userDtos = (List<UserDto>) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(expectedUserDtos, userDtos);
   }
 
+  @Test
+  public void shouldGetPageOfUsersSortedByUsernameAsTieBreaker() {
+    //given
+    PageRequest pageRequest = new PageRequest(1, 2,
+        new Sort(Sort.Direction.DESC, "lastName").and(new Sort(USERNAME)));
+    when(repository.findAll(pageRequest)).thenReturn(new PageImpl<>(users, pageRequest, 4));
+
+    //when
+    ResponseEntity responseEntity = controller.getAllUsers(1, 2, "lastName,desc");
+    HttpStatus httpStatus = responseEntity.getStatusCode();
+    Page<UserDto> userDtos = (Page<UserDto>) responseEntity.getBody();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.OK));
+    assertEquals(Arrays.asList(user1Dto, user2Dto), userDtos.getContent());
+    assertEquals(4, userDtos.getTotalElements());
+  }
+
+  @Test
+  public void shouldNotGetUsersSortedByUnknownProperty() {
+    //when
+    HttpStatus httpStatus = controller.getAllUsers(null, null, "password").getStatusCode();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.BAD_REQUEST));
+  }
+
+  @Test
+  public void shouldLimitUserSearchWithoutPage() {
+    //when
+    HttpStatus httpStatus = controller.searchUsers(USERNAME, null, null, null, null, null,
+        "exact", null, null).getStatusCode();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.OK));
+    verify(service).searchUsers(USERNAME, null, null, null, null, null, false,
+        new PageRequest(0, 200));
+  }
+
+  @Test
+  public void shouldNotGetTooLargePageOfUsers() {
+    //when
+    HttpStatus httpStatus = controller.getAllUsers(0, 100000, USERNAME).getStatusCode();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.BAD_REQUEST));
+  }
+
+  @Test
+  public void shouldStreamUsersAsNewlineDelimitedJson() throws IOException {
+    //given
+    when(repository.findUsers(new PageRequest(0, 100, new Sort(USERNAME))))
+        .thenReturn(users);
+
+    //when
+    ResponseEntity responseEntity = controller.streamAllUsers(USERNAME);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingResponseBody) responseEntity.getBody()).writeTo(outputStream);
+    String[] lines = outputStream.toString("UTF-8").split("\n");
+
+    //then
+    assertThat(responseEntity.getStatusCode(), is(HttpStatus.OK));
+    assertThat(lines.length, is(2));
+    assertTrue(lines[0].contains("\"username\":\"user1\""));
+    assertTrue(lines[1].contains("\"username\":\"user2\""));
+  }
+
   @Test
   public void shouldGetUser() {
     //given
@@ -237,17 +322,13 @@ public class UserControllerTest {
     when(repository.findOne(userId)).thenReturn(null);
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    HttpStatus httpStatus = controller.saveUser(user1Dto, result, auth).getStatusCode();
+    HttpStatus httpStatus = controller.saveUser(user1Dto, result).getStatusCode();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -257,17 +338,13 @@ public class UserControllerTest {
 
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    HttpStatus httpStatus = controller.saveUser(user1Dto, result, auth).getStatusCode();
+    HttpStatus httpStatus = controller.saveUser(user1Dto, result).getStatusCode();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -278,13 +355,9 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(new RoleAssignmentDto()));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn("49c1e712-da50-4428-ae39-2d0409bd8059");
 
     //when
-    HttpStatus httpStatus = controller.saveUser(user1Dto, result, auth).getStatusCode();
+    HttpStatus httpStatus = controller.saveUser(user1Dto, result).getStatusCode();
 
     //then
     assertThat(httpStatus, is(HttpStatus.BAD_REQUEST));
@@ -302,20 +375,16 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(roleAssignmentDto));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -332,21 +401,17 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(roleAssignmentDto));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -365,20 +430,16 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(roleAssignmentDto));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -396,20 +457,16 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(roleAssignmentDto));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -426,20 +483,16 @@ public class UserControllerTest {
     user1Dto.setRoleAssignments(Sets.newHashSet(roleAssignmentDto));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -451,20 +504,16 @@ public class UserControllerTest {
     user1.assignRoles(new SupervisionRoleAssignment(supervisionRole1, program1));
     BindingResult result = mock(BindingResult.class);
     when(result.hasErrors()).thenReturn(false);
-    OAuth2Authentication auth = mock(OAuth2Authentication.class);
-    OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
-    when(auth.getDetails()).thenReturn(details);
-    when(details.getTokenValue()).thenReturn(ACCESS_TOKEN);
 
     //when
-    ResponseEntity responseEntity = controller.saveUser(user1Dto, result, auth);
+    ResponseEntity responseEntity = controller.saveUser(user1Dto, result);
     HttpStatus httpStatus = responseEntity.getStatusCode();
     UserDto savedUserDto = (UserDto) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));
     assertEquals(user1Dto, savedUserDto);
-    verify(service).save(user1, ACCESS_TOKEN);
+    verify(service).save(user1);
   }
 
   @Test
@@ -511,9 +560,6 @@ public class UserControllerTest {
     //given
     user1.assignRoles(new SupervisionRoleAssignment(supervisionRole1, program1, supervisoryNode1));
     when(repository.findOne(userId)).thenReturn(user1);
-    when(rightRepository.findFirstByName(supervisionRight1Name)).thenReturn(supervisionRight1);
-    when(programRepository.findByCode(Code.code(programCode))).thenReturn(program1);
-    when(supervisoryNodeRepository.findByCode(supervisoryNodeCode)).thenReturn(supervisoryNode1);
 
     //when
     ResponseEntity responseEntity = controller.checkIfUserHasRight(userId, supervisionRight1Name,
@@ -531,8 +577,6 @@ public class UserControllerTest {
     //given
     user1.assignRoles(new SupervisionRoleAssignment(supervisionRole1, program1, supervisoryNode1));
     when(repository.findOne(userId)).thenReturn(user1);
-    when(rightRepository.findFirstByName(fulfillmentRight1Name)).thenReturn(fulfillmentRight1);
-    when(facilityRepository.findFirstByCode(warehouseCode)).thenReturn(warehouse1);
 
     //when
     ResponseEntity responseEntity = controller.checkIfUserHasRight(userId, fulfillmentRight1Name,
@@ -545,6 +589,42 @@ public class UserControllerTest {
     assertFalse(hasRight);
   }
 
+  @Test
+  public void shouldCheckManyRightsInOneCall() throws RightTypeException {
+    //given
+    user1.assignRoles(new SupervisionRoleAssignment(supervisionRole1, program1, supervisoryNode1));
+    when(repository.findOne(userId)).thenReturn(user1);
+    List<RightCheckRequest> rightChecks = Arrays.asList(
+        new RightCheckRequest(userId, supervisionRight1Name, programCode, supervisoryNodeCode,
+            null),
+        new RightCheckRequest(userId, fulfillmentRight1Name, null, null, warehouseCode),
+        new RightCheckRequest(UUID.randomUUID(), supervisionRight1Name, programCode,
+            supervisoryNodeCode, null));
+
+    //when
+    ResponseEntity responseEntity = controller.checkIfUsersHaveRights(rightChecks);
+    HttpStatus httpStatus = responseEntity.getStatusCode();
+    List<Boolean> results = (List<Boolean>) responseEntity.getBody();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.OK));
+    assertEquals(Arrays.asList(true, false, false), results);
+    verify(repository, times(1)).findOne(userId);
+  }
+
+  @Test
+  public void shouldRejectRightChecksWithoutRightName() {
+    //given
+    List<RightCheckRequest> rightChecks = Collections.singletonList(
+        new RightCheckRequest(userId, null, programCode, supervisoryNodeCode, null));
+
+    //when
+    HttpStatus httpStatus = controller.checkIfUsersHaveRights(rightChecks).getStatusCode();
+
+    //then
+    assertThat(httpStatus, is(HttpStatus.BAD_REQUEST));
+  }
+
   @Test
   public void shouldNotGetUserProgramsForNonExistingUser() {
     //given
@@ -604,20 +684,16 @@ public class UserControllerTest {
   }
 
   @Test
-  public void shouldGetUserSupervisedFacilities() throws RightTypeException {
+  public void shouldGetUserSupervisedFacilities() {
     //given
-    RequisitionGroup supervisionGroup1 = new RequisitionGroup(
-        "supervisionGroup1", "supervisionGroupName1", supervisoryNode1
-    );
-    supervisionGroup1.setMemberFacilities(Arrays.asList(new Facility("C1"), new Facility("C2")));
-    supervisoryNode1.setRequisitionGroup(supervisionGroup1);
-    user1.assignRoles(new SupervisionRoleAssignment(supervisionRole1, program1, supervisoryNode1));
     when(repository.findOne(userId)).thenReturn(user1);
+    when(supervisoryNodeRepository.findUserSupervisedFacilities(userId))
+        .thenReturn(Arrays.asList(new Facility("C1"), new Facility("C2")));
 
     //when
     ResponseEntity responseEntity = controller.getUserSupervisedFacilities(userId);
     HttpStatus httpStatus = responseEntity.getStatusCode();
-    Set<Facility> supervisedFacilities = (Set<Facility>) responseEntity.getBody();
+    List<Facility> supervisedFacilities = (List<Facility>) responseEntity.getBody();
 
     //then
     assertThat(httpStatus, is(HttpStatus.OK));